@@ -0,0 +1,619 @@
+/*
+ *  Copyright (c) 2012, 2013, Credit Suisse (Anatole Tresch), Werner Keil.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package javax.money;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Columnar, growable container of monetary amounts. Each row is stored as
+ * unscaled {@code long} value, a {@link CurrencyIndex} and a scale, which is
+ * either shared by all rows, or held per row. Compared to a collection of
+ * {@link Money} instances, no objects are held per row.
+ * <p>
+ * Rows are accessed by index, by a {@link Cursor} reusing a single instance for
+ * all rows, or as {@link FastMoney} instances created on access, when iterating
+ * the array as {@link Iterable}. Bulk operations modify all rows in place and
+ * throw an {@link ArithmeticException}, if a value does not fit into a
+ * {@code long}.
+ * <p>
+ * This class is not thread-safe.
+ *
+ * @author Anatole Tresch
+ */
+public final class AmountArray implements Iterable<MonetaryAmount> {
+
+	/** The unscaled values. */
+	private long[] values;
+	/** The {@link CurrencyIndex} of each row. */
+	private short[] currencies;
+	/** The scale of each row, or null, if the scale is shared. */
+	private byte[] scales;
+	/** The shared scale, if {@link #scales} is null. */
+	private int scale;
+	/** The number of rows. */
+	private int size;
+
+	/**
+	 * Creates a new array, holding the scale per row.
+	 *
+	 * @param initialCapacity
+	 *            the initial capacity.
+	 */
+	public AmountArray(int initialCapacity) {
+		if (initialCapacity < 0) {
+			throw new IllegalArgumentException("Invalid capacity: "
+					+ initialCapacity);
+		}
+		this.values = new long[initialCapacity];
+		this.currencies = new short[initialCapacity];
+		this.scales = new byte[initialCapacity];
+	}
+
+	/**
+	 * Creates a new array, where all rows share the given scale.
+	 *
+	 * @param initialCapacity
+	 *            the initial capacity.
+	 * @param scale
+	 *            the scale, between 0 and {@link FastMoney#MAX_SCALE}.
+	 */
+	public AmountArray(int initialCapacity, int scale) {
+		if (initialCapacity < 0) {
+			throw new IllegalArgumentException("Invalid capacity: "
+					+ initialCapacity);
+		}
+		checkScale(scale);
+		this.values = new long[initialCapacity];
+		this.currencies = new short[initialCapacity];
+		this.scale = scale;
+	}
+
+	/**
+	 * Access the number of rows.
+	 *
+	 * @return the number of rows.
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Checks if the scale is shared by all rows.
+	 *
+	 * @return true, if all rows have the same scale.
+	 */
+	public boolean isScaleShared() {
+		return this.scales == null;
+	}
+
+	/**
+	 * Checks if all rows have the same currency.
+	 *
+	 * @return true, if all rows have the same currency, or the array is empty.
+	 */
+	public boolean isSingleCurrency() {
+		short[] ids = this.currencies;
+		int mismatches = 0;
+		for (int i = 1; i < this.size; i++) {
+			mismatches |= ids[i] ^ ids[0];
+		}
+		return mismatches == 0;
+	}
+
+	/**
+	 * Access the unscaled values of this array, e.g. for use with
+	 * {@link javax.money.function.AmountKernels}. The array returned is the
+	 * backing array, only the first {@link #size()} values are valid. Changes
+	 * are reflected in this array, until the array grows on
+	 * {@link #append(MonetaryAmount)}.
+	 *
+	 * @return the backing array of the unscaled values.
+	 */
+	public long[] unscaledValues() {
+		return this.values;
+	}
+
+	/**
+	 * Appends the given amount. If the scale is shared, the amount must be
+	 * exactly representable with this scale.
+	 *
+	 * @param amount
+	 *            the amount, not null.
+	 * @return this array, for chaining.
+	 * @throws ArithmeticException
+	 *             if the amount can not be represented exactly.
+	 */
+	public AmountArray append(MonetaryAmount amount) {
+		if (amount == null) {
+			throw new IllegalArgumentException("Amount required.");
+		}
+		if (amount instanceof FastMoney) {
+			FastMoney fastMoney = (FastMoney) amount;
+			return append(fastMoney.getCurrency(),
+					fastMoney.getUnscaledValue(), fastMoney.getScale());
+		}
+		BigDecimal number = amount.asType(BigDecimal.class);
+		int targetScale = this.scales == null ? this.scale : Math.min(
+				Math.max(number.scale(), 0), FastMoney.MAX_SCALE);
+		BigInteger unscaled = number.setScale(targetScale).unscaledValue();
+		if (unscaled.bitLength() > 63) {
+			throw new ArithmeticException("Overflow: " + amount);
+		}
+		return append(amount.getCurrency(), unscaled.longValue(), targetScale);
+	}
+
+	/**
+	 * Appends the given unscaled value. If the scale is shared, the value is
+	 * rescaled, which must be possible without rounding.
+	 *
+	 * @param currency
+	 *            the currency, not null.
+	 * @param unscaledValue
+	 *            the unscaled value.
+	 * @param valueScale
+	 *            the scale, between 0 and {@link FastMoney#MAX_SCALE}.
+	 * @return this array, for chaining.
+	 * @throws ArithmeticException
+	 *             if the value can not be represented exactly.
+	 */
+	public AmountArray append(CurrencyUnit currency, long unscaledValue,
+			int valueScale) {
+		checkScale(valueScale);
+		int currencyIndex = CurrencyIndex.indexOf(currency);
+		if (currencyIndex > Short.MAX_VALUE) {
+			throw new IllegalArgumentException(
+					"Currency index exceeds supported range: " + currency);
+		}
+		if (this.scales == null && valueScale != this.scale) {
+			unscaledValue = UnscaledArithmetic.rescale(unscaledValue,
+					valueScale, this.scale, RoundingMode.UNNECESSARY);
+		}
+		if (this.size == this.values.length) {
+			int capacity = Math.max(16, this.size + (this.size >> 1));
+			this.values = Arrays.copyOf(this.values, capacity);
+			this.currencies = Arrays.copyOf(this.currencies, capacity);
+			if (this.scales != null) {
+				this.scales = Arrays.copyOf(this.scales, capacity);
+			}
+		}
+		this.values[this.size] = unscaledValue;
+		this.currencies[this.size] = (short) currencyIndex;
+		if (this.scales != null) {
+			this.scales[this.size] = (byte) valueScale;
+		}
+		this.size++;
+		return this;
+	}
+
+	/**
+	 * Access the unscaled value of the given row.
+	 *
+	 * @param index
+	 *            the row.
+	 * @return the unscaled value.
+	 */
+	public long getUnscaledValue(int index) {
+		checkIndex(index);
+		return this.values[index];
+	}
+
+	/**
+	 * Access the scale of the given row.
+	 *
+	 * @param index
+	 *            the row.
+	 * @return the scale.
+	 */
+	public int getScale(int index) {
+		checkIndex(index);
+		return this.scales == null ? this.scale : this.scales[index];
+	}
+
+	/**
+	 * Access the {@link CurrencyIndex} of the given row.
+	 *
+	 * @param index
+	 *            the row.
+	 * @return the currency index.
+	 */
+	public int getCurrencyIndex(int index) {
+		checkIndex(index);
+		return this.currencies[index];
+	}
+
+	/**
+	 * Access the currency of the given row.
+	 *
+	 * @param index
+	 *            the row.
+	 * @return the currency.
+	 */
+	public CurrencyUnit getCurrency(int index) {
+		checkIndex(index);
+		return CurrencyIndex.getCurrency(this.currencies[index]);
+	}
+
+	/**
+	 * Creates an immutable {@link FastMoney} for the given row.
+	 *
+	 * @param index
+	 *            the row.
+	 * @return the amount of the row.
+	 */
+	public FastMoney get(int index) {
+		return FastMoney.ofUnscaled(getCurrency(index), this.values[index],
+				getScale(index));
+	}
+
+	/**
+	 * Adds the amounts of the given array to the rows of this array. Both
+	 * arrays must have the same size and the same currency on each row. The
+	 * scale of this array is kept, so the added values must be representable
+	 * with it.
+	 *
+	 * @param augend
+	 *            the array to be added, not null.
+	 * @return this array, for chaining.
+	 * @throws CurrencyMismatchException
+	 *             if the currencies of a row do not match.
+	 * @throws ArithmeticException
+	 *             on overflow, or if rounding would be necessary; this array
+	 *             is not modified in this case.
+	 */
+	public AmountArray add(AmountArray augend) {
+		if (augend == null) {
+			throw new IllegalArgumentException("Augend required.");
+		}
+		if (augend.size != this.size) {
+			throw new IllegalArgumentException("Size mismatch: " + this.size
+					+ " != " + augend.size);
+		}
+		// may fail, so check all rows before modifying any row
+		for (int i = 0; i < this.size; i++) {
+			if (this.currencies[i] != augend.currencies[i]) {
+				throw new CurrencyMismatchException(getCurrency(i),
+						augend.getCurrency(i));
+			}
+			sumOf(augend, i);
+		}
+		for (int i = 0; i < this.size; i++) {
+			this.values[i] = sumOf(augend, i);
+		}
+		return this;
+	}
+
+	/**
+	 * Evaluates the sum of a row of this array and the same row of the given
+	 * array, in the scale of this array.
+	 */
+	private long sumOf(AmountArray augend, int index) {
+		long other = augend.values[index];
+		int targetScale = getScale(index);
+		int otherScale = augend.getScale(index);
+		if (otherScale != targetScale) {
+			other = UnscaledArithmetic.rescale(other, otherScale, targetScale,
+					RoundingMode.UNNECESSARY);
+		}
+		return UnscaledArithmetic.addExact(this.values[index], other);
+	}
+
+	/**
+	 * Negates all rows.
+	 *
+	 * @return this array, for chaining.
+	 * @throws ArithmeticException
+	 *             if a row contains {@link Long#MIN_VALUE}; this array is not
+	 *             modified in this case.
+	 */
+	public AmountArray negate() {
+		long[] vals = this.values;
+		for (int i = 0; i < this.size; i++) {
+			if (vals[i] == Long.MIN_VALUE) {
+				throw new ArithmeticException("long overflow");
+			}
+		}
+		for (int i = 0; i < this.size; i++) {
+			vals[i] = -vals[i];
+		}
+		return this;
+	}
+
+	/**
+	 * Multiplies all rows by the given factor.
+	 *
+	 * @param multiplicand
+	 *            the factor.
+	 * @return this array, for chaining.
+	 * @throws ArithmeticException
+	 *             on overflow; this array is not modified in this case.
+	 */
+	public AmountArray multiply(long multiplicand) {
+		long[] vals = this.values;
+		for (int i = 0; i < this.size; i++) {
+			if (UnscaledArithmetic.multiplyOverflows(vals[i], multiplicand)) {
+				throw new ArithmeticException("long overflow");
+			}
+		}
+		for (int i = 0; i < this.size; i++) {
+			vals[i] *= multiplicand;
+		}
+		return this;
+	}
+
+	/**
+	 * Changes the scale of all rows, hereby rounding values if required. After
+	 * this call the scale is shared.
+	 *
+	 * @param newScale
+	 *            the new scale, between 0 and {@link FastMoney#MAX_SCALE}.
+	 * @param roundingMode
+	 *            the rounding mode, not null.
+	 * @return this array, for chaining.
+	 * @throws ArithmeticException
+	 *             on overflow, or if rounding is necessary, but the rounding
+	 *             mode is {@link RoundingMode#UNNECESSARY}; this array is not
+	 *             modified in this case.
+	 */
+	public AmountArray setScale(int newScale, RoundingMode roundingMode) {
+		checkScale(newScale);
+		if (roundingMode == null) {
+			throw new IllegalArgumentException("RoundingMode required.");
+		}
+		// may fail, so check all rows before modifying any row
+		for (int i = 0; i < this.size; i++) {
+			UnscaledArithmetic.rescale(this.values[i], getScale(i), newScale,
+					roundingMode);
+		}
+		for (int i = 0; i < this.size; i++) {
+			this.values[i] = UnscaledArithmetic.rescale(this.values[i],
+					getScale(i), newScale, roundingMode);
+		}
+		this.scales = null;
+		this.scale = newScale;
+		return this;
+	}
+
+	/**
+	 * Compares the values of two rows numerically, ignoring their currencies.
+	 *
+	 * @param index1
+	 *            the first row.
+	 * @param index2
+	 *            the second row.
+	 * @return a negative value, zero or a positive value, if the first row is
+	 *         less than, equal or greater than the second row.
+	 */
+	public int compare(int index1, int index2) {
+		checkIndex(index1);
+		checkIndex(index2);
+		long value1 = this.values[index1];
+		long value2 = this.values[index2];
+		int scale1 = getScale(index1);
+		int scale2 = getScale(index2);
+		if (scale1 == scale2) {
+			return Long.compare(value1, value2);
+		}
+		try {
+			if (scale1 < scale2) {
+				return Long.compare(UnscaledArithmetic.multiplyExact(value1,
+						UnscaledArithmetic.POWERS_OF_TEN[scale2 - scale1]),
+						value2);
+			}
+			return Long.compare(value1, UnscaledArithmetic.multiplyExact(
+					value2, UnscaledArithmetic.POWERS_OF_TEN[scale1 - scale2]));
+		} catch (ArithmeticException e) {
+			return BigDecimal.valueOf(value1, scale1).compareTo(
+					BigDecimal.valueOf(value2, scale2));
+		}
+	}
+
+	/**
+	 * Evaluates the row with the smallest value. All rows must have the same
+	 * currency.
+	 *
+	 * @return the row with the smallest value, the first one if several rows
+	 *         have the same value.
+	 * @throws IllegalStateException
+	 *             if the array is empty.
+	 * @throws CurrencyMismatchException
+	 *             if the rows have different currencies.
+	 */
+	public int indexOfMin() {
+		return indexOfExtreme(-1);
+	}
+
+	/**
+	 * Evaluates the row with the largest value. All rows must have the same
+	 * currency.
+	 *
+	 * @return the row with the largest value, the first one if several rows
+	 *         have the same value.
+	 * @throws IllegalStateException
+	 *             if the array is empty.
+	 * @throws CurrencyMismatchException
+	 *             if the rows have different currencies.
+	 */
+	public int indexOfMax() {
+		return indexOfExtreme(1);
+	}
+
+	private int indexOfExtreme(int direction) {
+		if (this.size == 0) {
+			throw new IllegalStateException("Array is empty.");
+		}
+		int result = 0;
+		for (int i = 1; i < this.size; i++) {
+			if (this.currencies[i] != this.currencies[0]) {
+				throw new CurrencyMismatchException(getCurrency(0),
+						getCurrency(i));
+			}
+			if (compare(i, result) * direction > 0) {
+				result = i;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Creates a new {@link Cursor} positioned before the first row.
+	 *
+	 * @return a new cursor.
+	 */
+	public Cursor cursor() {
+		return new Cursor();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Iterable#iterator()
+	 */
+	@Override
+	public Iterator<MonetaryAmount> iterator() {
+		return new Iterator<MonetaryAmount>() {
+			private int index;
+
+			@Override
+			public boolean hasNext() {
+				return index < size;
+			}
+
+			@Override
+			public MonetaryAmount next() {
+				if (index >= size) {
+					throw new NoSuchElementException();
+				}
+				return get(index++);
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "AmountArray [size=" + size + ", scale="
+				+ (scales == null ? String.valueOf(scale) : "per row") + "]";
+	}
+
+	/**
+	 * Flyweight view on the rows of an {@link AmountArray}. A single instance
+	 * is moved over the rows, so no objects are created per row.
+	 */
+	public final class Cursor {
+
+		/** The current row. */
+		private int index = -1;
+
+		private Cursor() {
+		}
+
+		/**
+		 * Moves to the next row.
+		 *
+		 * @return true, if the cursor is positioned on a row.
+		 */
+		public boolean next() {
+			if (index < size) {
+				index++;
+			}
+			return index < size;
+		}
+
+		/**
+		 * Access the current row index.
+		 *
+		 * @return the current row index.
+		 */
+		public int getIndex() {
+			return index;
+		}
+
+		/**
+		 * Access the unscaled value of the current row.
+		 *
+		 * @return the unscaled value.
+		 */
+		public long getUnscaledValue() {
+			return AmountArray.this.getUnscaledValue(index);
+		}
+
+		/**
+		 * Access the scale of the current row.
+		 *
+		 * @return the scale.
+		 */
+		public int getScale() {
+			return AmountArray.this.getScale(index);
+		}
+
+		/**
+		 * Access the {@link CurrencyIndex} of the current row.
+		 *
+		 * @return the currency index.
+		 */
+		public int getCurrencyIndex() {
+			return AmountArray.this.getCurrencyIndex(index);
+		}
+
+		/**
+		 * Access the currency of the current row.
+		 *
+		 * @return the currency.
+		 */
+		public CurrencyUnit getCurrency() {
+			return AmountArray.this.getCurrency(index);
+		}
+
+		/**
+		 * Creates an immutable amount for the current row.
+		 *
+		 * @return the amount of the current row.
+		 */
+		public FastMoney toAmount() {
+			return get(index);
+		}
+	}
+
+	// Internal helper methods
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= this.size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", size: "
+					+ this.size);
+		}
+	}
+
+	private static void checkScale(int scale) {
+		if (scale < 0 || scale > FastMoney.MAX_SCALE) {
+			throw new IllegalArgumentException("Invalid scale: " + scale);
+		}
+	}
+
+}
@@ -0,0 +1,541 @@
+/*
+ *  Copyright (c) 2012, 2013, Credit Suisse (Anatole Tresch), Werner Keil.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package javax.money;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Fixed size store of monetary amounts, backed by a {@link ByteBuffer}, e.g. a
+ * direct buffer or a {@link java.nio.MappedByteBuffer} mapped from a file.
+ * Each slot is a record of {@link #RECORD_SIZE} bytes, with the following
+ * stable layout in big endian byte order:
+ * <ul>
+ * <li>bytes 0-7: the unscaled value as {@code long},</li>
+ * <li>byte 8: the scale, between 0 and {@link FastMoney#MAX_SCALE},</li>
+ * <li>bytes 9-11: the ISO 4217 currency code as ASCII characters, all zero
+ * for slots not set,</li>
+ * <li>bytes 12-15: reserved, zero.</li>
+ * </ul>
+ * Since the layout does not depend on VM specific state, a buffer can be
+ * persisted, or shared by several processes. Only currencies of the
+ * {@link MoneyCurrency#ISO_NAMESPACE} namespace can be stored.
+ * <p>
+ * Slots are read as {@link FastMoney} instances, or accessed by
+ * {@link #view(int)} as {@link MonetaryAmount}, that reads the slot on each
+ * access. Concurrent reads are safe, concurrent writes must be synchronized
+ * externally.
+ *
+ * @author Anatole Tresch
+ */
+public final class AmountBuffer {
+
+	/** The size of a record in bytes. */
+	public static final int RECORD_SIZE = 16;
+
+	private static final int SCALE_OFFSET = 8;
+	private static final int CURRENCY_OFFSET = 9;
+
+
+	/** The underlying buffer, starting with the first record. */
+	private final ByteBuffer buffer;
+	/** The number of slots. */
+	private final int capacity;
+
+	/**
+	 * Creates a new store on the given buffer.
+	 *
+	 * @param buffer
+	 *            the buffer, positioned on the first record.
+	 */
+	private AmountBuffer(ByteBuffer buffer) {
+		this.buffer = buffer.slice().order(ByteOrder.BIG_ENDIAN);
+		this.capacity = this.buffer.capacity() / RECORD_SIZE;
+	}
+
+	/**
+	 * Creates a new store in a newly allocated direct buffer.
+	 *
+	 * @param capacity
+	 *            the number of slots.
+	 * @return the new store.
+	 */
+	public static AmountBuffer allocateDirect(int capacity) {
+		if (capacity < 0 || capacity > Integer.MAX_VALUE / RECORD_SIZE) {
+			throw new IllegalArgumentException("Invalid capacity: " + capacity);
+		}
+		return new AmountBuffer(ByteBuffer.allocateDirect(capacity
+				* RECORD_SIZE));
+	}
+
+	/**
+	 * Creates a new store on the remaining bytes of the given buffer, e.g. a
+	 * buffer mapped from a file. Changes to the store are visible in the
+	 * buffer and vice versa.
+	 *
+	 * @param buffer
+	 *            the buffer, not null.
+	 * @return the new store.
+	 */
+	public static AmountBuffer wrap(ByteBuffer buffer) {
+		if (buffer == null) {
+			throw new IllegalArgumentException("Buffer required.");
+		}
+		return new AmountBuffer(buffer);
+	}
+
+	/**
+	 * Access the number of slots.
+	 *
+	 * @return the number of slots.
+	 */
+	public int capacity() {
+		return this.capacity;
+	}
+
+	/**
+	 * Checks if this store is read-only.
+	 *
+	 * @return true, if slots can not be written.
+	 */
+	public boolean isReadOnly() {
+		return this.buffer.isReadOnly();
+	}
+
+	/**
+	 * Creates a read-only store sharing the records of this store.
+	 *
+	 * @return a read-only store.
+	 */
+	public AmountBuffer asReadOnly() {
+		return new AmountBuffer(this.buffer.asReadOnlyBuffer());
+	}
+
+	/**
+	 * Writes the given amount into a slot.
+	 *
+	 * @param slot
+	 *            the slot.
+	 * @param amount
+	 *            the amount, not null.
+	 * @throws ArithmeticException
+	 *             if the amount can not be represented with an unscaled
+	 *             {@code long} and a scale up to {@link FastMoney#MAX_SCALE}.
+	 */
+	public void set(int slot, MonetaryAmount amount) {
+		if (amount == null) {
+			throw new IllegalArgumentException("Amount required.");
+		}
+		if (amount instanceof FastMoney) {
+			FastMoney fastMoney = (FastMoney) amount;
+			set(slot, fastMoney.getCurrency(), fastMoney.getUnscaledValue(),
+					fastMoney.getScale());
+			return;
+		}
+		BigDecimal number = amount.asType(BigDecimal.class);
+		if (number.scale() < 0) {
+			number = number.setScale(0);
+		}
+		BigInteger unscaled = number.unscaledValue();
+		if (number.scale() > FastMoney.MAX_SCALE || unscaled.bitLength() > 63) {
+			throw new ArithmeticException("Amount can not be stored: " + amount);
+		}
+		set(slot, amount.getCurrency(), unscaled.longValue(), number.scale());
+	}
+
+	/**
+	 * Writes the given unscaled value into a slot.
+	 *
+	 * @param slot
+	 *            the slot.
+	 * @param currency
+	 *            the currency, not null, of the ISO 4217 namespace.
+	 * @param unscaledValue
+	 *            the unscaled value.
+	 * @param scale
+	 *            the scale, between 0 and {@link FastMoney#MAX_SCALE}.
+	 */
+	public void set(int slot, CurrencyUnit currency, long unscaledValue,
+			int scale) {
+		int offset = offset(slot);
+		if (currency == null) {
+			throw new IllegalArgumentException("Currency required.");
+		}
+		if (scale < 0 || scale > FastMoney.MAX_SCALE) {
+			throw new IllegalArgumentException("Invalid scale: " + scale);
+		}
+		String code = currency.getCurrencyCode();
+		if (!MoneyCurrency.ISO_NAMESPACE.equals(currency.getNamespace())
+				|| code.length() != 3
+				|| MoneyCurrency.isoCodeIndex(code.charAt(0), code.charAt(1),
+						code.charAt(2)) < 0) {
+			throw new IllegalArgumentException(
+					"Only ISO 4217 currencies can be stored: " + currency);
+		}
+		this.buffer.putLong(offset, unscaledValue);
+		this.buffer.put(offset + SCALE_OFFSET, (byte) scale);
+		this.buffer.put(offset + CURRENCY_OFFSET, (byte) code.charAt(0));
+		this.buffer.put(offset + CURRENCY_OFFSET + 1, (byte) code.charAt(1));
+		this.buffer.put(offset + CURRENCY_OFFSET + 2, (byte) code.charAt(2));
+		this.buffer.putInt(offset + 12, 0);
+	}
+
+	/**
+	 * Clears a slot.
+	 *
+	 * @param slot
+	 *            the slot.
+	 */
+	public void clear(int slot) {
+		int offset = offset(slot);
+		this.buffer.putLong(offset, 0L);
+		this.buffer.putLong(offset + 8, 0L);
+	}
+
+	/**
+	 * Checks if the slot was set.
+	 *
+	 * @param slot
+	 *            the slot.
+	 * @return true, if the slot contains an amount.
+	 */
+	public boolean isSet(int slot) {
+		return this.buffer.get(offset(slot) + CURRENCY_OFFSET) != 0;
+	}
+
+	/**
+	 * Reads the unscaled value of a slot.
+	 *
+	 * @param slot
+	 *            the slot.
+	 * @return the unscaled value.
+	 */
+	public long getUnscaledValue(int slot) {
+		return this.buffer.getLong(offset(slot));
+	}
+
+	/**
+	 * Reads the scale of a slot.
+	 *
+	 * @param slot
+	 *            the slot.
+	 * @return the scale.
+	 */
+	public int getScale(int slot) {
+		return this.buffer.get(offset(slot) + SCALE_OFFSET);
+	}
+
+	/**
+	 * Reads the currency of a slot.
+	 *
+	 * @param slot
+	 *            the slot.
+	 * @return the currency.
+	 * @throws IllegalStateException
+	 *             if the slot is not set.
+	 */
+	public CurrencyUnit getCurrency(int slot) {
+		int offset = offset(slot) + CURRENCY_OFFSET;
+		if (MoneyCurrency.isoCodeIndex(this.buffer.get(offset),
+				this.buffer.get(offset + 1), this.buffer.get(offset + 2)) < 0) {
+			throw new IllegalStateException("Slot not set: " + slot);
+		}
+		return MoneyCurrency.of(this.buffer, offset);
+	}
+
+	/**
+	 * Reads a slot as {@link FastMoney}.
+	 *
+	 * @param slot
+	 *            the slot.
+	 * @return the amount.
+	 * @throws IllegalStateException
+	 *             if the slot is not set.
+	 */
+	public FastMoney get(int slot) {
+		return FastMoney.ofUnscaled(getCurrency(slot), getUnscaledValue(slot),
+				getScale(slot));
+	}
+
+	/**
+	 * Creates a read-only {@link MonetaryAmount} view of a slot. The view
+	 * reads the slot on each access, so it reflects later changes of the slot.
+	 * Operations return new amounts, the slot is never modified by the view.
+	 *
+	 * @param slot
+	 *            the slot.
+	 * @return a view of the slot.
+	 */
+	public MonetaryAmount view(int slot) {
+		offset(slot);
+		return new SlotView(slot);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "AmountBuffer [capacity=" + capacity + ", readOnly="
+				+ isReadOnly() + "]";
+	}
+
+	private int offset(int slot) {
+		if (slot < 0 || slot >= this.capacity) {
+			throw new IndexOutOfBoundsException("Slot: " + slot
+					+ ", capacity: " + this.capacity);
+		}
+		return slot * RECORD_SIZE;
+	}
+
+	/**
+	 * Read-only view of a slot. All queries and operations are evaluated on
+	 * the current content of the slot.
+	 */
+	private final class SlotView implements MonetaryAmount {
+
+		/** The slot viewed. */
+		private final int slot;
+
+		private SlotView(int slot) {
+			this.slot = slot;
+		}
+
+		private FastMoney current() {
+			return get(slot);
+		}
+
+		@Override
+		public CurrencyUnit getCurrency() {
+			return AmountBuffer.this.getCurrency(slot);
+		}
+
+		@Override
+		public MonetaryAmount abs() {
+			return current().abs();
+		}
+
+		@Override
+		public MonetaryAmount add(MonetaryAmount augend) {
+			return current().add(augend);
+		}
+
+		@Override
+		public MonetaryAmount divide(Number divisor) {
+			return current().divide(divisor);
+		}
+
+		@Override
+		public MonetaryAmount[] divideAndRemainder(Number divisor) {
+			return current().divideAndRemainder(divisor);
+		}
+
+		@Override
+		public MonetaryAmount divideToIntegralValue(Number divisor) {
+			return current().divideToIntegralValue(divisor);
+		}
+
+		@Override
+		public MonetaryAmount multiply(Number multiplicand) {
+			return current().multiply(multiplicand);
+		}
+
+		@Override
+		public MonetaryAmount negate() {
+			return current().negate();
+		}
+
+		@Override
+		public MonetaryAmount plus() {
+			return current();
+		}
+
+		@Override
+		public MonetaryAmount subtract(MonetaryAmount subtrahend) {
+			return current().subtract(subtrahend);
+		}
+
+		@Override
+		public MonetaryAmount pow(int n) {
+			return current().pow(n);
+		}
+
+		@Override
+		public MonetaryAmount ulp() {
+			return current().ulp();
+		}
+
+		@Override
+		public MonetaryAmount remainder(Number divisor) {
+			return current().remainder(divisor);
+		}
+
+		@Override
+		public MonetaryAmount scaleByPowerOfTen(int n) {
+			return current().scaleByPowerOfTen(n);
+		}
+
+		@Override
+		public boolean isZero() {
+			return getUnscaledValue(slot) == 0L;
+		}
+
+		@Override
+		public boolean isPositive() {
+			return getUnscaledValue(slot) > 0L;
+		}
+
+		@Override
+		public boolean isPositiveOrZero() {
+			return getUnscaledValue(slot) >= 0L;
+		}
+
+		@Override
+		public boolean isNegative() {
+			return getUnscaledValue(slot) < 0L;
+		}
+
+		@Override
+		public boolean isNegativeOrZero() {
+			return getUnscaledValue(slot) <= 0L;
+		}
+
+		@Override
+		public MonetaryAmount from(Number amount) {
+			return current().from(amount);
+		}
+
+		@Override
+		public MonetaryAmount from(CurrencyUnit currency, Number amount) {
+			return current().from(currency, amount);
+		}
+
+		@Override
+		public MonetaryAmount with(MonetaryOperator operator) {
+			return current().with(operator);
+		}
+
+		@Override
+		public int getScale() {
+			return AmountBuffer.this.getScale(slot);
+		}
+
+		@Override
+		public int getPrecision() {
+			return current().getPrecision();
+		}
+
+		@Override
+		public int intValue() {
+			return current().intValue();
+		}
+
+		@Override
+		public int intValueExact() {
+			return current().intValueExact();
+		}
+
+		@Override
+		public long longValue() {
+			return current().longValue();
+		}
+
+		@Override
+		public long longValueExact() {
+			return current().longValueExact();
+		}
+
+		@Override
+		public float floatValue() {
+			return current().floatValue();
+		}
+
+		@Override
+		public double doubleValue() {
+			return current().doubleValue();
+		}
+
+		@Override
+		public byte byteValue() {
+			return current().byteValue();
+		}
+
+		@Override
+		public short shortValue() {
+			return current().shortValue();
+		}
+
+		@Override
+		public short shortValueExact() {
+			return current().shortValueExact();
+		}
+
+		@Override
+		public int signum() {
+			return Long.signum(getUnscaledValue(slot));
+		}
+
+		@Override
+		public boolean isLessThan(MonetaryAmount amount) {
+			return current().isLessThan(amount);
+		}
+
+		@Override
+		public boolean isLessThanOrEqualTo(MonetaryAmount amount) {
+			return current().isLessThanOrEqualTo(amount);
+		}
+
+		@Override
+		public boolean isGreaterThan(MonetaryAmount amount) {
+			return current().isGreaterThan(amount);
+		}
+
+		@Override
+		public boolean isGreaterThanOrEqualTo(MonetaryAmount amount) {
+			return current().isGreaterThanOrEqualTo(amount);
+		}
+
+		@Override
+		public boolean isEqualTo(MonetaryAmount amount) {
+			return current().isEqualTo(amount);
+		}
+
+		@Override
+		public boolean isNotEqualTo(MonetaryAmount amount) {
+			return current().isNotEqualTo(amount);
+		}
+
+		@Override
+		public <T> T asType(Class<T> type) {
+			return current().asType(type);
+		}
+
+		@Override
+		public Class<?> getNumberType() {
+			return BigDecimal.class;
+		}
+
+		@Override
+		public String toString() {
+			return current().toString();
+		}
+	}
+
+}
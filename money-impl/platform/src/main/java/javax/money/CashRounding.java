@@ -0,0 +1,329 @@
+/*
+ *  Copyright (c) 2012, 2013, Credit Suisse (Anatole Tresch), Werner Keil.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package javax.money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Rounds amounts to a multiple of the smallest unit used in cash payments,
+ * e.g. {@code CHF 0.05} or {@code SEK 1.00}.
+ * <p>
+ * The increment of a currency is defined by
+ * {@link CurrencyUnit#getCashRounding()}, as a number of units of its last
+ * fraction digit, e.g. {@code 5} for CHF with 2 fraction digits. Currencies
+ * without a cash rounding are rounded to their default fraction digits. The
+ * increment is held as an unscaled {@code long}, so {@link FastMoney}, compact
+ * {@link Money} instances and columns of unscaled values are rounded using
+ * {@code long} arithmetic only.
+ *
+ * @author Anatole Tresch
+ * @see MoneyRounding
+ */
+public final class CashRounding implements MonetaryOperator {
+
+	private static final MonetaryOperator DEFAULT_ROUNDING = new DefaultCashRounding();
+	/** The maximal number of currencies, for which instances are cached. */
+	private static final int CACHE_CURRENCIES = 1024;
+	/**
+	 * The shared instances of currencies, indexed by {@link CurrencyIndex},
+	 * created on first access.
+	 */
+	private static final AtomicReferenceArray<CashRounding> CACHE = new AtomicReferenceArray<CashRounding>(
+			CACHE_CURRENCIES);
+
+	/** The scale of the increment. */
+	private final int scale;
+	/** The unscaled increment, {@code > 0}. */
+	private final long increment;
+	/** The {@link RoundingMode} used. */
+	private final RoundingMode roundingMode;
+
+	/**
+	 * Private constructor, use {@link #of(CurrencyUnit)} or
+	 * {@link #of(BigDecimal, RoundingMode)}.
+	 */
+	private CashRounding(int scale, long increment, RoundingMode roundingMode) {
+		this.scale = scale;
+		this.increment = increment;
+		this.roundingMode = roundingMode;
+	}
+
+	/**
+	 * Access a rounding that looks up the {@link CashRounding} of the
+	 * {@link CurrencyUnit} of each amount rounded.
+	 *
+	 * @return the shared rounding instance.
+	 */
+	public static MonetaryOperator of() {
+		return DEFAULT_ROUNDING;
+	}
+
+	/**
+	 * Access the cash rounding of a currency, using
+	 * {@link RoundingMode#HALF_UP}.
+	 *
+	 * @param currency
+	 *            the currency, not null.
+	 * @return a shared instance.
+	 */
+	public static CashRounding of(CurrencyUnit currency) {
+		if (currency == null) {
+			throw new IllegalArgumentException("Currency required.");
+		}
+		int index = CurrencyIndex.indexOf(currency);
+		if (index >= CACHE_CURRENCIES) {
+			return create(currency);
+		}
+		CashRounding result = CACHE.get(index);
+		if (result == null) {
+			CACHE.compareAndSet(index, null, create(currency));
+			result = CACHE.get(index);
+		}
+		return result;
+	}
+
+	/**
+	 * Creates a cash rounding with the given increment, e.g. for currencies
+	 * without a cash rounding defined.
+	 *
+	 * @param increment
+	 *            the increment, e.g. {@code 0.05}, positive, with a scale of
+	 *            at most {@link FastMoney#MAX_SCALE}.
+	 * @param roundingMode
+	 *            the rounding mode, not null.
+	 * @return the new instance.
+	 */
+	public static CashRounding of(BigDecimal increment,
+			RoundingMode roundingMode) {
+		if (increment == null || increment.signum() <= 0) {
+			throw new IllegalArgumentException("Invalid increment: "
+					+ increment);
+		}
+		if (roundingMode == null) {
+			throw new IllegalArgumentException("RoundingMode required.");
+		}
+		int scale = Math.max(0, increment.scale());
+		if (scale > FastMoney.MAX_SCALE) {
+			throw new IllegalArgumentException("Invalid increment: "
+					+ increment);
+		}
+		return new CashRounding(scale, increment.setScale(scale)
+				.scaleByPowerOfTen(scale).longValueExact(), roundingMode);
+	}
+
+	private static CashRounding create(CurrencyUnit currency) {
+		int digits = Math.min(Math.max(0, currency.getDefaultFractionDigits()),
+				FastMoney.MAX_SCALE);
+		int cashRounding = currency.getCashRounding();
+		return new CashRounding(digits, cashRounding > 0 ? cashRounding : 1L,
+				RoundingMode.HALF_UP);
+	}
+
+	/**
+	 * Access the increment amounts are rounded to.
+	 *
+	 * @return the increment, e.g. {@code 0.05}.
+	 */
+	public BigDecimal getIncrement() {
+		return BigDecimal.valueOf(this.increment, this.scale);
+	}
+
+	/**
+	 * Access the scale of the increment, which is the scale of the unscaled
+	 * values returned by {@link #round(long, int)}.
+	 *
+	 * @return the scale.
+	 */
+	public int getScale() {
+		return this.scale;
+	}
+
+	/**
+	 * Access the {@link RoundingMode} used.
+	 *
+	 * @return the rounding mode, never {@code null}.
+	 */
+	public RoundingMode getRoundingMode() {
+		return this.roundingMode;
+	}
+
+	/**
+	 * Rounds an unscaled value to a multiple of the increment, e.g.
+	 * {@code 1237} with scale {@code 2} is rounded to {@code 1235} by a
+	 * rounding to {@code 0.05}.
+	 *
+	 * @param unscaled
+	 *            the unscaled value.
+	 * @param fromScale
+	 *            the scale of the value, not negative.
+	 * @return the rounded unscaled value, with the scale of the increment.
+	 * @throws ArithmeticException
+	 *             if the result does not fit into a {@code long}, or if
+	 *             rounding is necessary, but the rounding mode is
+	 *             {@link RoundingMode#UNNECESSARY}.
+	 */
+	public long round(long unscaled, int fromScale) {
+		if (fromScale < 0) {
+			throw new IllegalArgumentException("Invalid scale: " + fromScale);
+		}
+		if (fromScale >= this.scale) {
+			long divisor = divisorOf(fromScale);
+			if (divisor == 0) {
+				BigDecimal increment = getIncrement();
+				return BigDecimal.valueOf(unscaled, fromScale)
+						.divide(increment, 0, this.roundingMode)
+						.multiply(increment).scaleByPowerOfTen(this.scale)
+						.longValueExact();
+			}
+			return UnscaledArithmetic.multiplyExact(
+					UnscaledArithmetic.divideAndRound(unscaled, divisor,
+							this.roundingMode), this.increment);
+		}
+		long value = UnscaledArithmetic.rescale(unscaled, fromScale,
+				this.scale, this.roundingMode);
+		return UnscaledArithmetic.multiplyExact(
+				UnscaledArithmetic.divideAndRound(value, this.increment,
+						this.roundingMode), this.increment);
+	}
+
+	/**
+	 * Rounds unscaled values in place to multiples of the increment, e.g. a
+	 * column of an {@link AmountArray}.
+	 *
+	 * @param unscaled
+	 *            the unscaled values, not null, replaced by the values with
+	 *            the scale of the increment.
+	 * @param fromScale
+	 *            the scale of the values, not negative.
+	 * @throws ArithmeticException
+	 *             if a result does not fit into a {@code long}, or if
+	 *             rounding is necessary, but the rounding mode is
+	 *             {@link RoundingMode#UNNECESSARY}; the values are not
+	 *             modified in this case.
+	 */
+	public void round(long[] unscaled, int fromScale) {
+		if (unscaled == null) {
+			throw new IllegalArgumentException("Values required.");
+		}
+		if (fromScale < 0) {
+			throw new IllegalArgumentException("Invalid scale: " + fromScale);
+		}
+		long divisor = fromScale >= this.scale ? divisorOf(fromScale) : 0;
+		// the result of a value within the bound can not overflow
+		long bound = Long.MAX_VALUE - divisor;
+		boolean safe = divisor != 0
+				&& this.roundingMode != RoundingMode.UNNECESSARY;
+		for (int i = 0; safe && i < unscaled.length; i++) {
+			safe = unscaled[i] <= bound && unscaled[i] >= -bound;
+		}
+		if (safe) {
+			for (int i = 0; i < unscaled.length; i++) {
+				unscaled[i] = UnscaledArithmetic.divideAndRound(unscaled[i],
+						divisor, this.roundingMode) * this.increment;
+			}
+			return;
+		}
+		// may fail, so check all values before modifying any
+		for (long value : unscaled) {
+			round(value, fromScale);
+		}
+		for (int i = 0; i < unscaled.length; i++) {
+			unscaled[i] = round(unscaled[i], fromScale);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see javax.money.MonetaryFunction#apply(java.lang.Object)
+	 */
+	@Override
+	public MonetaryAmount apply(MonetaryAmount value) {
+		try {
+			if (value instanceof FastMoney) {
+				FastMoney amount = (FastMoney) value;
+				int resultScale = Math.max(amount.getScale(), this.scale);
+				long rounded = round(amount.getUnscaledValue(),
+						amount.getScale());
+				return FastMoney.ofUnscaled(amount.getCurrency(),
+						UnscaledArithmetic.rescale(rounded, this.scale,
+								resultScale, this.roundingMode), resultScale);
+			}
+			if (value instanceof Money && ((Money) value).isCompact()
+					&& value.getScale() >= 0) {
+				Money money = (Money) value;
+				Money result = money.withUnscaled(
+						round(money.getUnscaledValue(), money.getScale()),
+						this.scale);
+				if (result != null) {
+					return result;
+				}
+			}
+		} catch (ArithmeticException e) {
+			// rounded value exceeds the long range, continue with BigDecimal
+		}
+		BigDecimal increment = getIncrement();
+		return value.from(value.asType(BigDecimal.class)
+				.divide(increment, 0, this.roundingMode).multiply(increment));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "CashRounding [increment=" + getIncrement() + ", roundingMode="
+				+ this.roundingMode + "]";
+	}
+
+	/**
+	 * Evaluates the increment with the given scale.
+	 *
+	 * @return the unscaled increment, or 0, if it exceeds the {@code long}
+	 *         range.
+	 */
+	private long divisorOf(int fromScale) {
+		if (fromScale - this.scale > FastMoney.MAX_SCALE) {
+			return 0;
+		}
+		try {
+			return UnscaledArithmetic.rescale(this.increment, this.scale,
+					fromScale, this.roundingMode);
+		} catch (ArithmeticException e) {
+			return 0;
+		}
+	}
+
+	/**
+	 * Default rounding that rounds a {@link MonetaryAmount} based on its
+	 * {@link CurrencyUnit}.
+	 *
+	 * @author Anatole Tresch
+	 */
+	private static final class DefaultCashRounding implements
+			MonetaryOperator {
+
+		@Override
+		public MonetaryAmount apply(MonetaryAmount amount) {
+			return CashRounding.of(amount.getCurrency()).apply(amount);
+		}
+
+	}
+
+}
@@ -0,0 +1,171 @@
+/*
+ *  Copyright (c) 2012, 2013, Credit Suisse (Anatole Tresch), Werner Keil.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package javax.money;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigns each {@link CurrencyUnit} a dense, zero based index, so data per
+ * currency can be held in plain arrays. Currencies are identified by their
+ * namespace and currency code. Indices are assigned on first access and remain
+ * stable for the lifetime of the VM.
+ *
+ * @version 0.5
+ * @author Anatole Tresch
+ */
+public final class CurrencyIndex {
+
+	/** The indices assigned, keyed by {@code namespace:currencyCode}. */
+	private static final Map<String, Integer> INDICES = new ConcurrentHashMap<String, Integer>();
+
+	/** The currencies indexed, the first instance seen for each index. */
+	private static volatile CurrencyUnit[] currencies = new CurrencyUnit[64];
+
+	/** The number of indices assigned so far. */
+	private static volatile int size;
+
+	/**
+	 * Singleton constructor.
+	 */
+	private CurrencyIndex() {
+	}
+
+	/**
+	 * Access the index of the given {@link CurrencyUnit}, assigning a new one,
+	 * if the currency was not yet indexed.
+	 *
+	 * @param currency
+	 *            the currency, not null.
+	 * @return the index, {@code >= 0}.
+	 */
+	public static int indexOf(CurrencyUnit currency) {
+		if (currency == null) {
+			throw new IllegalArgumentException("Currency required.");
+		}
+		if (currency instanceof MoneyCurrency) {
+			return ((MoneyCurrency) currency).getIndex();
+		}
+		return lookup(currency);
+	}
+
+	/**
+	 * Access the {@link CurrencyUnit} with the given index.
+	 *
+	 * @param index
+	 *            the index, as returned by {@link #indexOf(CurrencyUnit)}.
+	 * @return the currency, never null.
+	 * @throws IllegalArgumentException
+	 *             if no currency with the given index exists.
+	 */
+	public static CurrencyUnit getCurrency(int index) {
+		CurrencyUnit[] units = currencies;
+		if (index >= 0 && index < units.length) {
+			CurrencyUnit currency = units[index];
+			if (currency != null) {
+				return currency;
+			}
+		}
+		throw new IllegalArgumentException("Invalid currency index: " + index);
+	}
+
+	/**
+	 * Checks if the two currencies are the same, meaning their namespace and
+	 * currency code are equal. Identical instances and instances of
+	 * {@link MoneyCurrency} are compared without accessing their
+	 * {@link String} attributes.
+	 *
+	 * @param currency
+	 *            the first currency, not null.
+	 * @param other
+	 *            the second currency, not null.
+	 * @return true, if both currencies are the same.
+	 */
+	public static boolean isSameCurrency(CurrencyUnit currency,
+			CurrencyUnit other) {
+		if (currency == other) {
+			return true;
+		}
+		if (currency instanceof MoneyCurrency && other instanceof MoneyCurrency) {
+			return ((MoneyCurrency) currency).getIndex() == ((MoneyCurrency) other)
+					.getIndex();
+		}
+		return currency.getCurrencyCode().equals(other.getCurrencyCode())
+				&& currency.getNamespace().equals(other.getNamespace());
+	}
+
+	/**
+	 * Access the number of indices assigned so far. All indices returned by
+	 * {@link #indexOf(CurrencyUnit)} are less than this value.
+	 *
+	 * @return the number of currencies indexed.
+	 */
+	public static int size() {
+		return size;
+	}
+
+	/**
+	 * Evaluates the index of the given currency, without assigning a new one.
+	 *
+	 * @param currency
+	 *            the currency, not null.
+	 * @return the index, or {@code -1}, if the currency was not yet indexed.
+	 */
+	static int find(CurrencyUnit currency) {
+		if (currency instanceof MoneyCurrency) {
+			return ((MoneyCurrency) currency).getIndex();
+		}
+		Integer index = INDICES.get(currency.getNamespace() + ':'
+				+ currency.getCurrencyCode());
+		if (index == null) {
+			return -1;
+		}
+		return index.intValue();
+	}
+
+	/**
+	 * Evaluates the index for the given currency's namespace and currency
+	 * code, assigning a new index if required.
+	 *
+	 * @param currency
+	 *            the currency, not null.
+	 * @return the index, {@code >= 0}.
+	 */
+	static int lookup(CurrencyUnit currency) {
+		String key = currency.getNamespace() + ':'
+				+ currency.getCurrencyCode();
+		Integer index = INDICES.get(key);
+		if (index == null) {
+			synchronized (INDICES) {
+				index = INDICES.get(key);
+				if (index == null) {
+					index = Integer.valueOf(size);
+					CurrencyUnit[] units = currencies;
+					if (index.intValue() >= units.length) {
+						units = Arrays.copyOf(units, units.length * 2);
+					}
+					units[index.intValue()] = currency;
+					currencies = units;
+					INDICES.put(key, index);
+					size = index.intValue() + 1;
+				}
+			}
+		}
+		return index.intValue();
+	}
+
+}
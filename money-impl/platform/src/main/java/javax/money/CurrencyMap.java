@@ -0,0 +1,335 @@
+/*
+ *  Copyright (c) 2012, 2013, Credit Suisse (Anatole Tresch), Werner Keil.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package javax.money;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A {@link Map} with {@link CurrencyUnit} keys, that stores its entries in
+ * arrays indexed by {@link CurrencyIndex#indexOf(CurrencyUnit)}, similar to
+ * {@link java.util.EnumMap}. Keys are considered equal, if their namespace and
+ * currency code are equal. Iteration is in index order.
+ * <p>
+ * This class is not thread-safe.
+ *
+ * @param <V>
+ *            the value type.
+ * @version 0.5
+ * @author Anatole Tresch
+ */
+public class CurrencyMap<V> extends AbstractMap<CurrencyUnit, V> {
+
+	/** The keys, by currency index, null for absent entries. */
+	private CurrencyUnit[] keys;
+
+	/** The values, by currency index. */
+	private Object[] values;
+
+	/** The number of entries. */
+	private int size;
+
+	/** The number of structural modifications, for detecting them on iteration. */
+	private int modCount;
+
+	/** The entry set view, created on first access. */
+	private transient Set<Map.Entry<CurrencyUnit, V>> entrySet;
+
+	/**
+	 * Creates a new empty map.
+	 */
+	public CurrencyMap() {
+		int capacity = Math.max(CurrencyIndex.size(), 16);
+		this.keys = new CurrencyUnit[capacity];
+		this.values = new Object[capacity];
+	}
+
+	/**
+	 * Creates a new map, containing the entries of the given map.
+	 *
+	 * @param map
+	 *            the entries to be added, not null.
+	 */
+	public CurrencyMap(Map<? extends CurrencyUnit, ? extends V> map) {
+		this();
+		putAll(map);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.AbstractMap#size()
+	 */
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.AbstractMap#containsKey(java.lang.Object)
+	 */
+	@Override
+	public boolean containsKey(Object key) {
+		int index = find(key);
+		return index >= 0 && index < keys.length && keys[index] != null;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.AbstractMap#get(java.lang.Object)
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public V get(Object key) {
+		int index = find(key);
+		if (index < 0 || index >= values.length) {
+			return null;
+		}
+		return (V) values[index];
+	}
+
+	/**
+	 * Access the value stored for the currency with the given index.
+	 *
+	 * @param currencyIndex
+	 *            the index, as returned by
+	 *            {@link CurrencyIndex#indexOf(CurrencyUnit)}.
+	 * @return the value, or null.
+	 */
+	@SuppressWarnings("unchecked")
+	public V get(int currencyIndex) {
+		if (currencyIndex < 0 || currencyIndex >= values.length) {
+			return null;
+		}
+		return (V) values[currencyIndex];
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.AbstractMap#put(java.lang.Object, java.lang.Object)
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public V put(CurrencyUnit key, V value) {
+		if (key == null) {
+			throw new IllegalArgumentException("Currency required.");
+		}
+		int index = CurrencyIndex.indexOf(key);
+		if (index >= keys.length) {
+			int capacity = Math.max(keys.length * 2, index + 1);
+			keys = Arrays.copyOf(keys, capacity);
+			values = Arrays.copyOf(values, capacity);
+		}
+		V old = (V) values[index];
+		if (keys[index] == null) {
+			keys[index] = key;
+			size++;
+			modCount++;
+		}
+		values[index] = value;
+		return old;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.AbstractMap#remove(java.lang.Object)
+	 */
+	@Override
+	public V remove(Object key) {
+		int index = find(key);
+		if (index < 0 || index >= keys.length || keys[index] == null) {
+			return null;
+		}
+		return removeAt(index);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.AbstractMap#clear()
+	 */
+	@Override
+	public void clear() {
+		Arrays.fill(keys, null);
+		Arrays.fill(values, null);
+		size = 0;
+		modCount++;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.AbstractMap#entrySet()
+	 */
+	@Override
+	public Set<Map.Entry<CurrencyUnit, V>> entrySet() {
+		if (entrySet == null) {
+			entrySet = new EntrySet();
+		}
+		return entrySet;
+	}
+
+	/**
+	 * Evaluates the index of the given key, without assigning a new one.
+	 */
+	private static int find(Object key) {
+		if (key instanceof CurrencyUnit) {
+			return CurrencyIndex.find((CurrencyUnit) key);
+		}
+		return -1;
+	}
+
+	@SuppressWarnings("unchecked")
+	private V removeAt(int index) {
+		V old = (V) values[index];
+		keys[index] = null;
+		values[index] = null;
+		size--;
+		modCount++;
+		return old;
+	}
+
+	/**
+	 * The entry set view of this map.
+	 */
+	private final class EntrySet extends AbstractSet<Map.Entry<CurrencyUnit, V>> {
+
+		@Override
+		public Iterator<Map.Entry<CurrencyUnit, V>> iterator() {
+			return new EntryIterator();
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+
+		@Override
+		public void clear() {
+			CurrencyMap.this.clear();
+		}
+	}
+
+	/**
+	 * Iterates the entries in index order. The entries returned are backed by
+	 * the map.
+	 */
+	private final class EntryIterator implements
+			Iterator<Map.Entry<CurrencyUnit, V>> {
+
+		private int next = advance(0);
+		private int last = -1;
+		private int expectedModCount = modCount;
+
+		private int advance(int index) {
+			while (index < keys.length && keys[index] == null) {
+				index++;
+			}
+			return index;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next < keys.length;
+		}
+
+		@Override
+		public Map.Entry<CurrencyUnit, V> next() {
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+			if (next >= keys.length) {
+				throw new NoSuchElementException();
+			}
+			last = next;
+			next = advance(next + 1);
+			return new Entry(last);
+		}
+
+		@Override
+		public void remove() {
+			if (last < 0) {
+				throw new IllegalStateException();
+			}
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+			removeAt(last);
+			expectedModCount = modCount;
+			last = -1;
+		}
+	}
+
+	/**
+	 * An entry, writing through to the map.
+	 */
+	private final class Entry implements Map.Entry<CurrencyUnit, V> {
+
+		private final int index;
+
+		private Entry(int index) {
+			this.index = index;
+		}
+
+		@Override
+		public CurrencyUnit getKey() {
+			return keys[index];
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public V getValue() {
+			return (V) values[index];
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public V setValue(V value) {
+			V old = (V) values[index];
+			values[index] = value;
+			return old;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Map.Entry)) {
+				return false;
+			}
+			Map.Entry<?, ?> other = (Map.Entry<?, ?>) obj;
+			Object value = values[index];
+			return keys[index].equals(other.getKey())
+					&& (value == null ? other.getValue() == null : value
+							.equals(other.getValue()));
+		}
+
+		@Override
+		public int hashCode() {
+			Object value = values[index];
+			return keys[index].hashCode()
+					^ (value == null ? 0 : value.hashCode());
+		}
+
+		@Override
+		public String toString() {
+			return keys[index] + "=" + values[index];
+		}
+	}
+
+}
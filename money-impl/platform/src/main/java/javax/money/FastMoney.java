@@ -0,0 +1,1047 @@
+/*
+ *  Copyright (c) 2012, 2013, Credit Suisse (Anatole Tresch), Werner Keil.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package javax.money;
+
+import static javax.money.Money.Checker.checkAmountParameter;
+import static javax.money.Money.Checker.checkNumber;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Immutable fixed point implementation of {@link MonetaryAmount}. The numeric
+ * part is stored as an unscaled {@code long} combined with a scale, e.g.
+ * {@code EUR 12.34} is modelled as {@code 1234} with scale {@code 2}. By
+ * default the scale is evaluated from
+ * {@link CurrencyUnit#getDefaultFractionDigits()}, but it can also be set
+ * explicitly.
+ * <p>
+ * Addition, subtraction, multiplication with integral values, comparison and
+ * sign operations are performed on the {@code long} directly, without creating
+ * any {@link BigDecimal} instances. Operations that require more precision than
+ * the unscaled {@code long} can hold, e.g. a division with a non terminating
+ * result, {@link #pow(int)} or results exceeding the {@code long} range, fall
+ * back to {@link Money}.
+ *
+ * @version 0.5
+ * @author Anatole Tresch
+ */
+public final class FastMoney implements MonetaryAmount,
+		Comparable<MonetaryAmount> {
+
+	/** The maximal scale supported, {@code 10^18} still fits into a long. */
+	public static final int MAX_SCALE = 18;
+
+	/** The currency of this amount. */
+	private final CurrencyUnit currency;
+
+	/** The unscaled numeric part of this amount. */
+	private final long unscaled;
+
+	/** The scale of {@link #unscaled}. */
+	private final int scale;
+
+	/**
+	 * Private constructor, use the static factory methods.
+	 *
+	 * @param currency
+	 *            the currency, not null.
+	 * @param unscaled
+	 *            the unscaled value.
+	 * @param scale
+	 *            the scale, {@code 0 <= scale <= MAX_SCALE}.
+	 */
+	private FastMoney(CurrencyUnit currency, long unscaled, int scale) {
+		if (currency == null) {
+			throw new IllegalArgumentException("Currency is required.");
+		}
+		if (scale < 0 || scale > MAX_SCALE) {
+			throw new IllegalArgumentException("Invalid scale: " + scale);
+		}
+		this.currency = currency;
+		this.unscaled = unscaled;
+		this.scale = scale;
+	}
+
+	/**
+	 * Static factory method for creating a new instance of {@link FastMoney},
+	 * using the currency's default fraction digits as scale.
+	 *
+	 * @param currency
+	 *            The target currency, not null.
+	 * @param number
+	 *            The numeric part, not null.
+	 * @return A new instance of {@link FastMoney}.
+	 * @throws ArithmeticException
+	 *             if the number can not be represented with the currency's
+	 *             scale, or exceeds the {@code long} range.
+	 */
+	public static FastMoney of(CurrencyUnit currency, Number number) {
+		return of(currency, number, getDefaultScale(currency));
+	}
+
+	/**
+	 * Static factory method for creating a new instance of {@link FastMoney}.
+	 *
+	 * @param currency
+	 *            The target currency, not null.
+	 * @param number
+	 *            The numeric part, not null.
+	 * @param scale
+	 *            the scale to be used, {@code 0 <= scale <= MAX_SCALE}.
+	 * @return A new instance of {@link FastMoney}.
+	 * @throws ArithmeticException
+	 *             if the number can not be represented with the given scale,
+	 *             or exceeds the {@code long} range.
+	 */
+	public static FastMoney of(CurrencyUnit currency, Number number, int scale) {
+		checkNumber(number);
+		if (scale < 0 || scale > MAX_SCALE) {
+			throw new IllegalArgumentException("Invalid scale: " + scale);
+		}
+		return new FastMoney(currency, toUnscaled(number, scale), scale);
+	}
+
+	/**
+	 * Static factory method for creating a new instance of {@link FastMoney}.
+	 *
+	 * @param currencyCode
+	 *            The target currency as ISO currency code.
+	 * @param number
+	 *            The numeric part, not null.
+	 * @return A new instance of {@link FastMoney}.
+	 */
+	public static FastMoney of(String currencyCode, Number number) {
+		return of(MoneyCurrency.of(currencyCode), number);
+	}
+
+	/**
+	 * Static factory method for creating a new instance of {@link FastMoney}
+	 * from its unscaled value, e.g. {@code ofUnscaled(EUR, 1234, 2)} creates
+	 * {@code EUR 12.34}.
+	 *
+	 * @param currency
+	 *            The target currency, not null.
+	 * @param unscaled
+	 *            the unscaled value.
+	 * @param scale
+	 *            the scale, {@code 0 <= scale <= MAX_SCALE}.
+	 * @return A new instance of {@link FastMoney}.
+	 */
+	public static FastMoney ofUnscaled(CurrencyUnit currency, long unscaled,
+			int scale) {
+		return new FastMoney(currency, unscaled, scale);
+	}
+
+	/**
+	 * Factory method creating a zero instance with the given {@code currency}.
+	 *
+	 * @param currency
+	 *            the target currency of the amount being created.
+	 * @return the zero amount, with the currency's default scale.
+	 */
+	public static FastMoney ofZero(CurrencyUnit currency) {
+		return new FastMoney(currency, 0L, getDefaultScale(currency));
+	}
+
+	/**
+	 * Evaluates the scale to be used for the given currency.
+	 *
+	 * @param currency
+	 *            the currency, not null.
+	 * @return the currency's default fraction digits, or 0 for currencies
+	 *         without fraction digits defined.
+	 */
+	private static int getDefaultScale(CurrencyUnit currency) {
+		if (currency == null) {
+			throw new IllegalArgumentException("Currency is required.");
+		}
+		int digits = currency.getDefaultFractionDigits();
+		if (digits < 0) {
+			return 0;
+		}
+		return Math.min(digits, MAX_SCALE);
+	}
+
+	/**
+	 * Access the unscaled value of this amount, e.g. {@code 1234} for
+	 * {@code EUR 12.34} with scale {@code 2}.
+	 *
+	 * @return the unscaled value.
+	 */
+	public long getUnscaledValue() {
+		return this.unscaled;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see javax.money.MonetaryAmount#getCurrency()
+	 */
+	@Override
+	public CurrencyUnit getCurrency() {
+		return this.currency;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see javax.money.MonetaryAmount#abs()
+	 */
+	@Override
+	public MonetaryAmount abs() {
+		if (this.unscaled >= 0) {
+			return this;
+		}
+		return negate();
+	}
+
+	// Arithmetic Operations
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see javax.money.MonetaryAmount#add(javax.money.MonetaryAmount)
+	 */
+	@Override
+	public MonetaryAmount add(MonetaryAmount augend) {
+		checkAmountParameter(this.currency, augend);
+		if (augend instanceof FastMoney) {
+			FastMoney other = (FastMoney) augend;
+			try {
+				if (this.scale == other.scale) {
+					return new FastMoney(this.currency,
+							UnscaledArithmetic.addExact(this.unscaled,
+									other.unscaled), this.scale);
+				}
+				if (this.scale > other.scale) {
+					return new FastMoney(this.currency,
+							UnscaledArithmetic.addExact(this.unscaled, rescale(
+									other.unscaled, this.scale - other.scale)),
+							this.scale);
+				}
+				return new FastMoney(this.currency, UnscaledArithmetic.addExact(
+						rescale(this.unscaled, other.scale - this.scale),
+						other.unscaled), other.scale);
+			} catch (ArithmeticException e) {
+				// long overflow, continue with BigDecimal
+			}
+		}
+		return fromDecimal(this.currency,
+				toBigDecimal().add(augend.asType(BigDecimal.class)));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see javax.money.MonetaryAmount#subtract(javax.money.MonetaryAmount)
+	 */
+	@Override
+	public MonetaryAmount subtract(MonetaryAmount subtrahend) {
+		checkAmountParameter(this.currency, subtrahend);
+		if (subtrahend instanceof FastMoney) {
+			FastMoney other = (FastMoney) subtrahend;
+			try {
+				if (this.scale == other.scale) {
+					return new FastMoney(this.currency,
+							UnscaledArithmetic.subtractExact(this.unscaled,
+									other.unscaled), this.scale);
+				}
+				if (this.scale > other.scale) {
+					return new FastMoney(this.currency,
+							UnscaledArithmetic.subtractExact(this.unscaled,
+									rescale(other.unscaled, this.scale
+											- other.scale)), this.scale);
+				}
+				return new FastMoney(this.currency,
+						UnscaledArithmetic.subtractExact(rescale(this.unscaled,
+								other.scale - this.scale), other.unscaled),
+						other.scale);
+			} catch (ArithmeticException e) {
+				// long overflow, continue with BigDecimal
+			}
+		}
+		return fromDecimal(this.currency,
+				toBigDecimal().subtract(subtrahend.asType(BigDecimal.class)));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see javax.money.MonetaryAmount#multiply(java.lang.Number)
+	 */
+	@Override
+	public MonetaryAmount multiply(Number multiplicand) {
+		checkNumber(multiplicand);
+		if (isIntegral(multiplicand)) {
+			try {
+				return new FastMoney(this.currency,
+						UnscaledArithmetic.multiplyExact(this.unscaled,
+								multiplicand.longValue()), this.scale);
+			} catch (ArithmeticException e) {
+				// long overflow, continue with BigDecimal
+			}
+		}
+		return fromDecimal(this.currency,
+				toBigDecimal().multiply(getBigDecimal(multiplicand)));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see javax.money.MonetaryAmount#divide(java.lang.Number)
+	 */
+	@Override
+	public MonetaryAmount divide(Number divisor) {
+		checkNumber(divisor);
+		if (isIntegral(divisor)) {
+			long div = divisor.longValue();
+			if (div == 0L) {
+				throw new ArithmeticException("Division by zero");
+			}
+			if (this.unscaled % div == 0L
+					&& !(this.unscaled == Long.MIN_VALUE && div == -1L)) {
+				return new FastMoney(this.currency, this.unscaled / div,
+						this.scale);
+			}
+		}
+		return toMoney().divide(divisor);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see javax.money.MonetaryAmount#divideAndRemainder(java.lang.Number)
+	 */
+	@Override
+	public MonetaryAmount[] divideAndRemainder(Number divisor) {
+		checkNumber(divisor);
+		long scaledDivisor = getScaledIntegralDivisor(divisor);
+		if (scaledDivisor != 0L) {
+			long quotient = this.unscaled / scaledDivisor;
+			return new MonetaryAmount[] {
+					new FastMoney(this.currency, quotient
+							* UnscaledArithmetic.POWERS_OF_TEN[this.scale],
+							this.scale),
+					new FastMoney(this.currency, this.unscaled % scaledDivisor,
+							this.scale) };
+		}
+		return toMoney().divideAndRemainder(divisor);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see javax.money.MonetaryAmount#divideToIntegralValue(java.lang.Number)
+	 */
+	@Override
+	public MonetaryAmount divideToIntegralValue(Number divisor) {
+		checkNumber(divisor);
+		long scaledDivisor = getScaledIntegralDivisor(divisor);
+		if (scaledDivisor != 0L) {
+			return new FastMoney(this.currency, (this.unscaled / scaledDivisor)
+					* UnscaledArithmetic.POWERS_OF_TEN[this.scale], this.scale);
+		}
+		return toMoney().divideToIntegralValue(divisor);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see javax.money.MonetaryAmount#remainder(java.lang.Number)
+	 */
+	@Override
+	public MonetaryAmount remainder(Number divisor) {
+		checkNumber(divisor);
+		long scaledDivisor = getScaledIntegralDivisor(divisor);
+		if (scaledDivisor != 0L) {
+			return new FastMoney(this.currency, this.unscaled % scaledDivisor,
+					this.scale);
+		}
+		return toMoney().remainder(divisor);
+	}
+
+	/**
+	 * Evaluates the divisor scaled to this amount's scale, so integral
+	 * divisions can be performed on the unscaled value.
+	 *
+	 * @param divisor
+	 *            the divisor
+	 * @return the scaled divisor, or 0, if the division must be performed
+	 *         using {@link Money}.
+	 */
+	private long getScaledIntegralDivisor(Number divisor) {
+		if (!isIntegral(divisor)) {
+			return 0L;
+		}
+		long div = divisor.longValue();
+		if (div == 0L) {
+			throw new ArithmeticException("Division by zero");
+		}
+		if (div == -1L) {
+			// avoids overflow of Long.MIN_VALUE / -1
+			return 0L;
+		}
+		try {
+			return rescale(div, this.scale);
+		} catch (ArithmeticException e) {
+			return 0L;
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see javax.money.MonetaryAmount#negate()
+	 */
+	@Override
+	public MonetaryAmount negate() {
+		if (this.unscaled == Long.MIN_VALUE) {
+			return toMoney().negate();
+		}
+		return new FastMoney(this.currency, -this.unscaled, this.scale);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see javax.money.MonetaryAmount#plus()
+	 */
+	@Override
+	public FastMoney plus() {
+		return this;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see javax.money.MonetaryAmount#pow(int)
+	 */
+	@Override
+	public MonetaryAmount pow(int n) {
+		return toMoney().pow(n);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see javax.money.MonetaryAmount#ulp()
+	 */
+	@Override
+	public FastMoney ulp() {
+		return new FastMoney(this.currency, 1L, this.scale);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see javax.money.MonetaryAmount#scaleByPowerOfTen(int)
+	 */
+	@Override
+	public MonetaryAmount scaleByPowerOfTen(int n) {
+		long newScale = (long) this.scale - n;
+		if (newScale >= 0 && newScale <= MAX_SCALE) {
+			return new FastMoney(this.currency, this.unscaled, (int) newScale);
+		}
+		return toMoney().scaleByPowerOfTen(n);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see javax.money.MonetaryAmount#isZero()
+	 */
+	@Override
+	public boolean isZero() {
+		return this.unscaled == 0L;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see javax.money.MonetaryAmount#isPositive()
+	 */
+	@Override
+	public boolean isPositive() {
+		return this.unscaled > 0L;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see javax.money.MonetaryAmount#isPositiveOrZero()
+	 */
+	@Override
+	public boolean isPositiveOrZero() {
+		return this.unscaled >= 0L;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see javax.money.MonetaryAmount#isNegative()
+	 */
+	@Override
+	public boolean isNegative() {
+		return this.unscaled < 0L;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see javax.money.MonetaryAmount#isNegativeOrZero()
+	 */
+	@Override
+	public boolean isNegativeOrZero() {
+		return this.unscaled <= 0L;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see javax.money.MonetaryAmount#from(java.lang.Number)
+	 */
+	@Override
+	public MonetaryAmount from(Number amount) {
+		return from(this.currency, amount, this.scale);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see javax.money.MonetaryAmount#from(javax.money.CurrencyUnit,
+	 * java.lang.Number)
+	 */
+	@Override
+	public MonetaryAmount from(CurrencyUnit currency, Number amount) {
+		return from(currency, amount, getDefaultScale(currency));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see javax.money.MonetaryAmount#with(javax.money.MonetaryOperator)
+	 */
+	@Override
+	public MonetaryAmount with(MonetaryOperator operator) {
+		return operator.apply(this);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see javax.money.MonetaryAmount#getScale()
+	 */
+	@Override
+	public int getScale() {
+		return this.scale;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see javax.money.MonetaryAmount#getPrecision()
+	 */
+	@Override
+	public int getPrecision() {
+		long value = this.unscaled < 0 ? -this.unscaled : this.unscaled;
+		if (value < 0) {
+			// Long.MIN_VALUE
+			return 19;
+		}
+		int precision = 1;
+		while (precision < UnscaledArithmetic.POWERS_OF_TEN.length
+				&& value >= UnscaledArithmetic.POWERS_OF_TEN[precision]) {
+			precision++;
+		}
+		return precision;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see javax.money.MonetaryAmount#intValue()
+	 */
+	@Override
+	public int intValue() {
+		return (int) longValue();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see javax.money.MonetaryAmount#intValueExact()
+	 */
+	@Override
+	public int intValueExact() {
+		long value = longValueExact();
+		if ((int) value != value) {
+			throw new ArithmeticException("Overflow");
+		}
+		return (int) value;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see javax.money.MonetaryAmount#longValue()
+	 */
+	@Override
+	public long longValue() {
+		return this.unscaled / UnscaledArithmetic.POWERS_OF_TEN[this.scale];
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see javax.money.MonetaryAmount#longValueExact()
+	 */
+	@Override
+	public long longValueExact() {
+		long divisor = UnscaledArithmetic.POWERS_OF_TEN[this.scale];
+		if (this.unscaled % divisor != 0L) {
+			throw new ArithmeticException("Rounding necessary");
+		}
+		return this.unscaled / divisor;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see javax.money.MonetaryAmount#floatValue()
+	 */
+	@Override
+	public float floatValue() {
+		return (float) doubleValue();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see javax.money.MonetaryAmount#doubleValue()
+	 */
+	@Override
+	public double doubleValue() {
+		if (this.scale == 0) {
+			return this.unscaled;
+		}
+		// both operands are exact doubles, so the division rounds only once
+		if (Math.abs(this.unscaled) < (1L << 53)) {
+			return ((double) this.unscaled)
+					/ UnscaledArithmetic.POWERS_OF_TEN[this.scale];
+		}
+		return toBigDecimal().doubleValue();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see javax.money.MonetaryAmount#byteValue()
+	 */
+	@Override
+	public byte byteValue() {
+		return (byte) longValue();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see javax.money.MonetaryAmount#shortValue()
+	 */
+	@Override
+	public short shortValue() {
+		return (short) longValue();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see javax.money.MonetaryAmount#shortValueExact()
+	 */
+	@Override
+	public short shortValueExact() {
+		long value = longValueExact();
+		if ((short) value != value) {
+			throw new ArithmeticException("Overflow");
+		}
+		return (short) value;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see javax.money.MonetaryAmount#signum()
+	 */
+	@Override
+	public int signum() {
+		return Long.signum(this.unscaled);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see javax.money.MonetaryAmount#isLessThan(javax.money.MonetaryAmount)
+	 */
+	@Override
+	public boolean isLessThan(MonetaryAmount amount) {
+		checkAmountParameter(this.currency, amount);
+		return compareValue(amount) < 0;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * javax.money.MonetaryAmount#isLessThanOrEqualTo(javax.money.MonetaryAmount
+	 * )
+	 */
+	@Override
+	public boolean isLessThanOrEqualTo(MonetaryAmount amount) {
+		checkAmountParameter(this.currency, amount);
+		return compareValue(amount) <= 0;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see javax.money.MonetaryAmount#isGreaterThan(javax.money.MonetaryAmount)
+	 */
+	@Override
+	public boolean isGreaterThan(MonetaryAmount amount) {
+		checkAmountParameter(this.currency, amount);
+		return compareValue(amount) > 0;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * javax.money.MonetaryAmount#isGreaterThanOrEqualTo(javax.money.MonetaryAmount
+	 * )
+	 */
+	@Override
+	public boolean isGreaterThanOrEqualTo(MonetaryAmount amount) {
+		checkAmountParameter(this.currency, amount);
+		return compareValue(amount) >= 0;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see javax.money.MonetaryAmount#isEqualTo(javax.money.MonetaryAmount)
+	 */
+	@Override
+	public boolean isEqualTo(MonetaryAmount amount) {
+		checkAmountParameter(this.currency, amount);
+		return compareValue(amount) == 0;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see javax.money.MonetaryAmount#isNotEqualTo(javax.money.MonetaryAmount)
+	 */
+	@Override
+	public boolean isNotEqualTo(MonetaryAmount amount) {
+		checkAmountParameter(this.currency, amount);
+		return compareValue(amount) != 0;
+	}
+
+	/*
+	 * @see java.lang.Comparable#compareTo(java.lang.Object)
+	 */
+	@Override
+	public int compareTo(MonetaryAmount o) {
+		if (o == null) {
+			throw new IllegalArgumentException("Amount must not be null.");
+		}
+		CurrencyUnit other = o.getCurrency();
+		int compare = this.currency.getNamespace().compareTo(
+				other.getNamespace());
+		if (compare == 0) {
+			compare = this.currency.getCurrencyCode().compareTo(
+					other.getCurrencyCode());
+		}
+		if (compare == 0) {
+			compare = compareValue(o);
+		}
+		return compare;
+	}
+
+	/**
+	 * Compares the numeric value of this instance with the given amount, hereby
+	 * ignoring the currency.
+	 *
+	 * @param amount
+	 *            the amount, not null.
+	 * @return -1, 0 or 1 as this amount's value is less, equal or greater than
+	 *         the one of {@code amount}.
+	 */
+	private int compareValue(MonetaryAmount amount) {
+		if (amount instanceof FastMoney) {
+			FastMoney other = (FastMoney) amount;
+			try {
+				if (this.scale == other.scale) {
+					return compare(this.unscaled, other.unscaled);
+				}
+				if (this.scale > other.scale) {
+					return compare(this.unscaled,
+							rescale(other.unscaled, this.scale - other.scale));
+				}
+				return compare(
+						rescale(this.unscaled, other.scale - this.scale),
+						other.unscaled);
+			} catch (ArithmeticException e) {
+				// long overflow, continue with BigDecimal
+			}
+		}
+		return toBigDecimal().compareTo(amount.asType(BigDecimal.class));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#hashCode()
+	 */
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + currency.hashCode();
+		result = prime * result + (int) (unscaled ^ (unscaled >>> 32));
+		result = prime * result + scale;
+		return result;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#equals(java.lang.Object)
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		FastMoney other = (FastMoney) obj;
+		if (!currency.equals(other.currency))
+			return false;
+		if (unscaled != other.unscaled)
+			return false;
+		if (scale != other.scale)
+			return false;
+		return true;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see javax.money.MonetaryAmount#getNumberType()
+	 */
+	@Override
+	public Class<?> getNumberType() {
+		return BigDecimal.class;
+	}
+
+	/*
+	 * @see javax.money.MonetaryAmount#asType(java.lang.Class)
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T> T asType(Class<T> type) {
+		if (BigDecimal.class.equals(type)) {
+			return (T) toBigDecimal();
+		}
+		if (Number.class.equals(type)) {
+			return (T) toBigDecimal();
+		}
+		if (Double.class.equals(type)) {
+			return (T) Double.valueOf(doubleValue());
+		}
+		if (Float.class.equals(type)) {
+			return (T) Float.valueOf(floatValue());
+		}
+		if (Long.class.equals(type)) {
+			return (T) Long.valueOf(longValue());
+		}
+		if (Integer.class.equals(type)) {
+			return (T) Integer.valueOf(intValue());
+		}
+		if (Short.class.equals(type)) {
+			return (T) Short.valueOf(shortValue());
+		}
+		if (Byte.class.equals(type)) {
+			return (T) Byte.valueOf(byteValue());
+		}
+		if (BigInteger.class.equals(type)) {
+			return (T) BigInteger.valueOf(longValue());
+		}
+		throw new IllegalArgumentException("Unsupported representation type: "
+				+ type);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return currency.getCurrencyCode() + ' ' + toBigDecimal();
+	}
+
+	// Internal helper methods
+
+	/**
+	 * Creates the {@link BigDecimal} representation of this amount.
+	 *
+	 * @return the numeric value as {@link BigDecimal}.
+	 */
+	private BigDecimal toBigDecimal() {
+		return BigDecimal.valueOf(this.unscaled, this.scale);
+	}
+
+	/**
+	 * Creates the {@link Money} representation of this amount, used for
+	 * operations that can not be performed on the unscaled {@code long}.
+	 *
+	 * @return the according {@link Money} instance.
+	 */
+	private Money toMoney() {
+		return Money.of(this.currency, toBigDecimal());
+	}
+
+	/**
+	 * Creates a new amount for the given result of a {@link BigDecimal}
+	 * operation. If the value can be represented with this instance's scale (or
+	 * the value's scale, if greater) a {@link FastMoney} is returned, otherwise
+	 * the operation falls back to {@link Money}.
+	 *
+	 * @param currency
+	 *            the target currency.
+	 * @param value
+	 *            the numeric value.
+	 * @return the new amount.
+	 */
+	private MonetaryAmount fromDecimal(CurrencyUnit currency, BigDecimal value) {
+		return fromDecimal(currency, value, this.scale);
+	}
+
+	/**
+	 * Creates an amount with the given currency, keeping at least the given
+	 * scale, as in {@link #fromDecimal(CurrencyUnit, BigDecimal)}.
+	 */
+	private static MonetaryAmount fromDecimal(CurrencyUnit currency,
+			BigDecimal value, int scale) {
+		int targetScale = Math.max(scale, value.scale());
+		if (targetScale <= MAX_SCALE) {
+			try {
+				return new FastMoney(currency, value.movePointRight(
+						targetScale).longValueExact(), targetScale);
+			} catch (ArithmeticException e) {
+				// does not fit into a long
+			}
+		}
+		return Money.of(currency, value);
+	}
+
+	/**
+	 * Creates an amount with the given currency and at least the given scale,
+	 * continuing with {@link Money}, if the value does not fit.
+	 */
+	private static MonetaryAmount from(CurrencyUnit currency, Number amount,
+			int scale) {
+		checkNumber(amount);
+		if (isIntegral(amount)) {
+			try {
+				return new FastMoney(currency,
+						rescale(amount.longValue(), scale), scale);
+			} catch (ArithmeticException e) {
+				// long overflow, continue with BigDecimal
+			}
+		}
+		return fromDecimal(currency, getBigDecimal(amount), scale);
+	}
+
+	/**
+	 * Converts the given number into an unscaled {@code long} with the given
+	 * scale.
+	 *
+	 * @param number
+	 *            the number, not null.
+	 * @param scale
+	 *            the target scale.
+	 * @return the unscaled value.
+	 * @throws ArithmeticException
+	 *             if the number can not be represented exactly.
+	 */
+	private static long toUnscaled(Number number, int scale) {
+		if (isIntegral(number)) {
+			return rescale(number.longValue(), scale);
+		}
+		return getBigDecimal(number).movePointRight(scale).longValueExact();
+	}
+
+	/**
+	 * Checks if the given number is of an integral type, that can be accessed
+	 * by {@link Number#longValue()} without loss of precision.
+	 *
+	 * @param number
+	 *            the number
+	 * @return true, if the number is integral.
+	 */
+	private static boolean isIntegral(Number number) {
+		return number instanceof Long || number instanceof Integer
+				|| number instanceof Short || number instanceof Byte
+				|| number instanceof AtomicLong
+				|| number instanceof AtomicInteger;
+	}
+
+	private static BigDecimal getBigDecimal(Number num) {
+		if (num instanceof BigDecimal) {
+			return (BigDecimal) num;
+		}
+		if (isIntegral(num)) {
+			return BigDecimal.valueOf(num.longValue());
+		}
+		if (num instanceof BigInteger) {
+			return new BigDecimal((BigInteger) num);
+		}
+		// Avoid imprecise conversion to double value if at all possible
+		return new BigDecimal(num.toString());
+	}
+
+	/**
+	 * Rescales the given unscaled value by the given number of digits.
+	 *
+	 * @throws ArithmeticException
+	 *             on long overflow.
+	 */
+	private static long rescale(long unscaled, int digits) {
+		return UnscaledArithmetic.multiplyExact(unscaled,
+				UnscaledArithmetic.POWERS_OF_TEN[digits]);
+	}
+
+	private static int compare(long x, long y) {
+		return (x < y) ? -1 : ((x == y) ? 0 : 1);
+	}
+
+}
@@ -22,6 +22,7 @@ import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.math.MathContext;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * Default immutable implementation of {@link MonetaryAmount}.
@@ -32,9 +33,28 @@ import java.util.concurrent.atomic.AtomicLong;
  */
 public final class Money implements MonetaryAmount, Comparable<MonetaryAmount> {
 
-    /** The numeric part of this amount. */
+    /**
+     * The numeric part of this amount, if created from a {@link BigDecimal},
+     * or if the amount does not fit into {@link #unscaled}, null otherwise.
+     */
     private final BigDecimal number;
 
+    /**
+     * The unscaled numeric part of this amount, or {@link #INFLATED}, if it
+     * does not fit into a {@code long}. Arithmetic and comparisons use it,
+     * where the result can be evaluated exactly.
+     */
+    private final long unscaled;
+
+    /** The scale of this amount. */
+    private final int scale;
+
+    /**
+     * The {@link BigDecimal} value of a compact amount, created on first
+     * access.
+     */
+    private BigDecimal decimal;
+
     /** The currency of this amount. */
     private final CurrencyUnit currency;
 
@@ -43,6 +63,26 @@ public final class Money implements MonetaryAmount, Comparable<MonetaryAmount> {
     /** tHE DEFAULT {@link MathContext} used by this instance, e.g. on division. */
     private final MathContext mathContext;
 
+    /** Marks an amount, whose unscaled value does not fit into a long. */
+    private static final long INFLATED = Long.MIN_VALUE;
+
+    /** The smallest integral value cached. */
+    private static final int CACHE_LOW = -128;
+
+    /** The number of values cached per currency and scale, covering [-128, 127]. */
+    private static final int CACHE_SIZE = 256;
+
+    /** The maximal number of currencies, for which instances are cached. */
+    private static final int CACHE_CURRENCIES = 1024;
+
+    /**
+     * Cached instances with the default {@link MathContext}, indexed by
+     * {@link CurrencyIndex}. Each row contains the integral values with scale
+     * 0, followed by the ones in the currency's default fraction digits.
+     */
+    private static final AtomicReferenceArray<Money[]> CACHE = new AtomicReferenceArray<Money[]>(
+	    CACHE_CURRENCIES);
+
     /**
      * Creates a new instance os {@link Money}.
      * 
@@ -82,7 +122,36 @@ public final class Money implements MonetaryAmount, Comparable<MonetaryAmount> {
 	checkNumber(number);
 	this.currency = currency;
 	this.mathContext = mathContext;
-	this.number = getBigDecimal(number, mathContext);
+	if ((number instanceof Integer || number instanceof Short || number instanceof Byte)
+		&& fitsPrecision(number.longValue(), mathContext)) {
+	    this.number = null;
+	    this.unscaled = number.longValue();
+	    this.scale = 0;
+	} else {
+	    this.number = getBigDecimal(number, mathContext);
+	    this.unscaled = compactValueOf(this.number);
+	    this.scale = bigDecimal().scale();
+	}
+    }
+
+    /**
+     * Creates a new compact instance.
+     * 
+     * @param currency
+     *            the currency, not null.
+     * @param unscaled
+     *            the unscaled value, not {@link #INFLATED}.
+     * @param scale
+     *            the scale.
+     * @param mathContext
+     *            the {@link MathContext}, not null.
+     */
+    private Money(CurrencyUnit currency, long unscaled, int scale, MathContext mathContext) {
+	this.currency = currency;
+	this.mathContext = mathContext;
+	this.number = null;
+	this.unscaled = unscaled;
+	this.scale = scale;
     }
 
     /**
@@ -109,7 +178,7 @@ public final class Money implements MonetaryAmount, Comparable<MonetaryAmount> {
      * @return a {@code Money} combining the numeric value and currency unit.
      */
     public static Money of(CurrencyUnit currency, BigDecimal number) {
-	return new Money(currency, number, getDefaultMathContext());
+	return ofCached(currency, number);
     }
 
     /**
@@ -125,6 +194,9 @@ public final class Money implements MonetaryAmount, Comparable<MonetaryAmount> {
      * @return a {@code Money} combining the numeric value and currency unit.
      */
     public static Money of(CurrencyUnit currency, BigDecimal number, MathContext mathContext) {
+	if (DEFAULT_MATH_CONTEXT.equals(mathContext)) {
+	    return ofCached(currency, number);
+	}
 	return new Money(currency, number, mathContext);
     }
 
@@ -138,8 +210,7 @@ public final class Money implements MonetaryAmount, Comparable<MonetaryAmount> {
      * @return A new instance of {@link Money}.
      */
     public static Money of(CurrencyUnit currency, Number number) {
-	// TODO caching
-	return new Money(currency, number, getDefaultMathContext());
+	return ofCached(currency, number);
     }
 
     /**
@@ -152,7 +223,9 @@ public final class Money implements MonetaryAmount, Comparable<MonetaryAmount> {
      * @return A new instance of {@link Money}.
      */
     public static Money of(CurrencyUnit currency, Number number, MathContext mathContext) {
-	// TODO caching
+	if (DEFAULT_MATH_CONTEXT.equals(mathContext)) {
+	    return ofCached(currency, number);
+	}
 	return new Money(currency, number, mathContext);
     }
 
@@ -166,7 +239,7 @@ public final class Money implements MonetaryAmount, Comparable<MonetaryAmount> {
      * @return A new instance of {@link Money}.
      */
     public static Money of(String currencyCode, Number number) {
-	return new Money(MoneyCurrency.of(currencyCode), number, getDefaultMathContext());
+	return ofCached(MoneyCurrency.of(currencyCode), number);
     }
 
     /**
@@ -179,7 +252,7 @@ public final class Money implements MonetaryAmount, Comparable<MonetaryAmount> {
      * @return A new instance of {@link Money}.
      */
     public static Money of(String currencyCode, Number number, MathContext mathContext) {
-	return new Money(MoneyCurrency.of(currencyCode), number, mathContext);
+	return of(MoneyCurrency.of(currencyCode), number, mathContext);
     }
 
 /**
@@ -188,7 +261,7 @@ public final class Money implements MonetaryAmount, Comparable<MonetaryAmount> {
 	 * @return
 	 */
     public static Money ofZero(CurrencyUnit currency) {
-	return new Money(currency, BigDecimal.ZERO, getDefaultMathContext());
+	return ofCached(currency, BigDecimal.ZERO);
     }
 
 /**
@@ -200,6 +273,65 @@ public final class Money implements MonetaryAmount, Comparable<MonetaryAmount> {
 	return ofZero(MoneyCurrency.of(currency));
     }
 
+    /**
+     * Evaluates an instance with the default {@link MathContext}. Integral
+     * values within [-128, 127], with scale 0 or the currency's default
+     * fraction digits, are cached per currency. A cached instance is only
+     * returned, if it equals the instance that would be created otherwise.
+     * 
+     * @param currency
+     *            The target currency, not null.
+     * @param number
+     *            The numeric part, not null.
+     * @return the cached or a new instance.
+     */
+    private static Money ofCached(CurrencyUnit currency, Number number) {
+	if (currency == null || number == null) {
+	    return new Money(currency, number, DEFAULT_MATH_CONTEXT);
+	}
+	long value;
+	int scale;
+	if (number instanceof BigDecimal) {
+	    scale = ((BigDecimal) number).scale();
+	    if (scale < 0 || (scale != 0 && scale != currency.getDefaultFractionDigits())) {
+		return new Money(currency, number, DEFAULT_MATH_CONTEXT);
+	    }
+	    value = number.longValue();
+	} else if (number instanceof Integer || number instanceof Long || number instanceof Short
+		|| number instanceof Byte) {
+	    scale = 0;
+	    value = number.longValue();
+	} else {
+	    return new Money(currency, number, DEFAULT_MATH_CONTEXT);
+	}
+	if (value < CACHE_LOW || value >= CACHE_LOW + CACHE_SIZE) {
+	    return new Money(currency, number, DEFAULT_MATH_CONTEXT);
+	}
+	int currencyIndex = CurrencyIndex.indexOf(currency);
+	if (currencyIndex >= CACHE_CURRENCIES) {
+	    return new Money(currency, number, DEFAULT_MATH_CONTEXT);
+	}
+	Money[] row = CACHE.get(currencyIndex);
+	if (row == null) {
+	    CACHE.compareAndSet(currencyIndex, null, new Money[CACHE_SIZE * 2]);
+	    row = CACHE.get(currencyIndex);
+	}
+	int slot = (int) value - CACHE_LOW + (scale == 0 ? 0 : CACHE_SIZE);
+	Money cached = row[slot];
+	if (cached == null || cached.currency != currency) {
+	    long unscaledValue = scaleUp(value, scale);
+	    if (unscaledValue == INFLATED) {
+		return new Money(currency, number, DEFAULT_MATH_CONTEXT);
+	    }
+	    cached = new Money(currency, unscaledValue, scale, DEFAULT_MATH_CONTEXT);
+	    row[slot] = cached;
+	}
+	if (number instanceof BigDecimal && !cached.bigDecimal().equals(number)) {
+	    return new Money(currency, number, DEFAULT_MATH_CONTEXT);
+	}
+	return cached;
+    }
+
     /*
      * (non-Javadoc)
      * @see java.lang.Object#hashCode()
@@ -209,7 +341,7 @@ public final class Money implements MonetaryAmount, Comparable<MonetaryAmount> {
 	final int prime = 31;
 	int result = 1;
 	result = prime * result + ((currency == null) ? 0 : currency.hashCode());
-	result = prime * result + ((number == null) ? 0 : number.hashCode());
+	result = prime * result + bigDecimal().hashCode();
 	return result;
     }
 
@@ -231,12 +363,12 @@ public final class Money implements MonetaryAmount, Comparable<MonetaryAmount> {
 		return false;
 	} else if (!currency.equals(other.currency))
 	    return false;
-	if (number == null) {
-	    if (other.number != null)
-		return false;
-	} else if (!number.equals(other.number))
-	    return false;
-	return true;
+	if (this.unscaled != INFLATED || other.unscaled != INFLATED) {
+	    // compact iff the unscaled value fits, so a compact and an inflated
+	    // amount are never equal
+	    return this.unscaled == other.unscaled && this.scale == other.scale;
+	}
+	return this.number.equals(other.number);
     }
 
     /*
@@ -246,7 +378,7 @@ public final class Money implements MonetaryAmount, Comparable<MonetaryAmount> {
 	checkAmountParameter(this.currency, o);
 	int compare = -1;
 	if (this.currency.equals(o.getCurrency())) {
-	    compare = this.number.compareTo(o.asType(BigDecimal.class));
+	    compare = compareNumber(o);
 	} else {
 	    compare = this.currency.getNamespace().compareTo(o.getCurrency().getNamespace());
 	    if (compare == 0) {
@@ -286,7 +418,7 @@ public final class Money implements MonetaryAmount, Comparable<MonetaryAmount> {
 	if (mathContext == null) {
 	    throw new IllegalArgumentException("MathContext required.");
 	}
-	return new Money(this.currency, this.number, mathContext);
+	return new Money(this.currency, bigDecimal(), mathContext);
     }
 
     /*
@@ -308,7 +440,16 @@ public final class Money implements MonetaryAmount, Comparable<MonetaryAmount> {
      */
     public Money add(MonetaryAmount amount) {
 	checkAmountParameter(this.currency, amount);
-	return new Money(this.currency, this.number.add(amount.asType(BigDecimal.class), this.mathContext),
+	if (this.unscaled != INFLATED) {
+	    long value = unscaledValueOf(amount);
+	    if (value != INFLATED) {
+		Money result = addCompact(value, amount.getScale());
+		if (result != null) {
+		    return result;
+		}
+	    }
+	}
+	return new Money(this.currency, bigDecimal().add(amount.asType(BigDecimal.class), this.mathContext),
 		this.mathContext);
     }
 
@@ -318,7 +459,16 @@ public final class Money implements MonetaryAmount, Comparable<MonetaryAmount> {
      */
     public Money add(Number amount) {
 	checkNumber(amount);
-	return new Money(this.currency, this.number.add(getBigDecimal(amount), this.mathContext), this.mathContext);
+	if (this.unscaled != INFLATED) {
+	    long value = integralValueOf(amount);
+	    if (value != INFLATED) {
+		Money result = addCompact(value, 0);
+		if (result != null) {
+		    return result;
+		}
+	    }
+	}
+	return new Money(this.currency, bigDecimal().add(getBigDecimal(amount), this.mathContext), this.mathContext);
     }
 
     private BigDecimal getBigDecimal(Number num) {
@@ -356,7 +506,7 @@ public final class Money implements MonetaryAmount, Comparable<MonetaryAmount> {
      */
     public Money divide(MonetaryAmount divisor) {
 	checkAmountParameter(this.currency, divisor);
-	BigDecimal dec = this.number.divide(divisor.asType(BigDecimal.class), this.mathContext);
+	BigDecimal dec = bigDecimal().divide(divisor.asType(BigDecimal.class), this.mathContext);
 	return new Money(this.currency, dec, this.mathContext);
     }
 
@@ -365,7 +515,7 @@ public final class Money implements MonetaryAmount, Comparable<MonetaryAmount> {
      * @see javax.money.MonetaryAmount#divide(javax.money.MonetaryAmount)
      */
     public Money divide(Number divisor) {
-	BigDecimal dec = this.number.divide(getBigDecimal(divisor), this.mathContext);
+	BigDecimal dec = bigDecimal().divide(getBigDecimal(divisor), this.mathContext);
 	return new Money(this.currency, dec, this.mathContext);
     }
 
@@ -376,7 +526,7 @@ public final class Money implements MonetaryAmount, Comparable<MonetaryAmount> {
      */
     public Money[] divideAndRemainder(MonetaryAmount divisor) {
 	checkAmountParameter(this.currency, divisor);
-	BigDecimal[] dec = this.number.divideAndRemainder(divisor.asType(BigDecimal.class), this.mathContext);
+	BigDecimal[] dec = bigDecimal().divideAndRemainder(divisor.asType(BigDecimal.class), this.mathContext);
 	return new Money[] { new Money(this.currency, dec[0], this.mathContext),
 		new Money(this.currency, dec[1], this.mathContext) };
     }
@@ -387,7 +537,7 @@ public final class Money implements MonetaryAmount, Comparable<MonetaryAmount> {
      * javax.money.MonetaryAmount#divideAndRemainder(javax.money.MonetaryAmount)
      */
     public Money[] divideAndRemainder(Number divisor) {
-	BigDecimal[] dec = this.number.divideAndRemainder(getBigDecimal(divisor), this.mathContext);
+	BigDecimal[] dec = bigDecimal().divideAndRemainder(getBigDecimal(divisor), this.mathContext);
 	return new Money[] { new Money(this.currency, dec[0], this.mathContext),
 		new Money(this.currency, dec[1], this.mathContext) };
     }
@@ -400,7 +550,7 @@ public final class Money implements MonetaryAmount, Comparable<MonetaryAmount> {
      */
     public Money divideToIntegralValue(MonetaryAmount divisor) {
 	checkAmountParameter(this.currency, divisor);
-	BigDecimal dec = this.number.divideToIntegralValue(divisor.asType(BigDecimal.class), this.mathContext);
+	BigDecimal dec = bigDecimal().divideToIntegralValue(divisor.asType(BigDecimal.class), this.mathContext);
 	return new Money(this.currency, dec, this.mathContext);
     }
 
@@ -409,7 +559,7 @@ public final class Money implements MonetaryAmount, Comparable<MonetaryAmount> {
      * @see javax.money.MonetaryAmount#divideToIntegralValue(Number) )D
      */
     public Money divideToIntegralValue(Number divisor) {
-    	BigDecimal dec = this.number.divideToIntegralValue(getBigDecimal(divisor), this.mathContext);
+    	BigDecimal dec = bigDecimal().divideToIntegralValue(getBigDecimal(divisor), this.mathContext);
     	return new Money(this.currency, dec, this.mathContext);
     }
 
@@ -419,7 +569,7 @@ public final class Money implements MonetaryAmount, Comparable<MonetaryAmount> {
      */
     public Money multiply(MonetaryAmount multiplicand) {
     	checkAmountParameter(this.currency, multiplicand);
-    	BigDecimal dec = this.number.multiply(multiplicand.asType(BigDecimal.class), this.mathContext);
+    	BigDecimal dec = bigDecimal().multiply(multiplicand.asType(BigDecimal.class), this.mathContext);
     	return new Money(this.currency, dec, this.mathContext);
     }
 
@@ -428,7 +578,7 @@ public final class Money implements MonetaryAmount, Comparable<MonetaryAmount> {
      * @see javax.money.MonetaryAmount#multiply(Number)
      */
     public Money multiply(Number multiplicand) {
-    	BigDecimal dec = this.number.multiply(getBigDecimal(multiplicand), this.mathContext);
+    	BigDecimal dec = bigDecimal().multiply(getBigDecimal(multiplicand), this.mathContext);
     	return new Money(this.currency, dec, this.mathContext);
     }
 
@@ -437,7 +587,10 @@ public final class Money implements MonetaryAmount, Comparable<MonetaryAmount> {
      * @see javax.money.MonetaryAmount#negate()
      */
     public Money negate() {
-    	return new Money(this.currency, this.number.negate(this.mathContext), this.mathContext);
+	if (this.unscaled != INFLATED && fitsPrecision(this.unscaled, this.mathContext)) {
+	    return new Money(this.currency, -this.unscaled, this.scale, this.mathContext);
+	}
+    	return new Money(this.currency, bigDecimal().negate(this.mathContext), this.mathContext);
     }
 
     /*
@@ -445,7 +598,7 @@ public final class Money implements MonetaryAmount, Comparable<MonetaryAmount> {
      * @see javax.money.MonetaryAmount#plus()
      */
     public Money plus() {
-    	return new Money(this.currency, this.number.plus(this.mathContext), this.mathContext);
+    	return new Money(this.currency, bigDecimal().plus(this.mathContext), this.mathContext);
     }
 
     /*
@@ -454,7 +607,16 @@ public final class Money implements MonetaryAmount, Comparable<MonetaryAmount> {
      */
     public Money subtract(MonetaryAmount subtrahend) {
 	checkAmountParameter(this.currency, subtrahend);
-	return new Money(this.currency, this.number.subtract(subtrahend.asType(BigDecimal.class), this.mathContext),
+	if (this.unscaled != INFLATED) {
+	    long value = unscaledValueOf(subtrahend);
+	    if (value != INFLATED) {
+		Money result = addCompact(-value, subtrahend.getScale());
+		if (result != null) {
+		    return result;
+		}
+	    }
+	}
+	return new Money(this.currency, bigDecimal().subtract(subtrahend.asType(BigDecimal.class), this.mathContext),
 		this.mathContext);
     }
 
@@ -464,7 +626,16 @@ public final class Money implements MonetaryAmount, Comparable<MonetaryAmount> {
      */
     public Money subtract(Number subtrahend) {
 	checkNumber(subtrahend);
-	return new Money(this.currency, this.number.subtract(getBigDecimal(subtrahend), this.mathContext),
+	if (this.unscaled != INFLATED) {
+	    long value = integralValueOf(subtrahend);
+	    if (value != INFLATED) {
+		Money result = addCompact(-value, 0);
+		if (result != null) {
+		    return result;
+		}
+	    }
+	}
+	return new Money(this.currency, bigDecimal().subtract(getBigDecimal(subtrahend), this.mathContext),
 		this.mathContext);
     }
 
@@ -473,7 +644,7 @@ public final class Money implements MonetaryAmount, Comparable<MonetaryAmount> {
      * @see javax.money.MonetaryAmount#pow(int)
      */
     public Money pow(int n) {
-	return new Money(this.currency, this.number.pow(n, this.mathContext), this.mathContext);
+	return new Money(this.currency, bigDecimal().pow(n, this.mathContext), this.mathContext);
     }
 
     /*
@@ -481,7 +652,7 @@ public final class Money implements MonetaryAmount, Comparable<MonetaryAmount> {
      * @see javax.money.MonetaryAmount#ulp()
      */
     public Money ulp() {
-	return new Money(this.currency, this.number.ulp());
+	return new Money(this.currency, bigDecimal().ulp());
     }
 
     /*
@@ -490,7 +661,7 @@ public final class Money implements MonetaryAmount, Comparable<MonetaryAmount> {
      */
     public Money remainder(MonetaryAmount divisor) {
 	checkAmountParameter(this.currency, divisor);
-	return new Money(this.currency, this.number.remainder(divisor.asType(BigDecimal.class), this.mathContext),
+	return new Money(this.currency, bigDecimal().remainder(divisor.asType(BigDecimal.class), this.mathContext),
 		this.mathContext);
     }
 
@@ -499,7 +670,7 @@ public final class Money implements MonetaryAmount, Comparable<MonetaryAmount> {
      * @see javax.money.MonetaryAmount#remainder(Number)
      */
     public Money remainder(Number divisor) {
-	return new Money(this.currency, this.number.remainder(getBigDecimal(divisor), this.mathContext),
+	return new Money(this.currency, bigDecimal().remainder(getBigDecimal(divisor), this.mathContext),
 		this.mathContext);
     }
 
@@ -508,7 +679,7 @@ public final class Money implements MonetaryAmount, Comparable<MonetaryAmount> {
      * @see javax.money.MonetaryAmount#scaleByPowerOfTen(int)
      */
     public Money scaleByPowerOfTen(int n) {
-	return new Money(this.currency, this.number.scaleByPowerOfTen(n), this.mathContext);
+	return new Money(this.currency, bigDecimal().scaleByPowerOfTen(n), this.mathContext);
     }
 
     /*
@@ -516,7 +687,7 @@ public final class Money implements MonetaryAmount, Comparable<MonetaryAmount> {
      * @see javax.money.MonetaryAmount#isZero()
      */
     public boolean isZero() {
-	return this.number.signum() == 0;
+	return signum() == 0;
     }
 
     /*
@@ -574,7 +745,36 @@ public final class Money implements MonetaryAmount, Comparable<MonetaryAmount> {
      * @see javax.money.MonetaryAmount#getScale()
      */
     public int getScale() {
-	return this.number.scale();
+	return this.scale;
+    }
+
+    /**
+     * Access the unscaled value of this amount, e.g. {@code 1234} for
+     * {@code EUR 12.34} with scale {@code 2}, without creating a
+     * {@link BigDecimal}.
+     * 
+     * @return the unscaled value, with the scale returned by
+     *         {@link #getScale()}.
+     * @throws ArithmeticException
+     *             if the unscaled value does not fit into a {@code long}.
+     * @see #isCompact()
+     */
+    public long getUnscaledValue() {
+	if (this.unscaled == INFLATED) {
+	    throw new ArithmeticException("Unscaled value exceeds long range: "
+		    + this);
+	}
+	return this.unscaled;
+    }
+
+    /**
+     * Checks if the unscaled value of this amount fits into a {@code long}, so
+     * {@link #getUnscaledValue()} returns it without throwing an exception.
+     * 
+     * @return true, if the amount is held in its compact representation.
+     */
+    public boolean isCompact() {
+	return this.unscaled != INFLATED;
     }
 
     /*
@@ -582,7 +782,7 @@ public final class Money implements MonetaryAmount, Comparable<MonetaryAmount> {
      * @see javax.money.MonetaryAmount#getPrecision()
      */
     public int getPrecision() {
-	return this.number.precision();
+	return bigDecimal().precision();
     }
 
     /*
@@ -590,7 +790,7 @@ public final class Money implements MonetaryAmount, Comparable<MonetaryAmount> {
      * @see javax.money.MonetaryAmount#intValue()
      */
     public int intValue() {
-	return this.number.intValue();
+	return bigDecimal().intValue();
     }
 
     /*
@@ -598,7 +798,7 @@ public final class Money implements MonetaryAmount, Comparable<MonetaryAmount> {
      * @see javax.money.MonetaryAmount#intValueExact()
      */
     public int intValueExact() {
-	return this.number.intValueExact();
+	return bigDecimal().intValueExact();
     }
 
     /*
@@ -606,7 +806,7 @@ public final class Money implements MonetaryAmount, Comparable<MonetaryAmount> {
      * @see javax.money.MonetaryAmount#longValue()
      */
     public long longValue() {
-	return this.number.longValue();
+	return bigDecimal().longValue();
     }
 
     /*
@@ -614,7 +814,7 @@ public final class Money implements MonetaryAmount, Comparable<MonetaryAmount> {
      * @see javax.money.MonetaryAmount#longValueExact()
      */
     public long longValueExact() {
-	return this.number.longValueExact();
+	return bigDecimal().longValueExact();
     }
 
     /*
@@ -622,7 +822,7 @@ public final class Money implements MonetaryAmount, Comparable<MonetaryAmount> {
      * @see javax.money.MonetaryAmount#floatValue()
      */
     public float floatValue() {
-	return this.number.floatValue();
+	return bigDecimal().floatValue();
     }
 
     /*
@@ -630,7 +830,7 @@ public final class Money implements MonetaryAmount, Comparable<MonetaryAmount> {
      * @see javax.money.MonetaryAmount#doubleValue()
      */
     public double doubleValue() {
-	return this.number.doubleValue();
+	return bigDecimal().doubleValue();
     }
 
     /*
@@ -638,7 +838,7 @@ public final class Money implements MonetaryAmount, Comparable<MonetaryAmount> {
      * @see javax.money.MonetaryAmount#byteValue()
      */
     public byte byteValue() {
-	return this.number.byteValue();
+	return bigDecimal().byteValue();
     }
 
     /*
@@ -646,7 +846,7 @@ public final class Money implements MonetaryAmount, Comparable<MonetaryAmount> {
      * @see javax.money.MonetaryAmount#shortValue()
      */
     public short shortValue() {
-	return this.number.shortValue();
+	return bigDecimal().shortValue();
     }
 
     /*
@@ -654,7 +854,7 @@ public final class Money implements MonetaryAmount, Comparable<MonetaryAmount> {
      * @see javax.money.MonetaryAmount#shortValueExact()
      */
     public short shortValueExact() {
-	return number.shortValueExact();
+	return bigDecimal().shortValueExact();
     }
 
     /*
@@ -663,6 +863,9 @@ public final class Money implements MonetaryAmount, Comparable<MonetaryAmount> {
      */
 
     public int signum() {
+	if (this.unscaled != INFLATED) {
+	    return Long.signum(this.unscaled);
+	}
 	return this.number.signum();
     }
 
@@ -671,7 +874,7 @@ public final class Money implements MonetaryAmount, Comparable<MonetaryAmount> {
      * @see javax.money.MonetaryAmount#toEngineeringString()
      */
     public String toEngineeringString() {
-	return this.currency.getCurrencyCode() + ' ' + this.number.toEngineeringString();
+	return this.currency.getCurrencyCode() + ' ' + bigDecimal().toEngineeringString();
     }
 
     /*
@@ -679,7 +882,7 @@ public final class Money implements MonetaryAmount, Comparable<MonetaryAmount> {
      * @see javax.money.MonetaryAmount#toPlainString()
      */
     public String toPlainString() {
-	return this.currency.getCurrencyCode() + ' ' + this.number.toPlainString();
+	return this.currency.getCurrencyCode() + ' ' + bigDecimal().toPlainString();
     }
 
     /*
@@ -688,7 +891,7 @@ public final class Money implements MonetaryAmount, Comparable<MonetaryAmount> {
      */
     public boolean isLessThan(MonetaryAmount amount) {
 	checkAmountParameter(this.currency, amount);
-	return number.compareTo(amount.asType(BigDecimal.class)) < 0;
+	return compareNumber(amount) < 0;
     }
 
     /*
@@ -698,7 +901,7 @@ public final class Money implements MonetaryAmount, Comparable<MonetaryAmount> {
      */
     public boolean isLessThanOrEqualTo(MonetaryAmount amount) {
 	checkAmountParameter(this.currency, amount);
-	return number.compareTo(amount.asType(BigDecimal.class)) <= 0;
+	return compareNumber(amount) <= 0;
     }
 
     /*
@@ -707,7 +910,7 @@ public final class Money implements MonetaryAmount, Comparable<MonetaryAmount> {
      */
     public boolean isGreaterThan(MonetaryAmount amount) {
 	checkAmountParameter(this.currency, amount);
-	return number.compareTo(amount.asType(BigDecimal.class)) > 0;
+	return compareNumber(amount) > 0;
     }
 
     /*
@@ -718,7 +921,7 @@ public final class Money implements MonetaryAmount, Comparable<MonetaryAmount> {
      */
     public boolean isGreaterThanOrEqualTo(MonetaryAmount amount) {
 	checkAmountParameter(this.currency, amount);
-	return number.compareTo(amount.asType(BigDecimal.class)) >= 0;
+	return compareNumber(amount) >= 0;
     }
 
     /*
@@ -727,7 +930,7 @@ public final class Money implements MonetaryAmount, Comparable<MonetaryAmount> {
      */
     public boolean isEqualTo(MonetaryAmount amount) {
 	checkAmountParameter(this.currency, amount);
-	return number.compareTo(amount.asType(BigDecimal.class)) == 0;
+	return compareNumber(amount) == 0;
     }
 
     /*
@@ -736,7 +939,7 @@ public final class Money implements MonetaryAmount, Comparable<MonetaryAmount> {
      */
     public boolean isNotEqualTo(MonetaryAmount amount) {
 	checkAmountParameter(this.currency, amount);
-	return number.compareTo(amount.asType(BigDecimal.class)) != 0;
+	return compareNumber(amount) != 0;
     }
 
     /*
@@ -762,32 +965,32 @@ public final class Money implements MonetaryAmount, Comparable<MonetaryAmount> {
     @SuppressWarnings("unchecked")
     public <T> T asType(Class<T> type) {
 	if (BigDecimal.class.equals(type)) {
-	    return (T) this.number;
+	    return (T) bigDecimal();
 	}
 	if (Number.class.equals(type)) {
-	    final T asType = (T) this.number;
+	    final T asType = (T) bigDecimal();
 	    return asType;
 	}
 	if (Double.class.equals(type)) {
-	    return (T) Double.valueOf(this.number.doubleValue());
+	    return (T) Double.valueOf(bigDecimal().doubleValue());
 	}
 	if (Float.class.equals(type)) {
-	    return (T) Float.valueOf(this.number.floatValue());
+	    return (T) Float.valueOf(bigDecimal().floatValue());
 	}
 	if (Long.class.equals(type)) {
-	    return (T) Long.valueOf(this.number.longValue());
+	    return (T) Long.valueOf(bigDecimal().longValue());
 	}
 	if (Integer.class.equals(type)) {
-	    return (T) Integer.valueOf(this.number.intValue());
+	    return (T) Integer.valueOf(bigDecimal().intValue());
 	}
 	if (Short.class.equals(type)) {
-	    return (T) Short.valueOf(this.number.shortValue());
+	    return (T) Short.valueOf(bigDecimal().shortValue());
 	}
 	if (Byte.class.equals(type)) {
-	    return (T) Byte.valueOf(this.number.byteValue());
+	    return (T) Byte.valueOf(bigDecimal().byteValue());
 	}
 	if (BigInteger.class.equals(type)) {
-	    return (T) this.number.toBigInteger();
+	    return (T) bigDecimal().toBigInteger();
 	}
 	throw new IllegalArgumentException("Unsupported representation type: " + type);
     }
@@ -808,7 +1011,168 @@ public final class Money implements MonetaryAmount, Comparable<MonetaryAmount> {
      */
     @Override
     public String toString() {
-	return currency.getCurrencyCode() + ' ' + number;
+	return currency.getCurrencyCode() + ' ' + bigDecimal();
+    }
+
+    /**
+     * Access the numeric part of this amount as {@link BigDecimal}, creating
+     * it from the compact representation, if required.
+     * 
+     * @return the numeric value, never null.
+     */
+    private BigDecimal bigDecimal() {
+	if (this.number != null) {
+	    return this.number;
+	}
+	BigDecimal value = this.decimal;
+	if (value == null) {
+	    value = BigDecimal.valueOf(this.unscaled, this.scale);
+	    this.decimal = value;
+	}
+	return value;
+    }
+
+    /**
+     * Adds the given unscaled value to this compact amount, if the result can
+     * be represented exactly and needs no rounding by this instance's
+     * {@link MathContext}, so it equals the result of {@link BigDecimal}
+     * arithmetic.
+     * 
+     * @return the result, or null, if {@link BigDecimal} arithmetic is
+     *         required.
+     */
+    private Money addCompact(long value, int valueScale) {
+	long a = this.unscaled;
+	long b = value;
+	int resultScale = this.scale;
+	if (valueScale > resultScale) {
+	    a = scaleUp(a, valueScale - resultScale);
+	    resultScale = valueScale;
+	} else if (valueScale < resultScale) {
+	    b = scaleUp(b, resultScale - valueScale);
+	}
+	if (a == INFLATED || b == INFLATED) {
+	    return null;
+	}
+	long r = a + b;
+	if (((a ^ r) & (b ^ r)) < 0 || r == INFLATED || !fitsPrecision(r, this.mathContext)) {
+	    return null;
+	}
+	return new Money(this.currency, r, resultScale, this.mathContext);
+    }
+
+    /**
+     * Creates a compact instance with the currency and {@link MathContext} of
+     * this instance, if the given value needs no rounding by the
+     * {@link MathContext}.
+     * 
+     * @param value
+     *            the unscaled value.
+     * @param valueScale
+     *            the scale of the value.
+     * @return the new instance, or null, if {@link BigDecimal} arithmetic is
+     *         required.
+     */
+    Money withUnscaled(long value, int valueScale) {
+	if (value == INFLATED || !fitsPrecision(value, this.mathContext)) {
+	    return null;
+	}
+	return new Money(this.currency, value, valueScale, this.mathContext);
+    }
+
+    /**
+     * Compares the numeric value of this instance with the given amount,
+     * comparing unscaled values where possible.
+     */
+    private int compareNumber(MonetaryAmount amount) {
+	if (this.unscaled != INFLATED) {
+	    long value = unscaledValueOf(amount);
+	    if (value != INFLATED) {
+		int valueScale = amount.getScale();
+		long a = this.unscaled;
+		long b = value;
+		if (valueScale > this.scale) {
+		    a = scaleUp(a, valueScale - this.scale);
+		} else if (valueScale < this.scale) {
+		    b = scaleUp(b, this.scale - valueScale);
+		}
+		if (a != INFLATED && b != INFLATED) {
+		    return (a < b) ? -1 : ((a == b) ? 0 : 1);
+		}
+	    }
+	}
+	return bigDecimal().compareTo(amount.asType(BigDecimal.class));
+    }
+
+    /**
+     * Evaluates the compact unscaled value of a {@link BigDecimal}.
+     * 
+     * @return the unscaled value, or {@link #INFLATED}, if it does not fit.
+     */
+    private static long compactValueOf(BigDecimal value) {
+	BigInteger unscaledValue = value.unscaledValue();
+	if (unscaledValue.bitLength() < 64) {
+	    return unscaledValue.longValue();
+	}
+	return INFLATED;
+    }
+
+    /**
+     * Access the unscaled value of a compact {@link Money} or a
+     * {@link FastMoney}.
+     * 
+     * @return the unscaled value, or {@link #INFLATED}, if not available.
+     */
+    private static long unscaledValueOf(MonetaryAmount amount) {
+	if (amount instanceof Money) {
+	    return ((Money) amount).unscaled;
+	}
+	if (amount instanceof FastMoney) {
+	    return ((FastMoney) amount).getUnscaledValue();
+	}
+	return INFLATED;
+    }
+
+    /**
+     * Access the value of an integral {@link Number}.
+     * 
+     * @return the value, or {@link #INFLATED}, if the number is not integral.
+     */
+    private static long integralValueOf(Number number) {
+	if (number instanceof Long || number instanceof Integer || number instanceof Short
+		|| number instanceof Byte) {
+	    return number.longValue();
+	}
+	return INFLATED;
+    }
+
+    /**
+     * Multiplies the value by {@code 10^digits}.
+     * 
+     * @return the result, or {@link #INFLATED} on overflow.
+     */
+    private static long scaleUp(long value, int digits) {
+	if (digits > UnscaledArithmetic.MAX_POWER_OF_TEN) {
+	    return value == 0 ? 0 : INFLATED;
+	}
+	long factor = UnscaledArithmetic.POWERS_OF_TEN[digits];
+	if (value > Long.MAX_VALUE / factor || value < -(Long.MAX_VALUE / factor)) {
+	    return INFLATED;
+	}
+	return value * factor;
+    }
+
+    /**
+     * Checks if the given unscaled value is not rounded by the given
+     * {@link MathContext}.
+     */
+    private static boolean fitsPrecision(long value, MathContext mathContext) {
+	int precision = mathContext.getPrecision();
+	if (precision == 0 || precision > UnscaledArithmetic.MAX_POWER_OF_TEN) {
+	    return true;
+	}
+	long limit = UnscaledArithmetic.POWERS_OF_TEN[precision];
+	return value < limit && value > -limit;
     }
 
     /**
@@ -853,9 +1217,7 @@ public final class Money implements MonetaryAmount, Comparable<MonetaryAmount> {
 		throw new IllegalArgumentException("Amount must not be null.");
 	    }
 	    final CurrencyUnit amountCurrency = amount.getCurrency();
-	    if (!(currency.getNamespace().equals(amountCurrency.getNamespace()))
-		    || (currency.getNamespace().equals(amountCurrency.getNamespace()) && !(currency.getCurrencyCode()
-			    .equals(amountCurrency.getCurrencyCode())))) {
+	    if (!CurrencyIndex.isSameCurrency(currency, amountCurrency)) {
 		throw new CurrencyMismatchException(currency, amountCurrency);
 	    }
 	}
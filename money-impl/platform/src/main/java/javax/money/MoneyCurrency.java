@@ -16,10 +16,12 @@
 package javax.money;
 
 import java.io.Serializable;
+import java.nio.ByteBuffer;
 import java.util.Currency;
 import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * Adapter that implements the new {@link CurrencyUnit} interface using the
@@ -52,14 +54,20 @@ public class MoneyCurrency implements CurrencyUnit, Serializable, Comparable<Cur
     /** fraction digits, or -1. */
     private final int defaultFractionDigits;
     /** The cache rounding value, -1 if not defined. */
-    private int cacheRounding = -1;
+    private final int cacheRounding;
     /** true, if legal tender. */
     private final boolean legalTender;
     /** true, if it is a virtual currency. */
     private final boolean virtual;
+    /** The {@link CurrencyIndex} of this currency plus one, 0 if not yet evaluated. */
+    private transient int index;
 
     private static final Map<String, MoneyCurrency> CACHED = new ConcurrentHashMap<String, MoneyCurrency>();
 
+    /** The ISO currencies resolved so far, by {@link #isoCodeIndex(int, int, int)}. */
+    private static final AtomicReferenceArray<MoneyCurrency> ISO_CODES = new AtomicReferenceArray<MoneyCurrency>(
+	    26 * 26 * 26);
+
     //private static final Logger LOGGER = Logger.getLogger(MoneyCurrency.class.getName());
 
     /**
@@ -67,11 +75,13 @@ public class MoneyCurrency implements CurrencyUnit, Serializable, Comparable<Cur
      * 
      * @param currency
      */
-    private MoneyCurrency(String namespace, String code, int numCode, int fractionDigits, boolean legal, boolean virtual) {
+    private MoneyCurrency(String namespace, String code, int numCode, int fractionDigits, int cacheRounding,
+	    boolean legal, boolean virtual) {
 		this.namespace = namespace;
 		this.currencyCode = code;
 		this.numericCode = numCode;
 		this.defaultFractionDigits = fractionDigits;
+		this.cacheRounding = cacheRounding;
 		this.legalTender = legal;
 		this.virtual = virtual;
     }
@@ -89,6 +99,7 @@ public class MoneyCurrency implements CurrencyUnit, Serializable, Comparable<Cur
 		this.currencyCode = currency.getCurrencyCode();
 		this.numericCode = currency.getNumericCode();
 		this.defaultFractionDigits = currency.getDefaultFractionDigits();
+		this.cacheRounding = -1;
 		this.legalTender = !this.currencyCode.startsWith("X"); // TODO check for
 		this.virtual = this.currencyCode.equals("XXX"); // TODO check for each
 								// code in util.Currency
@@ -125,6 +136,122 @@ public class MoneyCurrency implements CurrencyUnit, Serializable, Comparable<Cur
     	return of(Currency.getInstance(currencyCode));
     }
 
+    /**
+     * Access the ISO currency with the three letter code at the given position
+     * of a {@link CharSequence}, e.g. a field of a message being decoded.
+     * Currencies already resolved are looked up without creating a
+     * {@link String}.
+     * 
+     * @param chars
+     *            the characters, not null.
+     * @param offset
+     *            the index of the first letter of the code.
+     * @return the corresponding {@link MoneyCurrency} instance.
+     * @throws IllegalArgumentException
+     *             if the code is not a valid ISO currency code.
+     */
+    public static MoneyCurrency of(CharSequence chars, int offset) {
+	if (chars == null) {
+	    throw new IllegalArgumentException("Chars required.");
+	}
+	return ofIsoCode(chars.charAt(offset), chars.charAt(offset + 1), chars.charAt(offset + 2));
+    }
+
+    /**
+     * Access the ISO currency with the three letter ASCII code at the given
+     * position of a byte array. Currencies already resolved are looked up
+     * without creating a {@link String}.
+     * 
+     * @param bytes
+     *            the ASCII encoded bytes, not null.
+     * @param offset
+     *            the index of the first letter of the code.
+     * @return the corresponding {@link MoneyCurrency} instance.
+     * @throws IllegalArgumentException
+     *             if the code is not a valid ISO currency code.
+     */
+    public static MoneyCurrency of(byte[] bytes, int offset) {
+	if (bytes == null) {
+	    throw new IllegalArgumentException("Bytes required.");
+	}
+	if (offset < 0 || offset + 3 > bytes.length) {
+	    throw new IndexOutOfBoundsException("Offset: " + offset + ", length: " + bytes.length);
+	}
+	return ofIsoCode(bytes[offset], bytes[offset + 1], bytes[offset + 2]);
+    }
+
+    /**
+     * Access the ISO currency with the three letter ASCII code at the given
+     * absolute position of a {@link ByteBuffer}. The buffer's position is not
+     * changed. Currencies already resolved are looked up without creating a
+     * {@link String}.
+     * 
+     * @param buffer
+     *            the buffer containing the ASCII encoded code, not null.
+     * @param offset
+     *            the absolute index of the first letter of the code.
+     * @return the corresponding {@link MoneyCurrency} instance.
+     * @throws IllegalArgumentException
+     *             if the code is not a valid ISO currency code.
+     */
+    public static MoneyCurrency of(ByteBuffer buffer, int offset) {
+	if (buffer == null) {
+	    throw new IllegalArgumentException("Buffer required.");
+	}
+	return ofIsoCode(buffer.get(offset), buffer.get(offset + 1), buffer.get(offset + 2));
+    }
+
+    /**
+     * Access the ISO currency with the given numeric code, as returned by
+     * {@link #getNumericCode()}. The reverse index is built from
+     * {@link Currency#getAvailableCurrencies()} on first access.
+     * 
+     * @param numericCode
+     *            the ISO numeric code.
+     * @return the corresponding {@link MoneyCurrency} instance.
+     * @throws IllegalArgumentException
+     *             if no currency with the given numeric code is available.
+     */
+    public static MoneyCurrency ofNumericCode(int numericCode) {
+	if (numericCode >= 0 && numericCode < NumericCodes.CURRENCIES.length) {
+	    MoneyCurrency currency = NumericCodes.CURRENCIES[numericCode];
+	    if (currency != null) {
+		return currency;
+	    }
+	}
+	throw new IllegalArgumentException("No currency with numeric code: " + numericCode);
+    }
+
+    /**
+     * Resolves an ISO currency by the letters of its code, using a table
+     * indexed by {@link #isoCodeIndex(int, int, int)}.
+     */
+    private static MoneyCurrency ofIsoCode(int c0, int c1, int c2) {
+	int index = isoCodeIndex(c0, c1, c2);
+	if (index < 0) {
+	    throw new IllegalArgumentException("Invalid currency code: " + (char) c0 + (char) c1 + (char) c2);
+	}
+	MoneyCurrency currency = ISO_CODES.get(index);
+	if (currency == null) {
+	    currency = of(new String(new char[] { (char) c0, (char) c1, (char) c2 }));
+	    ISO_CODES.set(index, currency);
+	}
+	return currency;
+    }
+
+    /**
+     * Evaluates the index of a three letter code within {@code [0, 26^3)}.
+     * 
+     * @return the index, or -1, if the code contains other characters than
+     *         'A'-'Z'.
+     */
+    static int isoCodeIndex(int c0, int c1, int c2) {
+	if (c0 < 'A' || c0 > 'Z' || c1 < 'A' || c1 > 'Z' || c2 < 'A' || c2 > 'Z') {
+	    return -1;
+	}
+	return ((c0 - 'A') * 26 + (c1 - 'A')) * 26 + (c2 - 'A');
+    }
+
     /**
      * Access a new instance based on the ISO currency code. The code must
      * return a {@link Currency} when passed to
@@ -184,6 +311,21 @@ public class MoneyCurrency implements CurrencyUnit, Serializable, Comparable<Cur
     	return defaultFractionDigits;
     }
 
+    /**
+     * Access the {@link CurrencyIndex} of this currency, which is cached on
+     * the instance.
+     * 
+     * @return the index of this currency.
+     */
+    int getIndex() {
+	int i = this.index;
+	if (i == 0) {
+	    i = CurrencyIndex.lookup(this) + 1;
+	    this.index = i;
+	}
+	return i - 1;
+    }
+
     /*
      * (non-Javadoc)
      * @see javax.money.CurrencyUnit#getCashRounding()
@@ -480,12 +622,34 @@ public class MoneyCurrency implements CurrencyUnit, Serializable, Comparable<Cur
 		MoneyCurrency current = CACHED.get(key);
 		if (current == null) {
 		    current = new MoneyCurrency(namespace, currencyCode, numericCode, defaultFractionDigits,
-			    legalTender, virtual);
+			    cacheRounding, legalTender, virtual);
 		    CACHED.put(key, current);
 		}
 		return current;
 	    }
-	    return new MoneyCurrency(namespace, currencyCode, numericCode, defaultFractionDigits, legalTender, virtual);
+	    return new MoneyCurrency(namespace, currencyCode, numericCode, defaultFractionDigits, cacheRounding,
+		    legalTender, virtual);
+	}
+    }
+
+    /**
+     * Holder of the numeric code reverse index, initialized on first use.
+     */
+    private static final class NumericCodes {
+
+	/** The ISO currencies, by numeric code. */
+	static final MoneyCurrency[] CURRENCIES = new MoneyCurrency[1000];
+
+	static {
+	    for (Currency currency : Currency.getAvailableCurrencies()) {
+		int code = currency.getNumericCode();
+		if (code >= 0 && code < CURRENCIES.length && CURRENCIES[code] == null) {
+		    CURRENCIES[code] = MoneyCurrency.of(currency);
+		}
+	    }
+	}
+
+	private NumericCodes() {
 	}
     }
 
@@ -30,6 +30,12 @@ import java.util.Currency;
 public final class MoneyRounding implements MonetaryOperator {
 
 	private static final MonetaryOperator DEFAULT_ROUNDING = new DefaultCurrencyRounding();
+	/**
+	 * The shared instances for scales up to {@link FastMoney#MAX_SCALE},
+	 * indexed by {@link RoundingMode} and scale, created on first access.
+	 */
+	private static final MoneyRounding[][] CACHE = new MoneyRounding[RoundingMode
+			.values().length][FastMoney.MAX_SCALE + 1];
 	/** The {@link RoundingMode} used. */
 	private final RoundingMode roundingMode;
 	/** The scale to be applied. */
@@ -65,14 +71,14 @@ public final class MoneyRounding implements MonetaryOperator {
 	}
 
 	/**
-	 * Creates an {@link MoneyRounding} for rounding {@link MonetaryAmount}
+	 * Access an {@link MoneyRounding} for rounding {@link MonetaryAmount}
 	 * instances given a currency.
 	 * 
 	 * @param currency
 	 *            The currency, which determines the required precision. As
 	 *            {@link RoundingMode}, by default, {@link RoundingMode#HALF_UP}
 	 *            is sued.
-	 * @return a new instance {@link MonetaryOperator} implementing the
+	 * @return a shared instance {@link MonetaryOperator} implementing the
 	 *         rounding.
 	 */
 	public static MoneyRounding of(CurrencyUnit currency,
@@ -82,14 +88,14 @@ public final class MoneyRounding implements MonetaryOperator {
 	}
 
 	/**
-	 * Creates an {@link MonetaryOperator} for rounding {@link MonetaryAmount}
+	 * Access an {@link MonetaryOperator} for rounding {@link MonetaryAmount}
 	 * instances given a currency.
 	 * 
 	 * @param currency
 	 *            The currency, which determines the required precision. As
 	 *            {@link RoundingMode}, by default, {@link RoundingMode#HALF_UP}
 	 *            is sued.
-	 * @return a new instance {@link MonetaryOperator} implementing the
+	 * @return a shared instance {@link MonetaryOperator} implementing the
 	 *         rounding.
 	 */
 	public static MoneyRounding of(CurrencyUnit currency) {
@@ -99,18 +105,109 @@ public final class MoneyRounding implements MonetaryOperator {
 	}
 
 	/**
-	 * Creates an {@link MoneyRounding} for rounding given a precision and a
-	 * {@link RoundingMode}.
+	 * Access an {@link MoneyRounding} for rounding given a precision and a
+	 * {@link RoundingMode}. Instances for scales up to
+	 * {@link FastMoney#MAX_SCALE} are shared.
 	 * 
 	 * @param scale
 	 *            the required scale
 	 * @param rounding
 	 *            the {@link RoundingMode}, not null.
-	 * @return a new instance {@link MonetaryOperator} implementing the
-	 *         rounding.
+	 * @return a {@link MonetaryOperator} implementing the rounding.
 	 */
 	public static MoneyRounding of(int scale, RoundingMode rounding) {
-		return new MoneyRounding(scale, rounding);
+		if (rounding == null || scale < 0 || scale > FastMoney.MAX_SCALE) {
+			return new MoneyRounding(scale, rounding);
+		}
+		MoneyRounding[] roundings = CACHE[rounding.ordinal()];
+		MoneyRounding result = roundings[scale];
+		if (result == null) {
+			// racy, but safe: instances are immutable and equivalent
+			result = new MoneyRounding(scale, rounding);
+			roundings[scale] = result;
+		}
+		return result;
+	}
+
+	/**
+	 * Access the scale amounts are rounded to.
+	 * 
+	 * @return the scale.
+	 */
+	public int getScale() {
+		return this.scale;
+	}
+
+	/**
+	 * Access the {@link RoundingMode} used.
+	 * 
+	 * @return the rounding mode, never {@code null}.
+	 */
+	public RoundingMode getRoundingMode() {
+		return this.roundingMode;
+	}
+
+	/**
+	 * Rounds an unscaled value to the scale of this rounding, without
+	 * creating a {@link BigDecimal}, e.g. {@code 12345} with scale {@code 3}
+	 * is rounded to {@code 1235} by a {@link RoundingMode#HALF_UP} rounding
+	 * with scale {@code 2}.
+	 * 
+	 * @param unscaled
+	 *            the unscaled value.
+	 * @param fromScale
+	 *            the scale of the value, not negative.
+	 * @return the rounded unscaled value, with the scale of this rounding.
+	 * @throws ArithmeticException
+	 *             if the result does not fit into a {@code long}, or if
+	 *             rounding is necessary, but the rounding mode is
+	 *             {@link RoundingMode#UNNECESSARY}.
+	 */
+	public long round(long unscaled, int fromScale) {
+		if (fromScale < 0) {
+			throw new IllegalArgumentException("Invalid scale: " + fromScale);
+		}
+		if (Math.abs(fromScale - this.scale) > FastMoney.MAX_SCALE) {
+			return BigDecimal.valueOf(unscaled, fromScale)
+					.setScale(this.scale, this.roundingMode)
+					.scaleByPowerOfTen(this.scale).longValueExact();
+		}
+		return UnscaledArithmetic.rescale(unscaled, fromScale,
+				this.scale, this.roundingMode);
+	}
+
+	/**
+	 * Rounds unscaled values in place to the scale of this rounding, e.g. a
+	 * column of an {@link AmountArray}.
+	 * 
+	 * @param unscaled
+	 *            the unscaled values, not null, replaced by the values with
+	 *            the scale of this rounding.
+	 * @param fromScale
+	 *            the scale of the values, not negative.
+	 * @throws ArithmeticException
+	 *             if a result does not fit into a {@code long}, or if
+	 *             rounding is necessary, but the rounding mode is
+	 *             {@link RoundingMode#UNNECESSARY}; the values are not
+	 *             modified in this case.
+	 */
+	public void round(long[] unscaled, int fromScale) {
+		if (unscaled == null) {
+			throw new IllegalArgumentException("Values required.");
+		}
+		if (fromScale < 0) {
+			throw new IllegalArgumentException("Invalid scale: " + fromScale);
+		}
+		if (fromScale < this.scale
+				|| this.roundingMode == RoundingMode.UNNECESSARY) {
+			// may fail, so check all values before modifying any
+			for (long value : unscaled) {
+				round(value, fromScale);
+			}
+		}
+		for (int i = 0; i < unscaled.length; i++) {
+			unscaled[i] = round(unscaled[i], fromScale);
+		}
 	}
 
 	/*
@@ -119,10 +216,40 @@ public final class MoneyRounding implements MonetaryOperator {
 	 */
 	@Override
 	public MonetaryAmount apply(MonetaryAmount value) {
+		try {
+			if (value instanceof FastMoney
+					&& this.scale <= FastMoney.MAX_SCALE) {
+				return roundFast((FastMoney) value);
+			}
+			if (value instanceof Money && ((Money) value).isCompact()
+					&& value.getScale() >= 0) {
+				Money money = (Money) value;
+				Money result = money.withUnscaled(
+						round(money.getUnscaledValue(), money.getScale()),
+						this.scale);
+				if (result != null) {
+					return result;
+				}
+			}
+		} catch (ArithmeticException e) {
+			// rounded value exceeds the long range, continue with BigDecimal
+		}
 		return value.from(value.asType(BigDecimal.class).setScale(this.scale,
 				this.roundingMode));
 	}
 
+	/**
+	 * Rounds a {@link FastMoney}, keeping its scale, if larger than the scale
+	 * of this rounding, as {@link FastMoney#from(Number)} does.
+	 */
+	private MonetaryAmount roundFast(FastMoney amount) {
+		int resultScale = Math.max(amount.getScale(), this.scale);
+		long rounded = round(amount.getUnscaledValue(), amount.getScale());
+		return FastMoney.ofUnscaled(amount.getCurrency(),
+				UnscaledArithmetic.rescale(rounded, this.scale, resultScale,
+						this.roundingMode), resultScale);
+	}
+
 	/**
 	 * Default Rounding that rounds a {@link MonetaryAmount} based on tis
 	 * {@link Currency}.
@@ -86,6 +86,15 @@ public final class Percent implements MonetaryOperator {
 		return amount.multiply(percentValue);
 	}
 	
+	/**
+	 * Access the factor amounts are multiplied with, e.g. 0.03 for 3 percent.
+	 * 
+	 * @return the factor, never {@code null}.
+	 */
+	public BigDecimal getFactor() {
+		return percentValue;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
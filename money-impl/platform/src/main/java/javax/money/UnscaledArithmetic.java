@@ -0,0 +1,228 @@
+/*
+ *  Copyright (c) 2012, 2013, Credit Suisse (Anatole Tresch), Werner Keil.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package javax.money;
+
+import java.math.RoundingMode;
+
+/**
+ * Exact arithmetic on unscaled {@code long} values, without creating
+ * {@link java.math.BigDecimal} instances. It is shared by the amount
+ * implementations based on {@code long} values, e.g. {@link FastMoney},
+ * {@link AmountArray}, the roundings and the functions in
+ * {@code javax.money.function}, so they detect overflow the same way.
+ *
+ * @author Anatole Tresch
+ */
+public final class UnscaledArithmetic {
+
+	/** The largest {@code n}, for which {@code 10^n} fits into a long. */
+	public static final int MAX_POWER_OF_TEN = 18;
+
+	/** The powers of ten, that fit into a {@code long}. */
+	static final long[] POWERS_OF_TEN = { 1L, 10L, 100L, 1000L, 10000L,
+			100000L, 1000000L, 10000000L, 100000000L, 1000000000L,
+			10000000000L, 100000000000L, 1000000000000L, 10000000000000L,
+			100000000000000L, 1000000000000000L, 10000000000000000L,
+			100000000000000000L, 1000000000000000000L };
+
+	/**
+	 * Singleton constructor.
+	 */
+	private UnscaledArithmetic() {
+	}
+
+	/**
+	 * Rescales an unscaled value, rounding if required.
+	 *
+	 * @param value
+	 *            the unscaled value.
+	 * @param fromScale
+	 *            the scale of the value.
+	 * @param toScale
+	 *            the target scale, differing at most
+	 *            {@link FastMoney#MAX_SCALE} from {@code fromScale}.
+	 * @param roundingMode
+	 *            the rounding mode, not null.
+	 * @return the value with the target scale.
+	 * @throws ArithmeticException
+	 *             on long overflow, or if rounding is necessary, but the
+	 *             rounding mode is {@link RoundingMode#UNNECESSARY}.
+	 */
+	static long rescale(long value, int fromScale, int toScale,
+			RoundingMode roundingMode) {
+		if (toScale >= fromScale) {
+			return multiplyExact(value, POWERS_OF_TEN[toScale - fromScale]);
+		}
+		return divideAndRound(value, POWERS_OF_TEN[fromScale - toScale],
+				roundingMode);
+	}
+
+	/**
+	 * Divides the given value by a positive divisor, rounding the result
+	 * according to the given {@link RoundingMode}.
+	 *
+	 * @param dividend
+	 *            the dividend
+	 * @param divisor
+	 *            the divisor, {@code > 0}.
+	 * @param roundingMode
+	 *            the rounding mode, not null.
+	 * @return the rounded quotient.
+	 * @throws IllegalArgumentException
+	 *             if the divisor is not positive.
+	 * @throws ArithmeticException
+	 *             if rounding is necessary, but the rounding mode is
+	 *             {@link RoundingMode#UNNECESSARY}.
+	 */
+	public static long divideAndRound(long dividend, long divisor,
+			RoundingMode roundingMode) {
+		if (divisor <= 0) {
+			throw new IllegalArgumentException("Invalid divisor: " + divisor);
+		}
+		long quotient = dividend / divisor;
+		long remainder = dividend % divisor;
+		if (remainder == 0) {
+			return quotient;
+		}
+		int signum = dividend < 0 ? -1 : 1;
+		boolean increment;
+		switch (roundingMode) {
+		case UNNECESSARY:
+			throw new ArithmeticException("Rounding necessary");
+		case UP:
+			increment = true;
+			break;
+		case DOWN:
+			increment = false;
+			break;
+		case CEILING:
+			increment = signum > 0;
+			break;
+		case FLOOR:
+			increment = signum < 0;
+			break;
+		default:
+			long absRemainder = Math.abs(remainder);
+			int half = Long.compare(absRemainder, divisor - absRemainder);
+			if (half != 0) {
+				increment = half > 0;
+			} else if (roundingMode == RoundingMode.HALF_UP) {
+				increment = true;
+			} else if (roundingMode == RoundingMode.HALF_DOWN) {
+				increment = false;
+			} else {
+				increment = (quotient & 1L) != 0;
+			}
+		}
+		return increment ? quotient + signum : quotient;
+	}
+
+	/**
+	 * Access the power of ten with the given exponent.
+	 *
+	 * @param n
+	 *            the exponent, between 0 and {@link #MAX_POWER_OF_TEN}.
+	 * @return {@code 10^n}.
+	 * @throws IllegalArgumentException
+	 *             if the exponent is out of range.
+	 */
+	public static long powerOfTen(int n) {
+		if (n < 0 || n > MAX_POWER_OF_TEN) {
+			throw new IllegalArgumentException("Invalid exponent: " + n);
+		}
+		return POWERS_OF_TEN[n];
+	}
+
+	/**
+	 * Adds two values.
+	 *
+	 * @param x
+	 *            the first value.
+	 * @param y
+	 *            the second value.
+	 * @return the sum.
+	 * @throws ArithmeticException
+	 *             if the sum exceeds the {@code long} range.
+	 */
+	public static long addExact(long x, long y) {
+		long r = x + y;
+		if (((x ^ r) & (y ^ r)) < 0) {
+			throw new ArithmeticException("long overflow");
+		}
+		return r;
+	}
+
+	/**
+	 * Subtracts two values.
+	 *
+	 * @param x
+	 *            the minuend.
+	 * @param y
+	 *            the subtrahend.
+	 * @return the difference.
+	 * @throws ArithmeticException
+	 *             if the difference exceeds the {@code long} range.
+	 */
+	public static long subtractExact(long x, long y) {
+		long r = x - y;
+		if (((x ^ y) & (x ^ r)) < 0) {
+			throw new ArithmeticException("long overflow");
+		}
+		return r;
+	}
+
+	/**
+	 * Multiplies two values.
+	 *
+	 * @param x
+	 *            the first value.
+	 * @param y
+	 *            the second value.
+	 * @return the product.
+	 * @throws ArithmeticException
+	 *             if the product exceeds the {@code long} range.
+	 */
+	public static long multiplyExact(long x, long y) {
+		if (multiplyOverflows(x, y)) {
+			throw new ArithmeticException("long overflow");
+		}
+		return x * y;
+	}
+
+	/**
+	 * Checks if the product of two values exceeds the {@code long} range,
+	 * without throwing an exception.
+	 *
+	 * @param x
+	 *            the first value.
+	 * @param y
+	 *            the second value.
+	 * @return true, if the product does not fit into a {@code long}.
+	 */
+	public static boolean multiplyOverflows(long x, long y) {
+		long ax = Math.abs(x);
+		long ay = Math.abs(y);
+		if (((ax | ay) >>> 31 != 0)) {
+			long r = x * y;
+			if (((y != 0) && (r / y != x))
+					|| (x == Long.MIN_VALUE && y == -1)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
@@ -15,6 +15,8 @@
  */
 package javax.money;
 
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
 /**
  * This class decorates an arbitrary {@link MonetaryAmount} instance and ensure
  * no negative values can be created using this instance.
@@ -23,7 +25,19 @@ package javax.money;
  */
 public final class UnsignedMonetaryAmount implements MonetaryAmount {
 	/** The underlying amount. */
-	private MonetaryAmount amount;
+	private final MonetaryAmount amount;
+
+	/** The number of whole values cached per currency, covering [0, 127]. */
+	private static final int CACHE_SIZE = 128;
+
+	/** The maximal number of currencies, for which instances are cached. */
+	private static final int CACHE_CURRENCIES = 1024;
+
+	/**
+	 * Cached instances, indexed by {@link CurrencyIndex} and integral value.
+	 */
+	private static final AtomicReferenceArray<UnsignedMonetaryAmount[]> CACHE = new AtomicReferenceArray<UnsignedMonetaryAmount[]>(
+			CACHE_CURRENCIES);
 
 	/**
 	 * Creates a new wrapper instance.
@@ -47,12 +61,72 @@ public final class UnsignedMonetaryAmount implements MonetaryAmount {
 	 * Access an {@link UnsignedMonetaryAmount} based on the given
 	 * {@link MonetaryAmount}.
 	 * 
+	 * Instances wrapping small whole {@link Money} and {@link FastMoney}
+	 * amounts in the default scale of their currency, e.g. {@code EUR 12.00},
+	 * are cached per currency. A cached instance is only returned, if its
+	 * underlying amount equals the amount passed.
+	 * 
 	 * @param amount
-	 * @return
+	 *            the underlying amount, not null and not negative.
+	 * @return the according {@link UnsignedMonetaryAmount}.
+	 * @throws IllegalArgumentException
+	 *             if the amount passed is negative.
 	 */
-	public UnsignedMonetaryAmount of(MonetaryAmount amount) {
-		// TODO caching?
-		return new UnsignedMonetaryAmount(amount);
+	public static UnsignedMonetaryAmount of(MonetaryAmount amount) {
+		if (amount == null) {
+			throw new IllegalArgumentException("Amount required.");
+		}
+		int value = cacheSlotOf(amount);
+		if (value < 0) {
+			return new UnsignedMonetaryAmount(amount);
+		}
+		int currencyIndex = CurrencyIndex.indexOf(amount.getCurrency());
+		if (currencyIndex >= CACHE_CURRENCIES) {
+			return new UnsignedMonetaryAmount(amount);
+		}
+		UnsignedMonetaryAmount[] row = CACHE.get(currencyIndex);
+		if (row == null) {
+			CACHE.compareAndSet(currencyIndex, null,
+					new UnsignedMonetaryAmount[CACHE_SIZE]);
+			row = CACHE.get(currencyIndex);
+		}
+		UnsignedMonetaryAmount cached = row[value];
+		if (cached != null
+				&& (cached.amount == amount || cached.amount.equals(amount))) {
+			return cached;
+		}
+		cached = new UnsignedMonetaryAmount(amount);
+		row[value] = cached;
+		return cached;
+	}
+
+	/**
+	 * Evaluates the cache slot of an amount, which is its value, if it is a
+	 * whole number less than {@link #CACHE_SIZE} in the default scale of its
+	 * currency.
+	 * 
+	 * @return the slot, or -1, if the amount is not cached.
+	 */
+	private static int cacheSlotOf(MonetaryAmount amount) {
+		int scale = amount.getScale();
+		if (scale < 0 || scale > UnscaledArithmetic.MAX_POWER_OF_TEN
+				|| scale != amount.getCurrency().getDefaultFractionDigits()) {
+			return -1;
+		}
+		long unscaled;
+		if (amount instanceof FastMoney) {
+			unscaled = ((FastMoney) amount).getUnscaledValue();
+		} else if (amount instanceof Money && ((Money) amount).isCompact()) {
+			unscaled = ((Money) amount).getUnscaledValue();
+		} else {
+			return -1;
+		}
+		long factor = UnscaledArithmetic.POWERS_OF_TEN[scale];
+		if (unscaled < 0 || unscaled % factor != 0
+				|| unscaled / factor >= CACHE_SIZE) {
+			return -1;
+		}
+		return (int) (unscaled / factor);
 	}
 
 	/*
@@ -484,6 +558,32 @@ public final class UnsignedMonetaryAmount implements MonetaryAmount {
 		return this.amount.getNumberType();
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.lang.Object#hashCode()
+	 */
+	@Override
+	public int hashCode() {
+		return this.amount.hashCode();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.lang.Object#equals(java.lang.Object)
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof UnsignedMonetaryAmount)) {
+			return false;
+		}
+		return this.amount.equals(((UnsignedMonetaryAmount) obj).amount);
+	}
+
 	/**
 	 * This method allows to access the internal base amount, which can be used
 	 * for normal calculations, that also may be negative.
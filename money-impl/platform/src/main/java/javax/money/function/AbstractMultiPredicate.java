@@ -17,6 +17,7 @@ package javax.money.function;
 
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -55,6 +56,15 @@ public abstract class AbstractMultiPredicate<T> implements
 		return this;
 	}
 
+	/**
+	 * Access the sub-predicates of this predicate.
+	 * 
+	 * @return an unmodifiable view of the sub-predicates.
+	 */
+	protected Set<MonetaryFunction<T, Boolean>> getPredicates() {
+		return Collections.unmodifiableSet(this.predicates);
+	}
+
 	@Override
 	public Boolean apply(T value) {
 		return isPredicateTrue(value, this.predicates);
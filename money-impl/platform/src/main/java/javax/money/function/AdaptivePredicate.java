@@ -0,0 +1,254 @@
+/*
+ *  Copyright (c) 2012, 2013, Credit Suisse (Anatole Tresch), Werner Keil.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package javax.money.function;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.money.MonetaryAmount;
+
+/**
+ * A conjunction or disjunction of {@link AmountPredicate}s, that reorders its
+ * children by their observed cost and selectivity, so the children most likely
+ * to decide the result cheaply are evaluated first.
+ * <p>
+ * A small random sample of the evaluations evaluates and times all children,
+ * without stopping at the first child deciding the result. After a number
+ * of samples, the children are ordered by their expected cost per decision:
+ * for a conjunction the ratio of the average cost and the probability of not
+ * matching, for a disjunction the ratio of the average cost and the
+ * probability of matching. The statistics are then halved, so the order
+ * follows changes of the input.
+ * <p>
+ * Instances are thread-safe and can be shared, given the children are. Since
+ * the order of evaluation changes, the children must be free of side effects
+ * and must not rely on other children as guards, e.g. a range check relying on
+ * a preceding currency check must be nested as
+ * {@code AmountPredicates.and(currencyCheck, rangeCheck)}. Use {@link AmountPredicates#adaptiveAnd(AmountPredicate...)} and
+ * {@link AmountPredicates#adaptiveOr(AmountPredicate...)} to create
+ * instances.
+ *
+ * @author Anatole Tresch
+ */
+public final class AdaptivePredicate implements AmountPredicate {
+
+	/** The default mask selecting the sampled evaluations, 1 in 64. */
+	static final int DEFAULT_SAMPLE_MASK = 63;
+	/** The default number of samples between reorderings. */
+	static final int DEFAULT_REORDER_INTERVAL = 1024;
+	/** The default ticker, reading {@link System#nanoTime()}. */
+	static final Ticker SYSTEM_TICKER = new Ticker() {
+		@Override
+		public long read() {
+			return System.nanoTime();
+		}
+	};
+
+	/** The children. */
+	private final AmountPredicate[] children;
+	/** True for a disjunction, false for a conjunction. */
+	private final boolean any;
+	/** The mask selecting the sampled evaluations. */
+	private final int sampleMask;
+	/** The number of samples between reorderings. */
+	private final int reorderInterval;
+	/** The source of the time measured for the sampled evaluations. */
+	private final Ticker ticker;
+	/** The current order of evaluation, replaced but never modified. */
+	private volatile int[] order;
+	/** The number of sampled evaluations, per child. */
+	private final AtomicLongArray evaluations;
+	/** The number of sampled matches, per child. */
+	private final AtomicLongArray matches;
+	/** The sampled time spent in ticks, per child. */
+	private final AtomicLongArray nanos;
+	/** The number of samples. */
+	private final AtomicLong samples = new AtomicLong();
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param any
+	 *            true for a disjunction, false for a conjunction.
+	 * @param sampleMask
+	 *            the mask selecting the sampled evaluations, must be
+	 *            {@code 2^n - 1}.
+	 * @param reorderInterval
+	 *            the number of samples between reorderings.
+	 * @param ticker
+	 *            the source of the time measured for the sampled evaluations,
+	 *            not null.
+	 * @param children
+	 *            the children, in their initial order.
+	 */
+	AdaptivePredicate(boolean any, int sampleMask, int reorderInterval,
+			Ticker ticker, AmountPredicate... children) {
+		if (ticker == null) {
+			throw new IllegalArgumentException("Ticker required.");
+		}
+		if (children == null) {
+			throw new IllegalArgumentException("Predicates required.");
+		}
+		for (AmountPredicate child : children) {
+			if (child == null) {
+				throw new IllegalArgumentException("Predicate required.");
+			}
+		}
+		this.children = children.clone();
+		this.any = any;
+		this.sampleMask = sampleMask;
+		this.reorderInterval = reorderInterval;
+		this.ticker = ticker;
+		int[] initialOrder = new int[children.length];
+		for (int i = 0; i < initialOrder.length; i++) {
+			initialOrder[i] = i;
+		}
+		this.order = initialOrder;
+		this.evaluations = new AtomicLongArray(children.length);
+		this.matches = new AtomicLongArray(children.length);
+		this.nanos = new AtomicLongArray(children.length);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * javax.money.function.AmountPredicate#test(javax.money.MonetaryAmount)
+	 */
+	@Override
+	public boolean test(MonetaryAmount amount) {
+		int[] current = this.order;
+		if ((ThreadLocalRandom.current().nextInt() & this.sampleMask) == 0) {
+			return testSampled(amount, current);
+		}
+		for (int i = 0; i < current.length; i++) {
+			if (this.children[current[i]].test(amount) == this.any) {
+				return this.any;
+			}
+		}
+		return !this.any;
+	}
+
+	/**
+	 * Access the current order of evaluation.
+	 *
+	 * @return the indices of the children, as passed on creation, in the
+	 *         order they are evaluated.
+	 */
+	public int[] getOrder() {
+		return this.order.clone();
+	}
+
+	private boolean testSampled(MonetaryAmount amount, int[] current) {
+		// all children are evaluated, so children behind a deciding one are
+		// measured as well
+		boolean result = !this.any;
+		for (int i = 0; i < current.length; i++) {
+			int child = current[i];
+			long start = this.ticker.read();
+			boolean matched = this.children[child].test(amount);
+			this.nanos.addAndGet(child, this.ticker.read() - start);
+			this.evaluations.incrementAndGet(child);
+			if (matched) {
+				this.matches.incrementAndGet(child);
+			}
+			if (matched == this.any) {
+				result = this.any;
+			}
+		}
+		if (this.samples.incrementAndGet() % this.reorderInterval == 0) {
+			reorder();
+		}
+		return result;
+	}
+
+	/**
+	 * Orders the children by their expected cost per decision and halves the
+	 * statistics. Concurrent updates of the statistics may be lost, which only
+	 * affects their accuracy.
+	 */
+	private void reorder() {
+		int size = this.children.length;
+		final double[] rank = new double[size];
+		Integer[] newOrder = new Integer[size];
+		for (int i = 0; i < size; i++) {
+			long evaluated = this.evaluations.get(i);
+			long matched = this.matches.get(i);
+			if (evaluated == 0) {
+				rank[i] = Double.MAX_VALUE;
+			} else {
+				double cost = (double) Math.max(1L, this.nanos.get(i))
+						/ evaluated;
+				// Laplace smoothing keeps the rank finite
+				double deciding = (this.any ? matched : evaluated - matched) + 1d;
+				rank[i] = cost * (evaluated + 2d) / deciding;
+			}
+			newOrder[i] = Integer.valueOf(this.order[i]);
+			this.evaluations.set(i, evaluated / 2);
+			this.matches.set(i, matched / 2);
+			this.nanos.set(i, this.nanos.get(i) / 2);
+		}
+		Arrays.sort(newOrder, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer o1, Integer o2) {
+				return Double.compare(rank[o1.intValue()], rank[o2.intValue()]);
+			}
+		});
+		int[] result = new int[size];
+		for (int i = 0; i < size; i++) {
+			result[i] = newOrder[i].intValue();
+		}
+		this.order = result;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		int[] current = this.order;
+		StringBuilder b = new StringBuilder(this.any ? "adaptiveOr["
+				: "adaptiveAnd[");
+		for (int i = 0; i < current.length; i++) {
+			if (i > 0) {
+				b.append(", ");
+			}
+			b.append(this.children[current[i]]);
+		}
+		return b.append(']').toString();
+	}
+
+	/**
+	 * The source of the time measured for the sampled evaluations, e.g.
+	 * {@link System#nanoTime()}.
+	 */
+	interface Ticker {
+
+		/**
+		 * Reads the current time.
+		 *
+		 * @return the current time, in arbitrary, but fixed units.
+		 */
+		long read();
+
+	}
+
+}
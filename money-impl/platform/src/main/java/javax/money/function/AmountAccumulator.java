@@ -0,0 +1,368 @@
+/*
+ *  Copyright (c) 2012, 2013, Credit Suisse (Anatole Tresch), Werner Keil.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package javax.money.function;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import javax.money.CurrencyIndex;
+import javax.money.CurrencyMismatchException;
+import javax.money.CurrencyUnit;
+import javax.money.FastMoney;
+import javax.money.MonetaryAmount;
+import javax.money.Money;
+import javax.money.UnscaledArithmetic;
+
+/**
+ * Mutable accumulator for summing up {@link MonetaryAmount} instances of the
+ * same currency, without creating intermediate amounts. The sum is held as
+ * unscaled {@code long} value with a scale, as long as it fits, and is
+ * transparently extended to a {@link BigInteger} otherwise. The sum is exact,
+ * no rounding is applied.
+ * <p>
+ * An immutable amount is only created by calling {@link #toAmount()}. Its
+ * type is the same as the type of the first amount accumulated, as evaluated
+ * by {@link MonetaryAmount#from(Number)}.
+ * <p>
+ * This class is not thread-safe.
+ *
+ * @author Anatole Tresch
+ */
+public final class AmountAccumulator {
+
+	/** The currency defined on creation, or null. */
+	private final CurrencyUnit definedCurrency;
+	/** The currency of the amounts accumulated, null if not yet defined. */
+	private CurrencyUnit currency;
+	/** The first amount accumulated, used for creating the result. */
+	private MonetaryAmount template;
+	/** The unscaled sum, if {@link #bigValue} is null. */
+	private long unscaledValue;
+	/** The unscaled sum, if it does not fit into a {@code long}. */
+	private BigInteger bigValue;
+	/** The scale of the sum. */
+	private int scale;
+	/** The number of amounts accumulated. */
+	private long count;
+
+	/**
+	 * Creates a new accumulator, whose currency is defined by the first amount
+	 * accumulated.
+	 */
+	public AmountAccumulator() {
+		this.definedCurrency = null;
+	}
+
+	/**
+	 * Creates a new accumulator for the given currency.
+	 *
+	 * @param currency
+	 *            the currency of the amounts to be accumulated, not null.
+	 */
+	public AmountAccumulator(CurrencyUnit currency) {
+		if (currency == null) {
+			throw new IllegalArgumentException("Currency required.");
+		}
+		this.definedCurrency = currency;
+		this.currency = currency;
+	}
+
+	/**
+	 * Adds the given amount to the sum.
+	 *
+	 * @param amount
+	 *            the amount, not null.
+	 * @return this accumulator, for chaining.
+	 * @throws CurrencyMismatchException
+	 *             if the amount's currency does not match.
+	 */
+	public AmountAccumulator add(MonetaryAmount amount) {
+		return multiplyAdd(amount, 1L);
+	}
+
+	/**
+	 * Subtracts the given amount from the sum.
+	 *
+	 * @param amount
+	 *            the amount, not null.
+	 * @return this accumulator, for chaining.
+	 * @throws CurrencyMismatchException
+	 *             if the amount's currency does not match.
+	 */
+	public AmountAccumulator subtract(MonetaryAmount amount) {
+		return multiplyAdd(amount, -1L);
+	}
+
+	/**
+	 * Adds the given amount, multiplied by {@code factor}, to the sum, e.g.
+	 * for accumulating a price multiplied by a quantity.
+	 *
+	 * @param amount
+	 *            the amount, not null.
+	 * @param factor
+	 *            the factor
+	 * @return this accumulator, for chaining.
+	 * @throws CurrencyMismatchException
+	 *             if the amount's currency does not match.
+	 */
+	public AmountAccumulator multiplyAdd(MonetaryAmount amount, long factor) {
+		checkAmount(amount);
+		if (amount instanceof FastMoney) {
+			FastMoney fastMoney = (FastMoney) amount;
+			accumulate(fastMoney.getUnscaledValue(), fastMoney.getScale(),
+					factor);
+		} else if (amount instanceof Money && ((Money) amount).isCompact()) {
+			Money money = (Money) amount;
+			accumulate(money.getUnscaledValue(), money.getScale(), factor);
+		} else {
+			BigDecimal number = amount.asType(BigDecimal.class);
+			if (number.precision() <= 18) {
+				accumulate(number.unscaledValue().longValue(),
+						number.scale(), factor);
+			} else {
+				accumulateBig(
+						number.unscaledValue().multiply(
+								BigInteger.valueOf(factor)), number.scale());
+			}
+		}
+		this.count++;
+		return this;
+	}
+
+	/**
+	 * Adds the given unscaled value to the sum, e.g. for accumulating rows of
+	 * an {@link javax.money.AmountArray}. Values added this way do not define
+	 * the type of the amount returned by {@link #toAmount()}.
+	 *
+	 * @param currency
+	 *            the currency of the value, not null.
+	 * @param unscaledValue
+	 *            the unscaled value.
+	 * @param valueScale
+	 *            the scale of the value.
+	 * @return this accumulator, for chaining.
+	 * @throws CurrencyMismatchException
+	 *             if the currency does not match.
+	 */
+	public AmountAccumulator add(CurrencyUnit currency, long unscaledValue,
+			int valueScale) {
+		checkCurrency(currency);
+		accumulate(unscaledValue, valueScale, 1L);
+		this.count++;
+		return this;
+	}
+
+	/**
+	 * Adds the sum of another accumulator to this accumulator, e.g. for
+	 * combining partial sums evaluated in parallel. If no amount was
+	 * accumulated yet by this accumulator, the type of the amount returned by
+	 * {@link #toAmount()} is defined by the other accumulator.
+	 *
+	 * @param other
+	 *            the accumulator to be added, not null, not modified.
+	 * @return this accumulator, for chaining.
+	 * @throws CurrencyMismatchException
+	 *             if the currencies do not match.
+	 */
+	public AmountAccumulator merge(AmountAccumulator other) {
+		if (other == null) {
+			throw new IllegalArgumentException("Accumulator required.");
+		}
+		if (other.currency != null) {
+			checkCurrency(other.currency);
+		}
+		if (this.template == null) {
+			this.template = other.template;
+		}
+		if (other.bigValue != null) {
+			accumulateBig(other.bigValue, other.scale);
+		} else {
+			accumulate(other.unscaledValue, other.scale, 1L);
+		}
+		this.count += other.count;
+		return this;
+	}
+
+	/**
+	 * Access the currency of the amounts accumulated.
+	 *
+	 * @return the currency, or null, if not defined and no amount was
+	 *         accumulated yet.
+	 */
+	public CurrencyUnit getCurrency() {
+		return this.currency;
+	}
+
+	/**
+	 * Access the number of amounts accumulated.
+	 *
+	 * @return the number of amounts accumulated since creation, or the last
+	 *         call of {@link #reset()}.
+	 */
+	public long getCount() {
+		return this.count;
+	}
+
+	/**
+	 * Access the exact sum as {@link BigDecimal}.
+	 *
+	 * @return the current sum, never null.
+	 */
+	public BigDecimal toBigDecimal() {
+		if (this.bigValue != null) {
+			return new BigDecimal(this.bigValue, this.scale);
+		}
+		return BigDecimal.valueOf(this.unscaledValue, this.scale);
+	}
+
+	/**
+	 * Creates an immutable {@link MonetaryAmount} representing the current
+	 * sum. The type of the amount is the type of the first amount accumulated,
+	 * or {@link Money}, if no amount was accumulated.
+	 *
+	 * @return the current sum as {@link MonetaryAmount}.
+	 * @throws IllegalStateException
+	 *             if no currency is defined and no amount was accumulated.
+	 */
+	public MonetaryAmount toAmount() {
+		if (this.template != null) {
+			return this.template.from(toBigDecimal());
+		}
+		if (this.currency == null) {
+			throw new IllegalStateException("No amounts accumulated.");
+		}
+		return Money.of(this.currency, toBigDecimal());
+	}
+
+	/**
+	 * Resets this accumulator to zero, hereby keeping the currency, if it was
+	 * defined on creation.
+	 *
+	 * @return this accumulator, for chaining.
+	 */
+	public AmountAccumulator reset() {
+		this.currency = this.definedCurrency;
+		this.template = null;
+		this.unscaledValue = 0L;
+		this.bigValue = null;
+		this.scale = 0;
+		this.count = 0;
+		return this;
+	}
+
+	/**
+	 * Checks the amount is not null and matches the currency of this
+	 * accumulator.
+	 *
+	 * @param amount
+	 *            the amount
+	 */
+	private void checkAmount(MonetaryAmount amount) {
+		if (amount == null) {
+			throw new IllegalArgumentException("Amount required.");
+		}
+		checkCurrency(amount.getCurrency());
+		if (this.template == null) {
+			this.template = amount;
+		}
+	}
+
+	/**
+	 * Checks the currency matches the currency of this accumulator, or defines
+	 * it, if not yet set.
+	 *
+	 * @param amountCurrency
+	 *            the currency
+	 */
+	private void checkCurrency(CurrencyUnit amountCurrency) {
+		if (amountCurrency == null) {
+			throw new IllegalArgumentException("Currency required.");
+		}
+		if (this.currency == null) {
+			this.currency = amountCurrency;
+		} else if (!CurrencyIndex.isSameCurrency(this.currency, amountCurrency)) {
+			throw new CurrencyMismatchException(this.currency, amountCurrency);
+		}
+	}
+
+	/**
+	 * Adds {@code value * factor}, with the given scale, to the sum.
+	 */
+	private void accumulate(long value, int valueScale, long factor) {
+		if (this.bigValue == null && valueScale >= 0) {
+			int digits = valueScale - this.scale;
+			if (digits > 0 && digits <= UnscaledArithmetic.MAX_POWER_OF_TEN
+					&& !UnscaledArithmetic.multiplyOverflows(this.unscaledValue,
+							UnscaledArithmetic.powerOfTen(digits))) {
+				this.unscaledValue *= UnscaledArithmetic.powerOfTen(digits);
+				this.scale = valueScale;
+			}
+			digits = this.scale - valueScale;
+			if (digits >= 0 && digits <= UnscaledArithmetic.MAX_POWER_OF_TEN) {
+				long multiplier = UnscaledArithmetic.powerOfTen(digits);
+				if (!UnscaledArithmetic.multiplyOverflows(multiplier, factor)
+						&& !UnscaledArithmetic.multiplyOverflows(value,
+								multiplier * factor)) {
+					long addend = value * multiplier * factor;
+					long sum = this.unscaledValue + addend;
+					if (((this.unscaledValue ^ sum) & (addend ^ sum)) >= 0) {
+						this.unscaledValue = sum;
+						return;
+					}
+				}
+			}
+		}
+		accumulateBig(
+				BigInteger.valueOf(value).multiply(BigInteger.valueOf(factor)),
+				valueScale);
+	}
+
+	/**
+	 * Adds the given unscaled value, with the given scale, to the sum using
+	 * {@link BigInteger} arithmetic.
+	 */
+	private void accumulateBig(BigInteger value, int valueScale) {
+		BigInteger sum = this.bigValue;
+		if (sum == null) {
+			sum = BigInteger.valueOf(this.unscaledValue);
+		}
+		if (valueScale > this.scale) {
+			sum = sum.multiply(BigInteger.TEN.pow(valueScale - this.scale));
+			this.scale = valueScale;
+		} else if (valueScale < this.scale) {
+			value = value.multiply(BigInteger.TEN.pow(this.scale - valueScale));
+		}
+		sum = sum.add(value);
+		if (sum.bitLength() < 64) {
+			this.unscaledValue = sum.longValue();
+			this.bigValue = null;
+		} else {
+			this.bigValue = sum;
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "AmountAccumulator [currency=" + currency + ", sum="
+				+ toBigDecimal() + ", count=" + count + "]";
+	}
+
+}
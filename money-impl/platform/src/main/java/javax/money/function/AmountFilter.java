@@ -26,6 +26,9 @@ import javax.money.MonetaryFunction;
 /**
  * This class allows instances of {@link MonetaryAmount} to be filtered by
  * arbitrary predicates.
+ * <p>
+ * The amounts are copied into this filter. To filter large or streamed inputs
+ * without copying, use {@link AmountPipeline}.
  * 
  * @author Anatole Tresch
  */
@@ -111,17 +114,11 @@ public final class AmountFilter
 	public Collection<MonetaryAmount> apply(
 			final MonetaryFunction<MonetaryAmount, Boolean> predicate) {
 		final List<MonetaryAmount> result = new ArrayList<MonetaryAmount>();
-		AmountVisitor visitor = new AmountVisitor(this.input);
-		visitor.apply(new MonetaryFunction<MonetaryAmount, Boolean>() {
-			@Override
-			public Boolean apply(MonetaryAmount value) {
-				if (predicate.apply(value)) {
-					result.add(value);
-					return true;
-				}
-				return false;
+		for (MonetaryAmount amount : this.input) {
+			if (predicate.apply(amount)) {
+				result.add(amount);
 			}
-		});
+		}
 		return result;
 	}
 
@@ -0,0 +1,397 @@
+/*
+ *  Copyright (c) 2012, 2013, Credit Suisse (Anatole Tresch), Werner Keil.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package javax.money.function;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+import javax.money.CurrencyIndex;
+import javax.money.CurrencyMismatchException;
+import javax.money.CurrencyUnit;
+import javax.money.MonetaryAmount;
+import javax.money.Money;
+
+/**
+ * Counts amounts of a single currency in logarithmic buckets, so quantiles
+ * can be evaluated with a bounded relative error in fixed memory.
+ * <p>
+ * Amounts are read as unscaled {@code long} values with the scale of the
+ * histogram, see {@link AmountKernels#unscaledValueOf(MonetaryAmount, int)}.
+ * Magnitudes below {@code 2^(precision + 1)} are counted exactly, larger ones
+ * in {@code 2^precision} buckets per power of two, so the relative error of a
+ * quantile is at most {@code 2^-precision}. Negative amounts are counted
+ * separately, by magnitude. Minimum and maximum are exact.
+ * <p>
+ * Histograms with the same currency, scale and precision can be combined,
+ * e.g. when evaluating partial histograms in parallel, or serialized, to be
+ * combined on another node. This class is not thread-safe.
+ *
+ * @see QuantileSketch
+ * @author Anatole Tresch
+ */
+public final class AmountHistogram implements Serializable {
+
+	/**
+	 * serialVersionUID.
+	 */
+	private static final long serialVersionUID = -3320818839264405735L;
+
+	/** The default precision, a relative error of about 3%. */
+	public static final int DEFAULT_PRECISION = 5;
+
+	/** The currency of the amounts. */
+	private final CurrencyUnit currency;
+	/** The scale of the unscaled values. */
+	private final int scale;
+	/** The number of bits of the sub-bucket index. */
+	private final int precision;
+	/** The counts of the non-negative values, or null, if there are none. */
+	private long[] positive;
+	/** The counts of the negative values, by magnitude, or null. */
+	private long[] negative;
+	/** The number of values accepted. */
+	private long count;
+	/** The minimal value accepted. */
+	private long min = Long.MAX_VALUE;
+	/** The maximal value accepted. */
+	private long max = Long.MIN_VALUE;
+
+	/**
+	 * Creates a new histogram with the default scale of the currency and the
+	 * {@link #DEFAULT_PRECISION}.
+	 *
+	 * @param currency
+	 *            the currency, not null.
+	 */
+	public AmountHistogram(CurrencyUnit currency) {
+		this(currency, defaultScale(currency), DEFAULT_PRECISION);
+	}
+
+	/**
+	 * Creates a new histogram.
+	 *
+	 * @param currency
+	 *            the currency, not null.
+	 * @param scale
+	 *            the scale the amounts are read with, not negative. Amounts
+	 *            with a larger scale are rounded.
+	 * @param precision
+	 *            the number of bits of precision, between 1 and 12. Each
+	 *            additional bit halves the relative error and doubles the
+	 *            memory used.
+	 */
+	public AmountHistogram(CurrencyUnit currency, int scale, int precision) {
+		if (currency == null) {
+			throw new IllegalArgumentException("Currency required.");
+		}
+		if (scale < 0) {
+			throw new IllegalArgumentException("Invalid scale: " + scale);
+		}
+		if (precision < 1 || precision > 12) {
+			throw new IllegalArgumentException("Invalid precision: "
+					+ precision);
+		}
+		this.currency = currency;
+		this.scale = scale;
+		this.precision = precision;
+	}
+
+	/**
+	 * Adds an amount to the histogram.
+	 *
+	 * @param amount
+	 *            the amount, not null.
+	 * @return this instance, for chaining.
+	 * @throws CurrencyMismatchException
+	 *             if the amount's currency does not match.
+	 */
+	public AmountHistogram accept(MonetaryAmount amount) {
+		if (amount == null) {
+			throw new IllegalArgumentException("Amount required.");
+		}
+		if (!CurrencyIndex.isSameCurrency(this.currency, amount.getCurrency())) {
+			throw new CurrencyMismatchException(this.currency,
+					amount.getCurrency());
+		}
+		return acceptUnscaled(AmountKernels.unscaledValueOf(amount, this.scale));
+	}
+
+	/**
+	 * Adds an unscaled value with the scale of this histogram, e.g. a row of
+	 * an {@link javax.money.AmountArray}.
+	 *
+	 * @param unscaledValue
+	 *            the unscaled value.
+	 * @return this instance, for chaining.
+	 */
+	public AmountHistogram acceptUnscaled(long unscaledValue) {
+		if (unscaledValue >= 0) {
+			if (this.positive == null) {
+				this.positive = new long[bucketCount()];
+			}
+			this.positive[bucketIndex(unscaledValue)]++;
+		} else {
+			if (this.negative == null) {
+				this.negative = new long[bucketCount()];
+			}
+			// the magnitude is read unsigned, so Long.MIN_VALUE is valid
+			this.negative[bucketIndex(-unscaledValue)]++;
+		}
+		this.min = Math.min(this.min, unscaledValue);
+		this.max = Math.max(this.max, unscaledValue);
+		this.count++;
+		return this;
+	}
+
+	/**
+	 * Adds the counts of another histogram.
+	 *
+	 * @param other
+	 *            the histogram to be added, not null, not modified.
+	 * @return this instance, for chaining.
+	 * @throws CurrencyMismatchException
+	 *             if the currencies do not match.
+	 */
+	public AmountHistogram combine(AmountHistogram other) {
+		if (other == null) {
+			throw new IllegalArgumentException("Histogram required.");
+		}
+		if (!CurrencyIndex.isSameCurrency(this.currency, other.currency)) {
+			throw new CurrencyMismatchException(this.currency, other.currency);
+		}
+		if (this.scale != other.scale || this.precision != other.precision) {
+			throw new IllegalArgumentException(
+					"Scale or precision mismatch: " + other);
+		}
+		if (other.positive != null) {
+			if (this.positive == null) {
+				this.positive = new long[bucketCount()];
+			}
+			add(this.positive, other.positive);
+		}
+		if (other.negative != null) {
+			if (this.negative == null) {
+				this.negative = new long[bucketCount()];
+			}
+			add(this.negative, other.negative);
+		}
+		this.min = Math.min(this.min, other.min);
+		this.max = Math.max(this.max, other.max);
+		this.count += other.count;
+		return this;
+	}
+
+	/**
+	 * Evaluates a quantile of the amounts accepted, as the middle of the
+	 * bucket containing it.
+	 *
+	 * @param quantile
+	 *            the quantile, between 0 and 1, e.g. 0.99 for the 99th
+	 *            percentile.
+	 * @return the amount, with the scale of this histogram, or null, if no
+	 *         amount was accepted.
+	 */
+	public MonetaryAmount quantile(double quantile) {
+		if (!(quantile >= 0d && quantile <= 1d)) {
+			throw new IllegalArgumentException("Invalid quantile: " + quantile);
+		}
+		if (this.count == 0) {
+			return null;
+		}
+		long rank = Math.max(1L, (long) Math.ceil(quantile * this.count));
+		long seen = 0;
+		long value = this.max;
+		boolean found = false;
+		if (this.negative != null) {
+			for (int i = this.negative.length - 1; i >= 0; i--) {
+				seen += this.negative[i];
+				if (seen >= rank) {
+					value = -bucketMiddle(i);
+					found = true;
+					break;
+				}
+			}
+		}
+		if (!found && this.positive != null) {
+			for (int i = 0; i < this.positive.length; i++) {
+				seen += this.positive[i];
+				if (seen >= rank) {
+					value = bucketMiddle(i);
+					break;
+				}
+			}
+		}
+		return toAmount(Math.max(this.min, Math.min(this.max, value)));
+	}
+
+	/**
+	 * Counts the amounts accepted, which are less than or equal to the given
+	 * amount. The count is exact up to the amounts sharing the bucket of the
+	 * given amount, which are all counted.
+	 *
+	 * @param amount
+	 *            the amount, not null.
+	 * @return the number of amounts.
+	 */
+	public long countAtMost(MonetaryAmount amount) {
+		if (amount == null) {
+			throw new IllegalArgumentException("Amount required.");
+		}
+		if (!CurrencyIndex.isSameCurrency(this.currency, amount.getCurrency())) {
+			throw new CurrencyMismatchException(this.currency,
+					amount.getCurrency());
+		}
+		long value = AmountKernels.unscaledValueOf(amount, this.scale);
+		long result = 0;
+		if (value >= 0) {
+			if (this.negative != null) {
+				result += sum(this.negative, 0, this.negative.length);
+			}
+			if (this.positive != null) {
+				result += sum(this.positive, 0, bucketIndex(value) + 1);
+			}
+		} else if (this.negative != null) {
+			result += sum(this.negative, bucketIndex(-value),
+					this.negative.length);
+		}
+		return result;
+	}
+
+	/**
+	 * Access the currency of the histogram.
+	 *
+	 * @return the currency, never null.
+	 */
+	public CurrencyUnit getCurrency() {
+		return this.currency;
+	}
+
+	/**
+	 * Access the scale the amounts are read with.
+	 *
+	 * @return the scale.
+	 */
+	public int getScale() {
+		return this.scale;
+	}
+
+	/**
+	 * Access the number of amounts accepted.
+	 *
+	 * @return the number of amounts.
+	 */
+	public long getCount() {
+		return this.count;
+	}
+
+	/**
+	 * Access the minimal amount accepted.
+	 *
+	 * @return the minimum, or null, if no amount was accepted.
+	 */
+	public MonetaryAmount getMin() {
+		return this.count == 0 ? null : toAmount(this.min);
+	}
+
+	/**
+	 * Access the maximal amount accepted.
+	 *
+	 * @return the maximum, or null, if no amount was accepted.
+	 */
+	public MonetaryAmount getMax() {
+		return this.count == 0 ? null : toAmount(this.max);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "AmountHistogram [currency=" + this.currency + ", scale="
+				+ this.scale + ", precision=" + this.precision + ", count="
+				+ this.count + "]";
+	}
+
+	private static int defaultScale(CurrencyUnit currency) {
+		if (currency == null) {
+			throw new IllegalArgumentException("Currency required.");
+		}
+		return Math.max(0, currency.getDefaultFractionDigits());
+	}
+
+	private MonetaryAmount toAmount(long unscaled) {
+		return Money.of(this.currency, BigDecimal.valueOf(unscaled, this.scale));
+	}
+
+	/**
+	 * Evaluates the number of buckets needed for all unsigned 64 bit
+	 * magnitudes.
+	 */
+	private int bucketCount() {
+		return (65 - this.precision) << this.precision;
+	}
+
+	/**
+	 * Evaluates the bucket of a magnitude, read as unsigned value. Magnitudes
+	 * below {@code 2^(precision + 1)} have a bucket each, larger ones share
+	 * buckets of {@code 2^exponent} values.
+	 */
+	private int bucketIndex(long magnitude) {
+		int subBuckets = 1 << this.precision;
+		if (magnitude >= 0 && magnitude < subBuckets) {
+			return (int) magnitude;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(magnitude)
+				- this.precision;
+		return ((exponent + 1) << this.precision)
+				+ (int) ((magnitude >>> exponent) - subBuckets);
+	}
+
+	/**
+	 * Evaluates the middle of a bucket, as the inverse of
+	 * {@link #bucketIndex(long)}, saturated to {@link Long#MAX_VALUE}.
+	 */
+	private long bucketMiddle(int index) {
+		int subBuckets = 1 << this.precision;
+		if (index < subBuckets) {
+			return index;
+		}
+		int exponent = (index >> this.precision) - 1;
+		long mantissa = (index & (subBuckets - 1)) + subBuckets;
+		if (exponent + this.precision >= 62) {
+			return Long.MAX_VALUE;
+		}
+		long lower = mantissa << exponent;
+		return lower + ((1L << exponent) - 1) / 2;
+	}
+
+	private static void add(long[] target, long[] counts) {
+		for (int i = 0; i < counts.length; i++) {
+			target[i] += counts[i];
+		}
+	}
+
+	private static long sum(long[] counts, int from, int to) {
+		long result = 0;
+		for (int i = from; i < to; i++) {
+			result += counts[i];
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,425 @@
+/*
+ *  Copyright (c) 2012, 2013, Credit Suisse (Anatole Tresch), Werner Keil.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package javax.money.function;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+
+import javax.money.FastMoney;
+import javax.money.MonetaryAmount;
+import javax.money.Money;
+import javax.money.UnscaledArithmetic;
+
+/**
+ * Bulk operations on unscaled amounts of the same currency and scale, held in
+ * {@code long} arrays, e.g. the values of an {@link javax.money.AmountArray}
+ * with a shared scale. All operations work on the range {@code [from, to)}.
+ * <p>
+ * The loops are kept free of branches and early exits, so the JIT compiler can
+ * vectorize them. Overflow is detected by accumulating flags over the whole
+ * range and checked once after the loop; if an {@link ArithmeticException} is
+ * thrown, the content of the target array is undefined.
+ *
+ * @author Anatole Tresch
+ */
+public final class AmountKernels {
+
+	/**
+	 * Singleton constructor.
+	 */
+	private AmountKernels() {
+	}
+
+	/**
+	 * Evaluates the sum of the values.
+	 *
+	 * @param values
+	 *            the values, not null.
+	 * @param from
+	 *            the first index, inclusive.
+	 * @param to
+	 *            the last index, exclusive.
+	 * @return the exact sum.
+	 * @throws ArithmeticException
+	 *             if the sum does not fit into a {@code long}.
+	 */
+	public static long sum(long[] values, int from, int to) {
+		checkRange(values, from, to);
+		// The upper and lower 32 bits are summed separately, so neither sum
+		// can overflow for less than 2^31 values.
+		long high = 0L;
+		long low = 0L;
+		for (int i = from; i < to; i++) {
+			long value = values[i];
+			high += value >> 32;
+			low += value & 0xFFFFFFFFL;
+		}
+		high += low >>> 32;
+		if (high < Integer.MIN_VALUE || high > Integer.MAX_VALUE) {
+			throw new ArithmeticException("long overflow");
+		}
+		return (high << 32) | (low & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Adds the values of two arrays element-wise.
+	 *
+	 * @param augend
+	 *            the first values, not null.
+	 * @param addend
+	 *            the values to be added, not null.
+	 * @param result
+	 *            the target array, may be one of the inputs.
+	 * @param from
+	 *            the first index, inclusive.
+	 * @param to
+	 *            the last index, exclusive.
+	 * @throws ArithmeticException
+	 *             if a sum does not fit into a {@code long}.
+	 */
+	public static void add(long[] augend, long[] addend, long[] result,
+			int from, int to) {
+		checkRange(augend, from, to);
+		checkRange(addend, from, to);
+		checkRange(result, from, to);
+		long overflow = 0L;
+		for (int i = from; i < to; i++) {
+			long a = augend[i];
+			long b = addend[i];
+			long r = a + b;
+			overflow |= (a ^ r) & (b ^ r);
+			result[i] = r;
+		}
+		if (overflow < 0) {
+			throw new ArithmeticException("long overflow");
+		}
+	}
+
+	/**
+	 * Subtracts the values of two arrays element-wise.
+	 *
+	 * @param minuend
+	 *            the first values, not null.
+	 * @param subtrahend
+	 *            the values to be subtracted, not null.
+	 * @param result
+	 *            the target array, may be one of the inputs.
+	 * @param from
+	 *            the first index, inclusive.
+	 * @param to
+	 *            the last index, exclusive.
+	 * @throws ArithmeticException
+	 *             if a difference does not fit into a {@code long}.
+	 */
+	public static void subtract(long[] minuend, long[] subtrahend,
+			long[] result, int from, int to) {
+		checkRange(minuend, from, to);
+		checkRange(subtrahend, from, to);
+		checkRange(result, from, to);
+		long overflow = 0L;
+		for (int i = from; i < to; i++) {
+			long a = minuend[i];
+			long b = subtrahend[i];
+			long r = a - b;
+			overflow |= (a ^ b) & (a ^ r);
+			result[i] = r;
+		}
+		if (overflow < 0) {
+			throw new ArithmeticException("long overflow");
+		}
+	}
+
+	/**
+	 * Negates the values in place.
+	 *
+	 * @param values
+	 *            the values, not null.
+	 * @param from
+	 *            the first index, inclusive.
+	 * @param to
+	 *            the last index, exclusive.
+	 * @throws ArithmeticException
+	 *             if a value is {@link Long#MIN_VALUE}.
+	 */
+	public static void negate(long[] values, int from, int to) {
+		checkRange(values, from, to);
+		long overflow = 0L;
+		for (int i = from; i < to; i++) {
+			long r = -values[i];
+			overflow |= r & values[i];
+			values[i] = r;
+		}
+		if (overflow < 0) {
+			throw new ArithmeticException("long overflow");
+		}
+	}
+
+	/**
+	 * Multiplies the values in place by {@code 10^digits}, e.g. for aligning
+	 * values to a larger scale.
+	 *
+	 * @param values
+	 *            the values, not null.
+	 * @param from
+	 *            the first index, inclusive.
+	 * @param to
+	 *            the last index, exclusive.
+	 * @param digits
+	 *            the number of digits, between 0 and 18.
+	 * @throws ArithmeticException
+	 *             if a result does not fit into a {@code long}; the values
+	 *             are not modified in this case.
+	 */
+	public static void scaleUp(long[] values, int from, int to, int digits) {
+		checkRange(values, from, to);
+		if (digits < 0 || digits > UnscaledArithmetic.MAX_POWER_OF_TEN) {
+			throw new IllegalArgumentException("Invalid digits: " + digits);
+		}
+		if (digits == 0 || from == to) {
+			return;
+		}
+		long factor = UnscaledArithmetic.powerOfTen(digits);
+		long limit = Long.MAX_VALUE / factor;
+		if (min(values, from, to) < -limit || max(values, from, to) > limit) {
+			throw new ArithmeticException("long overflow");
+		}
+		for (int i = from; i < to; i++) {
+			values[i] *= factor;
+		}
+	}
+
+	/**
+	 * Evaluates the unscaled value of an amount with the given scale, rounding
+	 * {@link RoundingMode#HALF_EVEN}, if the amount has a larger scale. The
+	 * values of {@link FastMoney} and compact {@link Money} instances are read
+	 * without creating a {@link BigDecimal}.
+	 *
+	 * @param amount
+	 *            the amount, not null.
+	 * @param scale
+	 *            the target scale, not negative.
+	 * @return the unscaled value.
+	 * @throws ArithmeticException
+	 *             if the result does not fit into a {@code long}.
+	 */
+	public static long unscaledValueOf(MonetaryAmount amount, int scale) {
+		if (amount instanceof FastMoney) {
+			FastMoney fastMoney = (FastMoney) amount;
+			return rescale(fastMoney.getUnscaledValue(), fastMoney.getScale(),
+					scale);
+		}
+		if (amount instanceof Money) {
+			Money money = (Money) amount;
+			if (money.isCompact()) {
+				return rescale(money.getUnscaledValue(), money.getScale(), scale);
+			}
+		}
+		return amount.asType(BigDecimal.class)
+				.setScale(scale, RoundingMode.HALF_EVEN).scaleByPowerOfTen(scale)
+				.longValueExact();
+	}
+
+	/**
+	 * Changes the scale of an unscaled value, rounding
+	 * {@link RoundingMode#HALF_EVEN}, if the scale is reduced.
+	 */
+	private static long rescale(long value, int valueScale, int scale) {
+		if (valueScale == scale) {
+			return value;
+		}
+		if (valueScale >= 0 && scale - valueScale > 0
+				&& scale - valueScale <= UnscaledArithmetic.MAX_POWER_OF_TEN) {
+			return UnscaledArithmetic.multiplyExact(value,
+					UnscaledArithmetic.powerOfTen(scale - valueScale));
+		}
+		if (scale >= 0 && valueScale - scale > 0
+				&& valueScale - scale <= UnscaledArithmetic.MAX_POWER_OF_TEN) {
+			return UnscaledArithmetic.divideAndRound(value,
+					UnscaledArithmetic.powerOfTen(valueScale - scale),
+					RoundingMode.HALF_EVEN);
+		}
+		return BigDecimal.valueOf(value, valueScale)
+				.setScale(scale, RoundingMode.HALF_EVEN).scaleByPowerOfTen(scale)
+				.longValueExact();
+	}
+
+	/**
+	 * Evaluates the minimal value.
+	 *
+	 * @param values
+	 *            the values, not null.
+	 * @param from
+	 *            the first index, inclusive.
+	 * @param to
+	 *            the last index, exclusive, greater than {@code from}.
+	 * @return the minimal value.
+	 */
+	public static long min(long[] values, int from, int to) {
+		checkNotEmpty(values, from, to);
+		long result = values[from];
+		for (int i = from + 1; i < to; i++) {
+			result = Math.min(result, values[i]);
+		}
+		return result;
+	}
+
+	/**
+	 * Evaluates the maximal value.
+	 *
+	 * @param values
+	 *            the values, not null.
+	 * @param from
+	 *            the first index, inclusive.
+	 * @param to
+	 *            the last index, exclusive, greater than {@code from}.
+	 * @return the maximal value.
+	 */
+	public static long max(long[] values, int from, int to) {
+		checkNotEmpty(values, from, to);
+		long result = values[from];
+		for (int i = from + 1; i < to; i++) {
+			result = Math.max(result, values[i]);
+		}
+		return result;
+	}
+
+	/**
+	 * Evaluates the index of the minimal value.
+	 *
+	 * @param values
+	 *            the values, not null.
+	 * @param from
+	 *            the first index, inclusive.
+	 * @param to
+	 *            the last index, exclusive, greater than {@code from}.
+	 * @return the first index of the minimal value.
+	 */
+	public static int indexOfMin(long[] values, int from, int to) {
+		long min = min(values, from, to);
+		int i = from;
+		while (values[i] != min) {
+			i++;
+		}
+		return i;
+	}
+
+	/**
+	 * Evaluates the index of the maximal value.
+	 *
+	 * @param values
+	 *            the values, not null.
+	 * @param from
+	 *            the first index, inclusive.
+	 * @param to
+	 *            the last index, exclusive, greater than {@code from}.
+	 * @return the first index of the maximal value.
+	 */
+	public static int indexOfMax(long[] values, int from, int to) {
+		long max = max(values, from, to);
+		int i = from;
+		while (values[i] != max) {
+			i++;
+		}
+		return i;
+	}
+
+	/**
+	 * Counts the values within {@code [min, max]}.
+	 *
+	 * @param values
+	 *            the values, not null.
+	 * @param from
+	 *            the first index, inclusive.
+	 * @param to
+	 *            the last index, exclusive.
+	 * @param min
+	 *            the lower bound, inclusive.
+	 * @param max
+	 *            the upper bound, inclusive.
+	 * @return the number of values within the bounds.
+	 */
+	public static int countBetween(long[] values, int from, int to, long min,
+			long max) {
+		checkRange(values, from, to);
+		if (min > max) {
+			return 0;
+		}
+		// unsigned comparison of the offset to min covers both bounds
+		long range = (max - min) + Long.MIN_VALUE;
+		int count = 0;
+		for (int i = from; i < to; i++) {
+			count += ((values[i] - min) + Long.MIN_VALUE) <= range ? 1 : 0;
+		}
+		return count;
+	}
+
+	/**
+	 * Marks the values within {@code [min, max]}.
+	 *
+	 * @param values
+	 *            the values, not null.
+	 * @param from
+	 *            the first index, inclusive.
+	 * @param to
+	 *            the last index, exclusive.
+	 * @param min
+	 *            the lower bound, inclusive.
+	 * @param max
+	 *            the upper bound, inclusive.
+	 * @param result
+	 *            the target array, where the element at each index is set to
+	 *            true, if the value is within the bounds, not null.
+	 * @return the number of values within the bounds.
+	 */
+	public static int between(long[] values, int from, int to, long min,
+			long max, boolean[] result) {
+		checkRange(values, from, to);
+		if (result == null || result.length < to) {
+			throw new IllegalArgumentException("Result array too small.");
+		}
+		if (min > max) {
+			Arrays.fill(result, from, to, false);
+			return 0;
+		}
+		long range = (max - min) + Long.MIN_VALUE;
+		int count = 0;
+		for (int i = from; i < to; i++) {
+			boolean match = ((values[i] - min) + Long.MIN_VALUE) <= range;
+			result[i] = match;
+			count += match ? 1 : 0;
+		}
+		return count;
+	}
+
+	private static void checkRange(long[] values, int from, int to) {
+		if (values == null) {
+			throw new IllegalArgumentException("Values required.");
+		}
+		if (from < 0 || to > values.length || from > to) {
+			throw new IndexOutOfBoundsException("Range [" + from + ", " + to
+					+ ") outside [0, " + values.length + ")");
+		}
+	}
+
+	private static void checkNotEmpty(long[] values, int from, int to) {
+		checkRange(values, from, to);
+		if (from == to) {
+			throw new IllegalArgumentException("Range is empty.");
+		}
+	}
+
+}
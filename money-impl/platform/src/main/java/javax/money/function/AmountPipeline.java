@@ -0,0 +1,370 @@
+/*
+ *  Copyright (c) 2012, 2013, Credit Suisse (Anatole Tresch), Werner Keil.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package javax.money.function;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+import javax.money.MonetaryAmount;
+import javax.money.MonetaryFunction;
+
+/**
+ * A lazy pipeline of filtering and mapping stages over a source of
+ * {@link MonetaryAmount} instances, evaluated by a terminal operation such as
+ * {@link #count()}, {@link #sum()} or {@link #reduce(MonetaryReducer)}.
+ * <p>
+ * In contrast to {@link AmountFilter} and {@link AmountVisitor} the source is
+ * not copied and no intermediate collections are created: a terminal operation
+ * passes each amount through all stages in a single pass over the source.
+ * Filtering is done with primitive {@link AmountPredicate}s, so filtering and
+ * counting does not allocate per amount, and operations like
+ * {@link #anyMatch(AmountPredicate)} or {@link #findFirst()} stop at the first
+ * amount deciding the result.
+ * <p>
+ * Instances are immutable, adding a stage creates a new pipeline, so a
+ * pipeline may be evaluated several times, e.g. after its source changed.
+ *
+ * @author Anatole Tresch
+ */
+public final class AmountPipeline {
+
+	/** The source amounts. */
+	private final Iterable<? extends MonetaryAmount> source;
+	/** The stages, in order of evaluation. */
+	private final Stage[] stages;
+
+	/**
+	 * Private constructor, use {@link #of(Iterable)}.
+	 */
+	private AmountPipeline(Iterable<? extends MonetaryAmount> source,
+			Stage[] stages) {
+		this.source = source;
+		this.stages = stages;
+	}
+
+	/**
+	 * Creates a pipeline on the given amounts, which are not copied.
+	 *
+	 * @param amounts
+	 *            the source amounts, not null.
+	 * @return the new pipeline, without stages.
+	 */
+	public static AmountPipeline of(Iterable<? extends MonetaryAmount> amounts) {
+		if (amounts == null) {
+			throw new IllegalArgumentException("amounts required.");
+		}
+		return new AmountPipeline(amounts, new Stage[0]);
+	}
+
+	/**
+	 * Creates a pipeline on the given amounts, which are not copied.
+	 *
+	 * @param amounts
+	 *            the source amounts, not null.
+	 * @return the new pipeline, without stages.
+	 */
+	public static AmountPipeline of(MonetaryAmount... amounts) {
+		if (amounts == null) {
+			throw new IllegalArgumentException("amounts required.");
+		}
+		return of(Arrays.asList(amounts));
+	}
+
+	/**
+	 * Adds a stage passing only the amounts matching the given predicate.
+	 *
+	 * @param predicate
+	 *            the predicate, not null.
+	 * @return the new pipeline.
+	 */
+	public AmountPipeline filter(final AmountPredicate predicate) {
+		if (predicate == null) {
+			throw new IllegalArgumentException("Predicate required.");
+		}
+		return with(new Stage() {
+			@Override
+			MonetaryAmount apply(MonetaryAmount amount) {
+				return predicate.test(amount) ? amount : null;
+			}
+		});
+	}
+
+	/**
+	 * Adds a stage passing only the amounts matching the given predicate.
+	 *
+	 * @param predicate
+	 *            the predicate, not null.
+	 * @return the new pipeline.
+	 * @see AmountPredicates#from(MonetaryFunction)
+	 */
+	public AmountPipeline filter(
+			MonetaryFunction<? super MonetaryAmount, Boolean> predicate) {
+		return filter(AmountPredicates.from(predicate));
+	}
+
+	/**
+	 * Adds a stage replacing each amount by the result of the given function,
+	 * e.g. a {@link javax.money.MonetaryOperator}.
+	 *
+	 * @param function
+	 *            the function, not null, returning not null.
+	 * @return the new pipeline.
+	 */
+	public AmountPipeline map(
+			final MonetaryFunction<? super MonetaryAmount, ? extends MonetaryAmount> function) {
+		if (function == null) {
+			throw new IllegalArgumentException("Function required.");
+		}
+		return with(new Stage() {
+			@Override
+			MonetaryAmount apply(MonetaryAmount amount) {
+				return function.apply(amount);
+			}
+		});
+	}
+
+	/**
+	 * Counts the amounts passing all stages.
+	 *
+	 * @return the number of amounts.
+	 */
+	public long count() {
+		final long[] count = new long[1];
+		run(new Sink() {
+			@Override
+			boolean accept(MonetaryAmount amount) {
+				count[0]++;
+				return true;
+			}
+		});
+		return count[0];
+	}
+
+	/**
+	 * Checks, if any amount passing all stages matches the given predicate.
+	 *
+	 * @param predicate
+	 *            the predicate, not null.
+	 * @return true, if an amount matches.
+	 */
+	public boolean anyMatch(final AmountPredicate predicate) {
+		if (predicate == null) {
+			throw new IllegalArgumentException("Predicate required.");
+		}
+		final boolean[] found = new boolean[1];
+		run(new Sink() {
+			@Override
+			boolean accept(MonetaryAmount amount) {
+				found[0] = predicate.test(amount);
+				return !found[0];
+			}
+		});
+		return found[0];
+	}
+
+	/**
+	 * Checks, if all amounts passing all stages match the given predicate.
+	 *
+	 * @param predicate
+	 *            the predicate, not null.
+	 * @return true, if all amounts match, or no amount passes.
+	 */
+	public boolean allMatch(AmountPredicate predicate) {
+		return !anyMatch(AmountPredicates.not(predicate));
+	}
+
+	/**
+	 * Access the first amount passing all stages.
+	 *
+	 * @return the amount, or null, if no amount passes.
+	 */
+	public MonetaryAmount findFirst() {
+		final MonetaryAmount[] first = new MonetaryAmount[1];
+		run(new Sink() {
+			@Override
+			boolean accept(MonetaryAmount amount) {
+				first[0] = amount;
+				return false;
+			}
+		});
+		return first[0];
+	}
+
+	/**
+	 * Evaluates the exact sum of the amounts passing all stages, which must be
+	 * of the same currency.
+	 *
+	 * @return the accumulator holding the sum and the number of amounts.
+	 */
+	public AmountAccumulator sum() {
+		final AmountAccumulator sum = new AmountAccumulator();
+		run(new Sink() {
+			@Override
+			boolean accept(MonetaryAmount amount) {
+				sum.add(amount);
+				return true;
+			}
+		});
+		return sum;
+	}
+
+	/**
+	 * Folds the amounts passing all stages using the given reducer.
+	 *
+	 * @param reducer
+	 *            the reducer, not null.
+	 * @return the aggregate.
+	 */
+	public <A> A reduce(final MonetaryReducer<A> reducer) {
+		if (reducer == null) {
+			throw new IllegalArgumentException("Reducer required.");
+		}
+		class Reduction extends Sink {
+			A aggregate = reducer.initial();
+
+			@Override
+			boolean accept(MonetaryAmount amount) {
+				this.aggregate = reducer.accumulate(this.aggregate, amount);
+				return true;
+			}
+		}
+		Reduction reduction = new Reduction();
+		run(reduction);
+		return reduction.aggregate;
+	}
+
+	/**
+	 * Adds the amounts passing all stages to the given aggregator.
+	 *
+	 * @param aggregator
+	 *            the aggregator, not null.
+	 * @return the aggregator passed.
+	 */
+	public <K, A> GroupingAggregator<K, A> into(
+			final GroupingAggregator<K, A> aggregator) {
+		if (aggregator == null) {
+			throw new IllegalArgumentException("Aggregator required.");
+		}
+		run(new Sink() {
+			@Override
+			boolean accept(MonetaryAmount amount) {
+				aggregator.accept(amount);
+				return true;
+			}
+		});
+		return aggregator;
+	}
+
+	/**
+	 * Collects the amounts passing all stages.
+	 *
+	 * @return a new list with the amounts, in source order.
+	 */
+	public List<MonetaryAmount> toList() {
+		final List<MonetaryAmount> result = new ArrayList<MonetaryAmount>();
+		run(new Sink() {
+			@Override
+			boolean accept(MonetaryAmount amount) {
+				result.add(amount);
+				return true;
+			}
+		});
+		return result;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "AmountPipeline [stages=" + this.stages.length + "]";
+	}
+
+	private AmountPipeline with(Stage stage) {
+		Stage[] newStages = Arrays.copyOf(this.stages, this.stages.length + 1);
+		newStages[this.stages.length] = stage;
+		return new AmountPipeline(this.source, newStages);
+	}
+
+	/**
+	 * Passes the source amounts through all stages to the given sink, until
+	 * the source is exhausted or the sink signals to stop.
+	 */
+	private void run(Sink sink) {
+		if (this.source instanceof List && this.source instanceof RandomAccess) {
+			List<? extends MonetaryAmount> list = (List<? extends MonetaryAmount>) this.source;
+			int size = list.size();
+			for (int i = 0; i < size; i++) {
+				if (!push(list.get(i), sink)) {
+					return;
+				}
+			}
+		} else {
+			for (MonetaryAmount amount : this.source) {
+				if (!push(amount, sink)) {
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Passes one amount through all stages.
+	 *
+	 * @return false, if the sink signalled to stop.
+	 */
+	private boolean push(MonetaryAmount amount, Sink sink) {
+		for (int s = 0; s < this.stages.length; s++) {
+			amount = this.stages[s].apply(amount);
+			if (amount == null) {
+				return true;
+			}
+		}
+		return sink.accept(amount);
+	}
+
+	/**
+	 * A filtering or mapping stage.
+	 */
+	private static abstract class Stage {
+
+		/**
+		 * Applies this stage.
+		 *
+		 * @return the amount passed to the next stage, or null, if the amount
+		 *         is filtered out.
+		 */
+		abstract MonetaryAmount apply(MonetaryAmount amount);
+	}
+
+	/**
+	 * The receiver of a terminal operation.
+	 */
+	private static abstract class Sink {
+
+		/**
+		 * Receives an amount passing all stages.
+		 *
+		 * @return false, to stop the evaluation.
+		 */
+		abstract boolean accept(MonetaryAmount amount);
+	}
+
+}
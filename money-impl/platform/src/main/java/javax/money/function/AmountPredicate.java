@@ -0,0 +1,40 @@
+/*
+ *  Copyright (c) 2012, 2013, Credit Suisse (Anatole Tresch), Werner Keil.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package javax.money.function;
+
+import javax.money.MonetaryAmount;
+
+/**
+ * A predicate on {@link MonetaryAmount} instances returning a primitive
+ * {@code boolean}, so evaluating it does not require a boxed {@link Boolean}
+ * as a {@code MonetaryFunction<MonetaryAmount, Boolean>} does.
+ *
+ * @see AmountPredicates
+ * @see AmountPipeline
+ * @author Anatole Tresch
+ */
+public interface AmountPredicate {
+
+	/**
+	 * Evaluates this predicate.
+	 *
+	 * @param amount
+	 *            the amount, not null.
+	 * @return true, if the amount matches.
+	 */
+	public boolean test(MonetaryAmount amount);
+
+}
@@ -0,0 +1,249 @@
+/*
+ *  Copyright (c) 2012, 2013, Credit Suisse (Anatole Tresch), Werner Keil.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package javax.money.function;
+
+import java.util.Arrays;
+
+import javax.money.CurrencyIndex;
+import javax.money.CurrencyUnit;
+import javax.money.MonetaryAmount;
+import javax.money.MonetaryFunction;
+
+/**
+ * Provides common {@link AmountPredicate} implementations. All predicates
+ * returned are immutable and evaluate without allocating.
+ *
+ * @author Anatole Tresch
+ */
+public final class AmountPredicates {
+
+	/**
+	 * Singleton constructor.
+	 */
+	private AmountPredicates() {
+	}
+
+	/**
+	 * Adapts a {@link MonetaryFunction} returning {@link Boolean}, such as
+	 * {@link AndPredicate} or {@link MinMaxPredicate}.
+	 *
+	 * @param predicate
+	 *            the predicate, not null.
+	 * @return the adapted predicate, treating {@code null} as {@code false}.
+	 */
+	public static AmountPredicate from(
+			final MonetaryFunction<? super MonetaryAmount, Boolean> predicate) {
+		if (predicate == null) {
+			throw new IllegalArgumentException("Predicate required.");
+		}
+		return new AmountPredicate() {
+			@Override
+			public boolean test(MonetaryAmount amount) {
+				return Boolean.TRUE.equals(predicate.apply(amount));
+			}
+		};
+	}
+
+	/**
+	 * Creates a predicate matching amounts of any of the given currencies.
+	 *
+	 * @param currencies
+	 *            the currencies, not null.
+	 * @return the predicate.
+	 */
+	public static AmountPredicate isCurrency(final CurrencyUnit... currencies) {
+		if (currencies == null) {
+			throw new IllegalArgumentException("Currencies required.");
+		}
+		final CurrencyUnit[] accepted = currencies.clone();
+		return new AmountPredicate() {
+			@Override
+			public boolean test(MonetaryAmount amount) {
+				CurrencyUnit currency = amount.getCurrency();
+				for (int i = 0; i < accepted.length; i++) {
+					if (CurrencyIndex.isSameCurrency(accepted[i], currency)) {
+						return true;
+					}
+				}
+				return false;
+			}
+
+			@Override
+			public String toString() {
+				return "isCurrency" + Arrays.toString(accepted);
+			}
+		};
+	}
+
+	/**
+	 * Creates a predicate matching amounts within the given range, both bounds
+	 * included. The amounts tested must be of the currency of the bounds, so
+	 * amounts of other currencies should be excluded by a preceding
+	 * {@link #isCurrency(CurrencyUnit...)}.
+	 *
+	 * @param min
+	 *            the minimum, or {@code null} for no lower bound.
+	 * @param max
+	 *            the maximum, or {@code null} for no upper bound.
+	 * @return the predicate.
+	 */
+	public static AmountPredicate isBetween(final MonetaryAmount min,
+			final MonetaryAmount max) {
+		return new AmountPredicate() {
+			@Override
+			public boolean test(MonetaryAmount amount) {
+				return (min == null || amount.isGreaterThanOrEqualTo(min))
+						&& (max == null || amount.isLessThanOrEqualTo(max));
+			}
+
+			@Override
+			public String toString() {
+				return "isBetween[" + min + ", " + max + "]";
+			}
+		};
+	}
+
+	/**
+	 * Creates a predicate matching, if all the given predicates match. The
+	 * predicates are evaluated in the order given, stopping at the first one
+	 * not matching.
+	 *
+	 * @param predicates
+	 *            the predicates, not null.
+	 * @return the predicate.
+	 */
+	public static AmountPredicate and(final AmountPredicate... predicates) {
+		final AmountPredicate[] children = checkPredicates(predicates);
+		return new AmountPredicate() {
+			@Override
+			public boolean test(MonetaryAmount amount) {
+				for (int i = 0; i < children.length; i++) {
+					if (!children[i].test(amount)) {
+						return false;
+					}
+				}
+				return true;
+			}
+
+			@Override
+			public String toString() {
+				return "and" + Arrays.toString(children);
+			}
+		};
+	}
+
+	/**
+	 * Creates a predicate matching, if any of the given predicates matches.
+	 * The predicates are evaluated in the order given, stopping at the first
+	 * one matching.
+	 *
+	 * @param predicates
+	 *            the predicates, not null.
+	 * @return the predicate.
+	 */
+	public static AmountPredicate or(final AmountPredicate... predicates) {
+		final AmountPredicate[] children = checkPredicates(predicates);
+		return new AmountPredicate() {
+			@Override
+			public boolean test(MonetaryAmount amount) {
+				for (int i = 0; i < children.length; i++) {
+					if (children[i].test(amount)) {
+						return true;
+					}
+				}
+				return false;
+			}
+
+			@Override
+			public String toString() {
+				return "or" + Arrays.toString(children);
+			}
+		};
+	}
+
+	/**
+	 * Creates a predicate matching, if all the given predicates match. The
+	 * predicates are reordered by their observed cost and selectivity, so they
+	 * must be free of side effects and not rely on each other as guards.
+	 *
+	 * @param predicates
+	 *            the predicates, not null.
+	 * @return the predicate.
+	 * @see AdaptivePredicate
+	 */
+	public static AdaptivePredicate adaptiveAnd(AmountPredicate... predicates) {
+		return new AdaptivePredicate(false,
+				AdaptivePredicate.DEFAULT_SAMPLE_MASK,
+				AdaptivePredicate.DEFAULT_REORDER_INTERVAL,
+				AdaptivePredicate.SYSTEM_TICKER, predicates);
+	}
+
+	/**
+	 * Creates a predicate matching, if any of the given predicates matches.
+	 * The predicates are reordered by their observed cost and selectivity, so
+	 * they must be free of side effects and not rely on each other as guards.
+	 *
+	 * @param predicates
+	 *            the predicates, not null.
+	 * @return the predicate.
+	 * @see AdaptivePredicate
+	 */
+	public static AdaptivePredicate adaptiveOr(AmountPredicate... predicates) {
+		return new AdaptivePredicate(true,
+				AdaptivePredicate.DEFAULT_SAMPLE_MASK,
+				AdaptivePredicate.DEFAULT_REORDER_INTERVAL,
+				AdaptivePredicate.SYSTEM_TICKER, predicates);
+	}
+
+	/**
+	 * Creates a predicate inverting the given predicate.
+	 *
+	 * @param predicate
+	 *            the predicate, not null.
+	 * @return the predicate.
+	 */
+	public static AmountPredicate not(final AmountPredicate predicate) {
+		if (predicate == null) {
+			throw new IllegalArgumentException("Predicate required.");
+		}
+		return new AmountPredicate() {
+			@Override
+			public boolean test(MonetaryAmount amount) {
+				return !predicate.test(amount);
+			}
+
+			@Override
+			public String toString() {
+				return "not[" + predicate + "]";
+			}
+		};
+	}
+
+	private static AmountPredicate[] checkPredicates(
+			AmountPredicate... predicates) {
+		if (predicates == null) {
+			throw new IllegalArgumentException("Predicates required.");
+		}
+		AmountPredicate[] result = predicates.clone();
+		for (AmountPredicate predicate : result) {
+			if (predicate == null) {
+				throw new IllegalArgumentException("Predicate required.");
+			}
+		}
+		return result;
+	}
+
+}
@@ -25,6 +25,9 @@ import javax.money.MonetaryFunction;
 /**
  * This class allows instances of {@link MonetaryAmount} to be visited with
  * selection of arbitrary predicates.
+ * <p>
+ * The amounts are copied into this visitor. To visit large or streamed inputs
+ * without copying, use {@link AmountPipeline}.
  * 
  * @author Anatole Tresch
  */
@@ -16,7 +16,9 @@
 package javax.money.function;
 
 import java.util.Arrays;
+import java.util.Collection;
 
+import javax.money.AmountArray;
 import javax.money.MonetaryAmount;
 import javax.money.MonetaryFunction;
 
@@ -77,6 +79,90 @@ public final class Average implements
 		return Average.of().apply(Arrays.asList(amounts));
 	}
 
+	/**
+	 * Evaluates the average of the rows of the given {@link AmountArray}.
+	 * 
+	 * @param amounts
+	 *            The amounts, at least one row, not null, all of the same
+	 *            currency.
+	 * @return the average.
+	 */
+	public static MonetaryAmount from(AmountArray amounts) {
+		if (amounts == null) {
+			throw new IllegalArgumentException("amounts required.");
+		}
+		if (amounts.size() == 0) {
+			throw new IllegalArgumentException("No amounts to totalize.");
+		}
+		AmountAccumulator accumulator = new AmountAccumulator();
+		for (int i = 0; i < amounts.size(); i++) {
+			accumulator.add(amounts.getCurrency(i),
+					amounts.getUnscaledValue(i), amounts.getScale(i));
+		}
+		return amounts.get(0).from(accumulator.toBigDecimal())
+				.divide(accumulator.getCount());
+	}
+
+	/**
+	 * Evaluates the average of the given amounts in parallel, using
+	 * fork/join tasks. The result is identical to {@link #from(Iterable)}.
+	 * 
+	 * @param amounts
+	 *            The amounts, at least one instance, not null, all of the same
+	 *            currency.
+	 * @return the average.
+	 */
+	public static MonetaryAmount fromParallel(
+			Collection<? extends MonetaryAmount> amounts) {
+		if (amounts == null) {
+			throw new IllegalArgumentException("amounts required.");
+		}
+		AmountAccumulator accumulator = ParallelReductions.sum(amounts);
+		if (accumulator.getCount() == 0) {
+			throw new IllegalArgumentException("No amounts to totalize.");
+		}
+		return accumulator.toAmount().divide(accumulator.getCount());
+	}
+
+	/**
+	 * Evaluates the average of the given amounts in parallel, using
+	 * fork/join tasks. The result is identical to
+	 * {@link #from(MonetaryAmount...)}.
+	 * 
+	 * @param amounts
+	 *            The amounts, at least one instance, not null, all of the same
+	 *            currency.
+	 * @return the average.
+	 */
+	public static MonetaryAmount fromParallel(MonetaryAmount... amounts) {
+		if (amounts == null) {
+			throw new IllegalArgumentException("amounts required.");
+		}
+		return fromParallel(Arrays.asList(amounts));
+	}
+
+	/**
+	 * Evaluates the average of the rows of the given {@link AmountArray} in
+	 * parallel, using fork/join tasks. The result is identical to
+	 * {@link #from(AmountArray)}.
+	 * 
+	 * @param amounts
+	 *            The amounts, at least one row, not null, all of the same
+	 *            currency.
+	 * @return the average.
+	 */
+	public static MonetaryAmount fromParallel(AmountArray amounts) {
+		if (amounts == null) {
+			throw new IllegalArgumentException("amounts required.");
+		}
+		if (amounts.size() == 0) {
+			throw new IllegalArgumentException("No amounts to totalize.");
+		}
+		AmountAccumulator accumulator = ParallelReductions.sum(amounts);
+		return amounts.get(0).from(accumulator.toBigDecimal())
+				.divide(accumulator.getCount());
+	}
+
 	/**
 	 * Evaluates the average of the given amounts.
 	 * 
@@ -89,21 +175,14 @@ public final class Average implements
 		if (amounts == null) {
 			throw new IllegalArgumentException("amounts required.");
 		}
-		MonetaryAmount total = null;
-		int itemNumber = 0;
-
+		AmountAccumulator accumulator = new AmountAccumulator();
 		for (MonetaryAmount amount : amounts) {
-			itemNumber++;
-			if (total == null) {
-				total = amount;
-			} else {
-				total = total.add(amount);
-			}
+			accumulator.add(amount);
 		}
-		if (total == null) {
+		if (accumulator.getCount() == 0) {
 			throw new IllegalArgumentException("No amounts to totalize.");
 		}
-		return total.divide(itemNumber);
+		return accumulator.toAmount().divide(accumulator.getCount());
 	}
 
 	/*
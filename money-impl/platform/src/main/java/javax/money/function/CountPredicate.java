@@ -15,7 +15,9 @@
  */
 package javax.money.function;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 
 import javax.money.MonetaryAmount;
@@ -86,7 +88,40 @@ public class CountPredicate<T> extends AbstractMultiPredicate<T> {
 				}
 			}
 		}
-		return checkMinFailed();
+		return !checkMinFailed();
+	}
+
+	/**
+	 * Creates an immutable snapshot of this predicate, which can be shared
+	 * across threads. Instead of counting across calls, the snapshot counts
+	 * the sub-predicates matching each single value, and matches if that
+	 * number is within the configured minimum and maximum.
+	 * 
+	 * @return the compiled predicate.
+	 */
+	public MonetaryFunction<T, Boolean> compile() {
+		final List<MonetaryFunction<T, Boolean>> predicates = new ArrayList<MonetaryFunction<T, Boolean>>(
+				getPredicates());
+		final int minNum = min == null ? Integer.MIN_VALUE : min.intValue();
+		final int maxNum = max == null ? Integer.MAX_VALUE : max.intValue();
+		final String description = toString();
+		return new MonetaryFunction<T, Boolean>() {
+			@Override
+			public Boolean apply(T value) {
+				int num = 0;
+				for (int i = 0; i < predicates.size(); i++) {
+					if (predicates.get(i).apply(value) && ++num > maxNum) {
+						return Boolean.FALSE;
+					}
+				}
+				return Boolean.valueOf(num >= minNum);
+			}
+
+			@Override
+			public String toString() {
+				return description;
+			}
+		};
 	}
 
 	/**
@@ -0,0 +1,158 @@
+/*
+ *  Copyright (c) 2012, 2013, Credit Suisse (Anatole Tresch), Werner Keil.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package javax.money.function;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import javax.money.CurrencyIndex;
+import javax.money.CurrencyMap;
+import javax.money.CurrencyUnit;
+import javax.money.MonetaryAmount;
+
+/**
+ * Collects {@link MonetarySummaryStatistics} per {@link CurrencyUnit} in one
+ * pass over amounts of arbitrary currencies.
+ * <p>
+ * Instances can be combined, so partial statistics may be evaluated in
+ * parallel or on streamed input. {@link #accept(MonetaryAmount)} and
+ * {@link #combine(CurrencySummaryStatistics)} have the shape of the
+ * accumulator and combiner of a {@code java.util.stream.Collector}, so on
+ * Java 8 an instance can be used as
+ * {@code Collector.of(CurrencySummaryStatistics::new, CurrencySummaryStatistics::accept, CurrencySummaryStatistics::combine)}.
+ * This class is not thread-safe.
+ *
+ * @author Anatole Tresch
+ */
+public final class CurrencySummaryStatistics {
+
+	/** The statistics, by currency. */
+	private final CurrencyMap<MonetarySummaryStatistics> statistics = new CurrencyMap<MonetarySummaryStatistics>();
+
+	/**
+	 * Evaluates the statistics of the given amounts.
+	 *
+	 * @param amounts
+	 *            the amounts, not null.
+	 * @return the statistics.
+	 */
+	public static CurrencySummaryStatistics from(
+			Iterable<? extends MonetaryAmount> amounts) {
+		if (amounts == null) {
+			throw new IllegalArgumentException("amounts required.");
+		}
+		CurrencySummaryStatistics result = new CurrencySummaryStatistics();
+		for (MonetaryAmount amount : amounts) {
+			result.accept(amount);
+		}
+		return result;
+	}
+
+	/**
+	 * Evaluates the statistics of the given amounts.
+	 *
+	 * @param amounts
+	 *            the amounts, not null.
+	 * @return the statistics.
+	 */
+	public static CurrencySummaryStatistics from(MonetaryAmount... amounts) {
+		if (amounts == null) {
+			throw new IllegalArgumentException("amounts required.");
+		}
+		return from(Arrays.asList(amounts));
+	}
+
+	/**
+	 * Adds an amount to the statistics of its currency.
+	 *
+	 * @param amount
+	 *            the amount, not null.
+	 */
+	public void accept(MonetaryAmount amount) {
+		if (amount == null) {
+			throw new IllegalArgumentException("Amount required.");
+		}
+		CurrencyUnit currency = amount.getCurrency();
+		MonetarySummaryStatistics target = this.statistics.get(CurrencyIndex
+				.indexOf(currency));
+		if (target == null) {
+			target = new MonetarySummaryStatistics(currency);
+			this.statistics.put(currency, target);
+		}
+		target.accept(amount);
+	}
+
+	/**
+	 * Adds the statistics of another instance, whose amounts are considered to
+	 * be accepted after the ones of this instance.
+	 *
+	 * @param other
+	 *            the statistics to be added, not null, not modified.
+	 * @return this instance, for chaining.
+	 */
+	public CurrencySummaryStatistics combine(CurrencySummaryStatistics other) {
+		if (other == null) {
+			throw new IllegalArgumentException("Statistics required.");
+		}
+		for (Map.Entry<CurrencyUnit, MonetarySummaryStatistics> entry : other.statistics
+				.entrySet()) {
+			MonetarySummaryStatistics target = this.statistics.get(entry
+					.getKey());
+			if (target == null) {
+				target = new MonetarySummaryStatistics(entry.getKey());
+				this.statistics.put(entry.getKey(), target);
+			}
+			target.combine(entry.getValue());
+		}
+		return this;
+	}
+
+	/**
+	 * Access the statistics of a currency.
+	 *
+	 * @param currency
+	 *            the currency, not null.
+	 * @return the statistics, or null, if no amount of the currency was
+	 *         accepted.
+	 */
+	public MonetarySummaryStatistics get(CurrencyUnit currency) {
+		if (currency == null) {
+			throw new IllegalArgumentException("Currency required.");
+		}
+		return this.statistics.get(currency);
+	}
+
+	/**
+	 * Access the statistics of all currencies.
+	 *
+	 * @return an unmodifiable view of the statistics, by currency.
+	 */
+	public Map<CurrencyUnit, MonetarySummaryStatistics> getStatistics() {
+		return Collections.unmodifiableMap(this.statistics);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "CurrencySummaryStatistics " + this.statistics.values();
+	}
+
+}
@@ -0,0 +1,208 @@
+/*
+ *  Copyright (c) 2012, 2013, Credit Suisse (Anatole Tresch), Werner Keil.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package javax.money.function;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.money.CurrencyMap;
+import javax.money.CurrencyUnit;
+import javax.money.MonetaryAmount;
+import javax.money.MonetaryFunction;
+
+/**
+ * Groups {@link MonetaryAmount} instances by a key, e.g. their
+ * {@link CurrencyUnit}, and folds each group into a running aggregate using a
+ * {@link MonetaryReducer}. Unlike {@link SeparateAmounts}, the amounts are not
+ * kept, so the memory required is bounded by the number of groups, not by the
+ * number of amounts.
+ * <p>
+ * Aggregators with the same key function and reducer can be combined, e.g.
+ * when evaluating partial results in parallel. This class is not thread-safe.
+ *
+ * @param <K>
+ *            the key type.
+ * @param <A>
+ *            the aggregate type.
+ * @author Anatole Tresch
+ */
+public final class GroupingAggregator<K, A> {
+
+	/** The key function grouping by currency. */
+	private static final MonetaryFunction<MonetaryAmount, CurrencyUnit> CURRENCY = new MonetaryFunction<MonetaryAmount, CurrencyUnit>() {
+		@Override
+		public CurrencyUnit apply(MonetaryAmount value) {
+			return value.getCurrency();
+		}
+	};
+
+	/** The key function. */
+	private final MonetaryFunction<? super MonetaryAmount, ? extends K> keyFunction;
+	/** The reducer. */
+	private final MonetaryReducer<A> reducer;
+	/** The aggregates, by key. */
+	private final Map<K, A> groups;
+
+	/**
+	 * Private constructor, use the static factory methods.
+	 */
+	private GroupingAggregator(
+			MonetaryFunction<? super MonetaryAmount, ? extends K> keyFunction,
+			MonetaryReducer<A> reducer, Map<K, A> groups) {
+		if (reducer == null) {
+			throw new IllegalArgumentException("Reducer required.");
+		}
+		this.keyFunction = keyFunction;
+		this.reducer = reducer;
+		this.groups = groups;
+	}
+
+	/**
+	 * Creates an aggregator grouping by currency.
+	 *
+	 * @param reducer
+	 *            the reducer, not null.
+	 * @return the new aggregator.
+	 */
+	public static <A> GroupingAggregator<CurrencyUnit, A> byCurrency(
+			MonetaryReducer<A> reducer) {
+		return new GroupingAggregator<CurrencyUnit, A>(CURRENCY, reducer,
+				new CurrencyMap<A>());
+	}
+
+	/**
+	 * Creates an aggregator grouping by the keys evaluated by the given
+	 * function. Groups are kept in the order of their first amount.
+	 *
+	 * @param keyFunction
+	 *            the function evaluating the key of an amount, not null.
+	 * @param reducer
+	 *            the reducer, not null.
+	 * @return the new aggregator.
+	 */
+	public static <K, A> GroupingAggregator<K, A> by(
+			MonetaryFunction<? super MonetaryAmount, ? extends K> keyFunction,
+			MonetaryReducer<A> reducer) {
+		if (keyFunction == null) {
+			throw new IllegalArgumentException("Key function required.");
+		}
+		return new GroupingAggregator<K, A>(keyFunction, reducer,
+				new LinkedHashMap<K, A>());
+	}
+
+	/**
+	 * Adds an amount to the aggregate of its group.
+	 *
+	 * @param amount
+	 *            the amount, not null.
+	 * @return this instance, for chaining.
+	 */
+	public GroupingAggregator<K, A> accept(MonetaryAmount amount) {
+		if (amount == null) {
+			throw new IllegalArgumentException("Amount required.");
+		}
+		K key = this.keyFunction.apply(amount);
+		A aggregate = this.groups.get(key);
+		if (aggregate == null && !this.groups.containsKey(key)) {
+			aggregate = this.reducer.initial();
+		}
+		this.groups.put(key, this.reducer.accumulate(aggregate, amount));
+		return this;
+	}
+
+	/**
+	 * Adds all given amounts to the aggregates of their groups.
+	 *
+	 * @param amounts
+	 *            the amounts, not null.
+	 * @return this instance, for chaining.
+	 */
+	public GroupingAggregator<K, A> acceptAll(
+			Iterable<? extends MonetaryAmount> amounts) {
+		if (amounts == null) {
+			throw new IllegalArgumentException("amounts required.");
+		}
+		for (MonetaryAmount amount : amounts) {
+			accept(amount);
+		}
+		return this;
+	}
+
+	/**
+	 * Adds the aggregates of another aggregator, whose amounts are considered
+	 * to be accepted after the ones of this instance.
+	 *
+	 * @param other
+	 *            the aggregator to be added, not null, not modified.
+	 * @return this instance, for chaining.
+	 */
+	public GroupingAggregator<K, A> combine(GroupingAggregator<K, A> other) {
+		if (other == null) {
+			throw new IllegalArgumentException("Aggregator required.");
+		}
+		for (Map.Entry<K, A> entry : other.groups.entrySet()) {
+			A aggregate = this.groups.get(entry.getKey());
+			if (aggregate == null && !this.groups.containsKey(entry.getKey())) {
+				aggregate = this.reducer.initial();
+			}
+			this.groups.put(entry.getKey(),
+					this.reducer.combine(aggregate, entry.getValue()));
+		}
+		return this;
+	}
+
+	/**
+	 * Access the aggregate of a group.
+	 *
+	 * @param key
+	 *            the key.
+	 * @return the aggregate, or null, if no amount of the group was accepted.
+	 */
+	public A get(K key) {
+		return this.groups.get(key);
+	}
+
+	/**
+	 * Access the number of groups.
+	 *
+	 * @return the number of groups.
+	 */
+	public int size() {
+		return this.groups.size();
+	}
+
+	/**
+	 * Access the aggregates of all groups.
+	 *
+	 * @return an unmodifiable view of the aggregates, by key.
+	 */
+	public Map<K, A> getResults() {
+		return Collections.unmodifiableMap(this.groups);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "GroupingAggregator [reducer=" + this.reducer + ", groups="
+				+ this.groups + "]";
+	}
+
+}
@@ -91,6 +91,30 @@ public class InstancesPredicate<T> implements
 		}
 	}
 
+	/**
+	 * Creates an immutable snapshot of this predicate, which can be shared
+	 * across threads. Later changes of this instance do not affect the
+	 * snapshot.
+	 * 
+	 * @return the compiled predicate.
+	 */
+	public MonetaryFunction<T, Boolean> compile() {
+		final Set<T> values = new HashSet<T>(this.acceptedValues);
+		final boolean reverse = this.reversed;
+		final String description = toString();
+		return new MonetaryFunction<T, Boolean>() {
+			@Override
+			public Boolean apply(T value) {
+				return Boolean.valueOf(values.contains(value) != reverse);
+			}
+
+			@Override
+			public String toString() {
+				return description;
+			}
+		};
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -16,7 +16,9 @@
 package javax.money.function;
 
 import java.util.Arrays;
+import java.util.Collection;
 
+import javax.money.AmountArray;
 import javax.money.MonetaryAmount;
 import javax.money.MonetaryFunction;
 
@@ -80,6 +82,87 @@ public final class Maximum implements
 		return Maximum.of().apply(Arrays.asList(amounts));
 	}
 
+	/**
+	 * Evaluates the maximum of the rows of the given {@link AmountArray},
+	 * comparing the unscaled values directly.
+	 * 
+	 * @param amounts
+	 *            The amounts, at least one row, not null, all of the same
+	 *            currency.
+	 * @return the maximum.
+	 */
+	public static MonetaryAmount from(AmountArray amounts) {
+		if (amounts == null) {
+			throw new IllegalArgumentException("amounts required.");
+		}
+		if (amounts.size() == 0) {
+			throw new IllegalArgumentException("amounts is empty.");
+		}
+		if (amounts.isScaleShared() && amounts.isSingleCurrency()) {
+			return amounts.get(AmountKernels.indexOfMax(amounts.unscaledValues(),
+					0, amounts.size()));
+		}
+		return amounts.get(amounts.indexOfMax());
+	}
+
+	/**
+	 * Evaluates the maximum of the given amounts in parallel, using
+	 * fork/join tasks. The result is identical to {@link #from(Iterable)}.
+	 * 
+	 * @param amounts
+	 *            The amounts, at least one instance, not null, all of the same
+	 *            currency.
+	 * @return the maximum.
+	 */
+	public static MonetaryAmount fromParallel(
+			Collection<? extends MonetaryAmount> amounts) {
+		if (amounts == null) {
+			throw new IllegalArgumentException("amounts required.");
+		}
+		MonetaryAmount result = ParallelReductions.extreme(amounts, 1);
+		if (result == null) {
+			throw new IllegalArgumentException("amounts is empty.");
+		}
+		return result;
+	}
+
+	/**
+	 * Evaluates the maximum of the given amounts in parallel, using
+	 * fork/join tasks. The result is identical to
+	 * {@link #from(MonetaryAmount...)}.
+	 * 
+	 * @param amounts
+	 *            The amounts, at least one instance, not null, all of the same
+	 *            currency.
+	 * @return the maximum.
+	 */
+	public static MonetaryAmount fromParallel(MonetaryAmount... amounts) {
+		if (amounts == null) {
+			throw new IllegalArgumentException("amounts required.");
+		}
+		return fromParallel(Arrays.asList(amounts));
+	}
+
+	/**
+	 * Evaluates the maximum of the rows of the given {@link AmountArray} in
+	 * parallel, using fork/join tasks. The result is identical to
+	 * {@link #from(AmountArray)}.
+	 * 
+	 * @param amounts
+	 *            The amounts, at least one row, not null, all of the same
+	 *            currency.
+	 * @return the maximum.
+	 */
+	public static MonetaryAmount fromParallel(AmountArray amounts) {
+		if (amounts == null) {
+			throw new IllegalArgumentException("amounts required.");
+		}
+		if (amounts.size() == 0) {
+			throw new IllegalArgumentException("amounts is empty.");
+		}
+		return amounts.get(ParallelReductions.indexOfExtreme(amounts, 1));
+	}
+
 	/**
 	 * Evaluates the maximum of the given amounts.
 	 * 
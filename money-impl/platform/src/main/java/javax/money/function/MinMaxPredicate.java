@@ -15,6 +15,14 @@
  */
 package javax.money.function;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+
+import javax.money.AmountArray;
+import javax.money.CurrencyIndex;
+import javax.money.CurrencyMismatchException;
+import javax.money.CurrencyUnit;
 import javax.money.MonetaryAmount;
 import javax.money.MonetaryFunction;
 
@@ -26,6 +34,14 @@ import javax.money.MonetaryFunction;
  */
 public class MinMaxPredicate implements
 		MonetaryFunction<MonetaryAmount, Boolean> {
+
+	/** The largest unscaled value of a row. */
+	private static final BigDecimal MAX_LONG = BigDecimal
+			.valueOf(Long.MAX_VALUE);
+
+	/** The smallest unscaled value of a row. */
+	private static final BigDecimal MIN_LONG = BigDecimal
+			.valueOf(Long.MIN_VALUE);
 	
 	/** The minimum amount required, or null. */
 	private MonetaryAmount minAmount;
@@ -102,24 +118,154 @@ public class MinMaxPredicate implements
 	@Override
 	public Boolean apply(MonetaryAmount value) {
 		if(minAmount!=null){
-			if(minInclusive && value.isLessThanOrEqualTo(minAmount)){
+			if(minInclusive && value.isLessThan(minAmount)){
 				return Boolean.FALSE;
 			}
-			else if(value.isLessThan(minAmount)){
+			else if(!minInclusive && value.isLessThanOrEqualTo(minAmount)){
 				return Boolean.FALSE;
 			}
 		}
 		if(maxAmount!=null){
-			if(maxInclusive && value.isGreaterThanOrEqualTo(maxAmount)){
+			if(maxInclusive && value.isGreaterThan(maxAmount)){
 				return Boolean.FALSE;
 			}
-			else if(value.isGreaterThan(maxAmount)){
+			else if(!maxInclusive && value.isGreaterThanOrEqualTo(maxAmount)){
 				return Boolean.FALSE;
 			}
 		}
 		return Boolean.TRUE;
 	}
 
+	/**
+	 * Creates an immutable snapshot of this predicate, which can be shared
+	 * across threads. Later changes of this instance do not affect the
+	 * snapshot.
+	 * 
+	 * @return the compiled predicate.
+	 */
+	public AmountPredicate compile() {
+		final MonetaryAmount min = this.minAmount;
+		final boolean minIncl = this.minInclusive;
+		final MonetaryAmount max = this.maxAmount;
+		final boolean maxIncl = this.maxInclusive;
+		final String description = toString();
+		return new AmountPredicate() {
+			@Override
+			public boolean test(MonetaryAmount amount) {
+				if (min != null
+						&& (minIncl ? amount.isLessThan(min) : amount
+								.isLessThanOrEqualTo(min))) {
+					return false;
+				}
+				return max == null
+						|| !(maxIncl ? amount.isGreaterThan(max) : amount
+								.isGreaterThanOrEqualTo(max));
+			}
+
+			@Override
+			public String toString() {
+				return description;
+			}
+		};
+	}
+
+	/**
+	 * Applies this predicate to all rows of the given {@link AmountArray}. If
+	 * the array has a shared scale and a single currency, the bounds are
+	 * converted to unscaled values once and the rows are checked using
+	 * {@link AmountKernels#between(long[], int, int, long, long, boolean[])}.
+	 * 
+	 * @param amounts
+	 *            the amounts, not null.
+	 * @param result
+	 *            the target array, with at least {@code amounts.size()}
+	 *            elements, where the element for each row is set to true, if
+	 *            the row matches.
+	 * @return the number of rows matching.
+	 */
+	public int apply(AmountArray amounts, boolean[] result) {
+		if (amounts == null) {
+			throw new IllegalArgumentException("amounts required.");
+		}
+		if (result == null || result.length < amounts.size()) {
+			throw new IllegalArgumentException("Result array too small.");
+		}
+		if (amounts.size() == 0) {
+			return 0;
+		}
+		if (!amounts.isScaleShared() || !amounts.isSingleCurrency()) {
+			int count = 0;
+			for (int i = 0; i < amounts.size(); i++) {
+				result[i] = apply(amounts.get(i)).booleanValue();
+				count += result[i] ? 1 : 0;
+			}
+			return count;
+		}
+		CurrencyUnit currency = amounts.getCurrency(0);
+		int scale = amounts.getScale(0);
+		long min = Long.MIN_VALUE;
+		long max = Long.MAX_VALUE;
+		if (minAmount != null) {
+			checkCurrency(currency, minAmount);
+			// v >= m <=> v >= ceil(m), v > m <=> v >= floor(m) + 1
+			BigDecimal bound = minAmount.asType(BigDecimal.class)
+					.movePointRight(scale);
+			bound = minInclusive ? bound.setScale(0, RoundingMode.CEILING)
+					: bound.setScale(0, RoundingMode.FLOOR).add(BigDecimal.ONE);
+			if (bound.compareTo(MAX_LONG) > 0) {
+				return matchNone(amounts.size(), result);
+			}
+			min = clamp(bound);
+		}
+		if (maxAmount != null) {
+			checkCurrency(currency, maxAmount);
+			// v <= m <=> v <= floor(m), v < m <=> v <= ceil(m) - 1
+			BigDecimal bound = maxAmount.asType(BigDecimal.class)
+					.movePointRight(scale);
+			bound = maxInclusive ? bound.setScale(0, RoundingMode.FLOOR)
+					: bound.setScale(0, RoundingMode.CEILING).subtract(
+							BigDecimal.ONE);
+			if (bound.compareTo(MIN_LONG) < 0) {
+				return matchNone(amounts.size(), result);
+			}
+			max = clamp(bound);
+		}
+		return AmountKernels.between(amounts.unscaledValues(), 0,
+				amounts.size(), min, max, result);
+	}
+
+	private static void checkCurrency(CurrencyUnit currency,
+			MonetaryAmount bound) {
+		CurrencyUnit boundCurrency = bound.getCurrency();
+		if (!CurrencyIndex.isSameCurrency(currency, boundCurrency)) {
+			throw new CurrencyMismatchException(currency, boundCurrency);
+		}
+	}
+
+	/**
+	 * Clamps the given integral bound to the {@code long} range. This is only
+	 * correct for a bound outside the range on its open side, i.e. a lower
+	 * bound below or an upper bound above all rows; a bound on the other side
+	 * can not be reached by any row.
+	 */
+	private static long clamp(BigDecimal bound) {
+		if (bound.compareTo(MAX_LONG) > 0) {
+			return Long.MAX_VALUE;
+		}
+		if (bound.compareTo(MIN_LONG) < 0) {
+			return Long.MIN_VALUE;
+		}
+		return bound.longValueExact();
+	}
+
+	/**
+	 * Marks all rows as not matching.
+	 */
+	private static int matchNone(int size, boolean[] result) {
+		Arrays.fill(result, 0, size, false);
+		return 0;
+	}
+
 	/* (non-Javadoc)
 	 * @see java.lang.Object#toString()
 	 */
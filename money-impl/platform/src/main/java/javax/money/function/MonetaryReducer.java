@@ -0,0 +1,64 @@
+/*
+ *  Copyright (c) 2012, 2013, Credit Suisse (Anatole Tresch), Werner Keil.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package javax.money.function;
+
+import javax.money.MonetaryAmount;
+
+/**
+ * Folds {@link MonetaryAmount} instances into an aggregate, e.g. a running
+ * sum, without keeping the amounts. Aggregates may be mutable, in which case
+ * the methods may return the instance passed.
+ *
+ * @see GroupingAggregator
+ * @see Reducers
+ * @param <A>
+ *            the aggregate type.
+ * @author Anatole Tresch
+ */
+public interface MonetaryReducer<A> {
+
+	/**
+	 * Creates the aggregate of an empty group.
+	 *
+	 * @return the initial aggregate, may be null.
+	 */
+	public A initial();
+
+	/**
+	 * Adds an amount to an aggregate.
+	 *
+	 * @param aggregate
+	 *            the aggregate, as returned by {@link #initial()} or a previous
+	 *            call.
+	 * @param amount
+	 *            the amount, not null.
+	 * @return the new aggregate.
+	 */
+	public A accumulate(A aggregate, MonetaryAmount amount);
+
+	/**
+	 * Combines two aggregates, the amounts of {@code right} following the ones
+	 * of {@code left}.
+	 *
+	 * @param left
+	 *            the first aggregate.
+	 * @param right
+	 *            the second aggregate, not modified.
+	 * @return the combined aggregate.
+	 */
+	public A combine(A left, A right);
+
+}
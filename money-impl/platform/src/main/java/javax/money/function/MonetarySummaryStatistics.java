@@ -0,0 +1,178 @@
+/*
+ *  Copyright (c) 2012, 2013, Credit Suisse (Anatole Tresch), Werner Keil.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package javax.money.function;
+
+import javax.money.CurrencyUnit;
+import javax.money.MonetaryAmount;
+
+/**
+ * Collects count, sum, minimum, maximum and average of amounts of a single
+ * currency in one pass. The sum is exact, as evaluated by
+ * {@link AmountAccumulator}; minimum and maximum are the first extreme amounts
+ * accepted. The results equal the ones of {@link Total}, {@link Minimum},
+ * {@link Maximum} and {@link Average}.
+ * <p>
+ * Instances can be combined, e.g. when evaluating partial statistics in
+ * parallel. This class is not thread-safe.
+ *
+ * @see CurrencySummaryStatistics
+ * @author Anatole Tresch
+ */
+public final class MonetarySummaryStatistics {
+
+	/** The sum of the amounts accepted. */
+	private final AmountAccumulator sum;
+	/** The first minimal amount accepted, or null. */
+	private MonetaryAmount min;
+	/** The first maximal amount accepted, or null. */
+	private MonetaryAmount max;
+
+	/**
+	 * Creates new statistics for the given currency.
+	 *
+	 * @param currency
+	 *            the currency, not null.
+	 */
+	public MonetarySummaryStatistics(CurrencyUnit currency) {
+		this.sum = new AmountAccumulator(currency);
+	}
+
+	/**
+	 * Adds an amount to the statistics.
+	 *
+	 * @param amount
+	 *            the amount, not null.
+	 * @return this instance, for chaining.
+	 * @throws javax.money.CurrencyMismatchException
+	 *             if the amount's currency does not match.
+	 */
+	public MonetarySummaryStatistics accept(MonetaryAmount amount) {
+		this.sum.add(amount);
+		if (this.min == null) {
+			this.min = amount;
+			this.max = amount;
+		} else {
+			if (this.min.isGreaterThan(amount)) {
+				this.min = amount;
+			}
+			if (this.max.isLessThan(amount)) {
+				this.max = amount;
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * Adds the statistics of another instance, whose amounts are considered to
+	 * be accepted after the ones of this instance.
+	 *
+	 * @param other
+	 *            the statistics to be added, not null, not modified.
+	 * @return this instance, for chaining.
+	 * @throws javax.money.CurrencyMismatchException
+	 *             if the currencies do not match.
+	 */
+	public MonetarySummaryStatistics combine(MonetarySummaryStatistics other) {
+		if (other == null) {
+			throw new IllegalArgumentException("Statistics required.");
+		}
+		this.sum.merge(other.sum);
+		if (other.min != null) {
+			if (this.min == null) {
+				this.min = other.min;
+				this.max = other.max;
+			} else {
+				if (this.min.isGreaterThan(other.min)) {
+					this.min = other.min;
+				}
+				if (this.max.isLessThan(other.max)) {
+					this.max = other.max;
+				}
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * Access the currency of the statistics.
+	 *
+	 * @return the currency, never null.
+	 */
+	public CurrencyUnit getCurrency() {
+		return this.sum.getCurrency();
+	}
+
+	/**
+	 * Access the number of amounts accepted.
+	 *
+	 * @return the number of amounts.
+	 */
+	public long getCount() {
+		return this.sum.getCount();
+	}
+
+	/**
+	 * Access the exact sum of the amounts accepted.
+	 *
+	 * @return the sum, zero if no amounts were accepted.
+	 */
+	public MonetaryAmount getSum() {
+		return this.sum.toAmount();
+	}
+
+	/**
+	 * Access the first minimal amount accepted.
+	 *
+	 * @return the minimum, or null, if no amounts were accepted.
+	 */
+	public MonetaryAmount getMin() {
+		return this.min;
+	}
+
+	/**
+	 * Access the first maximal amount accepted.
+	 *
+	 * @return the maximum, or null, if no amounts were accepted.
+	 */
+	public MonetaryAmount getMax() {
+		return this.max;
+	}
+
+	/**
+	 * Evaluates the average of the amounts accepted.
+	 *
+	 * @return the average, or null, if no amounts were accepted.
+	 */
+	public MonetaryAmount getAverage() {
+		if (getCount() == 0) {
+			return null;
+		}
+		return this.sum.toAmount().divide(getCount());
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "MonetarySummaryStatistics [currency=" + getCurrency()
+				+ ", count=" + getCount() + ", sum=" + getSum() + ", min="
+				+ this.min + ", max=" + this.max + "]";
+	}
+
+}
@@ -0,0 +1,402 @@
+/*
+ *  Copyright (c) 2012, 2013, Credit Suisse (Anatole Tresch), Werner Keil.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package javax.money.function;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.Arrays;
+
+import javax.money.CurrencyUnit;
+import javax.money.MonetaryAmount;
+import javax.money.MonetaryOperator;
+import javax.money.MoneyRounding;
+import javax.money.Percent;
+
+/**
+ * A {@link MonetaryOperator} composed of a sequence of operators, which is
+ * compiled into as few steps as possible when the chain is created.
+ * <p>
+ * Consecutive arithmetic steps, i.e. {@link Percent} instances,
+ * {@link #multiply(Number)}, {@link #add(Number)} and
+ * {@link #convert(CurrencyUnit, Number)}, are folded into a single step
+ * {@code amount * factor + offset}. The steps are evaluated on the
+ * {@link BigDecimal} value of the amount, arithmetic steps exactly, so no
+ * intermediate amounts are created and no intermediate result is rounded.
+ * {@link Reciprocal} and {@link MoneyRounding} instances are evaluated on the
+ * same value, any other operator is applied to an intermediate amount.
+ * Roundings are kept where they are placed, so a chain with a single rounding
+ * at its end rounds exactly once. The result is created by the amount passed,
+ * see {@link MonetaryAmount#from(CurrencyUnit, Number)}.
+ * <p>
+ * Instances are immutable and thread-safe, if the operators added are.
+ *
+ * @author Anatole Tresch
+ */
+public final class OperatorChain implements MonetaryOperator {
+
+	/** The chain without steps. */
+	private static final OperatorChain EMPTY = new OperatorChain(new Step[0]);
+
+	/** The compiled steps. */
+	private final Step[] steps;
+
+	/**
+	 * Private constructor, use {@link #of(MonetaryOperator...)}.
+	 */
+	private OperatorChain(Step[] steps) {
+		this.steps = steps;
+	}
+
+	/**
+	 * Creates a chain applying the given operators in order.
+	 *
+	 * @param operators
+	 *            the operators, not null.
+	 * @return the compiled chain.
+	 */
+	public static OperatorChain of(MonetaryOperator... operators) {
+		if (operators == null) {
+			throw new IllegalArgumentException("Operators required.");
+		}
+		OperatorChain chain = EMPTY;
+		for (MonetaryOperator operator : operators) {
+			chain = chain.then(operator);
+		}
+		return chain;
+	}
+
+	/**
+	 * Creates a new chain, applying the given operator after this chain.
+	 *
+	 * @param operator
+	 *            the operator, not null.
+	 * @return the new chain.
+	 */
+	public OperatorChain then(MonetaryOperator operator) {
+		if (operator == null) {
+			throw new IllegalArgumentException("Operator required.");
+		}
+		if (operator instanceof OperatorChain) {
+			Step[] result = this.steps;
+			for (Step step : ((OperatorChain) operator).steps) {
+				result = append(result, step);
+			}
+			return new OperatorChain(result);
+		}
+		if (operator instanceof Percent) {
+			return then(new Linear(((Percent) operator).getFactor(),
+					BigDecimal.ZERO, null));
+		}
+		if (operator instanceof Reciprocal) {
+			return then(new Inverse());
+		}
+		if (operator instanceof MoneyRounding) {
+			return then(new Rounding((MoneyRounding) operator));
+		}
+		if (operator == MoneyRounding.of()) {
+			return then(new Rounding(null));
+		}
+		return then(new Opaque(operator));
+	}
+
+	/**
+	 * Creates a new chain, multiplying the result of this chain by the given
+	 * factor.
+	 *
+	 * @param factor
+	 *            the factor, not null.
+	 * @return the new chain.
+	 */
+	public OperatorChain multiply(Number factor) {
+		if (factor == null) {
+			throw new IllegalArgumentException("Factor required.");
+		}
+		return then(new Linear(getBigDecimal(factor), BigDecimal.ZERO, null));
+	}
+
+	/**
+	 * Creates a new chain, adding the given value, e.g. a fee, to the result
+	 * of this chain. The value is read in the currency of the result.
+	 *
+	 * @param offset
+	 *            the value to be added, not null.
+	 * @return the new chain.
+	 */
+	public OperatorChain add(Number offset) {
+		if (offset == null) {
+			throw new IllegalArgumentException("Offset required.");
+		}
+		return then(new Linear(BigDecimal.ONE, getBigDecimal(offset), null));
+	}
+
+	/**
+	 * Creates a new chain, converting the result of this chain to the given
+	 * currency, using the given rate.
+	 *
+	 * @param currency
+	 *            the target currency, not null.
+	 * @param rate
+	 *            the factor of the conversion, not null.
+	 * @return the new chain.
+	 */
+	public OperatorChain convert(CurrencyUnit currency, Number rate) {
+		if (currency == null) {
+			throw new IllegalArgumentException("Currency required.");
+		}
+		if (rate == null) {
+			throw new IllegalArgumentException("Rate required.");
+		}
+		return then(new Linear(getBigDecimal(rate), BigDecimal.ZERO, currency));
+	}
+
+	/**
+	 * Creates a new chain, rounding the result of this chain.
+	 *
+	 * @param scale
+	 *            the scale, not negative.
+	 * @param roundingMode
+	 *            the rounding mode, not null.
+	 * @return the new chain.
+	 */
+	public OperatorChain round(int scale, RoundingMode roundingMode) {
+		return then(MoneyRounding.of(scale, roundingMode));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see javax.money.MonetaryFunction#apply(java.lang.Object)
+	 */
+	@Override
+	public MonetaryAmount apply(MonetaryAmount amount) {
+		if (amount == null) {
+			throw new IllegalArgumentException("Amount required.");
+		}
+		if (this.steps.length == 0) {
+			return amount;
+		}
+		Evaluation evaluation = new Evaluation(amount);
+		for (Step step : this.steps) {
+			step.apply(evaluation);
+		}
+		return amount.from(evaluation.currency, evaluation.value);
+	}
+
+	/**
+	 * Access the number of steps this chain was compiled to.
+	 *
+	 * @return the number of steps.
+	 */
+	int getStepCount() {
+		return this.steps.length;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "OperatorChain " + Arrays.toString(this.steps);
+	}
+
+	private OperatorChain then(Step step) {
+		return new OperatorChain(append(this.steps, step));
+	}
+
+	/**
+	 * Appends a step, folding it into the last step, if both are arithmetic.
+	 */
+	private static Step[] append(Step[] steps, Step step) {
+		if (steps.length > 0 && step instanceof Linear
+				&& steps[steps.length - 1] instanceof Linear) {
+			Step[] result = steps.clone();
+			result[result.length - 1] = ((Linear) steps[steps.length - 1])
+					.fold((Linear) step);
+			return result;
+		}
+		Step[] result = Arrays.copyOf(steps, steps.length + 1);
+		result[steps.length] = step;
+		return result;
+	}
+
+	private static boolean isIntegral(Number number) {
+		return number instanceof Long || number instanceof Integer
+				|| number instanceof Short || number instanceof Byte;
+	}
+
+	private static BigDecimal getBigDecimal(Number num) {
+		if (num instanceof BigDecimal) {
+			return (BigDecimal) num;
+		}
+		if (isIntegral(num)) {
+			return BigDecimal.valueOf(num.longValue());
+		}
+		if (num instanceof BigInteger) {
+			return new BigDecimal((BigInteger) num);
+		}
+		// Avoid imprecise conversion to double value if at all possible
+		return new BigDecimal(num.toString());
+	}
+
+	/**
+	 * The state of a chain being applied to an amount.
+	 */
+	private static final class Evaluation {
+
+		/** The amount the chain is applied to. */
+		final MonetaryAmount source;
+		/** The current currency. */
+		CurrencyUnit currency;
+		/** The current value. */
+		BigDecimal value;
+
+		Evaluation(MonetaryAmount source) {
+			this.source = source;
+			this.currency = source.getCurrency();
+			this.value = source.asType(BigDecimal.class);
+		}
+	}
+
+	/**
+	 * A compiled step of a chain.
+	 */
+	private static abstract class Step {
+
+		abstract void apply(Evaluation evaluation);
+	}
+
+	/**
+	 * Evaluates {@code value * factor + offset} exactly, optionally changing
+	 * the currency.
+	 */
+	private static final class Linear extends Step {
+
+		private final BigDecimal factor;
+		private final BigDecimal offset;
+		/** The target currency, or null, if unchanged. */
+		private final CurrencyUnit currency;
+
+		Linear(BigDecimal factor, BigDecimal offset, CurrencyUnit currency) {
+			this.factor = factor;
+			this.offset = offset;
+			this.currency = currency;
+		}
+
+		Linear fold(Linear next) {
+			return new Linear(this.factor.multiply(next.factor),
+					this.offset.multiply(next.factor).add(next.offset),
+					next.currency == null ? this.currency : next.currency);
+		}
+
+		@Override
+		void apply(Evaluation evaluation) {
+			BigDecimal value = evaluation.value;
+			if (this.factor.compareTo(BigDecimal.ONE) != 0) {
+				value = value.multiply(this.factor);
+			}
+			if (this.offset.signum() != 0) {
+				value = value.add(this.offset);
+			}
+			evaluation.value = value;
+			if (this.currency != null) {
+				evaluation.currency = this.currency;
+			}
+		}
+
+		@Override
+		public String toString() {
+			return "x * " + this.factor + " + " + this.offset
+					+ (this.currency == null ? "" : " -> " + this.currency);
+		}
+	}
+
+	/**
+	 * Evaluates the reciprocal value, as {@link Reciprocal}.
+	 */
+	private static final class Inverse extends Step {
+
+		@Override
+		void apply(Evaluation evaluation) {
+			evaluation.value = BigDecimal.ONE.divide(evaluation.value,
+					MathContext.DECIMAL128);
+		}
+
+		@Override
+		public String toString() {
+			return "1 / x";
+		}
+	}
+
+	/**
+	 * Rounds the value, as {@link MoneyRounding}.
+	 */
+	private static final class Rounding extends Step {
+
+		/** The rounding, or null, for the default rounding of the currency. */
+		private final MoneyRounding rounding;
+
+		Rounding(MoneyRounding rounding) {
+			this.rounding = rounding;
+		}
+
+		@Override
+		void apply(Evaluation evaluation) {
+			MoneyRounding r = this.rounding;
+			if (r == null) {
+				r = MoneyRounding.of(evaluation.currency);
+			}
+			evaluation.value = evaluation.value.setScale(r.getScale(),
+					r.getRoundingMode());
+		}
+
+		@Override
+		public String toString() {
+			return this.rounding == null ? "round" : "round("
+					+ this.rounding.getScale() + ", "
+					+ this.rounding.getRoundingMode() + ")";
+		}
+	}
+
+	/**
+	 * Applies any other operator to an intermediate amount.
+	 */
+	private static final class Opaque extends Step {
+
+		private final MonetaryOperator operator;
+
+		Opaque(MonetaryOperator operator) {
+			this.operator = operator;
+		}
+
+		@Override
+		void apply(Evaluation evaluation) {
+			MonetaryAmount result = this.operator.apply(evaluation.source
+					.from(evaluation.currency, evaluation.value));
+			evaluation.currency = result.getCurrency();
+			evaluation.value = result.asType(BigDecimal.class);
+		}
+
+		@Override
+		public String toString() {
+			return String.valueOf(this.operator);
+		}
+	}
+
+}
@@ -0,0 +1,294 @@
+/*
+ *  Copyright (c) 2012, 2013, Credit Suisse (Anatole Tresch), Werner Keil.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package javax.money.function;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import javax.money.AmountArray;
+import javax.money.CurrencyMismatchException;
+import javax.money.MonetaryAmount;
+
+/**
+ * Fork/join implementations of the reductions of {@link Total},
+ * {@link Average}, {@link Minimum} and {@link Maximum}. The input is split
+ * into ranges, each reduced sequentially to an exact partial result, which are
+ * combined in input order. Sums are accumulated exactly by
+ * {@link AmountAccumulator}, and minimum and maximum keep the first extreme
+ * element, so the results are identical to the sequential evaluation.
+ *
+ * @author Anatole Tresch
+ */
+final class ParallelReductions {
+
+	/** The maximal number of elements reduced by a single task. */
+	static final int THRESHOLD = 8192;
+
+	/**
+	 * Singleton constructor.
+	 */
+	private ParallelReductions() {
+	}
+
+	/**
+	 * Accumulates the given amounts.
+	 *
+	 * @param amounts
+	 *            the amounts, not null.
+	 * @return the accumulated sum.
+	 */
+	static AmountAccumulator sum(Collection<? extends MonetaryAmount> amounts) {
+		List<? extends MonetaryAmount> list = toList(amounts);
+		return Pool.INSTANCE.invoke(new SumTask(list, 0, list.size()));
+	}
+
+	/**
+	 * Accumulates the rows of the given array.
+	 *
+	 * @param amounts
+	 *            the amounts, not null.
+	 * @return the accumulated sum.
+	 */
+	static AmountAccumulator sum(AmountArray amounts) {
+		return Pool.INSTANCE.invoke(new ArraySumTask(amounts, 0, amounts
+				.size()));
+	}
+
+	/**
+	 * Evaluates the first minimal or maximal amount.
+	 *
+	 * @param amounts
+	 *            the amounts, not null.
+	 * @param direction
+	 *            {@code -1} for the minimum, {@code 1} for the maximum.
+	 * @return the extreme amount, or null, if no amounts are given.
+	 */
+	static MonetaryAmount extreme(Collection<? extends MonetaryAmount> amounts,
+			int direction) {
+		List<? extends MonetaryAmount> list = toList(amounts);
+		if (list.isEmpty()) {
+			return null;
+		}
+		return Pool.INSTANCE.invoke(new ExtremeTask(list, 0, list.size(),
+				direction));
+	}
+
+	/**
+	 * Evaluates the index of the first minimal or maximal row.
+	 *
+	 * @param amounts
+	 *            the amounts, not null, not empty.
+	 * @param direction
+	 *            {@code -1} for the minimum, {@code 1} for the maximum.
+	 * @return the index of the extreme row.
+	 */
+	static int indexOfExtreme(AmountArray amounts, int direction) {
+		return Pool.INSTANCE.invoke(
+				new ArrayExtremeTask(amounts, 0, amounts.size(), direction,
+						amounts.isScaleShared(), amounts.getCurrencyIndex(0)))
+				.intValue();
+	}
+
+	private static <T> List<? extends T> toList(Collection<? extends T> values) {
+		if (values instanceof List && values instanceof RandomAccess) {
+			return (List<? extends T>) values;
+		}
+		return new ArrayList<T>(values);
+	}
+
+	/**
+	 * Checks if {@code candidate} replaces {@code current} as extreme amount.
+	 */
+	private static boolean isBeyond(MonetaryAmount current,
+			MonetaryAmount candidate, int direction) {
+		if (direction < 0) {
+			return current.isGreaterThan(candidate);
+		}
+		return current.isLessThan(candidate);
+	}
+
+	/**
+	 * Holder of the pool used, created on first use. Its worker threads are
+	 * daemon threads.
+	 */
+	private static final class Pool {
+		static final ForkJoinPool INSTANCE = new ForkJoinPool();
+	}
+
+	private static final class SumTask extends RecursiveTask<AmountAccumulator> {
+
+		private static final long serialVersionUID = 1L;
+		private final List<? extends MonetaryAmount> amounts;
+		private final int from;
+		private final int to;
+
+		SumTask(List<? extends MonetaryAmount> amounts, int from, int to) {
+			this.amounts = amounts;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected AmountAccumulator compute() {
+			if (to - from <= THRESHOLD) {
+				AmountAccumulator accumulator = new AmountAccumulator();
+				for (int i = from; i < to; i++) {
+					accumulator.add(amounts.get(i));
+				}
+				return accumulator;
+			}
+			int middle = (from + to) >>> 1;
+			SumTask right = new SumTask(amounts, middle, to);
+			right.fork();
+			AmountAccumulator left = new SumTask(amounts, from, middle)
+					.compute();
+			return left.merge(right.join());
+		}
+	}
+
+	private static final class ArraySumTask extends
+			RecursiveTask<AmountAccumulator> {
+
+		private static final long serialVersionUID = 1L;
+		private final AmountArray amounts;
+		private final int from;
+		private final int to;
+
+		ArraySumTask(AmountArray amounts, int from, int to) {
+			this.amounts = amounts;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected AmountAccumulator compute() {
+			if (to - from <= THRESHOLD) {
+				AmountAccumulator accumulator = new AmountAccumulator();
+				for (int i = from; i < to; i++) {
+					accumulator.add(amounts.getCurrency(i),
+							amounts.getUnscaledValue(i), amounts.getScale(i));
+				}
+				return accumulator;
+			}
+			int middle = (from + to) >>> 1;
+			ArraySumTask right = new ArraySumTask(amounts, middle, to);
+			right.fork();
+			AmountAccumulator left = new ArraySumTask(amounts, from, middle)
+					.compute();
+			return left.merge(right.join());
+		}
+	}
+
+	private static final class ExtremeTask extends RecursiveTask<MonetaryAmount> {
+
+		private static final long serialVersionUID = 1L;
+		private final List<? extends MonetaryAmount> amounts;
+		private final int from;
+		private final int to;
+		private final int direction;
+
+		ExtremeTask(List<? extends MonetaryAmount> amounts, int from, int to,
+				int direction) {
+			this.amounts = amounts;
+			this.from = from;
+			this.to = to;
+			this.direction = direction;
+		}
+
+		@Override
+		protected MonetaryAmount compute() {
+			if (to - from <= THRESHOLD) {
+				MonetaryAmount result = amounts.get(from);
+				for (int i = from + 1; i < to; i++) {
+					MonetaryAmount amount = amounts.get(i);
+					if (isBeyond(result, amount, direction)) {
+						result = amount;
+					}
+				}
+				return result;
+			}
+			int middle = (from + to) >>> 1;
+			ExtremeTask right = new ExtremeTask(amounts, middle, to, direction);
+			right.fork();
+			MonetaryAmount left = new ExtremeTask(amounts, from, middle,
+					direction).compute();
+			MonetaryAmount rightResult = right.join();
+			return isBeyond(left, rightResult, direction) ? rightResult : left;
+		}
+	}
+
+	private static final class ArrayExtremeTask extends RecursiveTask<Integer> {
+
+		private static final long serialVersionUID = 1L;
+		private final AmountArray amounts;
+		private final int from;
+		private final int to;
+		private final int direction;
+		/** Flag, if the scale is shared, evaluated once for all tasks. */
+		private final boolean scaleShared;
+		/** The {@link javax.money.CurrencyIndex} all rows must have. */
+		private final int currencyIndex;
+
+		ArrayExtremeTask(AmountArray amounts, int from, int to, int direction,
+				boolean scaleShared, int currencyIndex) {
+			this.amounts = amounts;
+			this.from = from;
+			this.to = to;
+			this.direction = direction;
+			this.scaleShared = scaleShared;
+			this.currencyIndex = currencyIndex;
+		}
+
+		@Override
+		protected Integer compute() {
+			if (to - from <= THRESHOLD) {
+				for (int i = from; i < to; i++) {
+					if (amounts.getCurrencyIndex(i) != currencyIndex) {
+						throw new CurrencyMismatchException(
+								amounts.getCurrency(0), amounts.getCurrency(i));
+					}
+				}
+				if (scaleShared) {
+					long[] values = amounts.unscaledValues();
+					return Integer.valueOf(direction < 0 ? AmountKernels
+							.indexOfMin(values, from, to) : AmountKernels
+							.indexOfMax(values, from, to));
+				}
+				int result = from;
+				for (int i = from + 1; i < to; i++) {
+					if (amounts.compare(i, result) * direction > 0) {
+						result = i;
+					}
+				}
+				return Integer.valueOf(result);
+			}
+			int middle = (from + to) >>> 1;
+			ArrayExtremeTask right = new ArrayExtremeTask(amounts, middle, to,
+					direction, scaleShared, currencyIndex);
+			right.fork();
+			int left = new ArrayExtremeTask(amounts, from, middle, direction,
+					scaleShared, currencyIndex).compute().intValue();
+			int rightResult = right.join().intValue();
+			return Integer.valueOf(amounts.compare(rightResult, left)
+					* direction > 0 ? rightResult : left);
+		}
+	}
+
+}
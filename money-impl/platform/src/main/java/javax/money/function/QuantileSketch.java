@@ -0,0 +1,454 @@
+/*
+ *  Copyright (c) 2012, 2013, Credit Suisse (Anatole Tresch), Werner Keil.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package javax.money.function;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import javax.money.CurrencyIndex;
+import javax.money.CurrencyMismatchException;
+import javax.money.CurrencyUnit;
+import javax.money.MonetaryAmount;
+import javax.money.Money;
+
+/**
+ * Estimates quantiles, such as the median or the 99th percentile, of amounts
+ * of a single currency in bounded memory, using a merging t-digest.
+ * <p>
+ * Amounts are read as unscaled {@code long} values with the scale of the
+ * sketch, see {@link AmountKernels#unscaledValueOf(MonetaryAmount, int)}.
+ * They are buffered and periodically merged into centroids, whose number is
+ * bounded by about the compression passed. The centroids are small at the
+ * tails, so extreme quantiles are estimated more accurately than the median.
+ * Minimum and maximum are exact.
+ * <p>
+ * Sketches with the same currency and scale can be combined, e.g. when
+ * evaluating partial sketches in parallel, or serialized, to be combined on
+ * another node. This class is not thread-safe.
+ *
+ * @see AmountHistogram
+ * @author Anatole Tresch
+ */
+public final class QuantileSketch implements Serializable {
+
+	/**
+	 * serialVersionUID.
+	 */
+	private static final long serialVersionUID = 6421339532960377457L;
+
+	/** The default compression. */
+	public static final double DEFAULT_COMPRESSION = 100d;
+
+	/** The currency of the amounts. */
+	private final CurrencyUnit currency;
+	/** The scale of the unscaled values. */
+	private final int scale;
+	/** The compression, bounding the number of centroids. */
+	private final double compression;
+	/** The means of the centroids, ascending. */
+	private double[] means = new double[0];
+	/** The weights of the centroids. */
+	private long[] weights = new long[0];
+	/** The values, or centroid means, not yet merged. */
+	private transient double[] bufferMeans;
+	/** The weights of the values not yet merged. */
+	private transient long[] bufferWeights;
+	/** The number of values not yet merged. */
+	private transient int buffered;
+	/** The number of values accepted. */
+	private long count;
+	/** The minimal value accepted. */
+	private long min = Long.MAX_VALUE;
+	/** The maximal value accepted. */
+	private long max = Long.MIN_VALUE;
+
+	/**
+	 * Creates a new sketch with the default scale of the currency and the
+	 * {@link #DEFAULT_COMPRESSION}.
+	 *
+	 * @param currency
+	 *            the currency, not null.
+	 */
+	public QuantileSketch(CurrencyUnit currency) {
+		this(currency, defaultScale(currency), DEFAULT_COMPRESSION);
+	}
+
+	/**
+	 * Creates a new sketch.
+	 *
+	 * @param currency
+	 *            the currency, not null.
+	 * @param scale
+	 *            the scale the amounts are read with, not negative. Amounts
+	 *            with a larger scale are rounded.
+	 * @param compression
+	 *            the compression, at least 20. Larger values increase
+	 *            accuracy and memory usage.
+	 */
+	public QuantileSketch(CurrencyUnit currency, int scale, double compression) {
+		if (currency == null) {
+			throw new IllegalArgumentException("Currency required.");
+		}
+		if (scale < 0) {
+			throw new IllegalArgumentException("Invalid scale: " + scale);
+		}
+		if (!(compression >= 20d)) {
+			throw new IllegalArgumentException("Invalid compression: "
+					+ compression);
+		}
+		this.currency = currency;
+		this.scale = scale;
+		this.compression = compression;
+		createBuffer();
+	}
+
+	/**
+	 * Adds an amount to the sketch.
+	 *
+	 * @param amount
+	 *            the amount, not null.
+	 * @return this instance, for chaining.
+	 * @throws CurrencyMismatchException
+	 *             if the amount's currency does not match.
+	 */
+	public QuantileSketch accept(MonetaryAmount amount) {
+		if (amount == null) {
+			throw new IllegalArgumentException("Amount required.");
+		}
+		if (!CurrencyIndex.isSameCurrency(this.currency, amount.getCurrency())) {
+			throw new CurrencyMismatchException(this.currency,
+					amount.getCurrency());
+		}
+		return acceptUnscaled(AmountKernels.unscaledValueOf(amount, this.scale));
+	}
+
+	/**
+	 * Adds an unscaled value with the scale of this sketch, e.g. a row of an
+	 * {@link javax.money.AmountArray}.
+	 *
+	 * @param unscaledValue
+	 *            the unscaled value.
+	 * @return this instance, for chaining.
+	 */
+	public QuantileSketch acceptUnscaled(long unscaledValue) {
+		this.min = Math.min(this.min, unscaledValue);
+		this.max = Math.max(this.max, unscaledValue);
+		this.count++;
+		add(unscaledValue, 1L);
+		return this;
+	}
+
+	/**
+	 * Adds the values of another sketch.
+	 *
+	 * @param other
+	 *            the sketch to be added, not null, not modified.
+	 * @return this instance, for chaining.
+	 * @throws CurrencyMismatchException
+	 *             if the currencies do not match.
+	 */
+	public QuantileSketch combine(QuantileSketch other) {
+		if (other == null) {
+			throw new IllegalArgumentException("Sketch required.");
+		}
+		if (!CurrencyIndex.isSameCurrency(this.currency, other.currency)) {
+			throw new CurrencyMismatchException(this.currency, other.currency);
+		}
+		if (this.scale != other.scale) {
+			throw new IllegalArgumentException("Scale mismatch: "
+					+ this.scale + " != " + other.scale);
+		}
+		if (other.count == 0) {
+			return this;
+		}
+		this.min = Math.min(this.min, other.min);
+		this.max = Math.max(this.max, other.max);
+		this.count += other.count;
+		for (int i = 0; i < other.means.length; i++) {
+			add(other.means[i], other.weights[i]);
+		}
+		for (int i = 0; i < other.buffered; i++) {
+			add(other.bufferMeans[i], other.bufferWeights[i]);
+		}
+		return this;
+	}
+
+	/**
+	 * Estimates a quantile of the amounts accepted.
+	 *
+	 * @param quantile
+	 *            the quantile, between 0 and 1, e.g. 0.99 for the 99th
+	 *            percentile.
+	 * @return the estimated amount, with the scale of this sketch, or null,
+	 *         if no amount was accepted.
+	 */
+	public MonetaryAmount quantile(double quantile) {
+		if (!(quantile >= 0d && quantile <= 1d)) {
+			throw new IllegalArgumentException("Invalid quantile: " + quantile);
+		}
+		if (this.count == 0) {
+			return null;
+		}
+		flush();
+		double value = estimate(quantile * this.count);
+		long unscaled = Math.max(this.min,
+				Math.min(this.max, Math.round(value)));
+		return toAmount(unscaled);
+	}
+
+	/**
+	 * Access the currency of the sketch.
+	 *
+	 * @return the currency, never null.
+	 */
+	public CurrencyUnit getCurrency() {
+		return this.currency;
+	}
+
+	/**
+	 * Access the scale the amounts are read with.
+	 *
+	 * @return the scale.
+	 */
+	public int getScale() {
+		return this.scale;
+	}
+
+	/**
+	 * Access the number of amounts accepted.
+	 *
+	 * @return the number of amounts.
+	 */
+	public long getCount() {
+		return this.count;
+	}
+
+	/**
+	 * Access the minimal amount accepted.
+	 *
+	 * @return the minimum, or null, if no amount was accepted.
+	 */
+	public MonetaryAmount getMin() {
+		return this.count == 0 ? null : toAmount(this.min);
+	}
+
+	/**
+	 * Access the maximal amount accepted.
+	 *
+	 * @return the maximum, or null, if no amount was accepted.
+	 */
+	public MonetaryAmount getMax() {
+		return this.count == 0 ? null : toAmount(this.max);
+	}
+
+	/**
+	 * Access the number of centroids, e.g. for monitoring memory usage.
+	 *
+	 * @return the number of centroids, after merging the buffered values.
+	 */
+	public int getCentroidCount() {
+		flush();
+		return this.means.length;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "QuantileSketch [currency=" + this.currency + ", scale="
+				+ this.scale + ", count=" + this.count + "]";
+	}
+
+	private static int defaultScale(CurrencyUnit currency) {
+		if (currency == null) {
+			throw new IllegalArgumentException("Currency required.");
+		}
+		return Math.max(0, currency.getDefaultFractionDigits());
+	}
+
+	private MonetaryAmount toAmount(long unscaled) {
+		return Money.of(this.currency, BigDecimal.valueOf(unscaled, this.scale));
+	}
+
+	/**
+	 * Adds a weighted value to the buffer, merging it when full.
+	 */
+	private void add(double mean, long weight) {
+		if (this.buffered == this.bufferMeans.length) {
+			flush();
+		}
+		this.bufferMeans[this.buffered] = mean;
+		this.bufferWeights[this.buffered] = weight;
+		this.buffered++;
+	}
+
+	/**
+	 * Merges the buffered values into the centroids.
+	 */
+	private void flush() {
+		if (this.buffered == 0) {
+			return;
+		}
+		sortBuffer();
+		int size = this.means.length + this.buffered;
+		double[] mergedMeans = new double[size];
+		long[] mergedWeights = new long[size];
+		long total = 0;
+		// merge the sorted centroids and the sorted buffer
+		for (int i = 0, c = 0, b = 0; i < size; i++) {
+			if (b == this.buffered
+					|| (c < this.means.length && this.means[c] <= this.bufferMeans[b])) {
+				mergedMeans[i] = this.means[c];
+				mergedWeights[i] = this.weights[c++];
+			} else {
+				mergedMeans[i] = this.bufferMeans[b];
+				mergedWeights[i] = this.bufferWeights[b++];
+			}
+			total += mergedWeights[i];
+		}
+		this.buffered = 0;
+		// compress, bounding the weight of each centroid by the scale function
+		int n = 0;
+		long weightSoFar = 0;
+		double limit = weightLimit(0d, total);
+		for (int i = 1; i < size; i++) {
+			long proposed = mergedWeights[n] + mergedWeights[i];
+			if (weightSoFar + proposed <= limit) {
+				mergedMeans[n] += (mergedMeans[i] - mergedMeans[n])
+						* mergedWeights[i] / proposed;
+				mergedWeights[n] = proposed;
+			} else {
+				weightSoFar += mergedWeights[n];
+				limit = weightLimit((double) weightSoFar / total, total);
+				n++;
+				mergedMeans[n] = mergedMeans[i];
+				mergedWeights[n] = mergedWeights[i];
+			}
+		}
+		this.means = Arrays.copyOf(mergedMeans, n + 1);
+		this.weights = Arrays.copyOf(mergedWeights, n + 1);
+	}
+
+	/**
+	 * Evaluates the cumulative weight, up to which the centroid starting at
+	 * quantile {@code q} may grow, using the scale function
+	 * {@code k(q) = compression / (2 pi) * asin(2q - 1)}, which allows one
+	 * unit of {@code k} per centroid.
+	 */
+	private double weightLimit(double q, long total) {
+		double k = this.compression / (2 * Math.PI) * Math.asin(2 * q - 1) + 1;
+		if (k >= this.compression / 4) {
+			return total;
+		}
+		return total * (Math.sin(k * 2 * Math.PI / this.compression) + 1) / 2;
+	}
+
+	/**
+	 * Sorts the buffered values and their weights by value.
+	 */
+	private void sortBuffer() {
+		boolean weighted = false;
+		for (int i = 0; i < this.buffered; i++) {
+			if (this.bufferWeights[i] != 1L) {
+				weighted = true;
+				break;
+			}
+		}
+		if (!weighted) {
+			Arrays.sort(this.bufferMeans, 0, this.buffered);
+			return;
+		}
+		// insertion sort of the pairs, weighted values come from combining
+		for (int i = 1; i < this.buffered; i++) {
+			double mean = this.bufferMeans[i];
+			long weight = this.bufferWeights[i];
+			int j = i - 1;
+			while (j >= 0 && this.bufferMeans[j] > mean) {
+				this.bufferMeans[j + 1] = this.bufferMeans[j];
+				this.bufferWeights[j + 1] = this.bufferWeights[j];
+				j--;
+			}
+			this.bufferMeans[j + 1] = mean;
+			this.bufferWeights[j + 1] = weight;
+		}
+	}
+
+	/**
+	 * Estimates the value at the given cumulative weight, interpolating
+	 * linearly between the centers of the centroids, and between minimum or
+	 * maximum and the outer centroids.
+	 */
+	private double estimate(double index) {
+		int n = this.means.length;
+		double firstHalf = this.weights[0] / 2d;
+		if (index <= firstHalf) {
+			if (this.weights[0] == 1L) {
+				return this.means[0];
+			}
+			return this.min + (this.means[0] - this.min) * index / firstHalf;
+		}
+		double weightSoFar = firstHalf;
+		for (int i = 0; i < n - 1; i++) {
+			double step = (this.weights[i] + this.weights[i + 1]) / 2d;
+			if (index <= weightSoFar + step) {
+				if (this.weights[i] == 1L && index - weightSoFar < 0.5d) {
+					return this.means[i];
+				}
+				if (this.weights[i + 1] == 1L
+						&& weightSoFar + step - index <= 0.5d) {
+					return this.means[i + 1];
+				}
+				return this.means[i] + (this.means[i + 1] - this.means[i])
+						* (index - weightSoFar) / step;
+			}
+			weightSoFar += step;
+		}
+		double lastHalf = this.weights[n - 1] / 2d;
+		if (this.weights[n - 1] == 1L) {
+			return this.means[n - 1];
+		}
+		return this.means[n - 1] + (this.max - this.means[n - 1])
+				* Math.min(1d, (index - weightSoFar) / lastHalf);
+	}
+
+	private void createBuffer() {
+		int bufferSize = (int) (5 * this.compression);
+		this.bufferMeans = new double[bufferSize];
+		this.bufferWeights = new long[bufferSize];
+	}
+
+	/**
+	 * Merges the buffered values before serializing.
+	 */
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		flush();
+		out.defaultWriteObject();
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException,
+			ClassNotFoundException {
+		in.defaultReadObject();
+		createBuffer();
+	}
+
+}
@@ -32,17 +32,20 @@ public final class Reciprocal implements MonetaryOperator {
 	/**
 	 * The shared instance of this class.
 	 */
-	private Reciprocal INSTANCE = new Reciprocal();
+	private static final Reciprocal INSTANCE = new Reciprocal();
 
 	/**
-	 * Access the shared instance of {@link Reciprocal} for use.
-	 * 
-	 * @return the shared instance, never {@code null}.
+	 * Singleton constructor.
 	 */
 	private Reciprocal() {
 	}
 
-	public Reciprocal of() {
+	/**
+	 * Access the shared instance of {@link Reciprocal} for use.
+	 * 
+	 * @return the shared instance, never {@code null}.
+	 */
+	public static Reciprocal of() {
 		return INSTANCE;
 	}
 
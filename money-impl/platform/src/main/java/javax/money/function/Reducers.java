@@ -0,0 +1,314 @@
+/*
+ *  Copyright (c) 2012, 2013, Credit Suisse (Anatole Tresch), Werner Keil.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package javax.money.function;
+
+import javax.money.MonetaryAmount;
+
+/**
+ * Provides the common {@link MonetaryReducer} implementations.
+ *
+ * @author Anatole Tresch
+ */
+public final class Reducers {
+
+	/** The shared sum reducer. */
+	private static final MonetaryReducer<AmountAccumulator> SUM = new MonetaryReducer<AmountAccumulator>() {
+		@Override
+		public AmountAccumulator initial() {
+			return new AmountAccumulator();
+		}
+
+		@Override
+		public AmountAccumulator accumulate(AmountAccumulator aggregate,
+				MonetaryAmount amount) {
+			return aggregate.add(amount);
+		}
+
+		@Override
+		public AmountAccumulator combine(AmountAccumulator left,
+				AmountAccumulator right) {
+			return left.merge(right);
+		}
+	};
+
+	/** The shared count reducer. */
+	private static final MonetaryReducer<Count> COUNT = new MonetaryReducer<Count>() {
+		@Override
+		public Count initial() {
+			return new Count();
+		}
+
+		@Override
+		public Count accumulate(Count aggregate, MonetaryAmount amount) {
+			aggregate.count++;
+			return aggregate;
+		}
+
+		@Override
+		public Count combine(Count left, Count right) {
+			left.count += right.count;
+			return left;
+		}
+	};
+
+	/** The shared minimum reducer. */
+	private static final MonetaryReducer<MonetaryAmount> MIN = new ExtremeReducer(
+			-1);
+
+	/** The shared maximum reducer. */
+	private static final MonetaryReducer<MonetaryAmount> MAX = new ExtremeReducer(
+			1);
+
+	/** The shared statistics reducer. */
+	private static final MonetaryReducer<MonetarySummaryStatistics> STATISTICS = new MonetaryReducer<MonetarySummaryStatistics>() {
+		@Override
+		public MonetarySummaryStatistics initial() {
+			return null;
+		}
+
+		@Override
+		public MonetarySummaryStatistics accumulate(
+				MonetarySummaryStatistics aggregate, MonetaryAmount amount) {
+			if (aggregate == null) {
+				aggregate = new MonetarySummaryStatistics(amount.getCurrency());
+			}
+			return aggregate.accept(amount);
+		}
+
+		@Override
+		public MonetarySummaryStatistics combine(
+				MonetarySummaryStatistics left, MonetarySummaryStatistics right) {
+			if (left == null) {
+				return right == null ? null : new MonetarySummaryStatistics(
+						right.getCurrency()).combine(right);
+			}
+			if (right == null) {
+				return left;
+			}
+			return left.combine(right);
+		}
+	};
+
+	/** The shared quantile sketch reducer. */
+	private static final MonetaryReducer<QuantileSketch> QUANTILES = new MonetaryReducer<QuantileSketch>() {
+		@Override
+		public QuantileSketch initial() {
+			return null;
+		}
+
+		@Override
+		public QuantileSketch accumulate(QuantileSketch aggregate,
+				MonetaryAmount amount) {
+			if (aggregate == null) {
+				aggregate = new QuantileSketch(amount.getCurrency());
+			}
+			return aggregate.accept(amount);
+		}
+
+		@Override
+		public QuantileSketch combine(QuantileSketch left, QuantileSketch right) {
+			if (left == null) {
+				return right == null ? null : new QuantileSketch(
+						right.getCurrency()).combine(right);
+			}
+			if (right == null) {
+				return left;
+			}
+			return left.combine(right);
+		}
+	};
+
+	/** The shared histogram reducer. */
+	private static final MonetaryReducer<AmountHistogram> HISTOGRAM = new MonetaryReducer<AmountHistogram>() {
+		@Override
+		public AmountHistogram initial() {
+			return null;
+		}
+
+		@Override
+		public AmountHistogram accumulate(AmountHistogram aggregate,
+				MonetaryAmount amount) {
+			if (aggregate == null) {
+				aggregate = new AmountHistogram(amount.getCurrency());
+			}
+			return aggregate.accept(amount);
+		}
+
+		@Override
+		public AmountHistogram combine(AmountHistogram left,
+				AmountHistogram right) {
+			if (left == null) {
+				return right == null ? null : new AmountHistogram(
+						right.getCurrency()).combine(right);
+			}
+			if (right == null) {
+				return left;
+			}
+			return left.combine(right);
+		}
+	};
+
+	/**
+	 * Singleton constructor.
+	 */
+	private Reducers() {
+	}
+
+	/**
+	 * Access a reducer evaluating the exact sum of the amounts, which must be
+	 * of the same currency.
+	 *
+	 * @return the reducer, the aggregates also provide the number of amounts.
+	 */
+	public static MonetaryReducer<AmountAccumulator> sum() {
+		return SUM;
+	}
+
+	/**
+	 * Access a reducer counting the amounts.
+	 *
+	 * @return the reducer.
+	 */
+	public static MonetaryReducer<Count> count() {
+		return COUNT;
+	}
+
+	/**
+	 * Access a reducer evaluating the first minimal amount, as
+	 * {@link Minimum}.
+	 *
+	 * @return the reducer, the aggregate of an empty group is null.
+	 */
+	public static MonetaryReducer<MonetaryAmount> min() {
+		return MIN;
+	}
+
+	/**
+	 * Access a reducer evaluating the first maximal amount, as
+	 * {@link Maximum}.
+	 *
+	 * @return the reducer, the aggregate of an empty group is null.
+	 */
+	public static MonetaryReducer<MonetaryAmount> max() {
+		return MAX;
+	}
+
+	/**
+	 * Access a reducer evaluating the {@link MonetarySummaryStatistics} of the
+	 * amounts, which must be of the same currency.
+	 *
+	 * @return the reducer, the aggregate of an empty group is null.
+	 */
+	public static MonetaryReducer<MonetarySummaryStatistics> statistics() {
+		return STATISTICS;
+	}
+
+	/**
+	 * Access a reducer evaluating a {@link QuantileSketch} of the amounts,
+	 * which must be of the same currency, with the default scale of the
+	 * currency.
+	 *
+	 * @return the reducer, the aggregate of an empty group is null.
+	 */
+	public static MonetaryReducer<QuantileSketch> quantiles() {
+		return QUANTILES;
+	}
+
+	/**
+	 * Access a reducer evaluating an {@link AmountHistogram} of the amounts,
+	 * which must be of the same currency, with the default scale of the
+	 * currency.
+	 *
+	 * @return the reducer, the aggregate of an empty group is null.
+	 */
+	public static MonetaryReducer<AmountHistogram> histogram() {
+		return HISTOGRAM;
+	}
+
+	/**
+	 * Aggregate of the {@link Reducers#count()} reducer. Its count can only be
+	 * changed by the reducer, so it can be handed out safely.
+	 */
+	public static final class Count {
+
+		/** The number of amounts counted. */
+		private long count;
+
+		/**
+		 * Creates an empty count, only used by the reducer.
+		 */
+		Count() {
+		}
+
+		/**
+		 * Access the number of amounts counted.
+		 *
+		 * @return the number of amounts.
+		 */
+		public long getCount() {
+			return this.count;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.lang.Object#toString()
+		 */
+		@Override
+		public String toString() {
+			return "Count [count=" + this.count + "]";
+		}
+	}
+
+	/**
+	 * Reducer keeping the first minimal or maximal amount.
+	 */
+	private static final class ExtremeReducer implements
+			MonetaryReducer<MonetaryAmount> {
+
+		private final int direction;
+
+		ExtremeReducer(int direction) {
+			this.direction = direction;
+		}
+
+		@Override
+		public MonetaryAmount initial() {
+			return null;
+		}
+
+		@Override
+		public MonetaryAmount accumulate(MonetaryAmount aggregate,
+				MonetaryAmount amount) {
+			return combine(aggregate, amount);
+		}
+
+		@Override
+		public MonetaryAmount combine(MonetaryAmount left, MonetaryAmount right) {
+			if (left == null) {
+				return right;
+			}
+			if (right == null) {
+				return left;
+			}
+			if (direction < 0) {
+				return left.isGreaterThan(right) ? right : left;
+			}
+			return left.isLessThan(right) ? right : left;
+		}
+	}
+
+}
@@ -18,9 +18,10 @@ package javax.money.function;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Map;
 
+import javax.money.AmountArray;
+import javax.money.CurrencyMap;
 import javax.money.CurrencyUnit;
 import javax.money.MonetaryAmount;
 import javax.money.MonetaryFunction;
@@ -28,7 +29,10 @@ import javax.money.MonetaryFunction;
 /**
  * This {@link MonetaryFunction} allows to separate instances of
  * {@link MonetaryAmount} by their {@link CurrencyUnit}.
- * 
+ * <p>
+ * The amounts are kept in the result. If only an aggregate per currency is
+ * needed, use {@link GroupingAggregator#byCurrency(MonetaryReducer)} instead.
+ *
  * @author Anatole Tresch
  */
 public final class SeparateAmounts
@@ -92,6 +96,35 @@ public final class SeparateAmounts
 		return SeparateAmounts.of().apply(Arrays.asList(amounts));
 	}
 
+	/**
+	 * Separates the rows of the given {@link AmountArray} by currency into
+	 * separate arrays, keeping the scale layout of the given array.
+	 * 
+	 * @param amounts
+	 *            the amounts to be separated, not null.
+	 * @return the separated arrays, by currency.
+	 */
+	public static Map<CurrencyUnit, AmountArray> from(AmountArray amounts) {
+		if (amounts == null) {
+			throw new IllegalArgumentException("amounts required.");
+		}
+		CurrencyMap<AmountArray> result = new CurrencyMap<AmountArray>();
+		for (int i = 0; i < amounts.size(); i++) {
+			AmountArray target = result.get(amounts.getCurrencyIndex(i));
+			if (target == null) {
+				if (amounts.isScaleShared()) {
+					target = new AmountArray(16, amounts.getScale(i));
+				} else {
+					target = new AmountArray(16);
+				}
+				result.put(amounts.getCurrency(i), target);
+			}
+			target.append(amounts.getCurrency(i),
+					amounts.getUnscaledValue(i), amounts.getScale(i));
+		}
+		return result;
+	}
+
 	/**
 	 * Separates the given {@link MonetaryAmount} instances according to their
 	 * {@link CurrencyUnit}.
@@ -108,7 +141,7 @@ public final class SeparateAmounts
 			throw new IllegalArgumentException("amounts required.");
 		}
 		/** the result with all amounts separated by currency. */
-		Map<CurrencyUnit, Collection<MonetaryAmount>> result = new HashMap<CurrencyUnit, Collection<MonetaryAmount>>();
+		Map<CurrencyUnit, Collection<MonetaryAmount>> result = new CurrencyMap<Collection<MonetaryAmount>>();
 		for (MonetaryAmount monetaryAmount : amounts) {
 			CurrencyUnit cu = monetaryAmount.getCurrency();
 			Collection<MonetaryAmount> target = result.get(cu);
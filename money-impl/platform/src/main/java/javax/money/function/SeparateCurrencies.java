@@ -19,6 +19,7 @@ import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
 
+import javax.money.CurrencyIndex;
 import javax.money.CurrencyUnit;
 import javax.money.MonetaryAmount;
 import javax.money.MonetaryFunction;
@@ -151,11 +152,7 @@ public final class SeparateCurrencies implements
 				unit = am.getCurrency();
 				continue;
 			}
-			if (!unit.getNamespace().equals(am.getCurrency().getNamespace())) {
-				return false;
-			}
-			if (!unit.getCurrencyCode().equals(
-					am.getCurrency().getCurrencyCode())) {
+			if (!CurrencyIndex.isSameCurrency(unit, am.getCurrency())) {
 				return false;
 			}
 		}
@@ -16,7 +16,9 @@
 package javax.money.function;
 
 import java.util.Arrays;
+import java.util.Collection;
 
+import javax.money.AmountArray;
 import javax.money.MonetaryAmount;
 import javax.money.MonetaryFunction;
 
@@ -74,6 +76,89 @@ public final class Total implements
 		return Total.of().apply(Arrays.asList(amounts));
 	}
 
+	/**
+	 * Evaluates the total sum of the rows of the given {@link AmountArray},
+	 * without creating an amount per row.
+	 * 
+	 * @param amounts
+	 *            The amounts, at least one row, not null, all of the same
+	 *            currency.
+	 * @return the total sum.
+	 */
+	public static MonetaryAmount from(AmountArray amounts) {
+		if (amounts == null) {
+			throw new IllegalArgumentException("amounts required.");
+		}
+		if (amounts.size() == 0) {
+			throw new IllegalArgumentException("amounts is empty.");
+		}
+		AmountAccumulator accumulator = new AmountAccumulator();
+		for (int i = 0; i < amounts.size(); i++) {
+			accumulator.add(amounts.getCurrency(i),
+					amounts.getUnscaledValue(i), amounts.getScale(i));
+		}
+		return amounts.get(0).from(accumulator.toBigDecimal());
+	}
+
+	/**
+	 * Evaluates the total of the given amounts in parallel, using
+	 * fork/join tasks. The result is identical to {@link #from(Iterable)}.
+	 * 
+	 * @param amounts
+	 *            The amounts, at least one instance, not null, all of the same
+	 *            currency.
+	 * @return the total.
+	 */
+	public static MonetaryAmount fromParallel(
+			Collection<? extends MonetaryAmount> amounts) {
+		if (amounts == null) {
+			throw new IllegalArgumentException("amounts required.");
+		}
+		AmountAccumulator accumulator = ParallelReductions.sum(amounts);
+		if (accumulator.getCount() == 0) {
+			throw new IllegalArgumentException("amounts is empty.");
+		}
+		return accumulator.toAmount();
+	}
+
+	/**
+	 * Evaluates the total of the given amounts in parallel, using
+	 * fork/join tasks. The result is identical to
+	 * {@link #from(MonetaryAmount...)}.
+	 * 
+	 * @param amounts
+	 *            The amounts, at least one instance, not null, all of the same
+	 *            currency.
+	 * @return the total.
+	 */
+	public static MonetaryAmount fromParallel(MonetaryAmount... amounts) {
+		if (amounts == null) {
+			throw new IllegalArgumentException("amounts required.");
+		}
+		return fromParallel(Arrays.asList(amounts));
+	}
+
+	/**
+	 * Evaluates the total of the rows of the given {@link AmountArray} in
+	 * parallel, using fork/join tasks. The result is identical to
+	 * {@link #from(AmountArray)}.
+	 * 
+	 * @param amounts
+	 *            The amounts, at least one row, not null, all of the same
+	 *            currency.
+	 * @return the total.
+	 */
+	public static MonetaryAmount fromParallel(AmountArray amounts) {
+		if (amounts == null) {
+			throw new IllegalArgumentException("amounts required.");
+		}
+		if (amounts.size() == 0) {
+			throw new IllegalArgumentException("amounts is empty.");
+		}
+		return amounts.get(0).from(
+				ParallelReductions.sum(amounts).toBigDecimal());
+	}
+
 	/**
 	 * Evaluates the total sum of the given amounts.
 	 * 
@@ -83,21 +168,17 @@ public final class Total implements
 	 * @return the total sum.
 	 */
 	public MonetaryAmount apply(Iterable<MonetaryAmount> amounts) {
-		MonetaryAmount result = null;
 		if (amounts == null) {
 			throw new IllegalArgumentException("amounts required.");
 		}
+		AmountAccumulator accumulator = new AmountAccumulator();
 		for (MonetaryAmount amount : amounts) {
-			if (result == null) {
-				result = amount;
-			} else {
-				result = result.add(amount);
-			}
+			accumulator.add(amount);
 		}
-		if (result == null) {
+		if (accumulator.getCount() == 0) {
 			throw new IllegalArgumentException("amounts is empty.");
 		}
-		return result;
+		return accumulator.toAmount();
 	}
 
 	/*
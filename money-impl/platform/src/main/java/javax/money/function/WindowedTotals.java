@@ -0,0 +1,294 @@
+/*
+ *  Copyright (c) 2012, 2013, Credit Suisse (Anatole Tresch), Werner Keil.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package javax.money.function;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.money.CurrencyMap;
+import javax.money.CurrencyUnit;
+import javax.money.MonetaryAmount;
+import javax.money.Money;
+import javax.money.UnscaledArithmetic;
+
+/**
+ * Maintains exact per-currency totals of timestamped amounts over a sliding or
+ * tumbling time window, e.g. for limit monitoring.
+ * <p>
+ * The window is divided into buckets of equal length. Each currency keeps a
+ * ring buffer of the unscaled bucket sums and a running total, so adding an
+ * amount and querying a total take constant time, apart from clearing the
+ * buckets that expired since the last access. A sliding window covers the
+ * current bucket and the buckets before it; a tumbling window has a single
+ * bucket, covering the aligned window containing the time of the query.
+ * <p>
+ * Timestamps are milliseconds, e.g. as returned by
+ * {@link System#currentTimeMillis()}. Amounts may arrive out of order; amounts
+ * older than the window are ignored. The sums are kept with the largest scale
+ * of the amounts added and are exact; an {@link ArithmeticException} is thrown,
+ * if a sum exceeds the {@code long} range. This class is not thread-safe.
+ *
+ * @author Anatole Tresch
+ */
+public final class WindowedTotals {
+
+	/** The length of a bucket in milliseconds. */
+	private final long bucketMillis;
+	/** The number of buckets per window. */
+	private final int bucketCount;
+	/** The windows, by currency. */
+	private final CurrencyMap<Window> windows = new CurrencyMap<Window>();
+
+	/**
+	 * Private constructor, use {@link #sliding(long, TimeUnit, int)} or
+	 * {@link #tumbling(long, TimeUnit)}.
+	 */
+	private WindowedTotals(long bucketMillis, int bucketCount) {
+		this.bucketMillis = bucketMillis;
+		this.bucketCount = bucketCount;
+	}
+
+	/**
+	 * Creates totals over a sliding window, which moves in steps of
+	 * {@code length / buckets}, e.g. a 1 hour window with 60 buckets covers
+	 * the current minute and the 59 minutes before.
+	 *
+	 * @param length
+	 *            the length of the window.
+	 * @param unit
+	 *            the unit of the length, not null.
+	 * @param buckets
+	 *            the number of buckets, dividing the length in milliseconds.
+	 * @return the new instance.
+	 */
+	public static WindowedTotals sliding(long length, TimeUnit unit,
+			int buckets) {
+		if (unit == null) {
+			throw new IllegalArgumentException("TimeUnit required.");
+		}
+		long millis = unit.toMillis(length);
+		if (buckets <= 0 || millis <= 0 || millis % buckets != 0) {
+			throw new IllegalArgumentException("Invalid window: " + millis
+					+ "ms / " + buckets + " buckets.");
+		}
+		return new WindowedTotals(millis / buckets, buckets);
+	}
+
+	/**
+	 * Creates totals over a tumbling window, e.g. a 1 minute window covers the
+	 * minute containing the time of the query, starting at 0 seconds.
+	 *
+	 * @param length
+	 *            the length of the window.
+	 * @param unit
+	 *            the unit of the length, not null.
+	 * @return the new instance.
+	 */
+	public static WindowedTotals tumbling(long length, TimeUnit unit) {
+		return sliding(length, unit, 1);
+	}
+
+	/**
+	 * Adds an amount to the window of its currency.
+	 *
+	 * @param timestamp
+	 *            the time of the amount, in milliseconds.
+	 * @param amount
+	 *            the amount, not null.
+	 * @return true, if the amount was added, false, if it is older than the
+	 *         window of its currency.
+	 * @throws ArithmeticException
+	 *             if a sum exceeds the {@code long} range.
+	 */
+	public boolean accept(long timestamp, MonetaryAmount amount) {
+		if (amount == null) {
+			throw new IllegalArgumentException("Amount required.");
+		}
+		CurrencyUnit currency = amount.getCurrency();
+		Window window = this.windows.get(currency);
+		if (window == null) {
+			window = new Window(this.bucketCount);
+			this.windows.put(currency, window);
+		}
+		return window.add(bucketOf(timestamp), amount);
+	}
+
+	/**
+	 * Access the total of a currency in the window ending at the given time.
+	 *
+	 * @param currency
+	 *            the currency, not null.
+	 * @param now
+	 *            the current time, in milliseconds.
+	 * @return the total, zero, if no amount of the currency is in the window.
+	 */
+	public MonetaryAmount getTotal(CurrencyUnit currency, long now) {
+		if (currency == null) {
+			throw new IllegalArgumentException("Currency required.");
+		}
+		Window window = this.windows.get(currency);
+		if (window == null) {
+			return Money.ofZero(currency);
+		}
+		window.advance(bucketOf(now));
+		return Money.of(currency, BigDecimal.valueOf(window.total,
+				window.scale));
+	}
+
+	/**
+	 * Access the totals of all currencies in the window ending at the given
+	 * time.
+	 *
+	 * @param now
+	 *            the current time, in milliseconds.
+	 * @return the totals, by currency, including zero totals of currencies,
+	 *         whose amounts expired.
+	 */
+	public Map<CurrencyUnit, MonetaryAmount> getTotals(long now) {
+		CurrencyMap<MonetaryAmount> result = new CurrencyMap<MonetaryAmount>();
+		for (CurrencyUnit currency : this.windows.keySet()) {
+			result.put(currency, getTotal(currency, now));
+		}
+		return Collections.unmodifiableMap(result);
+	}
+
+	/**
+	 * Access the length of the window.
+	 *
+	 * @return the length, in milliseconds.
+	 */
+	public long getWindowMillis() {
+		return this.bucketMillis * this.bucketCount;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "WindowedTotals [bucketMillis=" + this.bucketMillis
+				+ ", buckets=" + this.bucketCount + ", currencies="
+				+ this.windows.keySet() + "]";
+	}
+
+	/**
+	 * Evaluates the number of the bucket containing the given time, rounding
+	 * towards negative infinity.
+	 */
+	private long bucketOf(long timestamp) {
+		long bucket = timestamp / this.bucketMillis;
+		if (timestamp < 0 && bucket * this.bucketMillis != timestamp) {
+			bucket--;
+		}
+		return bucket;
+	}
+
+	/**
+	 * The ring buffer of bucket sums of a single currency.
+	 */
+	private static final class Window {
+
+		/** The unscaled bucket sums, indexed by bucket number modulo size. */
+		private final long[] buckets;
+		/** The number of the newest bucket, if not {@link #empty}. */
+		private long head;
+		/** True, if no bucket was accessed yet. */
+		private boolean empty = true;
+		/** The unscaled sum of all buckets. */
+		private long total;
+		/** The scale of the sums. */
+		private int scale;
+
+		Window(int size) {
+			this.buckets = new long[size];
+		}
+
+		/**
+		 * Moves the newest bucket to the given bucket, clearing the buckets
+		 * expiring.
+		 */
+		void advance(long bucket) {
+			if (this.empty) {
+				this.head = bucket;
+				this.empty = false;
+				return;
+			}
+			long current = this.head;
+			if (bucket <= current) {
+				return;
+			}
+			// the distance overflows for buckets at both ends of the long range
+			long distance = bucket - current;
+			if (distance < 0 || distance >= this.buckets.length) {
+				Arrays.fill(this.buckets, 0L);
+				this.total = 0L;
+			} else {
+				for (long b = current + 1; b <= bucket; b++) {
+					int index = indexOf(b);
+					this.total -= this.buckets[index];
+					this.buckets[index] = 0L;
+				}
+			}
+			this.head = bucket;
+		}
+
+		boolean add(long bucket, MonetaryAmount amount) {
+			advance(bucket);
+			long age = this.head - bucket;
+			if (age < 0 || age >= this.buckets.length) {
+				return false;
+			}
+			int amountScale = amount.getScale();
+			if (amountScale > this.scale) {
+				rescale(amountScale);
+			}
+			// exact, since the scale of the sums is not less than the amount's
+			long unscaled = AmountKernels.unscaledValueOf(amount, this.scale);
+			int index = indexOf(bucket);
+			long newTotal = UnscaledArithmetic.addExact(this.total, unscaled);
+			this.buckets[index] = UnscaledArithmetic.addExact(
+					this.buckets[index], unscaled);
+			this.total = newTotal;
+			return true;
+		}
+
+		/**
+		 * Changes the scale of all sums to the given, larger scale.
+		 */
+		private void rescale(int newScale) {
+			int digits = newScale - this.scale;
+			if (digits > UnscaledArithmetic.MAX_POWER_OF_TEN) {
+				throw new ArithmeticException("Scale out of range: " + newScale);
+			}
+			long[] newTotal = { this.total };
+			AmountKernels.scaleUp(newTotal, 0, 1, digits);
+			AmountKernels.scaleUp(this.buckets, 0, this.buckets.length, digits);
+			this.total = newTotal[0];
+			this.scale = newScale;
+		}
+
+		private int indexOf(long bucket) {
+			int index = (int) (bucket % this.buckets.length);
+			return index < 0 ? index + this.buckets.length : index;
+		}
+	}
+
+}
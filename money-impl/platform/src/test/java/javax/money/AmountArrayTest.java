@@ -0,0 +1,184 @@
+/*
+ *  Copyright (c) 2012, 2013, Credit Suisse (Anatole Tresch), Werner Keil.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package javax.money;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Map;
+
+import javax.money.function.Maximum;
+import javax.money.function.Minimum;
+import javax.money.function.SeparateAmounts;
+import javax.money.function.Total;
+
+import org.junit.Test;
+
+public class AmountArrayTest {
+
+	private static final CurrencyUnit EUR = MoneyCurrency.of("EUR");
+	private static final CurrencyUnit CHF = MoneyCurrency.of("CHF");
+
+	@Test
+	public void testAppendAndGet() {
+		AmountArray array = new AmountArray(1);
+		array.append(Money.of(EUR, new BigDecimal("1.5")));
+		array.append(FastMoney.of(EUR, new BigDecimal("2.25")));
+		array.append(CHF, 100, 0);
+		assertEquals(3, array.size());
+		assertFalse(array.isScaleShared());
+		assertEquals(15L, array.getUnscaledValue(0));
+		assertEquals(1, array.getScale(0));
+		assertEquals(FastMoney.ofUnscaled(EUR, 225, 2), array.get(1));
+		assertEquals(CHF, array.getCurrency(2));
+		assertEquals(CurrencyIndex.indexOf(CHF), array.getCurrencyIndex(2));
+	}
+
+	@Test
+	public void testSharedScale() {
+		AmountArray array = new AmountArray(4, 2);
+		array.append(Money.of(EUR, new BigDecimal("1.5")));
+		array.append(EUR, 3, 0);
+		assertTrue(array.isScaleShared());
+		assertEquals(150L, array.getUnscaledValue(0));
+		assertEquals(300L, array.getUnscaledValue(1));
+		assertEquals(2, array.getScale(1));
+	}
+
+	@Test(expected = ArithmeticException.class)
+	public void testSharedScaleRoundingNecessary() {
+		new AmountArray(4, 2).append(Money.of(EUR, new BigDecimal("1.005")));
+	}
+
+	@Test
+	public void testBulkOperations() {
+		AmountArray array = new AmountArray(4, 2);
+		array.append(EUR, 125, 2).append(EUR, -375, 2);
+		AmountArray other = new AmountArray(4);
+		other.append(EUR, 1, 0).append(EUR, 5, 1);
+		array.add(other);
+		assertEquals(225L, array.getUnscaledValue(0));
+		assertEquals(-325L, array.getUnscaledValue(1));
+		array.negate();
+		assertEquals(-225L, array.getUnscaledValue(0));
+		array.multiply(3);
+		assertEquals(975L, array.getUnscaledValue(1));
+		array.setScale(1, RoundingMode.HALF_EVEN);
+		assertEquals(-68L, array.getUnscaledValue(0));
+		assertEquals(98L, array.getUnscaledValue(1));
+		assertEquals(1, array.getScale(0));
+	}
+
+	@Test
+	public void testFailedOperationsKeepValues() {
+		AmountArray array = new AmountArray(3);
+		array.append(EUR, 120, 2).append(EUR, Long.MAX_VALUE, 0)
+				.append(CHF, Long.MIN_VALUE, 1);
+		long[] expected = { 120, Long.MAX_VALUE, Long.MIN_VALUE };
+		try {
+			array.setScale(1, RoundingMode.UNNECESSARY);
+			fail("ArithmeticException expected.");
+		} catch (ArithmeticException e) {
+			assertValues(expected, array);
+			assertFalse(array.isScaleShared());
+		}
+		try {
+			array.multiply(2);
+			fail("ArithmeticException expected.");
+		} catch (ArithmeticException e) {
+			assertValues(expected, array);
+		}
+		try {
+			array.negate();
+			fail("ArithmeticException expected.");
+		} catch (ArithmeticException e) {
+			assertValues(expected, array);
+		}
+		AmountArray augend = new AmountArray(3);
+		augend.append(EUR, 1, 2).append(EUR, 1, 0).append(CHF, 0, 1);
+		try {
+			array.add(augend);
+			fail("ArithmeticException expected.");
+		} catch (ArithmeticException e) {
+			assertValues(expected, array);
+		}
+		AmountArray mismatch = new AmountArray(3);
+		mismatch.append(EUR, 1, 2).append(EUR, 0, 0).append(EUR, 0, 1);
+		try {
+			array.add(mismatch);
+			fail("CurrencyMismatchException expected.");
+		} catch (CurrencyMismatchException e) {
+			assertValues(expected, array);
+		}
+	}
+
+	private static void assertValues(long[] expected, AmountArray array) {
+		assertEquals(expected.length, array.size());
+		for (int i = 0; i < expected.length; i++) {
+			assertEquals(expected[i], array.getUnscaledValue(i));
+		}
+	}
+
+	@Test(expected = CurrencyMismatchException.class)
+	public void testAddCurrencyMismatch() {
+		new AmountArray(1).append(EUR, 1, 0).add(
+				new AmountArray(1).append(CHF, 1, 0));
+	}
+
+	@Test
+	public void testCursorAndIterator() {
+		AmountArray array = new AmountArray(2);
+		array.append(EUR, 1, 0).append(EUR, 2, 0);
+		AmountArray.Cursor cursor = array.cursor();
+		long sum = 0;
+		while (cursor.next()) {
+			sum += cursor.getUnscaledValue();
+			assertEquals(EUR, cursor.getCurrency());
+		}
+		assertEquals(3L, sum);
+		int count = 0;
+		for (MonetaryAmount amount : array) {
+			assertEquals(FastMoney.class, amount.getClass());
+			count++;
+		}
+		assertEquals(2, count);
+	}
+
+	@Test
+	public void testFunctions() {
+		AmountArray array = new AmountArray(4);
+		array.append(EUR, 150, 2).append(EUR, 2, 0).append(EUR, -5, 1);
+		assertEquals(FastMoney.ofUnscaled(EUR, 300, 2), Total.from(array));
+		assertEquals(FastMoney.ofUnscaled(EUR, -5, 1), Minimum.from(array));
+		assertEquals(FastMoney.ofUnscaled(EUR, 2, 0), Maximum.from(array));
+		array.append(CHF, 7, 0);
+		Map<CurrencyUnit, AmountArray> separated = SeparateAmounts
+				.from(array);
+		assertEquals(2, separated.size());
+		assertEquals(3, separated.get(EUR).size());
+		assertEquals(7L, separated.get(CHF).getUnscaledValue(0));
+	}
+
+	@Test(expected = CurrencyMismatchException.class)
+	public void testMinimumCurrencyMismatch() {
+		Minimum.from(new AmountArray(2).append(EUR, 1, 0).append(CHF, 1, 0));
+	}
+
+}
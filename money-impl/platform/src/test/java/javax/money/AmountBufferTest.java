@@ -0,0 +1,94 @@
+/*
+ *  Copyright (c) 2012, 2013, Credit Suisse (Anatole Tresch), Werner Keil.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package javax.money;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+
+import org.junit.Test;
+
+public class AmountBufferTest {
+
+	private static final CurrencyUnit EUR = MoneyCurrency.of("EUR");
+
+	@Test
+	public void testSetAndGet() {
+		AmountBuffer buffer = AmountBuffer.allocateDirect(4);
+		assertEquals(4, buffer.capacity());
+		assertFalse(buffer.isSet(0));
+		buffer.set(0, Money.of(EUR, new BigDecimal("12.34")));
+		buffer.set(1, FastMoney.of(EUR, 5));
+		assertTrue(buffer.isSet(0));
+		assertEquals(1234L, buffer.getUnscaledValue(0));
+		assertEquals(2, buffer.getScale(0));
+		assertSame(EUR, buffer.getCurrency(0));
+		assertEquals(FastMoney.of(EUR, 5), buffer.get(1));
+		buffer.clear(1);
+		assertFalse(buffer.isSet(1));
+	}
+
+	@Test
+	public void testStableLayout() {
+		ByteBuffer bytes = ByteBuffer.allocate(2 * AmountBuffer.RECORD_SIZE);
+		AmountBuffer.wrap(bytes).set(1, EUR, -42L, 2);
+		assertEquals(-42L, bytes.getLong(16));
+		assertEquals(2, bytes.get(24));
+		assertEquals('E', bytes.get(25));
+		assertEquals('U', bytes.get(26));
+		assertEquals('R', bytes.get(27));
+		assertEquals(FastMoney.ofUnscaled(EUR, -42L, 2),
+				AmountBuffer.wrap(bytes).get(1));
+	}
+
+	@Test
+	public void testView() {
+		AmountBuffer buffer = AmountBuffer.allocateDirect(1);
+		buffer.set(0, EUR, 150, 2);
+		MonetaryAmount view = buffer.view(0);
+		assertEquals(EUR, view.getCurrency());
+		assertTrue(view.isPositive());
+		assertEquals(FastMoney.ofUnscaled(EUR, 300, 2), view.add(view));
+		buffer.set(0, EUR, -1, 0);
+		assertTrue(view.isNegative());
+		assertEquals(new BigDecimal("-1"), view.asType(BigDecimal.class));
+	}
+
+	@Test(expected = ReadOnlyBufferException.class)
+	public void testReadOnly() {
+		AmountBuffer buffer = AmountBuffer.allocateDirect(1).asReadOnly();
+		assertTrue(buffer.isReadOnly());
+		buffer.set(0, EUR, 1, 0);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testNotSet() {
+		AmountBuffer.allocateDirect(1).get(0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNonIsoCurrency() {
+		AmountBuffer.allocateDirect(1).set(0,
+				new MoneyCurrency.Builder("test", "ABC")
+						.setDefaultFractionDigits(2).build(false), 1, 0);
+	}
+
+}
@@ -0,0 +1,104 @@
+/*
+ *  Copyright (c) 2012, 2013, Credit Suisse (Anatole Tresch), Werner Keil.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package javax.money;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class CashRoundingTest {
+
+	private static final CurrencyUnit CASH = new MoneyCurrency.Builder(
+			"cash-test", "CHC").setDefaultFractionDigits(2)
+			.setCacheRounding(5).build();
+
+	@Test
+	public void testCurrencyIncrement() {
+		CashRounding rounding = CashRounding.of(CASH);
+		assertSame(rounding, CashRounding.of(CASH));
+		assertEquals(5, CASH.getCashRounding());
+		assertEquals(new BigDecimal("0.05"), rounding.getIncrement());
+		assertEquals(new BigDecimal("0.01"),
+				CashRounding.of(MoneyCurrency.of("EUR")).getIncrement());
+		assertEquals(new BigDecimal("1"),
+				CashRounding.of(MoneyCurrency.of("JPY")).getIncrement());
+	}
+
+	@Test
+	public void testRoundUnscaledMatchesBigDecimal() {
+		BigDecimal increment = new BigDecimal("0.05");
+		for (RoundingMode mode : RoundingMode.values()) {
+			if (mode == RoundingMode.UNNECESSARY) {
+				continue;
+			}
+			CashRounding rounding = CashRounding.of(increment, mode);
+			for (long value = -300; value <= 300; value += 7) {
+				for (int scale = 0; scale < 24; scale += 3) {
+					BigDecimal expected = BigDecimal.valueOf(value, scale)
+							.divide(increment, 0, mode).multiply(increment);
+					assertEquals(expected.unscaledValue().longValue(),
+							rounding.round(value, scale));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testRoundBulk() {
+		long[] receipts = { 1237, 1232, -1238, 1225, 0 };
+		CashRounding.of(CASH).round(receipts, 2);
+		assertTrue(Arrays.equals(new long[] { 1235, 1230, -1240, 1225, 0 },
+				receipts));
+		long[] mills = { 12375, 100 };
+		CashRounding.of(CASH).round(mills, 3);
+		assertTrue(Arrays.equals(new long[] { 1240, 10 }, mills));
+		long[] large = { 1, Long.MAX_VALUE / 10 };
+		try {
+			CashRounding.of(CASH).round(large, 0);
+			fail("ArithmeticException expected.");
+		} catch (ArithmeticException e) {
+			assertTrue(Arrays.equals(new long[] { 1, Long.MAX_VALUE / 10 },
+					large));
+		}
+	}
+
+	@Test
+	public void testApply() {
+		MonetaryOperator rounding = CashRounding.of();
+		MonetaryAmount fast = rounding.apply(FastMoney.of(CASH,
+				new BigDecimal("12.37")));
+		assertTrue(fast instanceof FastMoney);
+		assertEquals(new BigDecimal("12.35"), fast.asType(BigDecimal.class));
+		assertEquals(Money.of(CASH, new BigDecimal("-12.40")),
+				rounding.apply(Money.of(CASH, new BigDecimal("-12.375"))));
+		BigDecimal large = new BigDecimal("123456789012345678901.23");
+		assertEquals(new BigDecimal("123456789012345678901.25"), rounding
+				.apply(Money.of(CASH, large, MathContext.UNLIMITED))
+				.asType(BigDecimal.class));
+		assertEquals(new BigDecimal("2"), CashRounding.of(BigDecimal.ONE,
+				RoundingMode.HALF_EVEN).apply(
+				Money.of(CASH, new BigDecimal("2.5"))).asType(BigDecimal.class));
+	}
+
+}
@@ -0,0 +1,86 @@
+/*
+ *  Copyright (c) 2012, 2013, Credit Suisse (Anatole Tresch), Werner Keil.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package javax.money;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class CurrencyMapTest {
+
+	private static final CurrencyUnit EUR = MoneyCurrency.of("EUR");
+	private static final CurrencyUnit CHF = MoneyCurrency.of("CHF");
+
+	@Test
+	public void testIsSameCurrency() {
+		CurrencyUnit eur = new MoneyCurrency.Builder(
+				MoneyCurrency.ISO_NAMESPACE, "EUR").setDefaultFractionDigits(2)
+				.build();
+		assertTrue(CurrencyIndex.isSameCurrency(EUR, EUR));
+		assertTrue(CurrencyIndex.isSameCurrency(EUR, eur));
+		assertFalse(CurrencyIndex.isSameCurrency(EUR, CHF));
+		CurrencyUnit other = new MoneyCurrency.Builder("test", "EUR")
+				.setDefaultFractionDigits(2).build();
+		assertFalse(CurrencyIndex.isSameCurrency(EUR, other));
+	}
+
+	@Test
+	public void testPutGetRemove() {
+		CurrencyMap<String> map = new CurrencyMap<String>();
+		assertNull(map.put(EUR, "a"));
+		assertEquals("a", map.put(EUR, "b"));
+		map.put(CHF, null);
+		assertEquals(2, map.size());
+		assertEquals("b", map.get(EUR));
+		assertEquals("b", map.get(CurrencyIndex.indexOf(EUR)));
+		assertTrue(map.containsKey(CHF));
+		assertNull(map.get(CHF));
+		assertFalse(map.containsKey("EUR"));
+		assertFalse(map.containsKey(MoneyCurrency.of("JPY")));
+		assertEquals("b", map.remove(EUR));
+		assertFalse(map.containsKey(EUR));
+		assertEquals(1, map.size());
+		map.clear();
+		assertTrue(map.isEmpty());
+	}
+
+	@Test
+	public void testIteration() {
+		Map<CurrencyUnit, Integer> values = new HashMap<CurrencyUnit, Integer>();
+		values.put(EUR, 1);
+		values.put(CHF, 2);
+		CurrencyMap<Integer> map = new CurrencyMap<Integer>(values);
+		assertEquals(values, map);
+		assertEquals(map, values);
+		assertEquals(values.hashCode(), map.hashCode());
+		for (Map.Entry<CurrencyUnit, Integer> entry : map.entrySet()) {
+			entry.setValue(entry.getValue() * 10);
+		}
+		assertEquals(Integer.valueOf(20), map.get(CHF));
+		Iterator<CurrencyUnit> iterator = map.keySet().iterator();
+		iterator.next();
+		iterator.remove();
+		assertEquals(1, map.size());
+	}
+
+}
@@ -0,0 +1,210 @@
+/*
+ *  Copyright (c) 2012, 2013, Credit Suisse (Anatole Tresch), Werner Keil.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package javax.money;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import org.junit.Test;
+
+/**
+ * @author Anatole
+ *
+ */
+public class FastMoneyTest {
+
+	private static final CurrencyUnit EUR = MoneyCurrency.of("EUR");
+	private static final CurrencyUnit JPY = MoneyCurrency.of("JPY");
+
+	/**
+	 * Test method for
+	 * {@link javax.money.FastMoney#of(javax.money.CurrencyUnit, java.lang.Number)}
+	 * .
+	 */
+	@Test
+	public void testOfUsesCurrencyScale() {
+		FastMoney m = FastMoney.of(EUR, new BigDecimal("12.3"));
+		assertEquals(2, m.getScale());
+		assertEquals(1230L, m.getUnscaledValue());
+		assertEquals(new BigDecimal("12.30"), m.asType(BigDecimal.class));
+		assertEquals(0, FastMoney.of(JPY, 100).getScale());
+		assertEquals(100L, FastMoney.of(JPY, 100).getUnscaledValue());
+		assertEquals(1234L, FastMoney.of(EUR, 12.34d).getUnscaledValue());
+	}
+
+	@Test(expected = ArithmeticException.class)
+	public void testOfTooPrecise() {
+		FastMoney.of(EUR, new BigDecimal("12.345"));
+	}
+
+	@Test
+	public void testOfExplicitScale() {
+		FastMoney m = FastMoney.of(EUR, new BigDecimal("12.345"), 4);
+		assertEquals(4, m.getScale());
+		assertEquals(123450L, m.getUnscaledValue());
+	}
+
+	@Test
+	public void testAdd() {
+		FastMoney m1 = FastMoney.of(EUR, new BigDecimal("1.25"));
+		FastMoney m2 = FastMoney.ofUnscaled(EUR, 5, 3);
+		assertEquals(FastMoney.of(EUR, new BigDecimal("2.50")), m1.add(m1));
+		assertEquals(FastMoney.ofUnscaled(EUR, 1255, 3), m1.add(m2));
+		assertEquals(FastMoney.ofUnscaled(EUR, 1255, 3), m2.add(m1));
+		assertEquals(FastMoney.ofUnscaled(EUR, 1245, 3), m1.subtract(m2));
+		assertEquals(FastMoney.of(EUR, new BigDecimal("2.25")),
+				m1.add(Money.of(EUR, BigDecimal.ONE)));
+	}
+
+	@Test(expected = CurrencyMismatchException.class)
+	public void testAddCurrencyMismatch() {
+		FastMoney.of(EUR, 1).add(FastMoney.of(JPY, 1));
+	}
+
+	@Test
+	public void testAddOverflowFallsBackToMoney() {
+		FastMoney max = FastMoney.ofUnscaled(EUR, Long.MAX_VALUE, 2);
+		MonetaryAmount result = max.add(FastMoney.ofUnscaled(EUR, 1, 2));
+		assertEquals(Money.class, result.getClass());
+		assertEquals(
+				BigDecimal.valueOf(Long.MAX_VALUE, 2).add(
+						new BigDecimal("0.01")),
+				result.asType(BigDecimal.class));
+	}
+
+	@Test
+	public void testMultiply() {
+		FastMoney m = FastMoney.of(EUR, new BigDecimal("12.34"));
+		assertEquals(FastMoney.of(EUR, new BigDecimal("37.02")), m.multiply(3));
+		MonetaryAmount result = m.multiply(new BigDecimal("1.5"));
+		assertEquals(FastMoney.class, result.getClass());
+		assertEquals(0, new BigDecimal("18.51").compareTo(result
+				.asType(BigDecimal.class)));
+		assertEquals(Money.class, m.multiply(Long.MAX_VALUE).getClass());
+	}
+
+	@Test
+	public void testDivide() {
+		FastMoney m = FastMoney.of(EUR, new BigDecimal("12.34"));
+		assertEquals(FastMoney.of(EUR, new BigDecimal("6.17")), m.divide(2));
+		MonetaryAmount result = m.divide(3);
+		assertEquals(Money.class, result.getClass());
+		assertEquals(
+				new BigDecimal("12.34").divide(new BigDecimal(3),
+						Money.getDefaultMathContext()),
+				result.asType(BigDecimal.class));
+	}
+
+	@Test(expected = ArithmeticException.class)
+	public void testDivideByZero() {
+		FastMoney.of(EUR, 1).divide(0);
+	}
+
+	@Test
+	public void testDivideAndRemainder() {
+		FastMoney m = FastMoney.of(EUR, new BigDecimal("10.50"));
+		MonetaryAmount[] result = m.divideAndRemainder(4);
+		assertEquals(FastMoney.of(EUR, 2), result[0]);
+		assertEquals(FastMoney.of(EUR, new BigDecimal("2.50")), result[1]);
+		assertEquals(FastMoney.of(EUR, 2), m.divideToIntegralValue(4));
+		assertEquals(FastMoney.of(EUR, new BigDecimal("2.50")),
+				m.remainder(4));
+	}
+
+	@Test
+	public void testNegateAbs() {
+		FastMoney m = FastMoney.of(EUR, new BigDecimal("-1.50"));
+		assertEquals(FastMoney.of(EUR, new BigDecimal("1.50")), m.negate());
+		assertEquals(FastMoney.of(EUR, new BigDecimal("1.50")), m.abs());
+		MonetaryAmount min = FastMoney.ofUnscaled(EUR, Long.MIN_VALUE, 0)
+				.negate();
+		assertEquals(Money.class, min.getClass());
+		assertTrue(min.isPositive());
+	}
+
+	@Test
+	public void testCompare() {
+		FastMoney m1 = FastMoney.of(EUR, new BigDecimal("1.25"));
+		FastMoney m2 = FastMoney.ofUnscaled(EUR, 12500, 4);
+		assertTrue(m1.isEqualTo(m2));
+		assertFalse(m1.equals(m2));
+		assertEquals(0, m1.compareTo(m2));
+		assertTrue(m1.isLessThan(FastMoney.of(EUR, 2)));
+		assertTrue(m1.isGreaterThan(Money.of(EUR, BigDecimal.ONE)));
+		assertTrue(m1.isLessThanOrEqualTo(Money.of(EUR,
+				new BigDecimal("1.25"))));
+	}
+
+	@Test
+	public void testValues() {
+		FastMoney m = FastMoney.of(EUR, new BigDecimal("-12.99"));
+		assertEquals(-12L, m.longValue());
+		assertEquals(-12, m.intValue());
+		assertEquals(-12.99d, m.doubleValue(), 0d);
+		assertEquals(4, m.getPrecision());
+		assertEquals(-1, m.signum());
+		assertEquals(12L, FastMoney.of(EUR, 12).longValueExact());
+		assertEquals(1, FastMoney.ofZero(EUR).getPrecision());
+	}
+
+	@Test(expected = ArithmeticException.class)
+	public void testLongValueExact() {
+		FastMoney.of(EUR, new BigDecimal("12.99")).longValueExact();
+	}
+
+	@Test
+	public void testFrom() {
+		FastMoney m = FastMoney.of(EUR, 1);
+		assertEquals(FastMoney.of(EUR, 5), m.from(5));
+		assertEquals(FastMoney.ofUnscaled(EUR, 12345, 3),
+				m.from(new BigDecimal("12.345")));
+		assertEquals(Money.class, m.from(new BigDecimal("1E+30")).getClass());
+	}
+
+	@Test
+	public void testFromOtherCurrency() {
+		FastMoney m = FastMoney.of(EUR, 1, 4);
+		// the scale of the target currency is used, as in of(...)
+		assertEquals(FastMoney.of(JPY, 5), m.from(JPY, 5));
+		assertEquals(0, ((FastMoney) m.from(JPY, 5)).getScale());
+		assertEquals(FastMoney.ofUnscaled(JPY, 125, 1),
+				m.from(JPY, new BigDecimal("12.5")));
+		assertEquals(FastMoney.of(EUR, 5), FastMoney.of(JPY, 1).from(EUR, 5));
+		// the scale of this amount is kept for its own currency
+		assertEquals(4, ((FastMoney) m.from(5)).getScale());
+	}
+
+	@Test
+	public void testWithRounding() {
+		FastMoney m = FastMoney.of(EUR, new BigDecimal("1.2345"), 4);
+		MonetaryAmount rounded = m.with(MoneyRounding.of(2,
+				RoundingMode.HALF_UP));
+		assertEquals(FastMoney.class, rounded.getClass());
+		assertEquals(0, new BigDecimal("1.23").compareTo(rounded
+				.asType(BigDecimal.class)));
+	}
+
+	@Test
+	public void testToString() {
+		assertEquals("EUR 12.30",
+				FastMoney.of(EUR, new BigDecimal("12.3")).toString());
+	}
+
+}
@@ -19,8 +19,10 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.nio.ByteBuffer;
 import java.util.Currency;
 
 import org.junit.Test;
@@ -111,4 +113,48 @@ public class MoneyCurrencyTest {
 		assertEquals("ISO-4217:CHF", MoneyCurrency.of("CHF").toString());
 	}
 
+	@Test
+	public void testCurrencyIndex() {
+		int chf = CurrencyIndex.indexOf(MoneyCurrency.of("CHF"));
+		int eur = CurrencyIndex.indexOf(MoneyCurrency.of("EUR"));
+		assertTrue(chf >= 0);
+		assertTrue(chf != eur);
+		assertEquals(chf, CurrencyIndex.indexOf(MoneyCurrency.of("CHF")));
+		assertEquals(chf, CurrencyIndex.indexOf(new MoneyCurrency.Builder(
+				"CHF").setDefaultFractionDigits(2).build(false)));
+		assertTrue(CurrencyIndex.size() > Math.max(chf, eur));
+	}
+
+	@Test
+	public void testOfCodeSlice() {
+		MoneyCurrency chf = MoneyCurrency.of("CHF");
+		assertSame(chf, MoneyCurrency.of(new StringBuilder("15CHF"), 2));
+		assertSame(chf, MoneyCurrency.of(new byte[] { 'C', 'H', 'F' }, 0));
+		ByteBuffer buffer = ByteBuffer.wrap(new byte[] { 0, 'C', 'H', 'F' });
+		assertSame(chf, MoneyCurrency.of(buffer, 1));
+		assertEquals(0, buffer.position());
+		assertSame(MoneyCurrency.of("USD"), MoneyCurrency.of("xUSD", 1));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testOfCodeSliceInvalid() {
+		MoneyCurrency.of("chf", 0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testOfCodeSliceUnknown() {
+		MoneyCurrency.of(new byte[] { 'Q', 'Q', 'Q' }, 0);
+	}
+
+	@Test
+	public void testOfNumericCode() {
+		assertSame(MoneyCurrency.of("CHF"), MoneyCurrency.ofNumericCode(756));
+		assertEquals("EUR", MoneyCurrency.ofNumericCode(978).getCurrencyCode());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testOfNumericCodeUnknown() {
+		MoneyCurrency.ofNumericCode(-1);
+	}
+
 }
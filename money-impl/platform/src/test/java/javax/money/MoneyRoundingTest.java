@@ -15,9 +15,18 @@
  */
 package javax.money;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.math.BigDecimal;
+import java.math.MathContext;
 import java.math.RoundingMode;
+import java.util.Arrays;
 
 import org.junit.Test;
 
@@ -60,4 +69,71 @@ public class MoneyRoundingTest {
 		assertNotNull(rounding);
 	}
 
+	@Test
+	public void testSharedInstances() {
+		assertSame(MoneyRounding.of(2, RoundingMode.HALF_UP),
+				MoneyRounding.of(MoneyCurrency.of("CHF")));
+		assertNotSame(MoneyRounding.of(2, RoundingMode.HALF_UP),
+				MoneyRounding.of(2, RoundingMode.HALF_EVEN));
+		assertEquals(30, MoneyRounding.of(30, RoundingMode.UP).getScale());
+	}
+
+	@Test
+	public void testRoundUnscaledMatchesBigDecimal() {
+		long[] values = { 0, 1, -1, 5, -5, 15, -15, 25, 12345, -12345,
+				999999, Long.MAX_VALUE, Long.MIN_VALUE + 1 };
+		for (RoundingMode mode : RoundingMode.values()) {
+			if (mode == RoundingMode.UNNECESSARY) {
+				continue;
+			}
+			MoneyRounding rounding = MoneyRounding.of(1, mode);
+			for (long value : values) {
+				for (int scale = 1; scale < 25; scale += 3) {
+					BigDecimal expected = BigDecimal.valueOf(value, scale)
+							.setScale(1, mode);
+					assertEquals(expected.unscaledValue().longValue(),
+							rounding.round(value, scale));
+				}
+			}
+		}
+		assertEquals(1230L, MoneyRounding.of(2, RoundingMode.UNNECESSARY)
+				.round(123L, 1));
+	}
+
+	@Test
+	public void testRoundBulk() {
+		long[] values = { 1234, -1235, 1245, 0 };
+		MoneyRounding.of(1, RoundingMode.HALF_EVEN).round(values, 2);
+		assertTrue(Arrays.equals(new long[] { 123, -124, 124, 0 }, values));
+		long[] large = { 1, Long.MAX_VALUE / 10 };
+		try {
+			MoneyRounding.of(2, RoundingMode.HALF_UP).round(large, 0);
+			fail("ArithmeticException expected.");
+		} catch (ArithmeticException e) {
+			assertTrue(Arrays.equals(new long[] { 1, Long.MAX_VALUE / 10 },
+					large));
+		}
+	}
+
+	@Test
+	public void testApply() {
+		MoneyRounding rounding = MoneyRounding.of(1, RoundingMode.HALF_UP);
+		CurrencyUnit chf = MoneyCurrency.of("CHF");
+		MonetaryAmount fast = rounding.apply(FastMoney.of(chf,
+				new BigDecimal("1.25")));
+		assertTrue(fast instanceof FastMoney);
+		assertEquals(new BigDecimal("1.30"), fast.asType(BigDecimal.class));
+		assertEquals(Money.of(chf, new BigDecimal("-1.3")),
+				rounding.apply(Money.of(chf, new BigDecimal("-1.25"))));
+		assertEquals(Money.of(chf, new BigDecimal("1.0")),
+				rounding.apply(Money.of(chf, 1)));
+		BigDecimal large = new BigDecimal("123456789012345678901.25");
+		assertEquals(Money.of(chf, large.setScale(1, RoundingMode.HALF_UP)),
+				rounding.apply(Money.of(chf, large)));
+		Money inflated = Money.of(chf, large, MathContext.UNLIMITED);
+		assertFalse(inflated.isCompact());
+		assertEquals(0, large.setScale(1, RoundingMode.HALF_UP).compareTo(
+				rounding.apply(inflated).asType(BigDecimal.class)));
+	}
+
 }
@@ -19,7 +19,9 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.math.BigDecimal;
 import java.math.MathContext;
@@ -933,4 +935,98 @@ public class MoneyTest {
 		Money.of("CHF", 0).setMathContext(MathContext.DECIMAL128);
 	}
 
+	/**
+	 * Test method for
+	 * {@link javax.money.Money#of(javax.money.CurrencyUnit, java.lang.Number)}
+	 * , checking cached instances are returned only for equal values.
+	 */
+	@Test
+	public void testOfCached() {
+		CurrencyUnit chf = MoneyCurrency.of("CHF");
+		assertSame(Money.ofZero(chf), Money.of(chf, 0));
+		assertSame(Money.of(chf, 10), Money.of(chf, 10L));
+		assertSame(Money.of(chf, new BigDecimal("1.00")),
+				Money.of(chf, new BigDecimal("1.00")));
+		assertSame(Money.of(chf, -128), Money.of("CHF", -128));
+		assertEquals(new Money(chf, 100), Money.of(chf, 100));
+		assertEquals(new Money(chf, new BigDecimal("1.00")),
+				Money.of(chf, new BigDecimal("1.00")));
+		assertFalse(Money.of(chf, new BigDecimal("1.00")).equals(
+				Money.of(chf, BigDecimal.ONE)));
+		assertEquals(new BigDecimal("1.50"),
+				Money.of(chf, new BigDecimal("1.50")).asType(BigDecimal.class));
+		assertEquals(new BigDecimal("1.0"),
+				Money.of(chf, new BigDecimal("1.0")).asType(BigDecimal.class));
+		assertNotSame(Money.of(chf, 1000), Money.of(chf, 1000));
+		assertNotSame(Money.of(chf, 1), Money.of(chf, 1, MathContext.DECIMAL128));
+		assertEquals(MathContext.DECIMAL128,
+				Money.of(chf, 1, MathContext.DECIMAL128).getMathContext());
+	}
+
+	@Test
+	public void testCompactArithmetic() {
+		CurrencyUnit eur = MoneyCurrency.of("EUR");
+		BigDecimal[] values = { new BigDecimal("12.34"), new BigDecimal("-0.5"),
+				BigDecimal.ZERO, new BigDecimal("0.000"), new BigDecimal("1E+3"),
+				new BigDecimal("9999999999999999"),
+				new BigDecimal("-9223372036854775807"),
+				new BigDecimal("92233720368547758070"),
+				new BigDecimal("0.123456789012345678") };
+		MathContext[] contexts = { MathContext.DECIMAL64,
+				MathContext.UNLIMITED, new MathContext(3) };
+		for (MathContext mc : contexts) {
+			for (BigDecimal a : values) {
+				Money ma = Money.of(eur, a, mc);
+				assertEquals(a.negate(mc), ma.negate().asType(BigDecimal.class));
+				assertEquals(a.signum(), ma.signum());
+				assertEquals(a.scale(), ma.getScale());
+				for (BigDecimal b : values) {
+					Money mb = Money.of(eur, b, mc);
+					assertEquals(a.add(b, mc), ma.add(mb).asType(BigDecimal.class));
+					assertEquals(a.subtract(b, mc),
+							ma.subtract(mb).asType(BigDecimal.class));
+					assertEquals(a.compareTo(b), ma.compareTo(mb));
+					assertEquals(a.equals(b), ma.equals(mb));
+					assertEquals(
+							a.add(BigDecimal.valueOf(b.longValue()), mc),
+							ma.add(b.longValue()).asType(BigDecimal.class));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testCompactEqualsInflated() {
+		CurrencyUnit eur = MoneyCurrency.of("EUR");
+		Money compact = Money.of(eur, 1234).divide(1);
+		Money fromDecimal = new Money(eur, new BigDecimal("1234"));
+		assertEquals(compact, fromDecimal);
+		assertEquals(compact.hashCode(), fromDecimal.hashCode());
+		assertTrue(Money.of(eur, new BigDecimal("1.5")).isEqualTo(
+				FastMoney.ofUnscaled(eur, 150, 2)));
+		assertTrue(Money.of(eur, 2).isGreaterThan(
+				FastMoney.ofUnscaled(eur, 199, 2)));
+		Money large = new Money(eur, new BigDecimal("92233720368547758070"),
+				MathContext.UNLIMITED);
+		assertEquals(large, large.add(Money.of(eur, 0)));
+		assertFalse(large.equals(large.add(Money.of(eur, 1))));
+	}
+
+	@Test
+	public void testIsCompact() {
+		CurrencyUnit eur = MoneyCurrency.of("EUR");
+		Money compact = Money.of(eur, new BigDecimal("-12.34"));
+		assertTrue(compact.isCompact());
+		assertEquals(-1234L, compact.getUnscaledValue());
+		Money large = new Money(eur, new BigDecimal("92233720368547758070"),
+				MathContext.UNLIMITED);
+		assertFalse(large.isCompact());
+		try {
+			large.getUnscaledValue();
+			fail("ArithmeticException expected.");
+		} catch (ArithmeticException e) {
+			// expected
+		}
+	}
+
 }
@@ -0,0 +1,132 @@
+/*
+ *  Copyright (c) 2012, 2013, Credit Suisse (Anatole Tresch), Werner Keil.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package javax.money;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import org.junit.Test;
+
+public class UnscaledArithmeticTest {
+
+	@Test
+	public void testDivideAndRound() {
+		for (RoundingMode mode : RoundingMode.values()) {
+			if (mode == RoundingMode.UNNECESSARY) {
+				continue;
+			}
+			for (long value = -30; value <= 30; value++) {
+				assertEquals(mode + ": " + value, BigDecimal.valueOf(value, 1)
+						.setScale(0, mode).longValue(),
+						UnscaledArithmetic.divideAndRound(value, 10, mode));
+			}
+		}
+	}
+
+	@Test
+	public void testDivideAndRoundLargeDivisor() {
+		long divisor = UnscaledArithmetic.powerOfTen(18);
+		assertEquals(9L, UnscaledArithmetic.divideAndRound(Long.MAX_VALUE,
+				divisor, RoundingMode.HALF_EVEN));
+		assertEquals(-9L, UnscaledArithmetic.divideAndRound(Long.MIN_VALUE,
+				divisor, RoundingMode.HALF_EVEN));
+		assertEquals(0L, UnscaledArithmetic.divideAndRound(divisor / 2,
+				divisor, RoundingMode.HALF_EVEN));
+		assertEquals(1L, UnscaledArithmetic.divideAndRound(divisor / 2,
+				divisor, RoundingMode.HALF_UP));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testDivideAndRoundInvalidDivisor() {
+		UnscaledArithmetic.divideAndRound(1, 0, RoundingMode.HALF_EVEN);
+	}
+
+	@Test
+	public void testRescale() {
+		assertEquals(12300L, UnscaledArithmetic.rescale(123, 0, 2,
+				RoundingMode.UNNECESSARY));
+		assertEquals(-13L, UnscaledArithmetic.rescale(-1250, 2, 0,
+				RoundingMode.HALF_UP));
+		assertEquals(-12L, UnscaledArithmetic.rescale(-1250, 2, 0,
+				RoundingMode.HALF_EVEN));
+	}
+
+	@Test(expected = ArithmeticException.class)
+	public void testRescaleUnnecessary() {
+		UnscaledArithmetic.rescale(1255, 2, 1, RoundingMode.UNNECESSARY);
+	}
+
+	@Test
+	public void testMultiplyExact() {
+		assertEquals(Long.MIN_VALUE,
+				UnscaledArithmetic.multiplyExact(Long.MIN_VALUE, 1));
+		assertEquals(-Long.MAX_VALUE,
+				UnscaledArithmetic.multiplyExact(Long.MAX_VALUE, -1));
+	}
+
+	@Test(expected = ArithmeticException.class)
+	public void testMultiplyExactOverflow() {
+		UnscaledArithmetic.multiplyExact(Long.MIN_VALUE, -1);
+	}
+
+	@Test
+	public void testMultiplyOverflows() {
+		assertFalse(UnscaledArithmetic.multiplyOverflows(3037000499L,
+				3037000499L));
+		assertTrue(UnscaledArithmetic.multiplyOverflows(3037000500L,
+				3037000500L));
+		assertTrue(UnscaledArithmetic.multiplyOverflows(-1, Long.MIN_VALUE));
+		assertFalse(UnscaledArithmetic.multiplyOverflows(0, Long.MIN_VALUE));
+	}
+
+	@Test
+	public void testAddSubtractExact() {
+		assertEquals(Long.MAX_VALUE,
+				UnscaledArithmetic.addExact(Long.MAX_VALUE - 1, 1));
+		assertEquals(Long.MIN_VALUE,
+				UnscaledArithmetic.subtractExact(Long.MIN_VALUE + 1, 1));
+		try {
+			UnscaledArithmetic.addExact(Long.MAX_VALUE, 1);
+			fail("ArithmeticException expected.");
+		} catch (ArithmeticException e) {
+			// expected
+		}
+		try {
+			UnscaledArithmetic.subtractExact(Long.MIN_VALUE, 1);
+			fail("ArithmeticException expected.");
+		} catch (ArithmeticException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testPowerOfTen() {
+		assertEquals(1L, UnscaledArithmetic.powerOfTen(0));
+		assertEquals(1000000000000000000L, UnscaledArithmetic
+				.powerOfTen(UnscaledArithmetic.MAX_POWER_OF_TEN));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testPowerOfTenOutOfRange() {
+		UnscaledArithmetic.powerOfTen(UnscaledArithmetic.MAX_POWER_OF_TEN + 1);
+	}
+
+}
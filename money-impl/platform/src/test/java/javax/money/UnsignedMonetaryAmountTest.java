@@ -0,0 +1,60 @@
+/*
+ *  Copyright (c) 2012, 2013, Credit Suisse (Anatole Tresch), Werner Keil.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package javax.money;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.math.BigDecimal;
+
+import org.junit.Test;
+
+public class UnsignedMonetaryAmountTest {
+
+	private static final CurrencyUnit EUR = MoneyCurrency.of("EUR");
+
+	@Test
+	public void testOfCachesWholeDefaultScaleValues() {
+		Money twelve = Money.of(EUR, new BigDecimal("12.00"));
+		UnsignedMonetaryAmount cached = UnsignedMonetaryAmount.of(twelve);
+		assertSame(cached, UnsignedMonetaryAmount.of(Money.of(EUR,
+				new BigDecimal("12.00"))));
+		// fractions and other scales do not replace the cached instance
+		for (String value : new String[] { "12.34", "12.5", "12", "12.000" }) {
+			Money amount = Money.of(EUR, new BigDecimal(value));
+			UnsignedMonetaryAmount unsigned = UnsignedMonetaryAmount
+					.of(amount);
+			assertNotSame(unsigned, UnsignedMonetaryAmount.of(amount));
+			assertEquals(new BigDecimal(value),
+					unsigned.asType(BigDecimal.class));
+		}
+		assertSame(cached, UnsignedMonetaryAmount.of(twelve));
+
+		FastMoney fast = FastMoney.of(EUR, 7);
+		assertEquals(2, fast.getScale());
+		assertSame(UnsignedMonetaryAmount.of(fast),
+				UnsignedMonetaryAmount.of(FastMoney.of(EUR, 7)));
+		assertNotSame(UnsignedMonetaryAmount.of(FastMoney.of(EUR, 128)),
+				UnsignedMonetaryAmount.of(FastMoney.of(EUR, 128)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testOfNegative() {
+		UnsignedMonetaryAmount.of(Money.of(EUR, new BigDecimal("-1.00")));
+	}
+
+}
@@ -0,0 +1,205 @@
+/*
+ *  Copyright (c) 2012, 2013, Credit Suisse (Anatole Tresch), Werner Keil.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package javax.money.function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.money.CurrencyUnit;
+import javax.money.MonetaryAmount;
+import javax.money.MonetaryFunction;
+import javax.money.Money;
+import javax.money.MoneyCurrency;
+
+import org.junit.Test;
+
+public class AdaptivePredicateTest {
+
+	private static final CurrencyUnit EUR = MoneyCurrency.of("EUR");
+	private static final CurrencyUnit CHF = MoneyCurrency.of("CHF");
+
+	/**
+	 * A ticker advanced by the predicates under test only, so the measured
+	 * cost does not depend on the timing of the test run.
+	 */
+	private static final class ManualTicker implements
+			AdaptivePredicate.Ticker {
+
+		private long now;
+
+		@Override
+		public long read() {
+			return now;
+		}
+
+		AmountPredicate cost(final long ticks,
+				final AmountPredicate predicate) {
+			return new AmountPredicate() {
+				@Override
+				public boolean test(MonetaryAmount amount) {
+					now += ticks;
+					return predicate.test(amount);
+				}
+			};
+		}
+	}
+
+	@Test
+	public void testReordersBySelectivity() {
+		ManualTicker ticker = new ManualTicker();
+		AmountPredicate always = ticker.cost(1,
+				AmountPredicates.isCurrency(EUR));
+		AmountPredicate never = ticker.cost(1,
+				AmountPredicates.isCurrency(CHF));
+		AdaptivePredicate and = new AdaptivePredicate(false, 0, 500, ticker,
+				always, never);
+		AdaptivePredicate or = new AdaptivePredicate(true, 0, 500, ticker,
+				never, always);
+		MonetaryAmount amount = Money.of(EUR, 1);
+		for (int i = 0; i < 1000; i++) {
+			assertFalse(and.test(amount));
+			assertTrue(or.test(amount));
+		}
+		assertTrue(Arrays.equals(new int[] { 1, 0 }, and.getOrder()));
+		assertTrue(Arrays.equals(new int[] { 1, 0 }, or.getOrder()));
+	}
+
+	@Test
+	public void testReordersByCost() {
+		ManualTicker ticker = new ManualTicker();
+		AmountPredicate never = AmountPredicates.isCurrency(CHF);
+		AdaptivePredicate and = new AdaptivePredicate(false, 0, 100, ticker,
+				ticker.cost(100, never), ticker.cost(1, never));
+		MonetaryAmount amount = Money.of(EUR, 1);
+		for (int i = 0; i < 99; i++) {
+			assertFalse(and.test(amount));
+		}
+		assertTrue(Arrays.equals(new int[] { 0, 1 }, and.getOrder()));
+		assertFalse(and.test(amount));
+		assertTrue(Arrays.equals(new int[] { 1, 0 }, and.getOrder()));
+		// the cheap child decides, so the expensive one is not evaluated
+		// anymore, unless sampled
+		AdaptivePredicate unsampled = new AdaptivePredicate(false, -1, 100,
+				ticker, ticker.cost(100, never), ticker.cost(1, never));
+		long start = ticker.read();
+		assertFalse(unsampled.test(amount));
+		assertEquals(100, ticker.read() - start);
+	}
+
+	@Test
+	public void testSharedAcrossThreads() throws Exception {
+		final List<MonetaryAmount> amounts = new ArrayList<MonetaryAmount>();
+		for (int i = 0; i < 1000; i++) {
+			amounts.add(Money.of(i % 3 == 0 ? CHF : EUR, i % 100));
+		}
+		final AmountPredicate currency = AmountPredicates.isCurrency(EUR);
+		final AmountPredicate range = new MinMaxPredicate()
+				.withMinValue(Money.of(EUR, 10))
+				.withMaxValue(Money.of(EUR, 20), false).compile();
+		final AmountPredicate inRange = AmountPredicates.and(currency, range);
+		final AmountPredicate even = AmountPredicates
+				.from(new MonetaryFunction<MonetaryAmount, Boolean>() {
+					@Override
+					public Boolean apply(MonetaryAmount value) {
+						return value.intValue() % 2 == 0;
+					}
+				});
+		final AmountPredicate expected = AmountPredicates.and(inRange, even);
+		final AmountPredicate adaptive = AmountPredicates.adaptiveAnd(even,
+				inRange);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+			for (int t = 0; t < 8; t++) {
+				results.add(executor.submit(new Callable<Integer>() {
+					@Override
+					public Integer call() {
+						int mismatches = 0;
+						for (int r = 0; r < 20; r++) {
+							for (MonetaryAmount amount : amounts) {
+								if (expected.test(amount) != adaptive
+										.test(amount)) {
+									mismatches++;
+								}
+							}
+						}
+						return mismatches;
+					}
+				}));
+			}
+			for (Future<Integer> result : results) {
+				assertEquals(Integer.valueOf(0), result.get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testCompiledSnapshots() {
+		MinMaxPredicate minMax = new MinMaxPredicate().withMinValue(
+				Money.of(EUR, 1), false).withMaxValue(Money.of(EUR, 3));
+		AmountPredicate compiledMinMax = minMax.compile();
+		for (int i = 0; i < 5; i++) {
+			Money amount = Money.of(EUR, i);
+			assertEquals(minMax.apply(amount).booleanValue(),
+					compiledMinMax.test(amount));
+		}
+		minMax.withMaxValue(null);
+		assertFalse(compiledMinMax.test(Money.of(EUR, 4)));
+
+		InstancesPredicate<CurrencyUnit> instances = InstancesPredicate
+				.of(EUR);
+		MonetaryFunction<CurrencyUnit, Boolean> compiledInstances = instances
+				.compile();
+		instances.withValues(CHF);
+		assertTrue(compiledInstances.apply(EUR));
+		assertFalse(compiledInstances.apply(CHF));
+
+		CountPredicate<CurrencyUnit> count = new CountPredicate<CurrencyUnit>()
+				.withPredicates(InstancesPredicate.of(EUR),
+						InstancesPredicate.of(EUR, CHF));
+		count.withMinMatching(2);
+		MonetaryFunction<CurrencyUnit, Boolean> compiledCount = count
+				.compile();
+		assertTrue(compiledCount.apply(EUR));
+		assertFalse(compiledCount.apply(CHF));
+		assertTrue(compiledCount.apply(EUR));
+		// a single value matches the same, whether compiled or not
+		for (CurrencyUnit currency : new CurrencyUnit[] { EUR, CHF }) {
+			count.resetCurrentNum();
+			assertEquals(compiledCount.apply(currency), count.apply(currency));
+		}
+		count.withMinMatching(null).withMaxMatching(1);
+		compiledCount = count.compile();
+		for (CurrencyUnit currency : new CurrencyUnit[] { EUR, CHF }) {
+			count.resetCurrentNum();
+			assertEquals(compiledCount.apply(currency), count.apply(currency));
+		}
+		assertFalse(compiledCount.apply(EUR));
+		assertTrue(compiledCount.apply(CHF));
+	}
+
+}
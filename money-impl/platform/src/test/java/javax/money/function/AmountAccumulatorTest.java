@@ -0,0 +1,111 @@
+/*
+ *  Copyright (c) 2012, 2013, Credit Suisse (Anatole Tresch), Werner Keil.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package javax.money.function;
+
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+
+import javax.money.CurrencyMismatchException;
+import javax.money.CurrencyUnit;
+import javax.money.FastMoney;
+import javax.money.MonetaryAmount;
+import javax.money.Money;
+import javax.money.MoneyCurrency;
+
+import org.junit.Test;
+
+public class AmountAccumulatorTest {
+
+	@Test
+	public void testAddSubtract() {
+		AmountAccumulator acc = new AmountAccumulator();
+		acc.add(Money.of("CHF", new BigDecimal("1.5")));
+		acc.add(Money.of("CHF", 2));
+		acc.subtract(Money.of("CHF", new BigDecimal("0.25")));
+		assertEquals(3L, acc.getCount());
+		assertEquals(new BigDecimal("3.25"), acc.toBigDecimal());
+		assertEquals(Money.of("CHF", new BigDecimal("3.25")), acc.toAmount());
+	}
+
+	@Test
+	public void testMultiplyAdd() {
+		AmountAccumulator acc = new AmountAccumulator();
+		acc.multiplyAdd(FastMoney.of(MoneyCurrency.of("EUR"), 2), 3);
+		acc.multiplyAdd(FastMoney.of(MoneyCurrency.of("EUR"), 1), -1);
+		assertEquals(FastMoney.of(MoneyCurrency.of("EUR"), 5), acc.toAmount());
+	}
+
+	@Test
+	public void testMultiplyAddMoney() {
+		CurrencyUnit eur = MoneyCurrency.of("EUR");
+		Money large = Money.of(eur, new BigDecimal("92233720368547758070.5"),
+				MathContext.UNLIMITED);
+		AmountAccumulator acc = new AmountAccumulator();
+		acc.multiplyAdd(Money.of(eur, new BigDecimal("0.25")), 4);
+		acc.multiplyAdd(Money.of(eur, new BigDecimal("1E+3")), -2);
+		acc.multiplyAdd(large, 3);
+		BigDecimal expected = new BigDecimal("1").subtract(
+				new BigDecimal("2000")).add(
+				large.asType(BigDecimal.class).multiply(BigDecimal.valueOf(3)));
+		assertEquals(0, expected.compareTo(acc.toBigDecimal()));
+		acc.multiplyAdd(large, -3);
+		assertEquals(0, new BigDecimal("-1999").compareTo(acc.toBigDecimal()));
+	}
+
+	@Test
+	public void testOverflowIsExact() {
+		AmountAccumulator acc = new AmountAccumulator();
+		FastMoney max = FastMoney.ofUnscaled(MoneyCurrency.of("EUR"),
+				Long.MAX_VALUE, 2);
+		acc.add(max).add(max).add(FastMoney.ofUnscaled(MoneyCurrency.of("EUR"),
+				1, 3));
+		BigDecimal expected = BigDecimal.valueOf(Long.MAX_VALUE, 2)
+				.multiply(BigDecimal.valueOf(2)).add(new BigDecimal("0.001"));
+		assertEquals(expected, acc.toBigDecimal());
+		acc.subtract(max).subtract(max);
+		assertEquals(new BigDecimal("0.001"), acc.toBigDecimal());
+	}
+
+	@Test
+	public void testEmpty() {
+		AmountAccumulator acc = new AmountAccumulator(MoneyCurrency.of("CHF"));
+		assertEquals(Money.ofZero("CHF"), acc.toAmount());
+		acc.add(Money.of("CHF", 1)).reset();
+		assertEquals(0L, acc.getCount());
+		assertEquals(MoneyCurrency.of("CHF"), acc.getCurrency());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testEmptyWithoutCurrency() {
+		new AmountAccumulator().toAmount();
+	}
+
+	@Test(expected = CurrencyMismatchException.class)
+	public void testCurrencyMismatch() {
+		new AmountAccumulator().add(Money.of("CHF", 1)).add(
+				Money.of("EUR", 1));
+	}
+
+	@Test
+	public void testTotal() {
+		MonetaryAmount m = Money.of("CHF", new BigDecimal("1.10"));
+		assertEquals(Money.of("CHF", new BigDecimal("3.30")),
+				Total.from(m, m, m));
+	}
+
+}
@@ -0,0 +1,104 @@
+/*
+ *  Copyright (c) 2012, 2013, Credit Suisse (Anatole Tresch), Werner Keil.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package javax.money.function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import javax.money.CurrencyUnit;
+import javax.money.FastMoney;
+import javax.money.MonetaryAmount;
+import javax.money.Money;
+import javax.money.MoneyCurrency;
+
+import org.junit.Test;
+
+public class AmountHistogramTest {
+
+	private static final CurrencyUnit EUR = MoneyCurrency.of("EUR");
+	private static final CurrencyUnit CHF = MoneyCurrency.of("CHF");
+
+	private static long unscaled(MonetaryAmount amount) {
+		return amount.asType(BigDecimal.class).movePointRight(2)
+				.longValueExact();
+	}
+
+	@Test
+	public void testQuantiles() {
+		Random random = new Random(7);
+		long[] values = new long[50000];
+		AmountHistogram left = new AmountHistogram(EUR);
+		AmountHistogram right = new AmountHistogram(EUR);
+		for (int i = 0; i < values.length; i++) {
+			values[i] = (long) (random.nextGaussian() * 1000000);
+			(i % 2 == 0 ? left : right).accept(FastMoney.ofUnscaled(EUR,
+					values[i], 2));
+		}
+		AmountHistogram histogram = left.combine(right);
+		Arrays.sort(values);
+		assertEquals(values.length, histogram.getCount());
+		assertEquals(values[0], unscaled(histogram.getMin()));
+		assertEquals(values[values.length - 1], unscaled(histogram.getMax()));
+		for (double q : new double[] { 0.01, 0.25, 0.5, 0.95, 0.99, 1 }) {
+			long exact = values[(int) Math.ceil(q * values.length) - 1];
+			long estimated = unscaled(histogram.quantile(q));
+			assertTrue(q + ": " + exact + " != " + estimated,
+					Math.abs(estimated - exact) <= Math.abs(exact) / 32 + 1);
+		}
+		assertEquals(values.length, histogram.countAtMost(Money.of(EUR,
+				BigDecimal.valueOf(values[values.length - 1], 2))));
+	}
+
+	@Test
+	public void testSmallValuesExact() {
+		AmountHistogram histogram = new AmountHistogram(EUR);
+		assertNull(histogram.quantile(0.5));
+		for (int i = -20; i <= 20; i++) {
+			histogram.accept(Money.of(EUR, BigDecimal.valueOf(i, 2)));
+		}
+		assertEquals(-20, unscaled(histogram.quantile(0)));
+		assertEquals(0, unscaled(histogram.quantile(0.5)));
+		assertEquals(20, unscaled(histogram.quantile(1)));
+		assertEquals(21, histogram.countAtMost(Money.of(EUR, 0)));
+		assertEquals(1,
+				histogram.countAtMost(Money.of(EUR, new BigDecimal("-0.20"))));
+	}
+
+	@Test
+	public void testGroupedByCurrency() {
+		List<MonetaryAmount> amounts = new ArrayList<MonetaryAmount>();
+		for (int i = 1; i <= 100; i++) {
+			amounts.add(Money.of(EUR, i));
+			amounts.add(Money.of(CHF, -i));
+		}
+		GroupingAggregator<CurrencyUnit, AmountHistogram> histograms = GroupingAggregator
+				.byCurrency(Reducers.histogram()).acceptAll(amounts);
+		GroupingAggregator<CurrencyUnit, QuantileSketch> sketches = GroupingAggregator
+				.byCurrency(Reducers.quantiles()).acceptAll(amounts);
+		assertEquals(10000, unscaled(histograms.get(EUR).quantile(1)));
+		assertEquals(-10000, unscaled(histograms.get(CHF).quantile(0)));
+		assertEquals(100, sketches.get(CHF).getCount());
+		assertEquals(100, unscaled(sketches.get(EUR).getMin()));
+	}
+
+}
@@ -0,0 +1,208 @@
+/*
+ *  Copyright (c) 2012, 2013, Credit Suisse (Anatole Tresch), Werner Keil.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package javax.money.function;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+
+import javax.money.AmountArray;
+import javax.money.CurrencyMismatchException;
+import javax.money.CurrencyUnit;
+import javax.money.FastMoney;
+import javax.money.MonetaryAmount;
+import javax.money.Money;
+import javax.money.MoneyCurrency;
+
+import org.junit.Test;
+
+public class AmountKernelsTest {
+
+	private static final CurrencyUnit EUR = MoneyCurrency.of("EUR");
+
+	@Test
+	public void testSum() {
+		long[] values = { 1, -2, 3, Long.MAX_VALUE, -Long.MAX_VALUE, 7 };
+		assertEquals(9L, AmountKernels.sum(values, 0, values.length));
+		assertEquals(1L, AmountKernels.sum(values, 1, 3));
+		assertEquals(0L, AmountKernels.sum(values, 2, 2));
+		long[] negative = { Long.MIN_VALUE + 1, -1 };
+		assertEquals(Long.MIN_VALUE, AmountKernels.sum(negative, 0, 2));
+	}
+
+	@Test(expected = ArithmeticException.class)
+	public void testSumOverflow() {
+		AmountKernels.sum(new long[] { Long.MAX_VALUE, 1 }, 0, 2);
+	}
+
+	@Test
+	public void testAddSubtractNegate() {
+		long[] a = { 1, 2, 3 };
+		long[] b = { 10, -20, 30 };
+		long[] result = new long[3];
+		AmountKernels.add(a, b, result, 0, 3);
+		assertArrayEquals(new long[] { 11, -18, 33 }, result);
+		AmountKernels.subtract(result, b, result, 0, 3);
+		assertArrayEquals(a, result);
+		AmountKernels.negate(result, 1, 3);
+		assertArrayEquals(new long[] { 1, -2, -3 }, result);
+	}
+
+	@Test(expected = ArithmeticException.class)
+	public void testAddOverflow() {
+		long[] values = { Long.MIN_VALUE };
+		AmountKernels.add(values, new long[] { -1 }, values, 0, 1);
+	}
+
+	@Test(expected = ArithmeticException.class)
+	public void testNegateOverflow() {
+		AmountKernels.negate(new long[] { 0, Long.MIN_VALUE }, 0, 2);
+	}
+
+	@Test
+	public void testScaleUp() {
+		long[] values = { 12, -3 };
+		AmountKernels.scaleUp(values, 0, 2, 2);
+		assertArrayEquals(new long[] { 1200, -300 }, values);
+		values = new long[] { 1, Long.MAX_VALUE / 10 + 1 };
+		try {
+			AmountKernels.scaleUp(values, 0, 2, 1);
+			throw new AssertionError("ArithmeticException expected.");
+		} catch (ArithmeticException e) {
+			assertEquals(1L, values[0]);
+		}
+	}
+
+	@Test
+	public void testUnscaledValueOf() {
+		for (long value = -35; value <= 35; value++) {
+			for (int scale = 0; scale <= 3; scale++) {
+				assertEquals(value + "/" + scale, BigDecimal
+						.valueOf(value, 3)
+						.setScale(scale, RoundingMode.HALF_EVEN)
+						.unscaledValue().longValue(),
+						AmountKernels.unscaledValueOf(
+								FastMoney.ofUnscaled(EUR, value, 3), scale));
+			}
+		}
+		assertEquals(9L, AmountKernels.unscaledValueOf(
+				FastMoney.ofUnscaled(EUR, Long.MAX_VALUE, 18), 0));
+		assertEquals(-9L, AmountKernels.unscaledValueOf(
+				FastMoney.ofUnscaled(EUR, Long.MIN_VALUE, 18), 0));
+	}
+
+	@Test
+	public void testMinMax() {
+		long[] values = { 5, -7, 9, -7, 9 };
+		assertEquals(-7L, AmountKernels.min(values, 0, 5));
+		assertEquals(9L, AmountKernels.max(values, 0, 5));
+		assertEquals(1, AmountKernels.indexOfMin(values, 0, 5));
+		assertEquals(2, AmountKernels.indexOfMax(values, 0, 5));
+		assertEquals(3, AmountKernels.indexOfMin(values, 2, 5));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testMinEmpty() {
+		AmountKernels.min(new long[1], 1, 1);
+	}
+
+	@Test
+	public void testBetween() {
+		long[] values = { Long.MIN_VALUE, -1, 0, 1, 2, Long.MAX_VALUE };
+		boolean[] result = new boolean[values.length];
+		assertEquals(3, AmountKernels.countBetween(values, 0, 6, -1, 1));
+		assertEquals(3, AmountKernels.between(values, 0, 6, -1, 1, result));
+		assertTrue(Arrays.equals(new boolean[] { false, true, true, true, false,
+				false }, result));
+		assertEquals(6, AmountKernels.countBetween(values, 0, 6,
+				Long.MIN_VALUE, Long.MAX_VALUE));
+		assertEquals(0, AmountKernels.between(values, 0, 6, 1, 0, result));
+		assertFalse(result[3]);
+	}
+
+	@Test
+	public void testMinMaxPredicate() {
+		AmountArray array = new AmountArray(4, 2);
+		array.append(EUR, 100, 2).append(EUR, 150, 2).append(EUR, 200, 2)
+				.append(EUR, 250, 2);
+		boolean[] result = new boolean[4];
+		MinMaxPredicate predicate = new MinMaxPredicate().withMinValue(
+				Money.of(EUR, new BigDecimal("1.5"))).withMaxValue(
+				Money.of(EUR, 2), false);
+		assertEquals(1, predicate.apply(array, result));
+		assertTrue(Arrays.equals(new boolean[] { false, true, false, false }, result));
+		predicate.withMinValue(Money.of(EUR, new BigDecimal("1.499")), false)
+				.withMaxValue(Money.of(EUR, new BigDecimal("2.001")));
+		assertEquals(2, predicate.apply(array, result));
+		assertTrue(Arrays.equals(new boolean[] { false, true, true, false }, result));
+		for (int i = 0; i < array.size(); i++) {
+			assertEquals(result[i], predicate.apply(array.get(i))
+					.booleanValue());
+		}
+		predicate.withMinValue(null).withMaxValue(
+				Money.of(EUR, new BigDecimal("1E30")));
+		assertEquals(4, predicate.apply(array, result));
+		assertTrue(result[0]);
+	}
+
+	@Test
+	public void testMinMaxPredicateBoundaries() {
+		AmountArray array = new AmountArray(4, 0);
+		array.append(EUR, Long.MIN_VALUE, 0).append(EUR, -1, 0)
+				.append(EUR, 1, 0).append(EUR, Long.MAX_VALUE, 0);
+		boolean[] result = new boolean[4];
+		MonetaryAmount max = FastMoney.ofUnscaled(EUR, Long.MAX_VALUE, 0);
+		MonetaryAmount min = FastMoney.ofUnscaled(EUR, Long.MIN_VALUE, 0);
+		MinMaxPredicate predicate = new MinMaxPredicate().withMinValue(
+				FastMoney.ofUnscaled(EUR, -1, 0)).withMaxValue(
+				FastMoney.ofUnscaled(EUR, 1, 0));
+		assertEquals(2, predicate.apply(array, result));
+		assertPredicateMatches(predicate, array, result);
+		predicate.withMinValue(max).withMaxValue(max);
+		assertEquals(1, predicate.apply(array, result));
+		assertPredicateMatches(predicate, array, result);
+		// exclusive bounds at the long range can not be reached
+		predicate.withMinValue(max, false).withMaxValue(null);
+		assertEquals(0, predicate.apply(array, result));
+		assertPredicateMatches(predicate, array, result);
+		predicate.withMinValue(null).withMaxValue(min, false);
+		assertEquals(0, predicate.apply(array, result));
+		assertPredicateMatches(predicate, array, result);
+		predicate.withMinValue(min).withMaxValue(max);
+		assertEquals(4, predicate.apply(array, result));
+		assertPredicateMatches(predicate, array, result);
+	}
+
+	private static void assertPredicateMatches(MinMaxPredicate predicate,
+			AmountArray array, boolean[] result) {
+		for (int i = 0; i < array.size(); i++) {
+			assertEquals(predicate.apply(array.get(i)).booleanValue(),
+					result[i]);
+		}
+	}
+
+	@Test(expected = CurrencyMismatchException.class)
+	public void testMinMaxPredicateCurrencyMismatch() {
+		new MinMaxPredicate().withMinValue(Money.of("CHF", 1)).apply(
+				new AmountArray(1, 0).append(EUR, 1, 0), new boolean[1]);
+	}
+
+}
@@ -0,0 +1,132 @@
+/*
+ *  Copyright (c) 2012, 2013, Credit Suisse (Anatole Tresch), Werner Keil.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package javax.money.function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedList;
+import java.util.List;
+
+import javax.money.CurrencyUnit;
+import javax.money.FastMoney;
+import javax.money.MonetaryAmount;
+import javax.money.MonetaryFunction;
+import javax.money.Money;
+import javax.money.MoneyCurrency;
+
+import org.junit.Test;
+
+public class AmountPipelineTest {
+
+	private static final CurrencyUnit EUR = MoneyCurrency.of("EUR");
+	private static final CurrencyUnit CHF = MoneyCurrency.of("CHF");
+
+	@Test
+	public void testFilterMatchesAmountFilter() {
+		List<MonetaryAmount> amounts = TestAmounts.mixedCurrencies(100);
+		AmountPredicate predicate = AmountPredicates.and(
+				AmountPredicates.isCurrency(EUR),
+				AmountPredicates.isBetween(Money.of(EUR, new BigDecimal("0.3")),
+						Money.of(EUR, 7)));
+		Collection<MonetaryAmount> expected = new AmountFilter(amounts)
+				.apply(new MinMaxPredicate() {
+					@Override
+					public Boolean apply(MonetaryAmount value) {
+						return value.getCurrency().equals(EUR)
+								&& super.apply(value);
+					}
+				}.withMinValue(Money.of(EUR, new BigDecimal("0.3")))
+						.withMaxValue(Money.of(EUR, 7)));
+		AmountPipeline pipeline = AmountPipeline.of(amounts).filter(predicate);
+		assertTrue(expected.size() > 0);
+		assertEquals(expected, pipeline.toList());
+		assertEquals(expected.size(), pipeline.count());
+		assertEquals(Total.of().apply(expected), pipeline.sum().toAmount());
+		assertEquals(expected.size(),
+				AmountPipeline.of(new LinkedList<MonetaryAmount>(amounts))
+						.filter(predicate).count());
+	}
+
+	@Test
+	public void testMapAndReduce() {
+		List<MonetaryAmount> amounts = TestAmounts.mixedCurrencies(100);
+		AmountPipeline pipeline = AmountPipeline.of(amounts)
+				.filter(AmountPredicates.isCurrency(CHF))
+				.map(new MonetaryFunction<MonetaryAmount, MonetaryAmount>() {
+					@Override
+					public MonetaryAmount apply(MonetaryAmount value) {
+						return value.negate();
+					}
+				});
+		assertEquals(FastMoney.ofUnscaled(CHF, -16, 2),
+				pipeline.reduce(Reducers.min()));
+		assertEquals(100, pipeline.reduce(Reducers.count()).getCount());
+		GroupingAggregator<CurrencyUnit, Reducers.Count> counts = AmountPipeline
+				.of(amounts).into(
+						GroupingAggregator.byCurrency(Reducers.count()));
+		assertEquals(100, counts.get(EUR).getCount());
+		assertEquals(100, counts.get(CHF).getCount());
+	}
+
+	@Test
+	public void testShortCircuit() {
+		List<MonetaryAmount> amounts = TestAmounts.mixedCurrencies(100);
+		final int[] evaluated = new int[1];
+		AmountPredicate counting = new AmountPredicate() {
+			@Override
+			public boolean test(MonetaryAmount amount) {
+				evaluated[0]++;
+				return amount.getCurrency().equals(CHF);
+			}
+		};
+		AmountPipeline pipeline = AmountPipeline.of(amounts).filter(counting);
+		assertSame(amounts.get(1), pipeline.findFirst());
+		assertEquals(2, evaluated[0]);
+		assertTrue(AmountPipeline.of(amounts).anyMatch(counting));
+		assertFalse(pipeline.allMatch(AmountPredicates.isBetween(null,
+				FastMoney.ofUnscaled(CHF, 10, 2))));
+		assertTrue(pipeline.allMatch(AmountPredicates.not(AmountPredicates
+				.isCurrency(EUR))));
+		assertNull(AmountPipeline.of(amounts)
+				.filter(AmountPredicates.isCurrency(MoneyCurrency.of("USD")))
+				.findFirst());
+	}
+
+	@Test
+	public void testEmpty() {
+		AmountPipeline pipeline = AmountPipeline
+				.of(new ArrayList<MonetaryAmount>());
+		assertEquals(0, pipeline.count());
+		assertTrue(pipeline.toList().isEmpty());
+		assertNull(pipeline.findFirst());
+		assertFalse(pipeline.anyMatch(AmountPredicates.isCurrency(EUR)));
+		assertTrue(pipeline.allMatch(AmountPredicates.isCurrency(EUR)));
+		assertNull(pipeline.reduce(Reducers.min()));
+		assertEquals(0, pipeline.reduce(Reducers.count()).getCount());
+		assertEquals(0, pipeline.sum().getCount());
+		assertTrue(AmountPipeline.of(TestAmounts.mixedCurrencies(10))
+				.filter(AmountPredicates.isCurrency(MoneyCurrency.of("USD")))
+				.toList().isEmpty());
+	}
+
+}
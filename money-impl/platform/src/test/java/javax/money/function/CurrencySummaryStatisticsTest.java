@@ -0,0 +1,104 @@
+/*
+ *  Copyright (c) 2012, 2013, Credit Suisse (Anatole Tresch), Werner Keil.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package javax.money.function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import javax.money.CurrencyMismatchException;
+import javax.money.CurrencyUnit;
+import javax.money.MonetaryAmount;
+import javax.money.Money;
+import javax.money.MoneyCurrency;
+
+import org.junit.Test;
+
+public class CurrencySummaryStatisticsTest {
+
+	private static final CurrencyUnit EUR = MoneyCurrency.of("EUR");
+	private static final CurrencyUnit CHF = MoneyCurrency.of("CHF");
+
+	@Test
+	public void testSinglePass() {
+		List<MonetaryAmount> amounts = TestAmounts.mixedCurrencies(100);
+		CurrencySummaryStatistics statistics = CurrencySummaryStatistics
+				.from(amounts);
+		Map<CurrencyUnit, Collection<MonetaryAmount>> separated = SeparateAmounts
+				.from(amounts);
+		assertEquals(2, statistics.getStatistics().size());
+		for (CurrencyUnit currency : separated.keySet()) {
+			Collection<MonetaryAmount> values = separated.get(currency);
+			MonetarySummaryStatistics summary = statistics.get(currency);
+			assertEquals(currency, summary.getCurrency());
+			assertEquals(values.size(), summary.getCount());
+			assertEquals(Total.of().apply(values), summary.getSum());
+			assertSame(Minimum.from(values), summary.getMin());
+			assertSame(Maximum.from(values), summary.getMax());
+			assertEquals(Average.from(values), summary.getAverage());
+		}
+		assertNull(statistics.get(MoneyCurrency.of("USD")));
+	}
+
+	@Test
+	public void testCombine() {
+		List<MonetaryAmount> amounts = TestAmounts.mixedCurrencies(100);
+		CurrencySummaryStatistics left = CurrencySummaryStatistics
+				.from(amounts.subList(0, 51));
+		CurrencySummaryStatistics right = CurrencySummaryStatistics
+				.from(amounts.subList(51, amounts.size()));
+		CurrencySummaryStatistics all = CurrencySummaryStatistics
+				.from(amounts);
+		left.combine(right).combine(new CurrencySummaryStatistics());
+		for (CurrencyUnit currency : all.getStatistics().keySet()) {
+			MonetarySummaryStatistics expected = all.get(currency);
+			MonetarySummaryStatistics combined = left.get(currency);
+			assertEquals(expected.getCount(), combined.getCount());
+			assertEquals(expected.getSum(), combined.getSum());
+			assertSame(expected.getMin(), combined.getMin());
+			assertSame(expected.getMax(), combined.getMax());
+			assertEquals(expected.getAverage(), combined.getAverage());
+		}
+	}
+
+	@Test
+	public void testEmpty() {
+		MonetarySummaryStatistics statistics = new MonetarySummaryStatistics(
+				EUR);
+		assertEquals(0, statistics.getCount());
+		assertEquals(Money.ofZero(EUR), statistics.getSum());
+		assertNull(statistics.getMin());
+		assertNull(statistics.getAverage());
+		CurrencySummaryStatistics none = CurrencySummaryStatistics
+				.from(new ArrayList<MonetaryAmount>());
+		assertTrue(none.getStatistics().isEmpty());
+		assertNull(none.get(EUR));
+		assertTrue(none.combine(new CurrencySummaryStatistics())
+				.getStatistics().isEmpty());
+	}
+
+	@Test(expected = CurrencyMismatchException.class)
+	public void testCurrencyMismatch() {
+		new MonetarySummaryStatistics(EUR).accept(Money.of(CHF, 1));
+	}
+
+}
@@ -0,0 +1,131 @@
+/*
+ *  Copyright (c) 2012, 2013, Credit Suisse (Anatole Tresch), Werner Keil.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package javax.money.function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import javax.money.CurrencyUnit;
+import javax.money.MonetaryAmount;
+import javax.money.MonetaryFunction;
+import javax.money.Money;
+import javax.money.MoneyCurrency;
+
+import org.junit.Test;
+
+public class GroupingAggregatorTest {
+
+	private static final CurrencyUnit EUR = MoneyCurrency.of("EUR");
+
+	@Test
+	public void testByCurrency() {
+		List<MonetaryAmount> amounts = TestAmounts.mixedCurrencies(100);
+		Map<CurrencyUnit, Collection<MonetaryAmount>> separated = SeparateAmounts
+				.from(amounts);
+		GroupingAggregator<CurrencyUnit, AmountAccumulator> sums = GroupingAggregator
+				.byCurrency(Reducers.sum()).acceptAll(amounts);
+		GroupingAggregator<CurrencyUnit, MonetaryAmount> mins = GroupingAggregator
+				.byCurrency(Reducers.min()).acceptAll(amounts);
+		GroupingAggregator<CurrencyUnit, MonetaryAmount> maxs = GroupingAggregator
+				.byCurrency(Reducers.max()).acceptAll(amounts);
+		GroupingAggregator<CurrencyUnit, Reducers.Count> counts = GroupingAggregator
+				.byCurrency(Reducers.count()).acceptAll(amounts);
+		assertEquals(2, sums.size());
+		for (CurrencyUnit currency : separated.keySet()) {
+			Collection<MonetaryAmount> values = separated.get(currency);
+			assertEquals(Total.of().apply(values), sums.get(currency)
+					.toAmount());
+			assertSame(Minimum.from(values), mins.get(currency));
+			assertSame(Maximum.from(values), maxs.get(currency));
+			assertEquals(values.size(), counts.get(currency).getCount());
+		}
+		assertNull(sums.get(MoneyCurrency.of("USD")));
+	}
+
+	@Test
+	public void testByKeyFunction() {
+		MonetaryFunction<MonetaryAmount, Boolean> positive = new MonetaryFunction<MonetaryAmount, Boolean>() {
+			@Override
+			public Boolean apply(MonetaryAmount value) {
+				return value.signum() > 0;
+			}
+		};
+		List<MonetaryAmount> amounts = new ArrayList<MonetaryAmount>();
+		for (int i = -5; i < 10; i++) {
+			amounts.add(Money.of(EUR, i));
+		}
+		GroupingAggregator<Boolean, MonetarySummaryStatistics> statistics = GroupingAggregator
+				.by(positive, Reducers.statistics()).acceptAll(amounts);
+		Iterator<Boolean> keys = statistics.getResults().keySet().iterator();
+		assertEquals(Boolean.FALSE, keys.next());
+		assertEquals(Boolean.TRUE, keys.next());
+		assertEquals(6, statistics.get(Boolean.FALSE).getCount());
+		assertEquals(Money.of(EUR, -15), statistics.get(Boolean.FALSE)
+				.getSum());
+		assertEquals(9, statistics.get(Boolean.TRUE).getCount());
+		assertEquals(Money.of(EUR, 9), statistics.get(Boolean.TRUE).getMax());
+	}
+
+	@Test
+	public void testCombine() {
+		List<MonetaryAmount> amounts = TestAmounts.mixedCurrencies(100);
+		GroupingAggregator<CurrencyUnit, MonetarySummaryStatistics> left = GroupingAggregator
+				.byCurrency(Reducers.statistics()).acceptAll(
+						amounts.subList(0, 51));
+		GroupingAggregator<CurrencyUnit, MonetarySummaryStatistics> right = GroupingAggregator
+				.byCurrency(Reducers.statistics()).acceptAll(
+						amounts.subList(51, amounts.size()));
+		CurrencySummaryStatistics all = CurrencySummaryStatistics
+				.from(amounts);
+		left.combine(right).combine(
+				GroupingAggregator.byCurrency(Reducers.statistics()));
+		assertEquals(2, left.size());
+		for (CurrencyUnit currency : all.getStatistics().keySet()) {
+			MonetarySummaryStatistics expected = all.get(currency);
+			MonetarySummaryStatistics combined = left.get(currency);
+			assertEquals(expected.getCount(), combined.getCount());
+			assertEquals(expected.getSum(), combined.getSum());
+			assertSame(expected.getMin(), combined.getMin());
+			assertSame(expected.getMax(), combined.getMax());
+		}
+	}
+
+	@Test
+	public void testEmpty() {
+		GroupingAggregator<CurrencyUnit, AmountAccumulator> sums = GroupingAggregator
+				.byCurrency(Reducers.sum()).acceptAll(
+						new ArrayList<MonetaryAmount>());
+		assertEquals(0, sums.size());
+		assertTrue(sums.getResults().isEmpty());
+		assertNull(sums.get(EUR));
+		assertEquals(0, sums.combine(
+				GroupingAggregator.byCurrency(Reducers.sum())).size());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNullAmount() {
+		GroupingAggregator.byCurrency(Reducers.count()).accept(null);
+	}
+
+}
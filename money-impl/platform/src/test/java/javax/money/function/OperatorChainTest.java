@@ -0,0 +1,113 @@
+/*
+ *  Copyright (c) 2012, 2013, Credit Suisse (Anatole Tresch), Werner Keil.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package javax.money.function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import javax.money.CurrencyUnit;
+import javax.money.FastMoney;
+import javax.money.MonetaryAmount;
+import javax.money.MonetaryOperator;
+import javax.money.Money;
+import javax.money.MoneyCurrency;
+import javax.money.MoneyRounding;
+import javax.money.Percent;
+
+import org.junit.Test;
+
+public class OperatorChainTest {
+
+	private static final CurrencyUnit EUR = MoneyCurrency.of("EUR");
+	private static final CurrencyUnit CHF = MoneyCurrency.of("CHF");
+
+	@Test
+	public void testFoldsArithmetic() {
+		OperatorChain chain = OperatorChain.of(Percent.of(19))
+				.add(new BigDecimal("1.50")).multiply(2)
+				.round(2, RoundingMode.HALF_UP);
+		assertEquals(2, chain.getStepCount());
+		// 12.34 * 0.19 = 2.3446, + 1.50 = 3.8446, * 2 = 7.6892
+		assertEquals(Money.of(EUR, new BigDecimal("7.69")),
+				chain.apply(Money.of(EUR, new BigDecimal("12.34"))));
+	}
+
+	@Test
+	public void testRoundsOnce() {
+		MonetaryOperator half = new MonetaryOperator() {
+			@Override
+			public MonetaryAmount apply(MonetaryAmount value) {
+				return value.divide(2);
+			}
+		};
+		MonetaryOperator rounding = MoneyRounding.of(0, RoundingMode.HALF_UP);
+		OperatorChain chain = OperatorChain.of(Percent.of(50), rounding);
+		// 5 * 0.5 = 2.5 -> 3, not rounded in between
+		assertEquals(0, BigDecimal.valueOf(3).compareTo(
+				chain.apply(Money.of(EUR, 5)).asType(BigDecimal.class)));
+		OperatorChain twice = OperatorChain.of(half, rounding, half, rounding);
+		assertEquals(4, twice.getStepCount());
+		// 5 / 2 = 2.5 -> 3, 3 / 2 = 1.5 -> 2
+		assertEquals(0, BigDecimal.valueOf(2).compareTo(
+				twice.apply(Money.of(EUR, 5)).asType(BigDecimal.class)));
+	}
+
+	@Test
+	public void testConvertAndNesting() {
+		OperatorChain fee = OperatorChain.of().add(2);
+		OperatorChain chain = OperatorChain.of(fee.convert(CHF,
+				new BigDecimal("1.25")), fee, MoneyRounding.of());
+		assertEquals(2, chain.getStepCount());
+		MonetaryAmount result = chain.apply(Money.of(EUR,
+				new BigDecimal("10.005")));
+		assertEquals(CHF, result.getCurrency());
+		// (10.005 + 2) * 1.25 + 2 = 17.00625
+		assertEquals(new BigDecimal("17.01"), result.asType(BigDecimal.class));
+	}
+
+	@Test
+	public void testReciprocalAndAmountType() {
+		OperatorChain chain = OperatorChain.of(Reciprocal.of(),
+				MoneyRounding.of(EUR));
+		MonetaryAmount result = chain.apply(FastMoney.of(EUR, 8));
+		assertTrue(result instanceof FastMoney);
+		assertEquals(0, new BigDecimal("0.13").compareTo(result
+				.asType(BigDecimal.class)));
+		MonetaryAmount amount = Money.of(EUR, 1);
+		assertSame(amount, OperatorChain.of().apply(amount));
+	}
+
+	@Test
+	public void testMatchesSequentialApplication() {
+		MonetaryOperator[] operators = { Percent.of(7), Percent.of(250),
+				MoneyRounding.of(2, RoundingMode.HALF_EVEN) };
+		OperatorChain chain = OperatorChain.of(operators);
+		for (int i = -50; i < 50; i++) {
+			Money amount = Money.of(EUR, BigDecimal.valueOf(i * 137, 2));
+			MonetaryAmount expected = amount;
+			for (MonetaryOperator operator : operators) {
+				expected = expected.with(operator);
+			}
+			assertEquals(0, expected.asType(BigDecimal.class).compareTo(
+					chain.apply(amount).asType(BigDecimal.class)));
+		}
+	}
+
+}
@@ -0,0 +1,114 @@
+/*
+ *  Copyright (c) 2012, 2013, Credit Suisse (Anatole Tresch), Werner Keil.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package javax.money.function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+import javax.money.AmountArray;
+import javax.money.CurrencyMismatchException;
+import javax.money.CurrencyUnit;
+import javax.money.MonetaryAmount;
+import javax.money.Money;
+import javax.money.MoneyCurrency;
+
+import org.junit.Test;
+
+public class ParallelReductionsTest {
+
+	private static final CurrencyUnit EUR = MoneyCurrency.of("EUR");
+
+	private static final int SIZE = ParallelReductions.THRESHOLD * 5 + 17;
+
+	@Test
+	public void testCollections() {
+		List<MonetaryAmount> amounts = TestAmounts.mixedScales(SIZE, 42);
+		assertEquals(Total.from(amounts), Total.fromParallel(amounts));
+		assertEquals(Average.from(amounts), Average.fromParallel(amounts));
+		assertSame(Minimum.from(amounts), Minimum.fromParallel(amounts));
+		assertSame(Maximum.from(amounts), Maximum.fromParallel(amounts));
+		List<MonetaryAmount> linked = new LinkedList<MonetaryAmount>(amounts);
+		assertEquals(Total.from(amounts), Total.fromParallel(linked));
+		assertEquals(Total.from(amounts.get(0)),
+				Total.fromParallel(amounts.get(0)));
+	}
+
+	@Test
+	public void testAmountArray() {
+		Random random = new Random(7);
+		AmountArray shared = new AmountArray(SIZE, 2);
+		AmountArray mixed = new AmountArray(SIZE);
+		for (int i = 0; i < SIZE; i++) {
+			long value = random.nextInt(1000);
+			shared.append(EUR, value, 2);
+			mixed.append(EUR, value, i % 4);
+		}
+		for (AmountArray array : new AmountArray[] { shared, mixed }) {
+			assertEquals(Total.from(array), Total.fromParallel(array));
+			assertEquals(Average.from(array), Average.fromParallel(array));
+			assertEquals(Minimum.from(array), Minimum.fromParallel(array));
+			assertEquals(Maximum.from(array), Maximum.fromParallel(array));
+		}
+	}
+
+	@Test(expected = CurrencyMismatchException.class)
+	public void testCurrencyMismatch() {
+		List<MonetaryAmount> amounts = TestAmounts.mixedScales(SIZE, 42);
+		amounts.add(Money.of("CHF", 1));
+		Total.fromParallel(amounts);
+	}
+
+	@Test
+	public void testAmountArrayCurrencyMismatch() {
+		// the mismatching row is the first row of the second task
+		int size = ParallelReductions.THRESHOLD * 2;
+		AmountArray shared = new AmountArray(size, 2);
+		AmountArray mixed = new AmountArray(size);
+		CurrencyUnit chf = MoneyCurrency.of("CHF");
+		for (int i = 0; i < size; i++) {
+			CurrencyUnit currency = i == ParallelReductions.THRESHOLD ? chf
+					: EUR;
+			shared.append(currency, i, 2);
+			mixed.append(currency, i, i % 4);
+		}
+		for (AmountArray array : new AmountArray[] { shared, mixed }) {
+			try {
+				Minimum.fromParallel(array);
+				fail("CurrencyMismatchException expected.");
+			} catch (CurrencyMismatchException e) {
+				// expected
+			}
+			try {
+				Maximum.fromParallel(array);
+				fail("CurrencyMismatchException expected.");
+			} catch (CurrencyMismatchException e) {
+				// expected
+			}
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testEmpty() {
+		Minimum.fromParallel(new ArrayList<MonetaryAmount>());
+	}
+
+}
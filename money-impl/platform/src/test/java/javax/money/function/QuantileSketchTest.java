@@ -0,0 +1,133 @@
+/*
+ *  Copyright (c) 2012, 2013, Credit Suisse (Anatole Tresch), Werner Keil.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package javax.money.function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Random;
+
+import javax.money.CurrencyMismatchException;
+import javax.money.CurrencyUnit;
+import javax.money.FastMoney;
+import javax.money.MonetaryAmount;
+import javax.money.Money;
+import javax.money.MoneyCurrency;
+
+import org.junit.Test;
+
+public class QuantileSketchTest {
+
+	private static final CurrencyUnit EUR = MoneyCurrency.of("EUR");
+	private static final double[] QUANTILES = { 0.01, 0.5, 0.95, 0.99 };
+
+	private static long[] createValues() {
+		Random random = new Random(42);
+		long[] values = new long[100000];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = (long) (Math.exp(random.nextGaussian() * 2) * 1000);
+		}
+		return values;
+	}
+
+	/**
+	 * Checks the fraction of the values below the estimate is close to the
+	 * quantile.
+	 */
+	private static void assertRank(long[] sorted, double quantile,
+			MonetaryAmount estimate) {
+		long value = unscaled(estimate);
+		int below = Arrays.binarySearch(sorted, value);
+		below = below < 0 ? -below - 1 : below;
+		double rank = (double) below / sorted.length;
+		assertTrue(quantile + ": " + rank,
+				Math.abs(rank - quantile) <= 0.005);
+	}
+
+	private static long unscaled(MonetaryAmount amount) {
+		return amount.asType(BigDecimal.class).movePointRight(2)
+				.longValueExact();
+	}
+
+	@Test
+	public void testQuantiles() {
+		long[] values = createValues();
+		QuantileSketch sketch = new QuantileSketch(EUR);
+		for (int i = 0; i < values.length; i++) {
+			sketch.accept(i % 2 == 0 ? FastMoney.ofUnscaled(EUR, values[i], 2)
+					: Money.of(EUR, BigDecimal.valueOf(values[i], 2)));
+		}
+		long[] sorted = values.clone();
+		Arrays.sort(sorted);
+		assertEquals(values.length, sketch.getCount());
+		assertEquals(sorted[0], unscaled(sketch.getMin()));
+		assertEquals(sorted[sorted.length - 1], unscaled(sketch.getMax()));
+		assertTrue(sketch.getCentroidCount() < 200);
+		for (double q : QUANTILES) {
+			assertRank(sorted, q, sketch.quantile(q));
+		}
+	}
+
+	@Test
+	public void testCombineAndSerialize() throws Exception {
+		long[] values = createValues();
+		QuantileSketch[] parts = new QuantileSketch[4];
+		for (int p = 0; p < parts.length; p++) {
+			parts[p] = new QuantileSketch(EUR);
+		}
+		for (int i = 0; i < values.length; i++) {
+			parts[i % parts.length].acceptUnscaled(values[i]);
+		}
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(parts[3]);
+		out.close();
+		QuantileSketch remote = (QuantileSketch) new ObjectInputStream(
+				new ByteArrayInputStream(bytes.toByteArray())).readObject();
+		QuantileSketch combined = new QuantileSketch(EUR).combine(parts[0])
+				.combine(parts[1]).combine(parts[2]).combine(remote);
+		long[] sorted = values.clone();
+		Arrays.sort(sorted);
+		assertEquals(values.length, combined.getCount());
+		for (double q : QUANTILES) {
+			assertRank(sorted, q, combined.quantile(q));
+		}
+	}
+
+	@Test
+	public void testSmallAndEmpty() {
+		QuantileSketch sketch = new QuantileSketch(EUR);
+		assertNull(sketch.quantile(0.5));
+		sketch.accept(Money.of(EUR, 1)).accept(Money.of(EUR, 2))
+				.accept(Money.of(EUR, 3));
+		assertEquals(100, unscaled(sketch.quantile(0)));
+		assertEquals(200, unscaled(sketch.quantile(0.5)));
+		assertEquals(300, unscaled(sketch.quantile(1)));
+	}
+
+	@Test(expected = CurrencyMismatchException.class)
+	public void testCurrencyMismatch() {
+		new QuantileSketch(EUR).accept(Money.of(MoneyCurrency.of("CHF"), 1));
+	}
+
+}
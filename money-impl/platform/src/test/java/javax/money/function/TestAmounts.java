@@ -0,0 +1,91 @@
+/*
+ *  Copyright (c) 2012, 2013, Credit Suisse (Anatole Tresch), Werner Keil.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package javax.money.function;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import javax.money.CurrencyUnit;
+import javax.money.FastMoney;
+import javax.money.MonetaryAmount;
+import javax.money.Money;
+import javax.money.MoneyCurrency;
+
+/**
+ * Test data shared by the tests of the functions, reducers and aggregators.
+ *
+ * @author Anatole Tresch
+ */
+final class TestAmounts {
+
+	static final CurrencyUnit EUR = MoneyCurrency.of("EUR");
+	static final CurrencyUnit CHF = MoneyCurrency.of("CHF");
+
+	/**
+	 * Singleton constructor.
+	 */
+	private TestAmounts() {
+	}
+
+	/**
+	 * Creates alternating EUR and CHF amounts. The EUR amounts are
+	 * {@link Money} instances between 0 and 10 with scales 0 to 2, the CHF
+	 * amounts are {@link FastMoney} instances between 0 and 0.16 with scale 2.
+	 *
+	 * @param count
+	 *            the number of amounts per currency.
+	 * @return the amounts, starting with EUR.
+	 */
+	static List<MonetaryAmount> mixedCurrencies(int count) {
+		List<MonetaryAmount> amounts = new ArrayList<MonetaryAmount>(
+				count * 2);
+		for (int i = 0; i < count; i++) {
+			amounts.add(Money.of(EUR, BigDecimal.valueOf(i * 37 % 11, i % 3)));
+			amounts.add(FastMoney.ofUnscaled(CHF, i * 13 % 17, 2));
+		}
+		return amounts;
+	}
+
+	/**
+	 * Creates random EUR amounts of mixed types and scales, including
+	 * {@link Money} instances exceeding the range of {@link FastMoney}.
+	 *
+	 * @param size
+	 *            the number of amounts.
+	 * @param seed
+	 *            the seed of the random values.
+	 * @return the amounts.
+	 */
+	static List<MonetaryAmount> mixedScales(int size, long seed) {
+		Random random = new Random(seed);
+		List<MonetaryAmount> amounts = new ArrayList<MonetaryAmount>(size);
+		for (int i = 0; i < size; i++) {
+			long value = random.nextInt(2000) - 1000;
+			if (i % 3 == 0) {
+				amounts.add(Money.of(EUR, BigDecimal.valueOf(value, 1)));
+			} else if (i % 7 == 0) {
+				amounts.add(Money.of(EUR,
+						BigDecimal.valueOf(Long.MAX_VALUE - value, 3)));
+			} else {
+				amounts.add(FastMoney.ofUnscaled(EUR, value * 10, 2));
+			}
+		}
+		return amounts;
+	}
+
+}
@@ -0,0 +1,133 @@
+/*
+ *  Copyright (c) 2012, 2013, Credit Suisse (Anatole Tresch), Werner Keil.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package javax.money.function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import javax.money.CurrencyUnit;
+import javax.money.FastMoney;
+import javax.money.MonetaryAmount;
+import javax.money.Money;
+import javax.money.MoneyCurrency;
+
+import org.junit.Test;
+
+public class WindowedTotalsTest {
+
+	private static final CurrencyUnit EUR = MoneyCurrency.of("EUR");
+	private static final CurrencyUnit CHF = MoneyCurrency.of("CHF");
+
+	@Test
+	public void testSlidingMatchesRescan() {
+		WindowedTotals totals = WindowedTotals.sliding(1, TimeUnit.MINUTES, 60);
+		List<long[]> events = new ArrayList<long[]>();
+		Random random = new Random(42);
+		long now = 1000000L;
+		for (int i = 0; i < 2000; i++) {
+			// mostly increasing, some late events
+			now += random.nextInt(200);
+			long timestamp = now - random.nextInt(5000);
+			long cents = random.nextInt(100000) - 20000;
+			Money amount = Money.of(EUR, BigDecimal.valueOf(cents, 2));
+			if (totals.accept(timestamp, amount)) {
+				events.add(new long[] { timestamp, cents });
+			}
+			if (i % 50 == 0) {
+				long expected = 0;
+				long windowStart = (now / 1000 - 59) * 1000;
+				for (long[] event : events) {
+					if (event[0] >= windowStart && event[0] <= now) {
+						expected += event[1];
+					}
+				}
+				assertEquals(0, BigDecimal.valueOf(expected, 2).compareTo(
+						totals.getTotal(EUR, now).asType(BigDecimal.class)));
+			}
+		}
+	}
+
+	@Test
+	public void testTumbling() {
+		WindowedTotals totals = WindowedTotals.tumbling(1, TimeUnit.HOURS);
+		assertEquals(3600000L, totals.getWindowMillis());
+		assertTrue(totals.accept(10L, Money.of(EUR, 5)));
+		assertTrue(totals.accept(3599999L, Money.of(EUR, 7)));
+		assertEquals(Money.of(EUR, 12), totals.getTotal(EUR, 3599999L));
+		assertTrue(totals.accept(3600000L, Money.of(EUR, 1)));
+		assertFalse(totals.accept(20L, Money.of(EUR, 100)));
+		assertEquals(Money.of(EUR, 1), totals.getTotal(EUR, 3600000L));
+	}
+
+	@Test
+	public void testExpiryAndCurrencies() {
+		WindowedTotals totals = WindowedTotals.sliding(10, TimeUnit.SECONDS,
+				10);
+		totals.accept(1000L, Money.of(EUR, 3));
+		totals.accept(5000L, Money.of(CHF, 4));
+		totals.accept(9999L, Money.of(EUR, 2));
+		assertEquals(Money.of(EUR, 5), totals.getTotal(EUR, 9999L));
+		assertEquals(Money.of(CHF, 4), totals.getTotals(9999L).get(CHF));
+		assertEquals(Money.of(EUR, 2), totals.getTotal(EUR, 11000L));
+		assertEquals(0, totals.getTotal(EUR, 100000L).signum());
+		assertEquals(0, totals.getTotals(100000L).get(CHF).signum());
+		assertFalse(totals.accept(1000L, Money.of(EUR, 3)));
+		assertTrue(totals.accept(99000L, Money.of(EUR, 3)));
+		assertEquals(Money.of(EUR, 3), totals.getTotal(EUR, 100000L));
+		assertEquals(0, totals.getTotal(MoneyCurrency.of("USD"), 0L).signum());
+	}
+
+	@Test
+	public void testScaleGrowth() {
+		WindowedTotals totals = WindowedTotals.sliding(1, TimeUnit.SECONDS, 1);
+		totals.accept(0L, Money.of(EUR, 5));
+		totals.accept(0L, FastMoney.of(EUR, new BigDecimal("0.25")));
+		totals.accept(0L, Money.of(EUR, new BigDecimal("0.0001")));
+		MonetaryAmount total = totals.getTotal(EUR, 0L);
+		assertEquals(new BigDecimal("5.2501"), total.asType(BigDecimal.class));
+	}
+
+	@Test
+	public void testExtremeTimestamps() {
+		WindowedTotals totals = WindowedTotals.sliding(2, TimeUnit.MILLISECONDS,
+				2);
+		assertTrue(totals.accept(Long.MIN_VALUE, Money.of(EUR, 1)));
+		assertEquals(Money.of(EUR, 1), totals.getTotal(EUR, Long.MIN_VALUE + 1));
+		assertTrue(totals.accept(Long.MAX_VALUE, Money.of(EUR, 2)));
+		assertFalse(totals.accept(Long.MIN_VALUE, Money.of(EUR, 4)));
+		assertEquals(Money.of(EUR, 2), totals.getTotal(EUR, Long.MAX_VALUE));
+	}
+
+	@Test(expected = ArithmeticException.class)
+	public void testOverflow() {
+		WindowedTotals totals = WindowedTotals.sliding(1, TimeUnit.SECONDS, 1);
+		totals.accept(0L, Money.of(EUR, Long.MAX_VALUE));
+		totals.accept(0L, Money.of(EUR, 1));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidBuckets() {
+		WindowedTotals.sliding(1, TimeUnit.SECONDS, 7);
+	}
+
+}
@@ -21,14 +21,23 @@ package net.java.javamoney.ri;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
+import javax.money.CurrencyIndex;
 import javax.money.CurrencyUnit;
 import javax.money.MonetaryOperator;
 import javax.money.MonetaryAmount;
+import javax.money.Money;
 import javax.money.MoneyCurrency;
+import javax.money.UnscaledArithmetic;
 
 /**
  * Default immutable implementation of {@link MonetaryAmount}.
+ * <p>
+ * All arithmetic operations are overflow checked. If a result exceeds the
+ * {@code long} range, the configured {@link OverflowPolicy} decides whether an
+ * {@link ArithmeticException} is thrown (default), or the result is
+ * transparently promoted to a {@link BigDecimal} based {@link Money}.
  * 
  * @version 0.4
  * @author Anatole Tresch
@@ -45,6 +54,36 @@ public final class IntegralMoney implements MonetaryAmount,
 	/** The currency of this amount. */
 	private final CurrencyUnit currency;
 
+	/** The policy applied, when an operation overflows the long range. */
+	private final OverflowPolicy overflowPolicy;
+
+	/** The smallest value cached. */
+	private static final int CACHE_LOW = -128;
+
+	/** The number of values cached per currency, covering [-128, 127]. */
+	private static final int CACHE_SIZE = 256;
+
+	/** The maximal number of currencies, for which instances are cached. */
+	private static final int CACHE_CURRENCIES = 1024;
+
+	/**
+	 * Cached instances with the default {@link OverflowPolicy}, indexed by
+	 * {@link CurrencyIndex} and value.
+	 */
+	private static final AtomicReferenceArray<IntegralMoney[]> CACHE = new AtomicReferenceArray<IntegralMoney[]>(
+			CACHE_CURRENCIES);
+
+	/**
+	 * Defines how arithmetic operations behave, when their result exceeds the
+	 * {@code long} range.
+	 */
+	public static enum OverflowPolicy {
+		/** An {@link ArithmeticException} is thrown. */
+		EXCEPTION,
+		/** The exact result is returned as {@link Money}. */
+		PROMOTE
+	}
+
 	/**
 	 * Creates a new instance os {@link IntegralMoney}.
 	 * 
@@ -54,15 +93,44 @@ public final class IntegralMoney implements MonetaryAmount,
 	 *            the amount, not null.
 	 */
 	public IntegralMoney(CurrencyUnit currency, Number number) {
+		this(currency, number, OverflowPolicy.EXCEPTION);
+	}
+
+	/**
+	 * Creates a new instance os {@link IntegralMoney}.
+	 * 
+	 * @param currency
+	 *            the currency, not null.
+	 * @param number
+	 *            the amount, not null.
+	 * @param overflowPolicy
+	 *            the {@link OverflowPolicy} used, not null.
+	 */
+	public IntegralMoney(CurrencyUnit currency, Number number,
+			OverflowPolicy overflowPolicy) {
 		if (currency == null) {
 			throw new IllegalArgumentException("Currency is required.");
 		}
 		if (number == null) {
 			throw new IllegalArgumentException("Number is required.");
 		}
+		if (overflowPolicy == null) {
+			throw new IllegalArgumentException("OverflowPolicy is required.");
+		}
 		checkNumber(number);
 		this.currency = currency;
 		this.number = number.longValue();
+		this.overflowPolicy = overflowPolicy;
+	}
+
+	/**
+	 * Internal constructor used for results of arithmetic operations.
+	 */
+	private IntegralMoney(CurrencyUnit currency, long number,
+			OverflowPolicy overflowPolicy) {
+		this.currency = currency;
+		this.number = number;
+		this.overflowPolicy = overflowPolicy;
 	}
 
 	/**
@@ -76,8 +144,7 @@ public final class IntegralMoney implements MonetaryAmount,
 	 * @return A new instance of {@link IntegralMoney}.
 	 */
 	public static IntegralMoney of(CurrencyUnit currency, Number number) {
-		// TODO caching
-		return new IntegralMoney(currency, number);
+		return ofCached(currency, number);
 	}
 
 	/**
@@ -91,7 +158,27 @@ public final class IntegralMoney implements MonetaryAmount,
 	 * @return A new instance of {@link IntegralMoney}.
 	 */
 	public static IntegralMoney of(String isoCurrencyCode, Number number) {
-		return new IntegralMoney(MoneyCurrency.of(isoCurrencyCode), number);
+		return ofCached(MoneyCurrency.of(isoCurrencyCode), number);
+	}
+
+	/**
+	 * Static factory method for creating a new instance of
+	 * {@link IntegralMoney}.
+	 * 
+	 * @param currency
+	 *            The target currency, not null.
+	 * @param number
+	 *            The numeric part, not null.
+	 * @param overflowPolicy
+	 *            The {@link OverflowPolicy} to be used, not null.
+	 * @return A new instance of {@link IntegralMoney}.
+	 */
+	public static IntegralMoney of(CurrencyUnit currency, Number number,
+			OverflowPolicy overflowPolicy) {
+		if (overflowPolicy == OverflowPolicy.EXCEPTION) {
+			return ofCached(currency, number);
+		}
+		return new IntegralMoney(currency, number, overflowPolicy);
 	}
 
 /**
@@ -100,7 +187,45 @@ public final class IntegralMoney implements MonetaryAmount,
 	 * @return
 	 */
 	public static MonetaryAmount zero(CurrencyUnit currency) {
-		return new IntegralMoney(currency, 0L);
+		return ofCached(currency, Long.valueOf(0L));
+	}
+
+	/**
+	 * Evaluates an instance with the default {@link OverflowPolicy}. Values
+	 * within [-128, 127] are cached per currency.
+	 * 
+	 * @param currency
+	 *            The target currency, not null.
+	 * @param number
+	 *            The numeric part, not null.
+	 * @return the cached or a new instance.
+	 */
+	private static IntegralMoney ofCached(CurrencyUnit currency, Number number) {
+		if (currency == null || number == null) {
+			return new IntegralMoney(currency, number);
+		}
+		long value = number.longValue();
+		if (value < CACHE_LOW || value >= CACHE_LOW + CACHE_SIZE) {
+			return new IntegralMoney(currency, value, OverflowPolicy.EXCEPTION);
+		}
+		int currencyIndex = CurrencyIndex.indexOf(currency);
+		if (currencyIndex >= CACHE_CURRENCIES) {
+			return new IntegralMoney(currency, value, OverflowPolicy.EXCEPTION);
+		}
+		IntegralMoney[] row = CACHE.get(currencyIndex);
+		if (row == null) {
+			CACHE.compareAndSet(currencyIndex, null,
+					new IntegralMoney[CACHE_SIZE]);
+			row = CACHE.get(currencyIndex);
+		}
+		int slot = (int) value - CACHE_LOW;
+		IntegralMoney cached = row[slot];
+		if (cached == null || cached.currency != currency) {
+			cached = new IntegralMoney(currency, value,
+					OverflowPolicy.EXCEPTION);
+			row[slot] = cached;
+		}
+		return cached;
 	}
 
 	/**
@@ -177,12 +302,38 @@ public final class IntegralMoney implements MonetaryAmount,
 		return currency;
 	}
 
+	/**
+	 * Access the {@link OverflowPolicy} used by this instance.
+	 * 
+	 * @return the {@link OverflowPolicy} used, never null.
+	 */
+	public OverflowPolicy getOverflowPolicy() {
+		return this.overflowPolicy;
+	}
+
+	/**
+	 * Allows to change the {@link OverflowPolicy}. The policy is used on
+	 * subsequent operations and also propagated to the results of arithmetic
+	 * calculations.
+	 * 
+	 * @param overflowPolicy
+	 *            The new {@link OverflowPolicy}, not null.
+	 * @return a new {@link IntegralMoney} instance, with the new
+	 *         {@link OverflowPolicy}.
+	 */
+	public IntegralMoney setOverflowPolicy(OverflowPolicy overflowPolicy) {
+		if (overflowPolicy == null) {
+			throw new IllegalArgumentException("OverflowPolicy required.");
+		}
+		return new IntegralMoney(this.currency, this.number, overflowPolicy);
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
 	 * @see javax.money.MonetaryAmount#abs()
 	 */
-	public IntegralMoney abs() {
+	public MonetaryAmount abs() {
 		if (this.isPositiveOrZero()) {
 			return this;
 		}
@@ -196,10 +347,9 @@ public final class IntegralMoney implements MonetaryAmount,
 	 * 
 	 * @see javax.money.MonetaryAmount#add(javax.money.MonetaryAmount)
 	 */
-	public IntegralMoney add(MonetaryAmount amount) {
+	public MonetaryAmount add(MonetaryAmount amount) {
 		checkAmountParameter(amount);
-		return new IntegralMoney(this.currency, this.number
-				+ amount.longValue());
+		return add(amount.longValue());
 	}
 
 	/*
@@ -207,10 +357,18 @@ public final class IntegralMoney implements MonetaryAmount,
 	 * 
 	 * @see javax.money.MonetaryAmount#add(java.lang.Number)
 	 */
-	public IntegralMoney add(Number number) {
+	public MonetaryAmount add(Number number) {
 		checkNumber(number);
-		return new IntegralMoney(this.currency, this.number
-				+ number.longValue());
+		return add(number.longValue());
+	}
+
+	private MonetaryAmount add(long augend) {
+		long result = this.number + augend;
+		if (((this.number ^ result) & (augend ^ result)) < 0) {
+			return overflow(BigDecimal.valueOf(this.number).add(
+					BigDecimal.valueOf(augend)));
+		}
+		return new IntegralMoney(this.currency, result, this.overflowPolicy);
 	}
 
 	/*
@@ -218,10 +376,9 @@ public final class IntegralMoney implements MonetaryAmount,
 	 * 
 	 * @see javax.money.MonetaryAmount#divide(javax.money.MonetaryAmount)
 	 */
-	public IntegralMoney divide(MonetaryAmount divisor) {
+	public MonetaryAmount divide(MonetaryAmount divisor) {
 		checkAmountParameter(divisor);
-		return new IntegralMoney(this.currency, this.number
-				/ divisor.longValue());
+		return divideToIntegralValue(divisor.longValue());
 	}
 
 	/*
@@ -229,10 +386,9 @@ public final class IntegralMoney implements MonetaryAmount,
 	 * 
 	 * @see javax.money.MonetaryAmount#divide(java.lang.Number)
 	 */
-	public IntegralMoney divide(Number divisor) {
+	public MonetaryAmount divide(Number divisor) {
 		checkNumber(divisor);
-		return new IntegralMoney(this.currency, this.number
-				/ divisor.longValue());
+		return divideToIntegralValue(divisor.longValue());
 	}
 
 	/*
@@ -241,12 +397,11 @@ public final class IntegralMoney implements MonetaryAmount,
 	 * @see
 	 * javax.money.MonetaryAmount#divideAndRemainder(javax.money.MonetaryAmount)
 	 */
-	public IntegralMoney[] divideAndRemainder(MonetaryAmount divisor) {
+	public MonetaryAmount[] divideAndRemainder(MonetaryAmount divisor) {
 		checkAmountParameter(divisor);
 		long divisorAsLong = divisor.longValue();
-		return new IntegralMoney[] {
-				new IntegralMoney(this.currency, this.number / divisorAsLong),
-				new IntegralMoney(this.currency, this.number % divisorAsLong) };
+		return new MonetaryAmount[] { divideToIntegralValue(divisorAsLong),
+				remainder(divisorAsLong) };
 	}
 
 	/*
@@ -254,12 +409,11 @@ public final class IntegralMoney implements MonetaryAmount,
 	 * 
 	 * @see javax.money.MonetaryAmount#divideAndRemainder(java.lang.Number)
 	 */
-	public IntegralMoney[] divideAndRemainder(Number divisor) {
+	public MonetaryAmount[] divideAndRemainder(Number divisor) {
 		checkNumber(divisor);
 		long divisorAsLong = divisor.longValue();
-		return new IntegralMoney[] {
-				new IntegralMoney(this.currency, this.number / divisorAsLong),
-				new IntegralMoney(this.currency, this.number % divisorAsLong) };
+		return new MonetaryAmount[] { divideToIntegralValue(divisorAsLong),
+				remainder(divisorAsLong) };
 	}
 
 	/*
@@ -269,10 +423,9 @@ public final class IntegralMoney implements MonetaryAmount,
 	 * javax.money.MonetaryAmount#divideToIntegralValue(javax.money.MonetaryAmount
 	 * )
 	 */
-	public IntegralMoney divideToIntegralValue(MonetaryAmount divisor) {
+	public MonetaryAmount divideToIntegralValue(MonetaryAmount divisor) {
 		checkAmountParameter(divisor);
-		return new IntegralMoney(this.currency, this.number
-				/ divisor.longValue());
+		return divideToIntegralValue(divisor.longValue());
 	}
 
 	/*
@@ -280,10 +433,18 @@ public final class IntegralMoney implements MonetaryAmount,
 	 * 
 	 * @see javax.money.MonetaryAmount#divideToIntegralValue(java.lang.Number)
 	 */
-	public IntegralMoney divideToIntegralValue(Number divisor) {
+	public MonetaryAmount divideToIntegralValue(Number divisor) {
 		checkNumber(divisor);
-		return new IntegralMoney(this.currency, this.number
-				/ divisor.longValue());
+		return divideToIntegralValue(divisor.longValue());
+	}
+
+	private MonetaryAmount divideToIntegralValue(long divisor) {
+		if (divisor == -1L) {
+			// Long.MIN_VALUE / -1 is the only overflowing division
+			return negate();
+		}
+		return new IntegralMoney(this.currency, this.number / divisor,
+				this.overflowPolicy);
 	}
 
 	/*
@@ -291,16 +452,23 @@ public final class IntegralMoney implements MonetaryAmount,
 	 * 
 	 * @see javax.money.MonetaryAmount#multiply(javax.money.MonetaryAmount)
 	 */
-	public IntegralMoney multiply(MonetaryAmount multiplicand) {
+	public MonetaryAmount multiply(MonetaryAmount multiplicand) {
 		checkAmountParameter(multiplicand);
-		return new IntegralMoney(this.currency, this.number
-				* multiplicand.longValue());
+		return multiply(multiplicand.longValue());
 	}
 
-	public IntegralMoney multiply(Number multiplicand) {
+	public MonetaryAmount multiply(Number multiplicand) {
 		checkNumber(multiplicand);
-		return new IntegralMoney(this.currency, this.number
-				* multiplicand.longValue());
+		return multiply(multiplicand.longValue());
+	}
+
+	private MonetaryAmount multiply(long multiplicand) {
+		if (UnscaledArithmetic.multiplyOverflows(this.number, multiplicand)) {
+			return overflow(BigDecimal.valueOf(this.number).multiply(
+					BigDecimal.valueOf(multiplicand)));
+		}
+		return new IntegralMoney(this.currency, this.number * multiplicand,
+				this.overflowPolicy);
 	}
 
 	/*
@@ -308,11 +476,12 @@ public final class IntegralMoney implements MonetaryAmount,
 	 * 
 	 * @see javax.money.MonetaryAmount#negate()
 	 */
-	public IntegralMoney negate() {
-		if (this.number <= 0) {
-			return this;
+	public MonetaryAmount negate() {
+		if (this.number == Long.MIN_VALUE) {
+			return overflow(BigDecimal.valueOf(this.number).negate());
 		}
-		return new IntegralMoney(this.currency, this.number * -1L);
+		return new IntegralMoney(this.currency, -this.number,
+				this.overflowPolicy);
 	}
 
 	/*
@@ -321,10 +490,7 @@ public final class IntegralMoney implements MonetaryAmount,
 	 * @see javax.money.MonetaryAmount#plus()
 	 */
 	public IntegralMoney plus() {
-		if (this.number > 0) {
-			return this;
-		}
-		return new IntegralMoney(this.currency, Math.abs(this.number));
+		return this;
 	}
 
 	/*
@@ -332,10 +498,9 @@ public final class IntegralMoney implements MonetaryAmount,
 	 * 
 	 * @see javax.money.MonetaryAmount#subtract(javax.money.MonetaryAmount)
 	 */
-	public IntegralMoney subtract(MonetaryAmount subtrahend) {
+	public MonetaryAmount subtract(MonetaryAmount subtrahend) {
 		checkAmountParameter(subtrahend);
-		return new IntegralMoney(this.currency, this.number
-				- subtrahend.longValue());
+		return subtract(subtrahend.longValue());
 	}
 
 	/*
@@ -343,10 +508,18 @@ public final class IntegralMoney implements MonetaryAmount,
 	 * 
 	 * @see javax.money.MonetaryAmount#subtract(java.lang.Number)
 	 */
-	public IntegralMoney subtract(Number subtrahend) {
+	public MonetaryAmount subtract(Number subtrahend) {
 		checkNumber(subtrahend);
-		return new IntegralMoney(this.currency, this.number
-				- subtrahend.longValue());
+		return subtract(subtrahend.longValue());
+	}
+
+	private MonetaryAmount subtract(long subtrahend) {
+		long result = this.number - subtrahend;
+		if (((this.number ^ subtrahend) & (this.number ^ result)) < 0) {
+			return overflow(BigDecimal.valueOf(this.number).subtract(
+					BigDecimal.valueOf(subtrahend)));
+		}
+		return new IntegralMoney(this.currency, result, this.overflowPolicy);
 	}
 
 	/*
@@ -354,8 +527,29 @@ public final class IntegralMoney implements MonetaryAmount,
 	 * 
 	 * @see javax.money.MonetaryAmount#pow(int)
 	 */
-	public IntegralMoney pow(int n) {
-		return new IntegralMoney(this.currency, this.number ^ n);
+	public MonetaryAmount pow(int n) {
+		if (n < 0 || n > 999999999) {
+			throw new ArithmeticException("Invalid operation");
+		}
+		long result = 1L;
+		long base = this.number;
+		int exponent = n;
+		while (exponent > 0) {
+			if ((exponent & 1) != 0) {
+				if (UnscaledArithmetic.multiplyOverflows(result, base)) {
+					return overflow(BigDecimal.valueOf(this.number).pow(n));
+				}
+				result *= base;
+			}
+			exponent >>= 1;
+			if (exponent > 0) {
+				if (UnscaledArithmetic.multiplyOverflows(base, base)) {
+					return overflow(BigDecimal.valueOf(this.number).pow(n));
+				}
+				base *= base;
+			}
+		}
+		return new IntegralMoney(this.currency, result, this.overflowPolicy);
 	}
 
 	/*
@@ -365,7 +559,7 @@ public final class IntegralMoney implements MonetaryAmount,
 	 */
 	public IntegralMoney ulp() {
 		return new IntegralMoney(this.currency, new BigDecimal(BigInteger.ONE,
-				getScale()).longValue());
+				getScale()).longValue(), this.overflowPolicy);
 	}
 
 	/*
@@ -375,8 +569,7 @@ public final class IntegralMoney implements MonetaryAmount,
 	 */
 	public IntegralMoney remainder(MonetaryAmount divisor) {
 		checkAmountParameter(divisor);
-		return new IntegralMoney(this.currency, this.number
-				% divisor.longValue());
+		return remainder(divisor.longValue());
 	}
 
 	/*
@@ -386,17 +579,50 @@ public final class IntegralMoney implements MonetaryAmount,
 	 */
 	public IntegralMoney remainder(Number divisor) {
 		checkNumber(divisor);
-		return new IntegralMoney(this.currency, this.number
-				% divisor.longValue());
+		return remainder(divisor.longValue());
 	}
 
-	/*
-	 * (non-Javadoc)
-	 * 
+	private IntegralMoney remainder(long divisor) {
+		return new IntegralMoney(this.currency, this.number % divisor,
+				this.overflowPolicy);
+	}
+
+	/**
+	 * Returns an amount whose numerical value is equal to ({@code this} *
+	 * 10<sup>n</sup>).
+	 * 
+	 * @param n
+	 *            the exponent power of ten to scale by.
+	 * @return the scaled amount.
+	 * @throws ArithmeticException
+	 *             if {@code n} is negative and the result has a fractional
+	 *             part, which an {@link IntegralMoney} can not represent,
+	 *             regardless of the {@link OverflowPolicy}, or if the result
+	 *             exceeds the {@code long} range and the policy is
+	 *             {@link OverflowPolicy#EXCEPTION}.
 	 * @see javax.money.MonetaryAmount#scaleByPowerOfTen(int)
 	 */
-	public IntegralMoney scaleByPowerOfTen(int n) {
-		return new IntegralMoney(this.currency, this.number * (10 ^ n));
+	public MonetaryAmount scaleByPowerOfTen(int n) {
+		if (n >= 0 && n <= 18) {
+			long factor = 1L;
+			for (int i = 0; i < n; i++) {
+				factor *= 10L;
+			}
+			return multiply(factor);
+		}
+		BigDecimal result = BigDecimal.valueOf(this.number)
+				.scaleByPowerOfTen(n);
+		if (n < 0 && result.signum() != 0
+				&& result.stripTrailingZeros().scale() > 0) {
+			throw new ArithmeticException(
+					"Fractional result not representable: " + result);
+		}
+		try {
+			return new IntegralMoney(this.currency, result.longValueExact(),
+					this.overflowPolicy);
+		} catch (ArithmeticException e) {
+			return overflow(result);
+		}
 	}
 
 	/*
@@ -451,7 +677,7 @@ public final class IntegralMoney implements MonetaryAmount,
 	 */
 	@Override
 	public IntegralMoney from(Number number) {
-		return new IntegralMoney(this.currency, number.longValue());
+		return new IntegralMoney(this.currency, number, this.overflowPolicy);
 	}
 	
 	/*
@@ -461,7 +687,7 @@ public final class IntegralMoney implements MonetaryAmount,
 	 */
 	@Override
 	public IntegralMoney from(CurrencyUnit currency, Number number) {
-		return new IntegralMoney(currency, number.longValue());
+		return new IntegralMoney(currency, number, this.overflowPolicy);
 	}
 
 	/*
@@ -798,7 +1024,7 @@ public final class IntegralMoney implements MonetaryAmount,
 	 * @return a {@code Money} combining the numeric value and currency unit.
 	 */
 	public static IntegralMoney of(CurrencyUnit currency, BigDecimal number) {
-		return new IntegralMoney(currency, number);
+		return ofCached(currency, number);
 	}
 
 	/*
@@ -813,6 +1039,24 @@ public final class IntegralMoney implements MonetaryAmount,
 
 	// Internal helper methods
 
+	/**
+	 * Handles the result of an operation, that can not be represented as
+	 * {@code long}, according to the {@link OverflowPolicy} configured.
+	 * 
+	 * @param exactResult
+	 *            the exact result of the operation.
+	 * @return the result as {@link Money}, if the policy is
+	 *         {@link OverflowPolicy#PROMOTE}.
+	 * @throws ArithmeticException
+	 *             if the policy is {@link OverflowPolicy#EXCEPTION}.
+	 */
+	private MonetaryAmount overflow(BigDecimal exactResult) {
+		if (this.overflowPolicy == OverflowPolicy.PROMOTE) {
+			return Money.of(this.currency, exactResult);
+		}
+		throw new ArithmeticException("long overflow: " + exactResult);
+	}
+
 	/**
 	 * Internal method to check for correct number parameter.
 	 * 
@@ -841,11 +1085,7 @@ public final class IntegralMoney implements MonetaryAmount,
 			throw new IllegalArgumentException("Amount must not be null.");
 		}
 		final CurrencyUnit amountCurrency = amount.getCurrency();
-		if (!(this.currency.getNamespace().equals(amountCurrency.getNamespace())) || 
-				(this.currency.getNamespace().equals(amountCurrency.getNamespace()) && !(this.currency
-				.getCurrencyCode().equals(amountCurrency.getCurrencyCode()))
-				)
-			) {
+		if (!CurrencyIndex.isSameCurrency(this.currency, amountCurrency)) {
 			throw new IllegalArgumentException("Currency mismatch: "
 					+ this.currency + '/' + amountCurrency);
 		}
@@ -0,0 +1,395 @@
+/**
+ * CREDIT SUISSE IS WILLING TO LICENSE THIS SPECIFICATION TO YOU ONLY UPON THE CONDITION THAT YOU ACCEPT ALL OF THE TERMS CONTAINED IN THIS AGREEMENT. PLEASE READ THE TERMS AND CONDITIONS OF THIS AGREEMENT CAREFULLY. BY DOWNLOADING THIS SPECIFICATION, YOU ACCEPT THE TERMS AND CONDITIONS OF THE AGREEMENT. IF YOU ARE NOT WILLING TO BE BOUND BY IT, SELECT THE "DECLINE" BUTTON AT THE BOTTOM OF THIS PAGE.
+ *
+ * Specification:  JSR-354  Money and Currency API ("Specification")
+ *
+ * Copyright (c) 2012-2013, Credit Suisse
+ * All rights reserved.
+ */
+package net.java.javamoney.ri.convert;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.money.CurrencyIndex;
+import javax.money.CurrencyUnit;
+import javax.money.convert.ConversionProvider;
+import javax.money.convert.CurrencyConverter;
+import javax.money.convert.ExchangeRate;
+import javax.money.convert.ExchangeRateType;
+
+import net.java.javamoney.ri.convert.provider.DefaultCurrencyConverter;
+
+/**
+ * A {@link ConversionProvider} that caches the rates of another provider.
+ * <p>
+ * Rates are cached by base and term currency and by the UTC day of the
+ * timestamp requested, so all requests within a day share the rate of the
+ * first request, which matches providers publishing daily rates. Requests
+ * without a rate are cached as well, so {@link #isAvailable(CurrencyUnit,
+ * CurrencyUnit)} is answered from the cache. Entries expire after a time to
+ * live, and the least recently used entries are evicted beyond a maximal
+ * size. If the provider is a {@link ReloadableConversionProvider}, the cache
+ * is cleared, whenever the version of its rates increases; otherwise
+ * {@link #clear()} must be called after reloading the provider.
+ * <p>
+ * This class is thread-safe.
+ *
+ * @author Anatole Tresch
+ */
+public class CachingConversionProvider implements ConversionProvider {
+
+	/** The number of milliseconds per day. */
+	private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+	/** The day bucket of requests for the current rates. */
+	private static final long CURRENT = Long.MIN_VALUE;
+	/** The default clock, reading {@link System#currentTimeMillis()}. */
+	static final Clock SYSTEM_CLOCK = new Clock() {
+		@Override
+		public long currentTimeMillis() {
+			return System.currentTimeMillis();
+		}
+	};
+
+	private final ConversionProvider provider;
+	/** The time to live of an entry in milliseconds, 0 for no expiry. */
+	private final long timeToLive;
+	/** The source of the time, when entries are cached and expire. */
+	private final Clock clock;
+	/** The cached rates, in access order. */
+	private final Cache cache;
+	/** The version of the provider's rates cached. */
+	private long ratesVersion;
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+	private final CurrencyConverter currencyConverter = new DefaultCurrencyConverter(
+			this);
+
+	/**
+	 * Creates a new cache.
+	 *
+	 * @param provider
+	 *            the provider, whose rates are cached, not null.
+	 * @param timeToLive
+	 *            the time to live of an entry in milliseconds, or 0, if
+	 *            entries do not expire.
+	 * @param maxSize
+	 *            the maximal number of entries cached, positive.
+	 */
+	public CachingConversionProvider(ConversionProvider provider,
+			long timeToLive, int maxSize) {
+		this(provider, timeToLive, maxSize, SYSTEM_CLOCK);
+	}
+
+	/**
+	 * Creates a new cache.
+	 *
+	 * @param provider
+	 *            the provider, whose rates are cached, not null.
+	 * @param timeToLive
+	 *            the time to live of an entry in milliseconds, or 0, if
+	 *            entries do not expire.
+	 * @param maxSize
+	 *            the maximal number of entries cached, positive.
+	 * @param clock
+	 *            the source of the time, when entries are cached and expire,
+	 *            not null.
+	 */
+	CachingConversionProvider(ConversionProvider provider, long timeToLive,
+			int maxSize, Clock clock) {
+		if (provider == null) {
+			throw new IllegalArgumentException("ConversionProvider required.");
+		}
+		if (timeToLive < 0) {
+			throw new IllegalArgumentException("Invalid time to live: "
+					+ timeToLive);
+		}
+		if (maxSize <= 0) {
+			throw new IllegalArgumentException("Invalid max size: " + maxSize);
+		}
+		if (clock == null) {
+			throw new IllegalArgumentException("Clock required.");
+		}
+		this.provider = provider;
+		this.timeToLive = timeToLive;
+		this.clock = clock;
+		this.cache = new Cache(maxSize);
+		this.ratesVersion = getRatesVersion();
+	}
+
+	/**
+	 * Access the number of requests answered from the cache.
+	 *
+	 * @return the number of hits.
+	 */
+	public long getHitCount() {
+		return this.hitCount.get();
+	}
+
+	/**
+	 * Access the number of requests passed to the provider.
+	 *
+	 * @return the number of misses.
+	 */
+	public long getMissCount() {
+		return this.missCount.get();
+	}
+
+	/**
+	 * Access the number of entries cached, including expired entries not yet
+	 * evicted.
+	 *
+	 * @return the number of entries.
+	 */
+	public int getSize() {
+		synchronized (this.cache) {
+			return this.cache.size();
+		}
+	}
+
+	/**
+	 * Removes all entries, e.g. after the provider was reloaded.
+	 */
+	public void clear() {
+		synchronized (this.cache) {
+			this.cache.clear();
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see javax.money.convert.ConversionProvider#getExchangeRateType()
+	 */
+	@Override
+	public ExchangeRateType getExchangeRateType() {
+		return this.provider.getExchangeRateType();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see javax.money.convert.ConversionProvider#isAvailable(javax.money.
+	 * CurrencyUnit, javax.money.CurrencyUnit)
+	 */
+	@Override
+	public boolean isAvailable(CurrencyUnit base, CurrencyUnit term) {
+		return getExchangeRate(base, term) != null;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see javax.money.convert.ConversionProvider#isAvailable(javax.money.
+	 * CurrencyUnit, javax.money.CurrencyUnit, long)
+	 */
+	@Override
+	public boolean isAvailable(CurrencyUnit base, CurrencyUnit term,
+			long timestamp) {
+		return getExchangeRate(base, term, timestamp) != null;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see javax.money.convert.ConversionProvider#getExchangeRate(javax.money.
+	 * CurrencyUnit, javax.money.CurrencyUnit, long)
+	 */
+	@Override
+	public ExchangeRate getExchangeRate(CurrencyUnit base, CurrencyUnit term,
+			long timestamp) {
+		return getExchangeRateInternal(base, term, Long.valueOf(timestamp));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see javax.money.convert.ConversionProvider#getExchangeRate(javax.money.
+	 * CurrencyUnit, javax.money.CurrencyUnit)
+	 */
+	@Override
+	public ExchangeRate getExchangeRate(CurrencyUnit base, CurrencyUnit term) {
+		return getExchangeRateInternal(base, term, null);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * javax.money.convert.ConversionProvider#getReversed(javax.money.convert
+	 * .ExchangeRate)
+	 */
+	@Override
+	public ExchangeRate getReversed(ExchangeRate rate) {
+		return this.provider.getReversed(rate);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see javax.money.convert.ConversionProvider#getConverter()
+	 */
+	@Override
+	public CurrencyConverter getConverter() {
+		return this.currencyConverter;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "CachingConversionProvider [provider=" + this.provider
+				+ ", size=" + getSize() + ", hits=" + getHitCount()
+				+ ", misses=" + getMissCount() + "]";
+	}
+
+	private ExchangeRate getExchangeRateInternal(CurrencyUnit base,
+			CurrencyUnit term, Long timestamp) {
+		if (base == null || term == null) {
+			throw new IllegalArgumentException("Currencies required.");
+		}
+		Key key = new Key(CurrencyIndex.indexOf(base),
+				CurrencyIndex.indexOf(term), timestamp == null ? CURRENT
+						: dayOf(timestamp.longValue()));
+		long now = this.clock.currentTimeMillis();
+		long version = getRatesVersion();
+		synchronized (this.cache) {
+			// keep the cache for a lower version, read before a reload
+			if (version > this.ratesVersion) {
+				this.cache.clear();
+				this.ratesVersion = version;
+			}
+			CachedRate cached = this.cache.get(key);
+			if (cached != null && !isExpired(cached, now)) {
+				this.hitCount.incrementAndGet();
+				return cached.rate;
+			}
+		}
+		this.missCount.incrementAndGet();
+		ExchangeRate rate = timestamp == null ? this.provider.getExchangeRate(
+				base, term) : this.provider.getExchangeRate(base, term,
+				timestamp.longValue());
+		synchronized (this.cache) {
+			// a reload during the lookup may have made the rate stale
+			if (version == this.ratesVersion) {
+				this.cache.put(key, new CachedRate(rate, now));
+			}
+		}
+		return rate;
+	}
+
+	private boolean isExpired(CachedRate cached, long now) {
+		// compare the age, as the time of expiry may overflow
+		return this.timeToLive != 0 && now - cached.cachedAt >= this.timeToLive;
+	}
+
+	private long getRatesVersion() {
+		if (this.provider instanceof ReloadableConversionProvider) {
+			return ((ReloadableConversionProvider) this.provider)
+					.getRatesVersion();
+		}
+		return 0;
+	}
+
+	/**
+	 * Evaluates the UTC day of a timestamp, rounded towards negative infinity.
+	 */
+	private static long dayOf(long timestamp) {
+		long day = timestamp / MILLIS_PER_DAY;
+		if (timestamp < 0 && day * MILLIS_PER_DAY != timestamp) {
+			day--;
+		}
+		return day;
+	}
+
+	/**
+	 * The key of a cached rate.
+	 */
+	private static final class Key {
+
+		private final int base;
+		private final int term;
+		private final long day;
+
+		Key(int base, int term, long day) {
+			this.base = base;
+			this.term = term;
+			this.day = day;
+		}
+
+		@Override
+		public int hashCode() {
+			int result = 31 * this.base + this.term;
+			return 31 * result + (int) (this.day ^ (this.day >>> 32));
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return this.base == other.base && this.term == other.term
+					&& this.day == other.day;
+		}
+	}
+
+	/**
+	 * A cached rate, which may be null, if no rate is available.
+	 */
+	private static final class CachedRate {
+
+		final ExchangeRate rate;
+		/** The time, when the rate was cached, in milliseconds. */
+		final long cachedAt;
+
+		CachedRate(ExchangeRate rate, long cachedAt) {
+			this.rate = rate;
+			this.cachedAt = cachedAt;
+		}
+	}
+
+	/**
+	 * The source of the time, when entries are cached and expire, e.g.
+	 * {@link System#currentTimeMillis()}.
+	 */
+	interface Clock {
+
+		/**
+		 * Reads the current time.
+		 *
+		 * @return the current time in milliseconds.
+		 */
+		long currentTimeMillis();
+
+	}
+
+	/**
+	 * Map of the cached rates, evicting the least recently used entry beyond
+	 * the maximal size. Access must be synchronized on the instance.
+	 */
+	private static final class Cache extends LinkedHashMap<Key, CachedRate> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int maxSize;
+
+		Cache(int maxSize) {
+			super(16, 0.75f, true);
+			this.maxSize = maxSize;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, CachedRate> eldest) {
+			return size() > this.maxSize;
+		}
+	}
+
+}
@@ -0,0 +1,31 @@
+/**
+ * CREDIT SUISSE IS WILLING TO LICENSE THIS SPECIFICATION TO YOU ONLY UPON THE CONDITION THAT YOU ACCEPT ALL OF THE TERMS CONTAINED IN THIS AGREEMENT. PLEASE READ THE TERMS AND CONDITIONS OF THIS AGREEMENT CAREFULLY. BY DOWNLOADING THIS SPECIFICATION, YOU ACCEPT THE TERMS AND CONDITIONS OF THE AGREEMENT. IF YOU ARE NOT WILLING TO BE BOUND BY IT, SELECT THE "DECLINE" BUTTON AT THE BOTTOM OF THIS PAGE.
+ *
+ * Specification:  JSR-354  Money and Currency API ("Specification")
+ *
+ * Copyright (c) 2012-2013, Credit Suisse
+ * All rights reserved.
+ */
+package net.java.javamoney.ri.convert;
+
+import javax.money.convert.ConversionProvider;
+
+/**
+ * A {@link ConversionProvider} whose rates change, when its data feed is
+ * (re)loaded. Clients holding derived data, such as
+ * {@link CachingConversionProvider}, compare the version of the rates to
+ * detect changes.
+ *
+ * @author Anatole Tresch
+ */
+public interface ReloadableConversionProvider extends ConversionProvider {
+
+	/**
+	 * Access the version of the rates provided, which increases whenever rates
+	 * are loaded or added.
+	 *
+	 * @return the version of the rates.
+	 */
+	public long getRatesVersion();
+
+}
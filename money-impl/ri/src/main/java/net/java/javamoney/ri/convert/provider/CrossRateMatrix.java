@@ -0,0 +1,312 @@
+/*
+ * Copyright (c) 2012, 2013, Credit Suisse (Anatole Tresch), Werner Keil.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * Contributors: Anatole Tresch - initial implementation.
+ */
+package net.java.javamoney.ri.convert.provider;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import javax.money.CurrencyIndex;
+import javax.money.CurrencyUnit;
+import javax.money.convert.ExchangeRate;
+import javax.money.convert.ExchangeRateType;
+
+/**
+ * The exchange rates between all pairs of a set of currencies, triangulated
+ * over a common base currency, e.g. the rates of all ECB currencies derived
+ * from their EUR reference rates.
+ * <p>
+ * Rates are held in an N&times;N array indexed by the position of base and
+ * term currency, which are looked up by {@link CurrencyIndex}. A rate is
+ * created on first access, or for all pairs on creation, if requested, so
+ * subsequent lookups are array reads. The reference rates are either passed
+ * on creation, or created on first access from the factors of a day of
+ * {@link EpochDayRates}, so a lookup only creates the rates it requires.
+ * Rates to the base currency are the reversed reference rates, all other
+ * pairs are derived rates with the chain {@code term -> base, base -> term}.
+ * Instances are thread-safe.
+ *
+ * @author Anatole Tresch
+ */
+final class CrossRateMatrix {
+
+	/** The base currency of the reference rates. */
+	private final CurrencyUnit base;
+	/** The currencies, the base currency at position 0. */
+	private final CurrencyUnit[] currencies;
+	/**
+	 * The reference rates from the base currency, by position, or null, if
+	 * they are created from {@link #referenceFactors}.
+	 */
+	private final ExchangeRate[] referenceRates;
+	/** The factors of the reference rates, by position, or null. */
+	private final double[] referenceFactors;
+	/** The position of each currency plus one, by {@link CurrencyIndex}. */
+	private final int[] positions;
+	/** The rates, by base position * N + term position. */
+	private final AtomicReferenceArray<ExchangeRate> rates;
+	/** The rate type of the rates created. */
+	private final ExchangeRateType rateType;
+	/** The provider of the rates created. */
+	private final String provider;
+	/** The timestamp, from when the rates created are valid, or null. */
+	private final Long validFrom;
+
+	/**
+	 * Creates a new matrix.
+	 *
+	 * @param base
+	 *            the common base currency, not null.
+	 * @param referenceRates
+	 *            the rates from the base currency to the other currencies,
+	 *            not null.
+	 * @param rateType
+	 *            the rate type of the rates created, not null.
+	 * @param provider
+	 *            the provider of the rates created.
+	 * @param validFrom
+	 *            the timestamp, from when the rates created are valid, or
+	 *            null.
+	 * @param precompute
+	 *            if true, all rates are created immediately, otherwise on
+	 *            first access.
+	 */
+	CrossRateMatrix(CurrencyUnit base, ExchangeRate[] referenceRates,
+			ExchangeRateType rateType, String provider, Long validFrom,
+			boolean precompute) {
+		this.base = base;
+		this.rateType = rateType;
+		this.provider = provider;
+		this.validFrom = validFrom;
+		int maxIndex = CurrencyIndex.indexOf(base);
+		for (ExchangeRate rate : referenceRates) {
+			maxIndex = Math.max(maxIndex, CurrencyIndex.indexOf(rate.getTerm()));
+		}
+		CurrencyUnit[] terms = new CurrencyUnit[referenceRates.length + 1];
+		ExchangeRate[] rates = new ExchangeRate[referenceRates.length + 1];
+		int[] positions = new int[maxIndex + 1];
+		terms[0] = base;
+		positions[CurrencyIndex.indexOf(base)] = 1;
+		int size = 1;
+		for (ExchangeRate rate : referenceRates) {
+			int index = CurrencyIndex.indexOf(rate.getTerm());
+			if (positions[index] == 0) {
+				terms[size] = rate.getTerm();
+				positions[index] = ++size;
+			}
+			rates[positions[index] - 1] = rate;
+		}
+		this.currencies = Arrays.copyOf(terms, size);
+		this.referenceRates = Arrays.copyOf(rates, size);
+		this.referenceFactors = null;
+		this.positions = positions;
+		this.rates = new AtomicReferenceArray<ExchangeRate>(size * size);
+		if (precompute) {
+			precompute();
+		}
+	}
+
+	/**
+	 * Creates a new matrix of the rates of a day, creating the reference rates
+	 * on first access.
+	 *
+	 * @param base
+	 *            the common base currency, not null.
+	 * @param rates
+	 *            the factors of the rates from the base currency, not null.
+	 * @param day
+	 *            the epoch day.
+	 * @param rateType
+	 *            the rate type of the rates created, not null.
+	 * @param provider
+	 *            the provider of the rates created.
+	 * @param precompute
+	 *            if true, all rates are created immediately, otherwise on
+	 *            first access.
+	 */
+	CrossRateMatrix(CurrencyUnit base, EpochDayRates rates, int day,
+			ExchangeRateType rateType, String provider, boolean precompute) {
+		this.base = base;
+		this.rateType = rateType;
+		this.provider = provider;
+		this.validFrom = Long.valueOf(EpochDayRates.startOfDay(day));
+		CurrencyUnit[] all = rates.getCurrencies();
+		int maxIndex = CurrencyIndex.indexOf(base);
+		for (CurrencyUnit term : all) {
+			maxIndex = Math.max(maxIndex, CurrencyIndex.indexOf(term));
+		}
+		CurrencyUnit[] terms = new CurrencyUnit[all.length + 1];
+		double[] factors = new double[all.length + 1];
+		int[] positions = new int[maxIndex + 1];
+		terms[0] = base;
+		positions[CurrencyIndex.indexOf(base)] = 1;
+		int size = 1;
+		for (CurrencyUnit term : all) {
+			double factor = rates.getFactor(day, term);
+			int index = CurrencyIndex.indexOf(term);
+			if (!Double.isNaN(factor) && positions[index] == 0) {
+				terms[size] = term;
+				factors[size] = factor;
+				positions[index] = ++size;
+			}
+		}
+		this.currencies = Arrays.copyOf(terms, size);
+		this.referenceRates = null;
+		this.referenceFactors = Arrays.copyOf(factors, size);
+		this.positions = positions;
+		this.rates = new AtomicReferenceArray<ExchangeRate>(size * size);
+		if (precompute) {
+			precompute();
+		}
+	}
+
+	/**
+	 * Creates all rates not yet accessed.
+	 */
+	void precompute() {
+		int size = this.currencies.length;
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < size; j++) {
+				getRate(i, j);
+			}
+		}
+	}
+
+	/**
+	 * Access the rate between two currencies.
+	 *
+	 * @param base
+	 *            the base currency, not null.
+	 * @param term
+	 *            the term currency, not null.
+	 * @return the rate, or null, if one of the currencies is unknown.
+	 */
+	ExchangeRate getRate(CurrencyUnit base, CurrencyUnit term) {
+		int from = positionOf(base);
+		int to = positionOf(term);
+		if (from < 0 || to < 0) {
+			return null;
+		}
+		return getRate(from, to);
+	}
+
+	/**
+	 * Access the timestamp, from when the rates created are valid.
+	 *
+	 * @return the timestamp, or null.
+	 */
+	Long getValidFrom() {
+		return this.validFrom;
+	}
+
+	/**
+	 * Access the number of currencies, including the base currency.
+	 *
+	 * @return the number of currencies.
+	 */
+	int size() {
+		return this.currencies.length;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "CrossRateMatrix [base=" + this.base + ", currencies="
+				+ this.currencies.length + ", validFrom=" + this.validFrom
+				+ "]";
+	}
+
+	/**
+	 * Reverses a rate, keeping its rate type, provider and validity.
+	 *
+	 * @param rate
+	 *            the rate, not null.
+	 * @return the reversed rate.
+	 */
+	static ExchangeRate reverse(ExchangeRate rate) {
+		if (rate == null) {
+			throw new IllegalArgumentException("Rate null is not reversable.");
+		}
+		return new ExchangeRate(rate.getExchangeRateType(), rate.getTerm(),
+				rate.getBase(), BigDecimal.ONE.divide(rate.getFactor(),
+						MathContext.DECIMAL64), rate.getProvider(),
+				rate.getValidFromTimeInMillis(), rate.getValidToTimeInMillis());
+	}
+
+	private int positionOf(CurrencyUnit currency) {
+		int index = CurrencyIndex.indexOf(currency);
+		if (index >= this.positions.length) {
+			return -1;
+		}
+		return this.positions[index] - 1;
+	}
+
+	private ExchangeRate getRate(int from, int to) {
+		int slot = from * this.currencies.length + to;
+		ExchangeRate rate = this.rates.get(slot);
+		if (rate == null) {
+			this.rates.compareAndSet(slot, null, createRate(from, to));
+			rate = this.rates.get(slot);
+		}
+		return rate;
+	}
+
+	private ExchangeRate createReferenceRate(int to) {
+		if (this.referenceRates != null) {
+			return this.referenceRates[to];
+		}
+		ExchangeRate.Builder builder = new ExchangeRate.Builder();
+		builder.setProvider(this.provider);
+		builder.setExchangeRateType(this.rateType);
+		builder.setBase(this.base);
+		builder.setTerm(this.currencies[to]);
+		builder.setValidFrom(this.validFrom);
+		builder.setFactor(BigDecimal.valueOf(this.referenceFactors[to]));
+		return builder.build();
+	}
+
+	private ExchangeRate createRate(int from, int to) {
+		if (from == 0 && to != 0) {
+			return createReferenceRate(to);
+		}
+		if (to == 0 && from != 0) {
+			return reverse(getRate(0, from));
+		}
+		ExchangeRate.Builder builder = new ExchangeRate.Builder();
+		builder.setProvider(this.provider);
+		builder.setExchangeRateType(this.rateType);
+		builder.setBase(this.currencies[from]);
+		builder.setTerm(this.currencies[to]);
+		builder.setValidFrom(this.validFrom);
+		if (from == 0) {
+			builder.setFactor(BigDecimal.ONE);
+			return builder.build();
+		}
+		ExchangeRate toBase = getRate(from, 0);
+		ExchangeRate fromBase = getRate(0, to);
+		builder.setFactor(toBase.getFactor().multiply(fromBase.getFactor()));
+		builder.setExchangeRateChain(toBase, fromBase);
+		return builder.build();
+	}
+
+}
@@ -20,28 +20,32 @@ package net.java.javamoney.ri.convert.provider;
 import static net.java.javamoney.ri.convert.provider.EZBConversionProvider.DataFeed.DAILY;
 import static net.java.javamoney.ri.convert.provider.EZBConversionProvider.DataFeed.LAST_90_DAYS;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
-import java.math.MathContext;
-import java.net.URL;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
-import java.util.Calendar;
+import java.util.ArrayList;
 import java.util.Date;
-import java.util.GregorianCalendar;
-import java.util.Map;
+import java.util.List;
 import java.util.TimeZone;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import javax.inject.Singleton;
 import javax.money.CurrencyUnit;
 import javax.money.MoneyCurrency;
-import javax.money.convert.ConversionProvider;
 import javax.money.convert.CurrencyConverter;
 import javax.money.convert.ExchangeRate;
 import javax.money.convert.ExchangeRateType;
+import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
 
+import net.java.javamoney.ri.convert.ReloadableConversionProvider;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.xml.sax.Attributes;
@@ -59,7 +63,8 @@ import org.xml.sax.helpers.DefaultHandler;
  * @author Werner Keil
  */
 @Singleton
-public class EZBConversionProvider implements ConversionProvider {
+public final class EZBConversionProvider implements
+		ReloadableConversionProvider {
 
 	/**
 	 * Statistics data feeds provided by the European Central Bank
@@ -98,18 +103,22 @@ public class EZBConversionProvider implements ConversionProvider {
 		}
 	}
 
-	private static final String BASE_CURRENCY_CODE = "EUR";
+	private static final String PROVIDER_NAME = "European Central Bank";
 	/** Base currency of the loaded rates is always EUR. */
-	public static final CurrencyUnit BASE_CURRENCY = MoneyCurrency
-			.of(BASE_CURRENCY_CODE);
+	public static final CurrencyUnit BASE_CURRENCY = MoneyCurrency.of("EUR");
 	/** The logger used. */
 	private static final Logger LOGGER = LoggerFactory
 			.getLogger(EZBConversionProvider.class);
 
-	/** Historic exchange rates, rate timestamp as UTC long. */
-	private Map<Long, Map<String, ExchangeRate>> historicRates = new ConcurrentHashMap<Long, Map<String, ExchangeRate>>();
-	/** Current exchange rates. */
-	private Map<String, ExchangeRate> currentRates = new ConcurrentHashMap<String, ExchangeRate>();
+	/** Historic exchange rates, by UTC day, replaced on each load. */
+	private volatile HistoricRates historicRates = new HistoricRates(
+			EpochDayRates.EMPTY);
+	/** Current exchange rates and their cross rates, null, until loaded. */
+	private volatile CrossRateMatrix currentRates;
+	/** Flag, if all cross rates of a day are created at once. */
+	private volatile boolean precomputeCrossRates;
+	/** The version of the rates, incremented whenever rates are added. */
+	private final AtomicLong ratesVersion = new AtomicLong();
 	/** Parser factory. */
 	private SAXParserFactory saxParserFactory = SAXParserFactory.newInstance();
 	/** The {@link ExchangeRateType} of this provider. */
@@ -119,35 +128,141 @@ public class EZBConversionProvider implements ConversionProvider {
 	private CurrencyConverter currencyConverter = new DefaultCurrencyConverter(
 			this);
 
+	/** The source of the data feeds. */
+	private final RateLoading.Source source;
+	/** The loading of the initial data, started by the constructor. */
+	private final Future<Void> initialLoading;
+
 	/**
-	 * Constructor, also loads initial data.
+	 * Constructor, also starts loading initial data in the background.
 	 */
 	public EZBConversionProvider() {
+		this(RateLoading.URL_SOURCE);
+	}
+
+	/**
+	 * Constructor, also starts loading initial data from the given source in
+	 * the background.
+	 * 
+	 * @param source
+	 *            the source of the data feeds, not null.
+	 */
+	EZBConversionProvider(RateLoading.Source source) {
+		this.source = source;
 		saxParserFactory.setNamespaceAware(false);
 		saxParserFactory.setValidating(false);
-		loadRates(DAILY);
-		loadRates(LAST_90_DAYS);
+		this.initialLoading = loadRatesAsync(DAILY, LAST_90_DAYS);
+	}
+
+	/**
+	 * Access the loading of the initial data, e.g. to wait until rates are
+	 * available. If loading fails, the error is logged and the future
+	 * completes exceptionally.
+	 * 
+	 * @return the future completed, when the initial data feeds were loaded.
+	 */
+	public Future<Void> getInitialLoading() {
+		return this.initialLoading;
+	}
+
+	/**
+	 * (Re)load the given data feeds in the background, one after another. The
+	 * rates loaded before are provided, until a feed was loaded completely.
+	 * 
+	 * @param feeds
+	 *            the data feeds.
+	 * @return the future completed, when all feeds were loaded, or completed
+	 *         exceptionally with the error of the first feed failed, after
+	 *         the remaining feeds were loaded.
+	 */
+	public Future<Void> loadRatesAsync(final DataFeed... feeds) {
+		return RateLoading.start(getClass().getSimpleName(),
+				new Callable<Void>() {
+					@Override
+					public Void call() throws IOException {
+						// each feed is loaded, even if a feed before failed
+						IOException error = null;
+						for (DataFeed feed : feeds) {
+							try {
+								loadRates(feed);
+							} catch (IOException e) {
+								LOGGER.warn("Failed to load " + feed
+										+ " exchange rates.", e);
+								if (error == null) {
+									error = e;
+								} else {
+									error.addSuppressed(e);
+								}
+							}
+						}
+						if (error != null) {
+							throw error;
+						}
+						return null;
+					}
+				});
 	}
 
 	/**
-	 * (Re)load the given data feed.
+	 * (Re)load the given data feed. The rates read are published at once,
+	 * after the feed was read completely; on errors the rates loaded before
+	 * are kept.
+	 * 
+	 * @param feed
+	 *            the data feed, not null.
+	 * @throws IOException
+	 *             if the feed cannot be read.
 	 */
-	public void loadRates(DataFeed feed) {
-		final int oldSize = (feed.isHistoric() ? this.historicRates.size()
-				: this.currentRates.size());
-		try {
-			URL url = new URL(feed.getUrl());
+	public void loadRates(DataFeed feed) throws IOException {
+		final int oldSize = (feed.isHistoric() ? this.historicRates.rates
+				.getDayCount() : getCurrentRateCount());
+		RateReadingHandler handler = new RateReadingHandler(
+				!feed.isHistoric());
+		try (InputStream in = this.source.open(feed.getUrl())) {
 			SAXParser parser = saxParserFactory.newSAXParser();
-			parser.parse(url.openStream(), new RateReadingHandler(true));
-		} catch (Exception e) {
-			LOGGER.debug("Error", e);
+			parser.parse(in, handler);
+		} catch (SAXException | ParserConfigurationException e) {
+			throw new IOException("Failed to read " + feed + ".", e);
+		}
+		if (feed.isHistoric()) {
+			addHistoricRates(handler.historicRates.build());
+		} else if (!handler.currentRates.isEmpty()) {
+			setCurrentRates(handler.currentRates);
 		}
-		int newSize = (feed.isHistoric() ? this.historicRates.size()
-				: this.currentRates.size());
+		int newSize = (feed.isHistoric() ? this.historicRates.rates
+				.getDayCount() : getCurrentRateCount());
 		LOGGER.info("Loaded " + feed.toString() + " exchange rates for days:"
 				+ (newSize - oldSize));
 	}
 
+	/**
+	 * Defines, if all cross rates of a day are created, when the rates of the
+	 * day are loaded or accessed first, instead of creating each rate on its
+	 * first access. This applies to the current rates and to the historic
+	 * rates of days accessed after this call.
+	 * 
+	 * @param precompute
+	 *            true, to create all cross rates of a day at once.
+	 */
+	public void setPrecomputeCrossRates(boolean precompute) {
+		this.precomputeCrossRates = precompute;
+		CrossRateMatrix current = this.currentRates;
+		if (precompute && current != null) {
+			current.precompute();
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.java.javamoney.ri.convert.ReloadableConversionProvider#
+	 * getRatesVersion()
+	 */
+	@Override
+	public long getRatesVersion() {
+		return this.ratesVersion.get();
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -166,82 +281,26 @@ public class EZBConversionProvider implements ConversionProvider {
 				|| !MoneyCurrency.ISO_NAMESPACE.equals(term.getNamespace())) {
 			return null;
 		}
-		ExchangeRate.Builder builder = new ExchangeRate.Builder();
-		builder.setProvider("European Central Bank");
-		builder.setExchangeRateType(RATE_TYPE);
-		builder.setBase(base);
-		builder.setTerm(term);
-		ExchangeRate sourceRate = null;
-		ExchangeRate targetRate = null;
+		CrossRateMatrix crossRates;
 		if (timestamp == null) {
-			if (currentRates.isEmpty()) {
+			crossRates = this.currentRates;
+			if (crossRates == null) {
 				return null;
 			}
-			sourceRate = currentRates.get(base.getCurrencyCode());
-			targetRate = currentRates.get(term.getCurrencyCode());
 		} else {
-			if (historicRates.isEmpty()) {
+			crossRates = this.historicRates.getCrossRates(
+					EpochDayRates.epochDay(timestamp.longValue()),
+					this.precomputeCrossRates);
+			if (crossRates == null) {
 				return null;
 			}
-			final Calendar cal = new GregorianCalendar(
-					TimeZone.getTimeZone("UTC"));
-			if (timestamp != null) {
-				cal.setTimeInMillis(timestamp);
-			}
-			cal.set(Calendar.HOUR, 0);
-			cal.set(Calendar.MINUTE, 0);
-			cal.set(Calendar.SECOND, 0);
-			cal.set(Calendar.MILLISECOND, 0);
-			Long targetTS = Long.valueOf(cal.getTimeInMillis());
-			builder.setValidFrom(targetTS);
-			Map<String, ExchangeRate> targetRates = this.historicRates
-					.get(targetTS);
-			if (targetRates == null) {
-				return null;
-			}
-			sourceRate = targetRates.get(base.getCurrencyCode());
-			targetRate = targetRates.get(term.getCurrencyCode());
-		}
-		if (BASE_CURRENCY_CODE.equals(base.getCurrencyCode())
-				&& BASE_CURRENCY_CODE.equals(term.getCurrencyCode())) {
-			builder.setFactor(BigDecimal.ONE);
-			return builder.build();
-		} else if (BASE_CURRENCY_CODE.equals(term.getCurrencyCode())) {
-			if (sourceRate == null) {
-				return null;
-			}
-			return reverse(sourceRate);
-		} else if (BASE_CURRENCY_CODE.equals(base.getCurrencyCode())) {
-			return targetRate;
-		} else {
-			// Get Conversion base as derived rate: base -> EUR -> term
-			ExchangeRate rate1 = getExchangeRateInternal(base,
-						MoneyCurrency.of(BASE_CURRENCY_CODE), timestamp);
-			ExchangeRate rate2  = getExchangeRateInternal(MoneyCurrency.of(BASE_CURRENCY_CODE),
-						term,
-						timestamp);
-			if (rate1 != null || rate2 != null) {
-				builder.setFactor(rate1.getFactor().multiply(rate2.getFactor()));
-				builder.setExchangeRateChain(rate1, rate2);
-				return builder.build();
-			}
-			return null;
-			// sourceRate = reverse(sourceRate);
-			// builder.setExchangeRateChain(sourceRate, targetRate);
-			// builder.setSourceLeadingFactor(sourceRate.getFactor().doubleValue()
-			// * targetRate.getFactor().doubleValue());
-			// return builder.build();
 		}
+		return crossRates.getRate(base, term);
 	}
 
-	private static ExchangeRate reverse(ExchangeRate rate) {
-		if (rate == null) {
-			throw new IllegalArgumentException("Rate null is not reversable.");
-		}
-		return new ExchangeRate(rate.getExchangeRateType(), rate.getTerm(),
-				rate.getBase(), BigDecimal.ONE.divide(rate.getFactor(),
-						MathContext.DECIMAL64), rate.getProvider(),
-				rate.getValidFromTimeInMillis(), rate.getValidToTimeInMillis());
+	private int getCurrentRateCount() {
+		CrossRateMatrix current = this.currentRates;
+		return current == null ? 0 : current.size() - 1;
 	}
 
 	/**
@@ -269,6 +328,10 @@ public class EZBConversionProvider implements ConversionProvider {
 		private Long timestamp;
 		/** Flag, if current or historic data is loaded. */
 		private boolean loadCurrent;
+		/** The current rates read. */
+		final List<ExchangeRate> currentRates = new ArrayList<ExchangeRate>();
+		/** The historic rates read. */
+		final EpochDayRates.Builder historicRates = new EpochDayRates.Builder();
 
 		/**
 		 * Creates a new parser.
@@ -301,11 +364,16 @@ public class EZBConversionProvider implements ConversionProvider {
 						// read data <Cube currency="USD" rate="1.3349"/>
 						CurrencyUnit tgtCurrency = MoneyCurrency.of(attributes
 								.getValue("currency"));
-						addRate(tgtCurrency, timestamp,
-								BigDecimal.valueOf(Double
-										.parseDouble(attributes
-												.getValue("rate"))),
-								loadCurrent);
+						double rate = Double.parseDouble(attributes
+								.getValue("rate"));
+						if (loadCurrent) {
+							currentRates.add(createRate(tgtCurrency,
+									timestamp, BigDecimal.valueOf(rate)));
+						} else {
+							historicRates.put(EpochDayRates
+									.epochDay(timestamp.longValue()),
+									tgtCurrency, rate);
+						}
 					}
 				}
 				super.startElement(uri, localName, qName, attributes);
@@ -317,42 +385,90 @@ public class EZBConversionProvider implements ConversionProvider {
 	}
 
 	/**
-	 * Method to add a currency exchange rate.
+	 * Method to replace the current currency exchange rates.
 	 * 
-	 * @param term
-	 *            the term (target) currency, mapped from EUR.
-	 * @param timestamp
-	 *            The target day.
-	 * @param rate
-	 *            The rate.
-	 * @param loadCurrent
-	 *            Flag, if current or historic data is loaded.
+	 * @param rates
+	 *            the rates, mapped from EUR.
 	 */
-	void addRate(CurrencyUnit term, Long timestamp, BigDecimal rate,
-			boolean loadCurrent) {
+	void setCurrentRates(List<ExchangeRate> rates) {
+		this.currentRates = new CrossRateMatrix(BASE_CURRENCY,
+				rates.toArray(new ExchangeRate[rates.size()]), RATE_TYPE,
+				PROVIDER_NAME, null, this.precomputeCrossRates);
+		this.ratesVersion.incrementAndGet();
+	}
+
+	/**
+	 * Method to add historic currency exchange rates, replacing the rates of
+	 * the same currencies and days.
+	 * 
+	 * @param rates
+	 *            the rates, mapped from EUR.
+	 */
+	void addHistoricRates(EpochDayRates rates) {
+		synchronized (this) {
+			this.historicRates = new HistoricRates(new EpochDayRates.Builder(
+					this.historicRates.rates).putAll(rates).build());
+			this.ratesVersion.incrementAndGet();
+		}
+	}
+
+	private static ExchangeRate createRate(CurrencyUnit term, Long timestamp,
+			BigDecimal rate) {
 		ExchangeRate.Builder builder = new ExchangeRate.Builder();
 		builder.setBase(BASE_CURRENCY);
 		builder.setTerm(term);
 		builder.setValidFrom(timestamp);
-		builder.setProvider("European Central Bank");
+		builder.setProvider(PROVIDER_NAME);
 		builder.setFactor(rate);
 		builder.setExchangeRateType(RATE_TYPE);
-		ExchangeRate exchangeRate = builder.build();
-		if (loadCurrent) {
-			this.currentRates.put(term.getCurrencyCode(), exchangeRate);
-		} else {
-			Map<String, ExchangeRate> rateMap = this.historicRates
-					.get(timestamp);
-			if (rateMap == null) {
-				synchronized (this.historicRates) {
-					rateMap = this.historicRates.get(timestamp);
-					if (rateMap == null) {
-						rateMap = new ConcurrentHashMap<String, ExchangeRate>();
-						this.historicRates.put(timestamp, rateMap);
-					}
-				}
+		return builder.build();
+	}
+
+	/**
+	 * The historic rates together with their cross rates, which are evaluated
+	 * per day on first access. The cross rates of at most
+	 * {@link #CACHED_DAYS} days are kept, a day evicting the day cached in the
+	 * same slot, so a run over the whole history does not keep the rates of
+	 * all days.
+	 */
+	private static final class HistoricRates {
+
+		/** The number of days, whose cross rates are cached, a power of 2. */
+		private static final int CACHED_DAYS = 128;
+
+		/** The rate factors. */
+		final EpochDayRates rates;
+		/** The cross rates, by day modulo {@link #CACHED_DAYS}, or null. */
+		private final AtomicReferenceArray<CrossRateMatrix> crossRates;
+
+		HistoricRates(EpochDayRates rates) {
+			this.rates = rates;
+			this.crossRates = new AtomicReferenceArray<CrossRateMatrix>(
+					CACHED_DAYS);
+		}
+
+		/**
+		 * Access the cross rates of a day.
+		 * 
+		 * @return the cross rates, or null, if no rates are stored for the
+		 *         day.
+		 */
+		CrossRateMatrix getCrossRates(int day, boolean precompute) {
+			if (!this.rates.containsDay(day)) {
+				return null;
+			}
+			int slot = day & (CACHED_DAYS - 1);
+			long validFrom = EpochDayRates.startOfDay(day);
+			CrossRateMatrix result = this.crossRates.get(slot);
+			if (result == null
+					|| result.getValidFrom().longValue() != validFrom) {
+				// a concurrent lookup may replace it, which only costs a
+				// second evaluation
+				result = new CrossRateMatrix(BASE_CURRENCY, this.rates, day,
+						RATE_TYPE, PROVIDER_NAME, precompute);
+				this.crossRates.set(slot, result);
 			}
-			rateMap.put(term.getCurrencyCode(), exchangeRate);
+			return result;
 		}
 	}
 
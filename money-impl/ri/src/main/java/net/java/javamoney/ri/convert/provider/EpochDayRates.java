@@ -0,0 +1,333 @@
+/*
+ * Copyright (c) 2012, 2013, Credit Suisse (Anatole Tresch), Werner Keil.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * Contributors: Anatole Tresch - initial implementation.
+ */
+package net.java.javamoney.ri.convert.provider;
+
+import java.util.Arrays;
+
+import javax.money.CurrencyIndex;
+import javax.money.CurrencyUnit;
+
+/**
+ * Immutable store of daily exchange rate factors of a single base currency,
+ * e.g. the historic reference rates of the European Central Bank.
+ * <p>
+ * Factors are held in one {@code double} array per term currency, indexed by
+ * the number of days since the first day stored; currencies are mapped to
+ * their array by {@link CurrencyIndex}. Looking up a factor therefore takes
+ * constant time and allocates nothing. New data is added by creating a new
+ * store with a {@link Builder}, so readers never see a partially loaded
+ * store.
+ *
+ * @author Anatole Tresch
+ */
+final class EpochDayRates {
+
+	/** The store without rates. */
+	static final EpochDayRates EMPTY = new Builder().build();
+
+	/** The number of milliseconds per day. */
+	private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
+	/** The epoch day of the first day stored. */
+	private final int firstDay;
+	/** Flags, if rates are stored for a day, by day offset. */
+	private final boolean[] days;
+	/** The number of days with rates. */
+	private final int dayCount;
+	/** The column of each currency plus one, by {@link CurrencyIndex}. */
+	private final int[] columns;
+	/** The currencies, by column. */
+	private final CurrencyUnit[] currencies;
+	/** The factors, by column and day offset, {@link Double#NaN} if absent. */
+	private final double[][] factors;
+
+	private EpochDayRates(int firstDay, boolean[] days, int[] columns,
+			CurrencyUnit[] currencies, double[][] factors) {
+		this.firstDay = firstDay;
+		this.days = days;
+		this.columns = columns;
+		this.currencies = currencies;
+		this.factors = factors;
+		int count = 0;
+		for (boolean day : days) {
+			if (day) {
+				count++;
+			}
+		}
+		this.dayCount = count;
+	}
+
+	/**
+	 * Evaluates the epoch day of a UTC timestamp.
+	 *
+	 * @param timestamp
+	 *            the timestamp, in milliseconds since the epoch.
+	 * @return the number of days since 1970-01-01, rounded towards negative
+	 *         infinity.
+	 */
+	static int epochDay(long timestamp) {
+		long day = timestamp / MILLIS_PER_DAY;
+		if (timestamp < 0 && day * MILLIS_PER_DAY != timestamp) {
+			day--;
+		}
+		return (int) day;
+	}
+
+	/**
+	 * Evaluates the UTC timestamp of the start of an epoch day.
+	 *
+	 * @param epochDay
+	 *            the number of days since 1970-01-01.
+	 * @return the timestamp, in milliseconds since the epoch.
+	 */
+	static long startOfDay(int epochDay) {
+		return epochDay * MILLIS_PER_DAY;
+	}
+
+	/**
+	 * Checks if rates are stored for the given day.
+	 *
+	 * @param epochDay
+	 *            the epoch day.
+	 * @return true, if at least one rate is stored for the day.
+	 */
+	boolean containsDay(int epochDay) {
+		long offset = (long) epochDay - this.firstDay;
+		return offset >= 0 && offset < this.days.length
+				&& this.days[(int) offset];
+	}
+
+	/**
+	 * Access the factor of a term currency on the given day.
+	 *
+	 * @param epochDay
+	 *            the epoch day.
+	 * @param term
+	 *            the term currency, not null.
+	 * @return the factor, or {@link Double#NaN}, if no rate is stored.
+	 */
+	double getFactor(int epochDay, CurrencyUnit term) {
+		long offset = (long) epochDay - this.firstDay;
+		if (offset < 0 || offset >= this.days.length) {
+			return Double.NaN;
+		}
+		int index = CurrencyIndex.indexOf(term);
+		if (index >= this.columns.length || this.columns[index] == 0) {
+			return Double.NaN;
+		}
+		return this.factors[this.columns[index] - 1][(int) offset];
+	}
+
+	/**
+	 * Access the number of days, for which rates are stored.
+	 *
+	 * @return the number of days.
+	 */
+	int getDayCount() {
+		return this.dayCount;
+	}
+
+	/**
+	 * Access the currencies, for which rates are stored.
+	 *
+	 * @return the currencies, on any day.
+	 */
+	CurrencyUnit[] getCurrencies() {
+		return this.currencies.clone();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "EpochDayRates [days=" + this.dayCount + ", currencies="
+				+ this.currencies.length + "]";
+	}
+
+	/**
+	 * Collects rates for a new {@link EpochDayRates} instance. This class is
+	 * not thread-safe.
+	 */
+	static final class Builder {
+
+		/** The initial number of days allocated. */
+		private static final int INITIAL_DAYS = 128;
+
+		private int firstDay;
+		private boolean[] days = new boolean[0];
+		private int[] columns = new int[0];
+		private CurrencyUnit[] currencies = new CurrencyUnit[0];
+		private double[][] factors = new double[0][];
+
+		/**
+		 * Creates an empty builder.
+		 */
+		Builder() {
+		}
+
+		/**
+		 * Creates a builder containing the rates of the given store.
+		 *
+		 * @param rates
+		 *            the rates, not null.
+		 */
+		Builder(EpochDayRates rates) {
+			this.firstDay = rates.firstDay;
+			this.days = rates.days.clone();
+			this.columns = rates.columns.clone();
+			this.currencies = rates.currencies.clone();
+			this.factors = new double[rates.factors.length][];
+			for (int i = 0; i < this.factors.length; i++) {
+				this.factors[i] = rates.factors[i].clone();
+			}
+		}
+
+		/**
+		 * Adds a rate, replacing the rate of the same currency and day.
+		 *
+		 * @param epochDay
+		 *            the epoch day.
+		 * @param term
+		 *            the term currency, not null.
+		 * @param factor
+		 *            the factor.
+		 * @return this builder, for chaining.
+		 */
+		Builder put(int epochDay, CurrencyUnit term, double factor) {
+			if (term == null) {
+				throw new IllegalArgumentException("Currency required.");
+			}
+			int offset = ensureDay(epochDay);
+			int column = columnOf(term);
+			this.days[offset] = true;
+			this.factors[column][offset] = factor;
+			return this;
+		}
+
+		/**
+		 * Adds all rates of the given store, replacing the rates of the same
+		 * currencies and days.
+		 *
+		 * @param rates
+		 *            the rates, not null.
+		 * @return this builder, for chaining.
+		 */
+		Builder putAll(EpochDayRates rates) {
+			for (int c = 0; c < rates.currencies.length; c++) {
+				double[] column = rates.factors[c];
+				for (int d = 0; d < column.length; d++) {
+					if (!Double.isNaN(column[d])) {
+						put(rates.firstDay + d, rates.currencies[c], column[d]);
+					}
+				}
+			}
+			return this;
+		}
+
+		/**
+		 * Creates the store, trimmed to the days with rates.
+		 *
+		 * @return the new store.
+		 */
+		EpochDayRates build() {
+			int from = 0;
+			int to = this.days.length;
+			while (from < to && !this.days[from]) {
+				from++;
+			}
+			while (to > from && !this.days[to - 1]) {
+				to--;
+			}
+			double[][] trimmed = new double[this.factors.length][];
+			for (int i = 0; i < trimmed.length; i++) {
+				trimmed[i] = Arrays.copyOfRange(this.factors[i], from, to);
+			}
+			return new EpochDayRates(this.firstDay + from, Arrays.copyOfRange(
+					this.days, from, to), this.columns.clone(),
+					this.currencies.clone(), trimmed);
+		}
+
+		/**
+		 * Evaluates the column of a currency, adding it, if required.
+		 */
+		private int columnOf(CurrencyUnit currency) {
+			int index = CurrencyIndex.indexOf(currency);
+			if (index >= this.columns.length) {
+				this.columns = Arrays.copyOf(this.columns,
+						Math.max(index + 1, this.columns.length * 2));
+			}
+			if (this.columns[index] == 0) {
+				int column = this.currencies.length;
+				this.currencies = Arrays.copyOf(this.currencies, column + 1);
+				this.currencies[column] = currency;
+				this.factors = Arrays.copyOf(this.factors, column + 1);
+				this.factors[column] = newColumn(this.days.length);
+				this.columns[index] = column + 1;
+			}
+			return this.columns[index] - 1;
+		}
+
+		/**
+		 * Evaluates the offset of a day, growing the arrays, if required.
+		 */
+		private int ensureDay(int epochDay) {
+			if (this.days.length == 0) {
+				this.firstDay = epochDay;
+				resize(0, INITIAL_DAYS);
+				return 0;
+			}
+			long offset = (long) epochDay - this.firstDay;
+			if (offset < 0) {
+				int shift = (int) Math.max(-offset, this.days.length);
+				resize(shift, this.days.length + shift);
+				this.firstDay -= shift;
+				return epochDay - this.firstDay;
+			}
+			if (offset >= this.days.length) {
+				resize(0, (int) Math.max(offset + 1, this.days.length * 2L));
+			}
+			return (int) offset;
+		}
+
+		/**
+		 * Reallocates the day arrays, moving the existing days by the given
+		 * shift.
+		 */
+		private void resize(int shift, int length) {
+			boolean[] newDays = new boolean[length];
+			System.arraycopy(this.days, 0, newDays, shift, this.days.length);
+			for (int i = 0; i < this.factors.length; i++) {
+				double[] column = newColumn(length);
+				System.arraycopy(this.factors[i], 0, column, shift,
+						this.factors[i].length);
+				this.factors[i] = column;
+			}
+			this.days = newDays;
+		}
+
+		private static double[] newColumn(int length) {
+			double[] column = new double[length];
+			Arrays.fill(column, Double.NaN);
+			return column;
+		}
+	}
+
+}
@@ -21,21 +21,23 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.net.URL;
 import java.text.DecimalFormat;
 import java.text.NumberFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Currency;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.inject.Singleton;
+import javax.money.CurrencyMap;
 import javax.money.CurrencyUnit;
 import javax.money.MoneyCurrency;
 import javax.money.convert.ConversionProvider;
@@ -43,6 +45,8 @@ import javax.money.convert.CurrencyConverter;
 import javax.money.convert.ExchangeRate;
 import javax.money.convert.ExchangeRateType;
 
+import net.java.javamoney.ri.convert.ReloadableConversionProvider;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -55,7 +59,8 @@ import org.slf4j.LoggerFactory;
  * @author Werner Keil
  */
 @Singleton
-public class IMFConversionProvider implements ConversionProvider {
+public final class IMFConversionProvider implements
+		ReloadableConversionProvider {
     private static final String PROP_FILE = "/currencyprovider.properties";
     private final Properties prop = new Properties();
     private final String providerUrl;
@@ -71,9 +76,21 @@ public class IMFConversionProvider implements ConversionProvider {
 			.setVirtual(false).setDefaultFractionDigits(3).setNumericCode(-1)
 			.build(true);
 
-	private Map<CurrencyUnit, List<ExchangeRate>> currencyToSdr = new HashMap<CurrencyUnit, List<ExchangeRate>>();
+	/** The rates loaded, replaced on each load. */
+	private volatile Rates rates = new Rates(
+			new CurrencyMap<RateIntervals>(), new CurrencyMap<RateIntervals>());
+
+	/**
+	 * The maximal number of milliseconds a rate may have expired, when it is
+	 * returned for a timestamp without a valid rate.
+	 */
+	private volatile long maxFallbackAge = Long.MAX_VALUE;
 
-	private Map<CurrencyUnit, List<ExchangeRate>> sdrToCurrency = new HashMap<CurrencyUnit, List<ExchangeRate>>();
+	/**
+	 * The version of the rates, incremented whenever rates are loaded or the
+	 * {@link #setMaxFallbackAge(long) fallback} changes.
+	 */
+	private final AtomicLong ratesVersion = new AtomicLong();
 
 	private static Map<String, CurrencyUnit> currenciesByName = new HashMap<String, CurrencyUnit>();
 
@@ -106,7 +123,24 @@ public class IMFConversionProvider implements ConversionProvider {
 	private CurrencyConverter currencyConverter = new DefaultCurrencyConverter(
 			this);
 
+	/** The source of the data feed. */
+	private final RateLoading.Source source;
+	/** The loading of the initial data, started by the constructor. */
+	private final Future<Void> initialLoading;
+
 	public IMFConversionProvider() {
+		this(RateLoading.URL_SOURCE);
+	}
+
+	/**
+	 * Constructor, also starts loading initial data from the given source in
+	 * the background.
+	 * 
+	 * @param source
+	 *            the source of the data feed, not null.
+	 */
+	IMFConversionProvider(RateLoading.Source source) {
+		this.source = source;
 		try (InputStream in = getClass().getResourceAsStream(PROP_FILE)) {
 			prop.load(in);
 			//providerUrl = prop.getProperty("");
@@ -116,32 +150,63 @@ public class IMFConversionProvider implements ConversionProvider {
 		} finally {
 			providerUrl = prop !=null ? prop.getProperty(getClass().getSimpleName() + ".url") : "";
 		}
-		loadRates();
+		this.initialLoading = loadRatesAsync();
 	}
 
-	public void loadRates() {
-		InputStream is = null;
-		try {
-			URL url = new URL(providerUrl);
-			is = url.openStream();
-			loadRatesTSV(is);
-		} catch (Exception e) {
-			LOGGER.error("Error", e);
-		} finally {
-			if (is != null) {
-				try {
-					is.close();
-				} catch (IOException e) {
-					LOGGER.warn("Error closing input stream.", e);
-				}
-			}
+	/**
+	 * Access the loading of the initial data, e.g. to wait until rates are
+	 * available. If loading fails, the error is logged and the future
+	 * completes exceptionally.
+	 * 
+	 * @return the future completed, when the initial data was loaded.
+	 */
+	public Future<Void> getInitialLoading() {
+		return this.initialLoading;
+	}
+
+	/**
+	 * (Re)load the rates in the background. The rates loaded before are
+	 * provided, until the data was loaded completely.
+	 * 
+	 * @return the future completed, when the rates were loaded, or completed
+	 *         exceptionally, if loading failed.
+	 */
+	public Future<Void> loadRatesAsync() {
+		return RateLoading.start(getClass().getSimpleName(),
+				new Callable<Void>() {
+					@Override
+					public Void call() throws IOException {
+						try {
+							loadRates();
+						} catch (IOException e) {
+							LOGGER.warn("Failed to load exchange rates from "
+									+ providerUrl + ".", e);
+							throw e;
+						}
+						return null;
+					}
+				});
+	}
+
+	/**
+	 * (Re)load the rates. The rates read are published at once, after the
+	 * data was read completely; on errors the rates loaded before are kept.
+	 * 
+	 * @throws IOException
+	 *             if the data cannot be read.
+	 */
+	public void loadRates() throws IOException {
+		try (InputStream in = this.source.open(providerUrl)) {
+			loadRatesTSV(in);
+		} catch (ParseException e) {
+			throw new IOException("Failed to read " + providerUrl + ".", e);
 		}
 	}
 
 	private void loadRatesTSV(InputStream inputStream) throws IOException,
 			ParseException {
-		Map<CurrencyUnit, List<ExchangeRate>> newCurrencyToSdr = new HashMap<CurrencyUnit, List<ExchangeRate>>();
-		Map<CurrencyUnit, List<ExchangeRate>> newSdrToCurrency = new HashMap<CurrencyUnit, List<ExchangeRate>>();
+		Map<CurrencyUnit, List<ExchangeRate>> newCurrencyToSdr = new CurrencyMap<List<ExchangeRate>>();
+		Map<CurrencyUnit, List<ExchangeRate>> newSdrToCurrency = new CurrencyMap<List<ExchangeRate>>();
 		NumberFormat f = new DecimalFormat("#0.0000000000");
 		f.setGroupingUsed(false);
 		BufferedReader pr = new BufferedReader(new InputStreamReader(
@@ -195,7 +260,7 @@ public class IMFConversionProvider implements ConversionProvider {
 				Long fromTS = timestamps.get(i);
 				Long toTS = fromTS + 3600L * 1000L * 24L; // One day
 				if (currencyToSdr) { // Currency -> SDR
-					List<ExchangeRate> rates = this.currencyToSdr.get(currency);
+					List<ExchangeRate> rates = newCurrencyToSdr.get(currency);
 					if (rates == null) {
 						rates = new ArrayList<ExchangeRate>(5);
 						newCurrencyToSdr.put(currency, rates);
@@ -204,7 +269,7 @@ public class IMFConversionProvider implements ConversionProvider {
 							SDR, values[i], providerUrl, fromTS, toTS);
 					rates.add(rate);
 				} else { // SDR -> Currency
-					List<ExchangeRate> rates = this.sdrToCurrency.get(currency);
+					List<ExchangeRate> rates = newSdrToCurrency.get(currency);
 					if (rates == null) {
 						rates = new ArrayList<ExchangeRate>(5);
 						newSdrToCurrency.put(currency, rates);
@@ -216,14 +281,19 @@ public class IMFConversionProvider implements ConversionProvider {
 			}
 			line = pr.readLine();
 		}
-		for (List<ExchangeRate> rateList : newSdrToCurrency.values()) {
-			Collections.sort(rateList);
-		}
-		for (List<ExchangeRate> rateList : newCurrencyToSdr.values()) {
-			Collections.sort(rateList);
+		this.rates = new Rates(index(newCurrencyToSdr),
+				index(newSdrToCurrency));
+		this.ratesVersion.incrementAndGet();
+	}
+
+	private static Map<CurrencyUnit, RateIntervals> index(
+			Map<CurrencyUnit, List<ExchangeRate>> rates) {
+		Map<CurrencyUnit, RateIntervals> result = new CurrencyMap<RateIntervals>();
+		for (Map.Entry<CurrencyUnit, List<ExchangeRate>> entry : rates
+				.entrySet()) {
+			result.put(entry.getKey(), new RateIntervals(entry.getValue()));
 		}
-		this.sdrToCurrency = newSdrToCurrency;
-		this.currencyToSdr = newCurrencyToSdr;
+		return result;
 	}
 
 	private Double[] parseValues(NumberFormat f, String[] parts)
@@ -251,19 +321,45 @@ public class IMFConversionProvider implements ConversionProvider {
 		return dates;
 	}
 
+	/**
+	 * Defines, how long a rate may have expired, to be returned for a
+	 * timestamp without a valid rate, e.g. for the current rates, if no rates
+	 * were published yet for today.
+	 * 
+	 * @param maxAge
+	 *            the maximal number of milliseconds, 0 to only return valid
+	 *            rates, or {@link Long#MAX_VALUE} to return the latest rate
+	 *            published before the timestamp, which is the default.
+	 */
+	public void setMaxFallbackAge(long maxAge) {
+		if (maxAge < 0) {
+			throw new IllegalArgumentException("Invalid max age: " + maxAge);
+		}
+		this.maxFallbackAge = maxAge;
+		// the rates returned change, so derived data must be refreshed
+		this.ratesVersion.incrementAndGet();
+	}
+
 	protected ExchangeRate getExchangeRateInternal(CurrencyUnit base,
 			CurrencyUnit term,
 			Long timestamp) {
-		ExchangeRate rate1 = lookupRate(currencyToSdr.get(base), timestamp);
-		ExchangeRate rate2 = lookupRate(sdrToCurrency.get(term), timestamp);
+		long ts = timestamp == null ? System.currentTimeMillis() : timestamp
+				.longValue();
+		Rates rates = this.rates;
+		RateIntervals toSdr = rates.currencyToSdr.get(base);
+		RateIntervals fromSdr = rates.sdrToCurrency.get(term);
+		int index1 = indexOf(toSdr, ts);
+		int index2 = indexOf(fromSdr, ts);
 		if (base.equals(SDR)) {
-			return rate2;
+			return index2 < 0 ? null : fromSdr.get(index2);
 		} else if (term.equals(SDR)) {
-			return rate1;
+			return index1 < 0 ? null : toSdr.get(index1);
 		}
-		if (rate1 == null || rate2 == null) {
+		if (index1 < 0 || index2 < 0) {
 			return null;
 		}
+		ExchangeRate rate1 = toSdr.get(index1);
+		ExchangeRate rate2 = fromSdr.get(index2);
 		ExchangeRate.Builder builder = new ExchangeRate.Builder();
 		builder.setProvider(providerUrl);
 		builder.setExchangeRateType(RATE_TYPE);
@@ -278,20 +374,47 @@ public class IMFConversionProvider implements ConversionProvider {
 		return builder.build();
 	}
 
-	private ExchangeRate lookupRate(List<ExchangeRate> list, Long timestamp) {
-		if (list == null) {
-			return null;
+	/**
+	 * Checks, if a rate is available, without creating it.
+	 */
+	private boolean isAvailableInternal(CurrencyUnit base, CurrencyUnit term,
+			long timestamp) {
+		Rates rates = this.rates;
+		if (base.equals(SDR)) {
+			return indexOf(rates.sdrToCurrency.get(term), timestamp) >= 0;
 		}
-		ExchangeRate found = null;
-		for (ExchangeRate rate : list) {
-			if (rate.isValid(timestamp)) {
-				return rate;
-			}
-			if (found == null) {
-				found = rate;
-			}
+		if (indexOf(rates.currencyToSdr.get(base), timestamp) < 0) {
+			return false;
+		}
+		return term.equals(SDR)
+				|| indexOf(rates.sdrToCurrency.get(term), timestamp) >= 0;
+	}
+
+	private int indexOf(RateIntervals rates, long timestamp) {
+		if (rates == null) {
+			return -1;
 		}
-		return found;
+		return rates.indexOf(timestamp, this.maxFallbackAge);
+	}
+
+	/**
+	 * The rates of all currencies to and from <i>SDR</i>, published together.
+	 */
+	private static final class Rates {
+
+		final Map<CurrencyUnit, RateIntervals> currencyToSdr;
+		final Map<CurrencyUnit, RateIntervals> sdrToCurrency;
+
+		Rates(Map<CurrencyUnit, RateIntervals> currencyToSdr,
+				Map<CurrencyUnit, RateIntervals> sdrToCurrency) {
+			this.currencyToSdr = currencyToSdr;
+			this.sdrToCurrency = sdrToCurrency;
+		}
+	}
+
+	@Override
+	public long getRatesVersion() {
+		return this.ratesVersion.get();
 	}
 
 	@Override
@@ -301,13 +424,13 @@ public class IMFConversionProvider implements ConversionProvider {
 
 	@Override
 	public boolean isAvailable(CurrencyUnit src, CurrencyUnit target) {
-		return getExchangeRateInternal(src, target, null) != null;
+		return isAvailableInternal(src, target, System.currentTimeMillis());
 	}
 
 	@Override
 	public boolean isAvailable(CurrencyUnit src, CurrencyUnit target,
 			long timestamp) {
-		return getExchangeRate(src, target, timestamp) != null;
+		return isAvailableInternal(src, target, timestamp);
 	}
 
 	@Override
@@ -317,7 +440,7 @@ public class IMFConversionProvider implements ConversionProvider {
 
 	@Override
 	public ExchangeRate getReversed(ExchangeRate rate) {
-		return getExchangeRate(rate.getTerm(), rate.getBase(),
+		return getExchangeRateInternal(rate.getTerm(), rate.getBase(),
 				rate.getValidFromTimeInMillis());
 	}
 
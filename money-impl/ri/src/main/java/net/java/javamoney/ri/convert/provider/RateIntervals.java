@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2012, 2013, Credit Suisse (Anatole Tresch), Werner Keil.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * Contributors: Anatole Tresch - initial implementation.
+ */
+package net.java.javamoney.ri.convert.provider;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import javax.money.convert.ExchangeRate;
+
+/**
+ * Immutable index of the rates of a single currency pair by their validity
+ * interval, e.g. the daily rates of a currency to the IMF <i>SDR</i>.
+ * <p>
+ * The rates are sorted by the start of their validity, which is held in a
+ * {@code long} array together with the end of their validity, so a rate is
+ * looked up by binary search without boxing. Open bounds are represented by
+ * {@link Long#MIN_VALUE} and {@link Long#MAX_VALUE}. If intervals overlap,
+ * the valid rate starting last wins, e.g. a rate valid for a day overrides an
+ * open-ended rate for that day only.
+ *
+ * @author Anatole Tresch
+ */
+final class RateIntervals {
+
+	/** Orders rates by the start of their validity, open starts first. */
+	private static final Comparator<ExchangeRate> VALID_FROM_ORDER = new Comparator<ExchangeRate>() {
+		@Override
+		public int compare(ExchangeRate o1, ExchangeRate o2) {
+			long from1 = validFromOf(o1);
+			long from2 = validFromOf(o2);
+			return from1 < from2 ? -1 : (from1 == from2 ? 0 : 1);
+		}
+	};
+
+	/** The rates, sorted by the start of their validity. */
+	private final ExchangeRate[] rates;
+	/** The start of the validity, by position. */
+	private final long[] validFrom;
+	/** The end of the validity, inclusive, by position. */
+	private final long[] validTo;
+	/**
+	 * The position of the nearest earlier rate ending after the rate at each
+	 * position, or -1.
+	 */
+	private final int[] outer;
+
+	/**
+	 * Creates a new index.
+	 *
+	 * @param rates
+	 *            the rates of a currency pair, not null.
+	 */
+	RateIntervals(List<ExchangeRate> rates) {
+		this.rates = rates.toArray(new ExchangeRate[rates.size()]);
+		Arrays.sort(this.rates, VALID_FROM_ORDER);
+		this.validFrom = new long[this.rates.length];
+		this.validTo = new long[this.rates.length];
+		this.outer = new int[this.rates.length];
+		// the positions of the rates not ended by a later rate, latest on top
+		int[] stack = new int[this.rates.length];
+		int top = -1;
+		for (int i = 0; i < this.rates.length; i++) {
+			this.validFrom[i] = validFromOf(this.rates[i]);
+			Long to = this.rates[i].getValidToTimeInMillis();
+			this.validTo[i] = to == null ? Long.MAX_VALUE : to.longValue();
+			while (top >= 0 && this.validTo[stack[top]] <= this.validTo[i]) {
+				top--;
+			}
+			this.outer[i] = top < 0 ? -1 : stack[top];
+			stack[++top] = i;
+		}
+	}
+
+	/**
+	 * Evaluates the position of the rate valid at the given timestamp.
+	 *
+	 * @param timestamp
+	 *            the timestamp.
+	 * @param maxAge
+	 *            the maximal number of milliseconds the rate's validity may
+	 *            have ended before the timestamp, if no rate is valid, 0 for
+	 *            an exact match only.
+	 * @return the position of the rate valid at the timestamp, or of the rate
+	 *         starting last, if it ended at most {@code maxAge} before it, or
+	 *         -1.
+	 */
+	int indexOf(long timestamp, long maxAge) {
+		int low = 0;
+		int high = this.validFrom.length - 1;
+		// find the last rate starting at or before the timestamp
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			if (this.validFrom[mid] <= timestamp) {
+				low = mid + 1;
+			} else {
+				high = mid - 1;
+			}
+		}
+		if (high < 0) {
+			return -1;
+		}
+		// the rates between a rate and its outer rate end before it, so only
+		// the outer rates may still be valid, e.g. an open-ended one
+		for (int i = high; i >= 0; i = this.outer[i]) {
+			if (this.validTo[i] >= timestamp) {
+				return i;
+			}
+		}
+		if (maxAge == Long.MAX_VALUE
+				|| timestamp - this.validTo[high] <= maxAge) {
+			return high;
+		}
+		return -1;
+	}
+
+	/**
+	 * Access the rate at the given position.
+	 *
+	 * @param index
+	 *            the position, as returned by {@link #indexOf(long, long)}.
+	 * @return the rate.
+	 */
+	ExchangeRate get(int index) {
+		return this.rates[index];
+	}
+
+	/**
+	 * Access the number of rates.
+	 *
+	 * @return the number of rates.
+	 */
+	int size() {
+		return this.rates.length;
+	}
+
+	private static long validFromOf(ExchangeRate rate) {
+		Long from = rate.getValidFromTimeInMillis();
+		return from == null ? Long.MIN_VALUE : from.longValue();
+	}
+
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2012, 2013, Credit Suisse (Anatole Tresch), Werner Keil.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * Contributors: Anatole Tresch - initial implementation.
+ */
+package net.java.javamoney.ri.convert.provider;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Runs the loading of rate data feeds in the background, so creating a
+ * provider, e.g. by {@link java.util.ServiceLoader}, does not block on remote
+ * I/O.
+ *
+ * @author Anatole Tresch
+ */
+final class RateLoading {
+
+	/** The source reading the data feeds from their URL. */
+	static final Source URL_SOURCE = new Source() {
+		@Override
+		public InputStream open(String url) throws IOException {
+			return new URL(url).openStream();
+		}
+	};
+
+	/**
+	 * Singleton constructor.
+	 */
+	private RateLoading() {
+	}
+
+	/**
+	 * Starts a loader on a new daemon thread.
+	 *
+	 * @param name
+	 *            the name of the thread.
+	 * @param loader
+	 *            the loader, not null.
+	 * @return the future completed, when the loader has finished, or
+	 *         completed exceptionally, if the loader failed.
+	 */
+	static Future<Void> start(String name, Callable<Void> loader) {
+		FutureTask<Void> task = new FutureTask<Void>(loader);
+		Thread thread = new Thread(task, name);
+		thread.setDaemon(true);
+		thread.start();
+		return task;
+	}
+
+	/**
+	 * Opens the data feeds, e.g. to read them from the network.
+	 */
+	interface Source {
+
+		/**
+		 * Opens a data feed.
+		 *
+		 * @param url
+		 *            the URL of the feed, not null.
+		 * @return the stream of the feed data, to be closed by the caller.
+		 * @throws IOException
+		 *             if the feed cannot be opened.
+		 */
+		InputStream open(String url) throws IOException;
+
+	}
+
+}
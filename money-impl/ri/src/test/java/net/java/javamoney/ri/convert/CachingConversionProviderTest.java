@@ -0,0 +1,222 @@
+/*
+ *  Copyright (c) 2012, 2013, Credit Suisse (Anatole Tresch), Werner Keil.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ * Contributors:
+ *    Anatole Tresch - initial implementation
+ */
+package net.java.javamoney.ri.convert;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.math.BigDecimal;
+
+import javax.money.CurrencyUnit;
+import javax.money.MoneyCurrency;
+import javax.money.convert.CurrencyConverter;
+import javax.money.convert.ExchangeRate;
+import javax.money.convert.ExchangeRateType;
+
+import org.junit.Test;
+
+/**
+ * Tests for the {@link CachingConversionProvider} class.
+ *
+ * @author Anatole Tresch
+ */
+public class CachingConversionProviderTest {
+
+	private static final ExchangeRateType TYPE = ExchangeRateType.of("test");
+	private static final CurrencyUnit EUR = MoneyCurrency.of("EUR");
+	private static final CurrencyUnit USD = MoneyCurrency.of("USD");
+	private static final CurrencyUnit XAU = MoneyCurrency.of("XAU");
+	private static final long DAY = 24L * 60 * 60 * 1000;
+
+	/**
+	 * Provider with a rate from EUR to USD, counting the lookups.
+	 */
+	private static final class CountingProvider implements
+			ReloadableConversionProvider {
+
+		int lookups;
+		int reversals;
+		long version;
+
+		@Override
+		public long getRatesVersion() {
+			return version;
+		}
+
+		@Override
+		public ExchangeRateType getExchangeRateType() {
+			return TYPE;
+		}
+
+		@Override
+		public boolean isAvailable(CurrencyUnit base, CurrencyUnit term) {
+			return getExchangeRate(base, term) != null;
+		}
+
+		@Override
+		public boolean isAvailable(CurrencyUnit base, CurrencyUnit term,
+				long timestamp) {
+			return getExchangeRate(base, term, timestamp) != null;
+		}
+
+		@Override
+		public ExchangeRate getExchangeRate(CurrencyUnit base,
+				CurrencyUnit term, long timestamp) {
+			return getExchangeRate(base, term);
+		}
+
+		@Override
+		public ExchangeRate getExchangeRate(CurrencyUnit base, CurrencyUnit term) {
+			lookups++;
+			if (!base.equals(EUR) || !term.equals(USD)) {
+				return null;
+			}
+			return new ExchangeRate(TYPE, base, term, new BigDecimal("1.3"),
+					"test", null, null);
+		}
+
+		@Override
+		public ExchangeRate getReversed(ExchangeRate rate) {
+			reversals++;
+			return new ExchangeRate(TYPE, rate.getTerm(), rate.getBase(),
+					BigDecimal.ONE, "reversed", null, null);
+		}
+
+		@Override
+		public CurrencyConverter getConverter() {
+			return null;
+		}
+	}
+
+	/**
+	 * Clock, which is only advanced by the test.
+	 */
+	private static final class ManualClock implements
+			CachingConversionProvider.Clock {
+
+		long millis;
+
+		@Override
+		public long currentTimeMillis() {
+			return millis;
+		}
+	}
+
+	@Test
+	public void testCachesRatesAndMisses() {
+		CountingProvider provider = new CountingProvider();
+		CachingConversionProvider cache = new CachingConversionProvider(
+				provider, 0, 10);
+		ExchangeRate rate = cache.getExchangeRate(EUR, USD);
+		assertSame(rate, cache.getExchangeRate(EUR, USD));
+		assertFalse(cache.isAvailable(EUR, XAU));
+		assertFalse(cache.isAvailable(EUR, XAU));
+		assertEquals(2, provider.lookups);
+		assertEquals(2, cache.getHitCount());
+		assertEquals(2, cache.getMissCount());
+		// same day bucket
+		ExchangeRate historic = cache.getExchangeRate(EUR, USD, 15000 * DAY);
+		assertSame(historic, cache.getExchangeRate(EUR, USD,
+				15000 * DAY + DAY - 1));
+		cache.getExchangeRate(EUR, USD, 15001 * DAY);
+		assertEquals(4, provider.lookups);
+		assertEquals(4, cache.getSize());
+	}
+
+	@Test
+	public void testInvalidation() {
+		CountingProvider provider = new CountingProvider();
+		CachingConversionProvider cache = new CachingConversionProvider(
+				provider, 0, 10);
+		cache.getExchangeRate(EUR, USD);
+		provider.version++;
+		cache.getExchangeRate(EUR, USD);
+		assertEquals(2, provider.lookups);
+		cache.clear();
+		assertEquals(0, cache.getSize());
+		assertNull(cache.getExchangeRate(USD, EUR));
+		assertEquals(3, provider.lookups);
+		// a lower version, e.g. read before a reload, keeps the cache
+		provider.version = 5;
+		ExchangeRate rate = cache.getExchangeRate(EUR, USD);
+		provider.version = 4;
+		assertSame(rate, cache.getExchangeRate(EUR, USD));
+		assertEquals(4, provider.lookups);
+	}
+
+	@Test
+	public void testReversedByProvider() {
+		CountingProvider provider = new CountingProvider();
+		CachingConversionProvider cache = new CachingConversionProvider(
+				provider, 0, 10);
+		ExchangeRate reversed = cache.getReversed(cache.getExchangeRate(EUR,
+				USD));
+		assertEquals(1, provider.reversals);
+		assertEquals(USD, reversed.getBase());
+		assertEquals(EUR, reversed.getTerm());
+		assertEquals("reversed", reversed.getProvider());
+		assertEquals(1, provider.lookups);
+	}
+
+	@Test
+	public void testEviction() {
+		CountingProvider provider = new CountingProvider();
+		CachingConversionProvider cache = new CachingConversionProvider(
+				provider, 0, 2);
+		cache.getExchangeRate(EUR, USD, 0);
+		cache.getExchangeRate(EUR, USD, DAY);
+		cache.getExchangeRate(EUR, USD, 0);
+		cache.getExchangeRate(EUR, USD, 2 * DAY);
+		assertEquals(2, cache.getSize());
+		// day 1 was least recently used
+		cache.getExchangeRate(EUR, USD, 0);
+		cache.getExchangeRate(EUR, USD, DAY);
+		assertEquals(4, provider.lookups);
+	}
+
+	@Test
+	public void testExpiry() {
+		CountingProvider provider = new CountingProvider();
+		ManualClock clock = new ManualClock();
+		CachingConversionProvider cache = new CachingConversionProvider(
+				provider, 100, 2, clock);
+		ExchangeRate rate = cache.getExchangeRate(EUR, USD);
+		clock.millis = 99;
+		assertSame(rate, cache.getExchangeRate(EUR, USD));
+		clock.millis = 100;
+		assertNotSame(rate, cache.getExchangeRate(EUR, USD));
+		assertEquals(1, cache.getHitCount());
+		assertEquals(2, provider.lookups);
+		// expired entries are replaced, not added
+		assertEquals(1, cache.getSize());
+		clock.millis = 199;
+		cache.getExchangeRate(EUR, USD);
+		assertEquals(2, cache.getHitCount());
+
+		CachingConversionProvider unlimited = new CachingConversionProvider(
+				provider, 0, 2, clock);
+		rate = unlimited.getExchangeRate(EUR, USD);
+		clock.millis = Long.MAX_VALUE;
+		assertSame(rate, unlimited.getExchangeRate(EUR, USD));
+	}
+
+}
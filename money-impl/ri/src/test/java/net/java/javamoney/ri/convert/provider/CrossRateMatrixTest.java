@@ -0,0 +1,128 @@
+/*
+ *  Copyright (c) 2012, 2013, Credit Suisse (Anatole Tresch), Werner Keil.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ * Contributors:
+ *    Anatole Tresch - initial implementation
+ */
+package net.java.javamoney.ri.convert.provider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+
+import javax.money.CurrencyUnit;
+import javax.money.MoneyCurrency;
+import javax.money.convert.ExchangeRate;
+import javax.money.convert.ExchangeRateType;
+
+import org.junit.Test;
+
+/**
+ * Tests for the {@link CrossRateMatrix} class.
+ *
+ * @author Anatole Tresch
+ */
+public class CrossRateMatrixTest {
+
+	private static final ExchangeRateType TYPE = ExchangeRateType.of("test");
+	private static final CurrencyUnit EUR = MoneyCurrency.of("EUR");
+	private static final CurrencyUnit USD = MoneyCurrency.of("USD");
+	private static final CurrencyUnit JPY = MoneyCurrency.of("JPY");
+	private static final CurrencyUnit CHF = MoneyCurrency.of("CHF");
+	private static final Long VALID_FROM = Long.valueOf(86400000L * 15000);
+
+	private static ExchangeRate rate(CurrencyUnit term, String factor) {
+		return new ExchangeRate.Builder().setExchangeRateType(TYPE)
+				.setBase(EUR).setTerm(term).setFactor(new BigDecimal(factor))
+				.setProvider("test").setValidFrom(VALID_FROM).build();
+	}
+
+	private static CrossRateMatrix matrix(boolean precompute) {
+		return new CrossRateMatrix(EUR, new ExchangeRate[] {
+				rate(USD, "1.25"), rate(JPY, "125") }, TYPE, "test",
+				VALID_FROM, precompute);
+	}
+
+	@Test
+	public void testRates() {
+		for (boolean precompute : new boolean[] { false, true }) {
+			CrossRateMatrix matrix = matrix(precompute);
+			assertEquals(3, matrix.size());
+			assertEquals(BigDecimal.ONE, matrix.getRate(EUR, EUR).getFactor());
+			assertEquals(new BigDecimal("1.25"), matrix.getRate(EUR, USD)
+					.getFactor());
+			assertEquals(0, new BigDecimal("0.8").compareTo(matrix.getRate(
+					USD, EUR).getFactor()));
+			ExchangeRate cross = matrix.getRate(USD, JPY);
+			assertEquals(USD, cross.getBase());
+			assertEquals(JPY, cross.getTerm());
+			assertEquals(0, new BigDecimal("100").compareTo(cross.getFactor()));
+			assertTrue(cross.isDerived());
+			assertEquals(2, cross.getExchangeRateChain().size());
+			assertSame(matrix.getRate(EUR, JPY), cross.getExchangeRateChain()
+					.get(1));
+			assertEquals(VALID_FROM, cross.getValidFromTimeInMillis());
+			assertSame(cross, matrix.getRate(USD, JPY));
+			assertEquals(0, BigDecimal.ONE.compareTo(matrix.getRate(JPY, JPY)
+					.getFactor()));
+			assertNull(matrix.getRate(USD, CHF));
+			assertNull(matrix.getRate(CHF, EUR));
+		}
+	}
+
+	@Test
+	public void testRatesOfDay() {
+		int day = 15000;
+		EpochDayRates rates = new EpochDayRates.Builder()
+				.put(day, USD, 1.25).put(day, JPY, 125)
+				.put(day + 1, USD, 1.5).build();
+		for (boolean precompute : new boolean[] { false, true }) {
+			CrossRateMatrix matrix = new CrossRateMatrix(EUR, rates, day, TYPE,
+					"test", precompute);
+			assertEquals(3, matrix.size());
+			assertEquals(VALID_FROM, matrix.getValidFrom());
+			ExchangeRate reference = matrix.getRate(EUR, USD);
+			assertEquals(new BigDecimal("1.25"), reference.getFactor());
+			assertEquals(VALID_FROM, reference.getValidFromTimeInMillis());
+			assertEquals("test", reference.getProvider());
+			ExchangeRate cross = matrix.getRate(JPY, USD);
+			assertEquals(0, new BigDecimal("0.01").compareTo(cross
+					.getFactor()));
+			assertSame(reference, cross.getExchangeRateChain().get(1));
+			assertNull(matrix.getRate(CHF, USD));
+		}
+		CrossRateMatrix next = new CrossRateMatrix(EUR, rates, day + 1, TYPE,
+				"test", false);
+		assertEquals(2, next.size());
+		assertEquals(new BigDecimal("1.5"), next.getRate(EUR, USD)
+				.getFactor());
+		assertNull(next.getRate(EUR, JPY));
+	}
+
+	@Test
+	public void testDuplicateTerms() {
+		CrossRateMatrix matrix = new CrossRateMatrix(EUR, new ExchangeRate[] {
+				rate(USD, "1.25"), rate(USD, "1.5") }, TYPE, "test", null,
+				false);
+		assertEquals(2, matrix.size());
+		assertEquals(new BigDecimal("1.5"), matrix.getRate(EUR, USD)
+				.getFactor());
+		assertNull(matrix.getRate(USD, USD).getValidFromTimeInMillis());
+	}
+
+}
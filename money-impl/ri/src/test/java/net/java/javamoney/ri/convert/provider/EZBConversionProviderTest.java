@@ -0,0 +1,153 @@
+/*
+ *  Copyright (c) 2012, 2013, Credit Suisse (Anatole Tresch), Werner Keil.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ * Contributors:
+ *    Anatole Tresch - initial implementation
+ */
+package net.java.javamoney.ri.convert.provider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.money.CurrencyUnit;
+import javax.money.MoneyCurrency;
+import javax.money.convert.ExchangeRate;
+
+import net.java.javamoney.ri.convert.provider.EZBConversionProvider.DataFeed;
+
+import org.junit.Test;
+
+/**
+ * Tests for the {@link EZBConversionProvider} class, reading the feeds from a
+ * {@link TestSource}.
+ *
+ * @author Anatole Tresch
+ */
+public class EZBConversionProviderTest {
+
+	private static final CurrencyUnit EUR = MoneyCurrency.of("EUR");
+	private static final CurrencyUnit USD = MoneyCurrency.of("USD");
+	/** Noon of the day of the feed, 2013-02-19, in UTC. */
+	private static final long FEED_TIME = 15755L * 24 * 60 * 60 * 1000 + 12L
+			* 60 * 60 * 1000;
+	private static final String FEED = "<gesmes:Envelope "
+			+ "xmlns:gesmes=\"http://www.gesmes.org/xml/2002-08-01\" "
+			+ "xmlns=\"http://www.ecb.int/vocabulary/2002-08-01/eurofxref\">"
+			+ "<Cube><Cube time=\"2013-02-19\">"
+			+ "<Cube currency=\"USD\" rate=\"1.3349\"/>"
+			+ "<Cube currency=\"JPY\" rate=\"124.81\"/>"
+			+ "</Cube></Cube></gesmes:Envelope>";
+
+	@Test
+	public void testConstructorDoesNotBlock() throws Exception {
+		TestSource source = new TestSource(FEED, true);
+		EZBConversionProvider provider = new EZBConversionProvider(source);
+		Future<Void> loading = provider.getInitialLoading();
+		assertFalse(loading.isDone());
+		assertNull(provider.getExchangeRate(EUR, USD));
+		source.release();
+		assertNull(loading.get(10, TimeUnit.SECONDS));
+		assertEquals(new BigDecimal("1.3349"),
+				provider.getExchangeRate(EUR, USD).getFactor());
+	}
+
+	@Test
+	public void testFailedReloadKeepsRates() throws Exception {
+		TestSource source = new TestSource(FEED, false);
+		EZBConversionProvider provider = new EZBConversionProvider(source);
+		provider.getInitialLoading().get(10, TimeUnit.SECONDS);
+		ExchangeRate rate = provider.getExchangeRate(EUR, USD);
+		assertNotNull(rate);
+		long version = provider.getRatesVersion();
+
+		source.setData(null);
+		assertFailed(provider.loadRatesAsync(DataFeed.DAILY));
+		source.setData("<gesmes:Envelope><Cube>");
+		IOException error = assertFailed(provider.loadRatesAsync(
+				DataFeed.DAILY, DataFeed.LAST_90_DAYS));
+		assertEquals(1, error.getSuppressed().length);
+		assertSame(rate, provider.getExchangeRate(EUR, USD));
+		assertEquals(version, provider.getRatesVersion());
+	}
+
+	@Test
+	public void testFailedFeedDoesNotStopOthers() throws Exception {
+		TestSource source = new TestSource(FEED, false);
+		source.setFailing(DataFeed.DAILY.getUrl());
+		EZBConversionProvider provider = new EZBConversionProvider(source);
+		IOException error = assertFailed(provider.getInitialLoading());
+		assertEquals(0, error.getSuppressed().length);
+		assertNull(provider.getExchangeRate(EUR, USD));
+		// the rates of the last 90 days were loaded anyway
+		ExchangeRate historic = provider.getExchangeRate(EUR, USD, FEED_TIME);
+		assertEquals(new BigDecimal("1.3349"), historic.getFactor());
+	}
+
+	@Test
+	public void testHistoricRatesPerDay() throws Exception {
+		EZBConversionProvider provider = new EZBConversionProvider(
+				new TestSource(null, false));
+		assertFailed(provider.getInitialLoading());
+		int day = EpochDayRates.epochDay(FEED_TIME);
+		EpochDayRates.Builder rates = new EpochDayRates.Builder();
+		// two days sharing a cache slot
+		rates.put(day, USD, 1.25).put(day + 1024, USD, 1.5);
+		provider.addHistoricRates(rates.build());
+		ExchangeRate rate = provider.getExchangeRate(EUR, USD, FEED_TIME);
+		assertEquals(new BigDecimal("1.25"), rate.getFactor());
+		assertSame(rate, provider.getExchangeRate(EUR, USD, FEED_TIME));
+		assertEquals(new BigDecimal("1.5"), provider.getExchangeRate(EUR,
+				USD, FEED_TIME + 1024 * 86400000L).getFactor());
+		assertEquals(rate.getFactor(),
+				provider.getExchangeRate(EUR, USD, FEED_TIME).getFactor());
+		assertNull(provider.getExchangeRate(EUR, USD, FEED_TIME + 86400000L));
+	}
+
+	@Test
+	public void testFailedInitialLoading() throws Exception {
+		EZBConversionProvider provider = new EZBConversionProvider(
+				new TestSource(null, false));
+		assertFailed(provider.getInitialLoading());
+		assertNull(provider.getExchangeRate(EUR, USD));
+		assertEquals(0, provider.getRatesVersion());
+	}
+
+	private static IOException assertFailed(Future<Void> loading)
+			throws InterruptedException {
+		try {
+			loading.get(10, TimeUnit.SECONDS);
+			fail("Loading should fail.");
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof IOException);
+			return (IOException) e.getCause();
+		} catch (TimeoutException e) {
+			fail("Loading did not complete.");
+		}
+		return null;
+	}
+
+}
@@ -0,0 +1,90 @@
+/*
+ *  Copyright (c) 2012, 2013, Credit Suisse (Anatole Tresch), Werner Keil.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ * Contributors:
+ *    Anatole Tresch - initial implementation
+ */
+package net.java.javamoney.ri.convert.provider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import javax.money.CurrencyUnit;
+import javax.money.MoneyCurrency;
+
+import org.junit.Test;
+
+/**
+ * Tests for the {@link EpochDayRates} class.
+ * 
+ * @author Anatole Tresch
+ */
+public class EpochDayRatesTest {
+
+	private static final CurrencyUnit USD = MoneyCurrency.of("USD");
+	private static final CurrencyUnit CHF = MoneyCurrency.of("CHF");
+
+	@Test
+	public void testEpochDay() {
+		assertEquals(0, EpochDayRates.epochDay(0L));
+		assertEquals(0, EpochDayRates.epochDay(86399999L));
+		assertEquals(1, EpochDayRates.epochDay(86400000L));
+		assertEquals(-1, EpochDayRates.epochDay(-1L));
+		assertEquals(86400000L * 15000, EpochDayRates.startOfDay(15000));
+	}
+
+	@Test
+	public void testLookup() {
+		// built in descending order, as the feeds list the newest day first
+		EpochDayRates.Builder builder = new EpochDayRates.Builder();
+		for (int day = 16000; day >= 10592; day--) {
+			if (day % 7 < 5) {
+				builder.put(day, USD, 1d + day / 100000d);
+			}
+		}
+		builder.put(12000, CHF, 1.5d);
+		EpochDayRates rates = builder.build();
+		assertEquals(1d + 15001 / 100000d, rates.getFactor(15001, USD), 0d);
+		assertEquals(1d + 10592 / 100000d, rates.getFactor(10592, USD), 0d);
+		assertTrue(Double.isNaN(rates.getFactor(15006, USD)));
+		assertFalse(rates.containsDay(15006));
+		assertFalse(rates.containsDay(10591));
+		assertFalse(rates.containsDay(16001));
+		assertEquals(1.5d, rates.getFactor(12000, CHF), 0d);
+		assertTrue(Double.isNaN(rates.getFactor(12001, CHF)));
+		assertTrue(Double.isNaN(rates.getFactor(12000,
+				MoneyCurrency.of("JPY"))));
+		assertTrue(rates.getDayCount() > 3800);
+	}
+
+	@Test
+	public void testMerge() {
+		EpochDayRates first = new EpochDayRates.Builder().put(100, USD, 1d)
+				.put(101, USD, 2d).build();
+		EpochDayRates second = new EpochDayRates.Builder().put(101, USD, 3d)
+				.put(50, CHF, 4d).build();
+		EpochDayRates merged = new EpochDayRates.Builder(first).putAll(second)
+				.build();
+		assertEquals(1d, merged.getFactor(100, USD), 0d);
+		assertEquals(3d, merged.getFactor(101, USD), 0d);
+		assertEquals(4d, merged.getFactor(50, CHF), 0d);
+		assertEquals(3, merged.getDayCount());
+		assertEquals(2d, first.getFactor(101, USD), 0d);
+		assertEquals(0, EpochDayRates.EMPTY.getDayCount());
+		assertFalse(EpochDayRates.EMPTY.containsDay(100));
+	}
+
+}
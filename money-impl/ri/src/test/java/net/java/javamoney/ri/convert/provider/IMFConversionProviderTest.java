@@ -0,0 +1,113 @@
+/*
+ *  Copyright (c) 2012, 2013, Credit Suisse (Anatole Tresch), Werner Keil.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ * Contributors:
+ *    Anatole Tresch - initial implementation
+ */
+package net.java.javamoney.ri.convert.provider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.money.CurrencyUnit;
+import javax.money.MoneyCurrency;
+import javax.money.convert.ExchangeRate;
+
+import org.junit.Test;
+
+/**
+ * Tests for the {@link IMFConversionProvider} class, reading the feed from a
+ * {@link TestSource}.
+ *
+ * @author Anatole Tresch
+ */
+public class IMFConversionProviderTest {
+
+	private static final CurrencyUnit EUR = MoneyCurrency.of("EUR");
+	private static final CurrencyUnit USD = MoneyCurrency.of("USD");
+	private static final String FEED = "SDRs per Currency unit (2)\n\n"
+			+ "Currency\tJanuary 31, 2013\n"
+			+ "Euro\t0.8791080000\n"
+			+ "U.S. Dollar\t0.6500000000\n\n"
+			+ "Currency units per SDR(3)\n\n"
+			+ "Currency\tJanuary 31, 2013\n"
+			+ "Euro\t1.137520\n"
+			+ "U.S. Dollar\t1.538460\n";
+
+	@Test
+	public void testConstructorDoesNotBlock() throws Exception {
+		TestSource source = new TestSource(FEED, true);
+		IMFConversionProvider provider = new IMFConversionProvider(source);
+		Future<Void> loading = provider.getInitialLoading();
+		assertFalse(loading.isDone());
+		assertNull(provider.getExchangeRate(EUR, USD));
+		source.release();
+		assertNull(loading.get(10, TimeUnit.SECONDS));
+		assertNotNull(provider.getExchangeRate(EUR, USD));
+	}
+
+	@Test
+	public void testFailedReloadKeepsRates() throws Exception {
+		TestSource source = new TestSource(FEED, false);
+		IMFConversionProvider provider = new IMFConversionProvider(source);
+		provider.getInitialLoading().get(10, TimeUnit.SECONDS);
+		ExchangeRate rate = provider.getExchangeRate(EUR, USD);
+		assertNotNull(rate);
+		long version = provider.getRatesVersion();
+
+		source.setData(null);
+		assertFailed(provider.loadRatesAsync());
+		source.setData("Currency\tnot a date\n");
+		assertFailed(provider.loadRatesAsync());
+		assertEquals(rate.getFactor(), provider.getExchangeRate(EUR, USD)
+				.getFactor());
+		assertEquals(version, provider.getRatesVersion());
+	}
+
+	@Test
+	public void testMaxFallbackAgeChangesVersion() throws Exception {
+		IMFConversionProvider provider = new IMFConversionProvider(
+				new TestSource(FEED, false));
+		provider.getInitialLoading().get(10, TimeUnit.SECONDS);
+		long version = provider.getRatesVersion();
+		provider.setMaxFallbackAge(0);
+		assertTrue(provider.getRatesVersion() > version);
+		// the rates of the feed have expired
+		assertNull(provider.getExchangeRate(EUR, USD));
+	}
+
+	private static void assertFailed(Future<Void> loading)
+			throws InterruptedException {
+		try {
+			loading.get(10, TimeUnit.SECONDS);
+			fail("Loading should fail.");
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof IOException);
+		} catch (TimeoutException e) {
+			fail("Loading did not complete.");
+		}
+	}
+
+}
@@ -0,0 +1,116 @@
+/*
+ *  Copyright (c) 2012, 2013, Credit Suisse (Anatole Tresch), Werner Keil.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ * Contributors:
+ *    Anatole Tresch - initial implementation
+ */
+package net.java.javamoney.ri.convert.provider;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.money.CurrencyUnit;
+import javax.money.MoneyCurrency;
+import javax.money.convert.ExchangeRate;
+import javax.money.convert.ExchangeRateType;
+
+import org.junit.Test;
+
+/**
+ * Tests for the {@link RateIntervals} class.
+ *
+ * @author Anatole Tresch
+ */
+public class RateIntervalsTest {
+
+	private static final ExchangeRateType TYPE = ExchangeRateType.of("test");
+	private static final CurrencyUnit EUR = MoneyCurrency.of("EUR");
+	private static final CurrencyUnit USD = MoneyCurrency.of("USD");
+	private static final long DAY = 24L * 60 * 60 * 1000;
+
+	private static ExchangeRate rate(long from, long to) {
+		return new ExchangeRate(TYPE, EUR, USD, 1.3d, "test", from, to);
+	}
+
+	@Test
+	public void testLookup() {
+		List<ExchangeRate> rates = new ArrayList<ExchangeRate>();
+		// a week of daily rates without the weekend, listed newest first
+		for (int day = 6; day >= 0; day--) {
+			if (day != 4 && day != 5) {
+				rates.add(rate(day * DAY, day * DAY + DAY - 1));
+			}
+		}
+		RateIntervals intervals = new RateIntervals(rates);
+		assertEquals(5, intervals.size());
+		assertEquals(0, intervals.indexOf(0, 0));
+		assertEquals(0, intervals.indexOf(DAY - 1, 0));
+		assertEquals(1, intervals.indexOf(DAY, 0));
+		assertEquals(4, intervals.indexOf(6 * DAY + 5, 0));
+		assertEquals(Long.valueOf(3 * DAY), intervals.get(3)
+				.getValidFromTimeInMillis());
+		// weekend
+		assertEquals(-1, intervals.indexOf(4 * DAY + 5, 0));
+		assertEquals(3, intervals.indexOf(4 * DAY + 5, DAY));
+		assertEquals(-1, intervals.indexOf(5 * DAY + 5, DAY));
+		assertEquals(3, intervals.indexOf(5 * DAY + 5, Long.MAX_VALUE));
+		// before and after the data
+		assertEquals(-1, intervals.indexOf(-1, Long.MAX_VALUE));
+		assertEquals(4, intervals.indexOf(100 * DAY, Long.MAX_VALUE));
+		assertEquals(-1, intervals.indexOf(100 * DAY, 0));
+		assertEquals(-1, new RateIntervals(new ArrayList<ExchangeRate>())
+				.indexOf(0, Long.MAX_VALUE));
+	}
+
+	@Test
+	public void testOverlappingIntervals() {
+		List<ExchangeRate> rates = new ArrayList<ExchangeRate>();
+		rates.add(new ExchangeRate(TYPE, EUR, USD, 1.3d, "test", null, null));
+		rates.add(rate(10 * DAY, 11 * DAY - 1));
+		rates.add(rate(12 * DAY, Long.MAX_VALUE));
+		rates.add(rate(13 * DAY, 14 * DAY - 1));
+		RateIntervals intervals = new RateIntervals(rates);
+		assertEquals(0, intervals.indexOf(5 * DAY, 0));
+		// the rate starting last wins
+		assertEquals(1, intervals.indexOf(10 * DAY + 5, 0));
+		// the open-ended rate is valid again after the daily rate ended
+		assertEquals(0, intervals.indexOf(11 * DAY + 5, 0));
+		assertEquals(2, intervals.indexOf(12 * DAY + 5, 0));
+		assertEquals(3, intervals.indexOf(13 * DAY + 5, 0));
+		assertEquals(2, intervals.indexOf(20 * DAY, 0));
+		assertEquals(2, intervals.indexOf(Long.MAX_VALUE, 0));
+	}
+
+	@Test
+	public void testOpenEndedRateBeforeDailyRates() {
+		List<ExchangeRate> rates = new ArrayList<ExchangeRate>();
+		rates.add(rate(0, Long.MAX_VALUE));
+		// daily rates valid for the first half of each day only
+		for (int day = 1; day <= 1000; day++) {
+			rates.add(rate(day * DAY, day * DAY + DAY / 2 - 1));
+		}
+		RateIntervals intervals = new RateIntervals(rates);
+		assertEquals(1001, intervals.size());
+		assertEquals(0, intervals.indexOf(5, 0));
+		for (int day = 1; day <= 1000; day++) {
+			assertEquals(day, intervals.indexOf(day * DAY + 5, 0));
+			assertEquals(0, intervals.indexOf(day * DAY + DAY / 2, 0));
+		}
+		assertEquals(0, intervals.indexOf(2000 * DAY, 0));
+	}
+
+}
@@ -0,0 +1,93 @@
+/*
+ *  Copyright (c) 2012, 2013, Credit Suisse (Anatole Tresch), Werner Keil.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ * Contributors:
+ *    Anatole Tresch - initial implementation
+ */
+package net.java.javamoney.ri.convert.provider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Tests for the {@link RateLoading} class.
+ *
+ * @author Anatole Tresch
+ */
+public class RateLoadingTest {
+
+	@Test
+	public void testLoadsInBackground() throws Exception {
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final String[] thread = new String[1];
+		final boolean[] daemon = new boolean[1];
+		Future<Void> loading = RateLoading.start("test-loader",
+				new Callable<Void>() {
+					@Override
+					public Void call() {
+						thread[0] = Thread.currentThread().getName();
+						daemon[0] = Thread.currentThread().isDaemon();
+						started.countDown();
+						try {
+							release.await();
+						} catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+						}
+						return null;
+					}
+				});
+		assertTrue(started.await(10, TimeUnit.SECONDS));
+		assertFalse(loading.isDone());
+		release.countDown();
+		assertNull(loading.get(10, TimeUnit.SECONDS));
+		assertTrue(loading.isDone());
+		assertEquals("test-loader", thread[0]);
+		assertTrue(daemon[0]);
+	}
+
+	@Test
+	public void testFailure() throws Exception {
+		final IOException error = new IOException("test");
+		Future<Void> loading = RateLoading.start("test-loader",
+				new Callable<Void>() {
+					@Override
+					public Void call() throws IOException {
+						throw error;
+					}
+				});
+		try {
+			loading.get(10, TimeUnit.SECONDS);
+			fail("Loading should fail.");
+		} catch (ExecutionException e) {
+			assertSame(error, e.getCause());
+		}
+		assertTrue(loading.isDone());
+	}
+
+}
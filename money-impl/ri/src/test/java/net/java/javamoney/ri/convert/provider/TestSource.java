@@ -0,0 +1,111 @@
+/*
+ *  Copyright (c) 2012, 2013, Credit Suisse (Anatole Tresch), Werner Keil.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ * Contributors:
+ *    Anatole Tresch - initial implementation
+ */
+package net.java.javamoney.ri.convert.provider;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Source of data feeds for the provider tests, returning the same data for
+ * all URLs, except failing ones, so no network access is required.
+ *
+ * @author Anatole Tresch
+ */
+final class TestSource implements RateLoading.Source {
+
+	/** Released, when the feeds may be opened. */
+	private final CountDownLatch released = new CountDownLatch(1);
+	/** The data returned, or null, if opening fails. */
+	private volatile String data;
+	/** The URLs failing to open. */
+	private final Set<String> failing = Collections
+			.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+	/**
+	 * Creates a new source.
+	 *
+	 * @param data
+	 *            the data returned, or null, if opening fails.
+	 * @param blocked
+	 *            if true, opening blocks until {@link #release()} is called.
+	 */
+	TestSource(String data, boolean blocked) {
+		this.data = data;
+		if (!blocked) {
+			release();
+		}
+	}
+
+	/**
+	 * Changes the data returned.
+	 *
+	 * @param data
+	 *            the data returned, or null, if opening fails.
+	 */
+	void setData(String data) {
+		this.data = data;
+	}
+
+	/**
+	 * Lets opening the given URL fail.
+	 *
+	 * @param url
+	 *            the URL, not null.
+	 */
+	void setFailing(String url) {
+		this.failing.add(url);
+	}
+
+	/**
+	 * Unblocks opening the feeds.
+	 */
+	void release() {
+		this.released.countDown();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * net.java.javamoney.ri.convert.provider.RateLoading.Source#open(java.lang
+	 * .String)
+	 */
+	@Override
+	public InputStream open(String url) throws IOException {
+		try {
+			this.released.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted.", e);
+		}
+		String current = this.data;
+		if (current == null || this.failing.contains(url)) {
+			throw new IOException("Not available: " + url);
+		}
+		return new ByteArrayInputStream(
+				current.getBytes(StandardCharsets.UTF_8));
+	}
+
+}
@@ -22,16 +22,21 @@ package net.java.javamoney.ri.core;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.math.BigDecimal;
 
 import javax.money.CurrencyUnit;
 import javax.money.MonetaryAmount;
+import javax.money.Money;
 import javax.money.MoneyCurrency;
 
 import net.java.javamoney.ri.IntegralMoney;
+import net.java.javamoney.ri.IntegralMoney.OverflowPolicy;
 
 import org.junit.Test;
 
@@ -94,4 +99,84 @@ public class IntegralMoneyTest {
 		MonetaryAmount result = money1.divideToIntegralValue(5);
 		assertEquals(200L, result.longValue());
 	}
+
+	@Test(expected = ArithmeticException.class)
+	public void testAddOverflow() {
+		IntegralMoney.of(EURO, Long.MAX_VALUE).add(IntegralMoney.of(EURO, 1));
+	}
+
+	@Test(expected = ArithmeticException.class)
+	public void testMultiplyOverflow() {
+		IntegralMoney.of(EURO, Long.MAX_VALUE / 2).multiply(3);
+	}
+
+	@Test
+	public void testOverflowPromotesToMoney() {
+		IntegralMoney max = IntegralMoney.of(EURO, Long.MAX_VALUE,
+				OverflowPolicy.PROMOTE);
+		MonetaryAmount result = max.add(1);
+		assertEquals(Money.class, result.getClass());
+		assertEquals(BigDecimal.valueOf(Long.MAX_VALUE).add(BigDecimal.ONE),
+				result.asType(BigDecimal.class));
+		result = max.multiply(2);
+		assertEquals(Money.class, result.getClass());
+		assertEquals(BigDecimal.valueOf(Long.MAX_VALUE).multiply(
+				BigDecimal.valueOf(2)), result.asType(BigDecimal.class));
+		result = IntegralMoney.of(EURO, Long.MIN_VALUE, OverflowPolicy.PROMOTE)
+				.negate();
+		assertEquals(Money.class, result.getClass());
+		assertEquals(BigDecimal.valueOf(Long.MIN_VALUE).negate(),
+				result.asType(BigDecimal.class));
+		assertEquals(IntegralMoney.class, max.subtract(1).getClass());
+	}
+
+	@Test
+	public void testPow() {
+		assertEquals(1000L, IntegralMoney.of(EURO, 10).pow(3).longValue());
+		assertEquals(1L, IntegralMoney.of(EURO, 10).pow(0).longValue());
+		MonetaryAmount result = IntegralMoney.of(EURO, 10,
+				OverflowPolicy.PROMOTE).pow(20);
+		assertEquals(Money.class, result.getClass());
+		assertEquals(BigDecimal.TEN.pow(20), result.asType(BigDecimal.class));
+	}
+
+	@Test
+	public void testNegate() {
+		assertEquals(-5L, IntegralMoney.of(EURO, 5).negate().longValue());
+		assertEquals(5L, IntegralMoney.of(EURO, -5).negate().longValue());
+		assertEquals(5L, IntegralMoney.of(EURO, -5).abs().longValue());
+	}
+
+	@Test
+	public void testScaleByPowerOfTen() {
+		assertEquals(1200L, IntegralMoney.of(EURO, 12).scaleByPowerOfTen(2)
+				.longValue());
+		assertEquals(12L, IntegralMoney.of(EURO, 1200).scaleByPowerOfTen(-2)
+				.longValue());
+	}
+
+	@Test
+	public void testScaleByPowerOfTenFractional() {
+		for (OverflowPolicy policy : OverflowPolicy.values()) {
+			try {
+				IntegralMoney.of(EURO, 1250, policy).scaleByPowerOfTen(-2);
+				fail("ArithmeticException expected.");
+			} catch (ArithmeticException e) {
+				assertTrue(e.getMessage().startsWith("Fractional result"));
+			}
+		}
+	}
+
+	@Test
+	public void testOfCached() {
+		assertSame(IntegralMoney.of(EURO, 0), IntegralMoney.zero(EURO));
+		assertSame(IntegralMoney.of(EURO, 127), IntegralMoney.of("EUR", 127L));
+		assertEquals(IntegralMoney.of(EURO, 5), IntegralMoney.of(DOLLAR, 5)
+				.from(EURO, 5));
+		assertNotSame(IntegralMoney.of(EURO, 1000), IntegralMoney.of(EURO, 1000));
+		assertEquals(OverflowPolicy.PROMOTE,
+				IntegralMoney.of(EURO, 1, OverflowPolicy.PROMOTE)
+						.getOverflowPolicy());
+	}
+
 }